@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2023 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -12,27 +12,31 @@
  ***************************************************************************/
 package games.stendhal.common;
 
-
-
 import java.awt.geom.Rectangle2D;
-import java.util.BitSet;
+import java.util.Arrays;
 
 import games.stendhal.common.tiled.LayerDefinition;
 
+/**
+ * A bitmap of the blocked tiles of a zone. The rows are stored one after
+ * another in words of 64 tiles, so that the tests for rectangles only need a
+ * few mask operations per row and do not allocate any memory.
+ */
 public class CollisionMap {
+	/** log2 of the number of tiles per word */
+	private static final int WORD_BITS = 6;
 
 	private final int width;
 	private final int height;
-	private final BitSet[] colls;
+	/** number of words per row */
+	private final int stride;
+	private final long[] bits;
 
 	public CollisionMap(final int width, final int height) {
 		this.width = width;
 		this.height = height;
-		colls = new BitSet[width];
-		for (int i = 0; i < width; i++) {
-			colls[i] = new BitSet();
-		}
-
+		stride = (Math.max(width, 0) + 63) >>> WORD_BITS;
+		bits = new long[stride * Math.max(height, 0)];
 	}
 
 	public CollisionMap(final LayerDefinition layer) {
@@ -55,63 +59,97 @@ public class CollisionMap {
 	}
 
 	public boolean get(final int i, final int j) {
-		return colls[i].get(j);
+		if ((i < 0) || (i >= width) || (j < 0) || (j >= height)) {
+			return false;
+		}
+		return (bits[j * stride + (i >>> WORD_BITS)] & (1L << i)) != 0;
 	}
 
 	public void set(final int i, final int j) {
-
-		colls[i].set(j);
+		if ((i < 0) || (i >= width) || (j < 0) || (j >= height)) {
+			return;
+		}
+		bits[j * stride + (i >>> WORD_BITS)] |= 1L << i;
 	}
 
 	public boolean collides(final int x, final int y, final int width, final int height) {
+		return !isFree(x, y, width, height);
+	}
+
+	/**
+	 * Checks whether a rectangle lies completely inside the map and contains
+	 * no blocked tiles.
+	 *
+	 * @param x x coordinate of the left column
+	 * @param y y coordinate of the top row
+	 * @param width width of the rectangle
+	 * @param height height of the rectangle
+	 * @return <code>true</code> if all tiles of the rectangle are free
+	 */
+	public boolean isFree(final int x, final int y, final int width, final int height) {
 		if (x < 0 || x - 1 + width >= this.width) {
-			return true;
+			return false;
 		}
 
 		if (y < 0 || y - 1 + height >= this.height) {
+			return false;
+		}
+
+		if ((width <= 0) || (height <= 0)) {
 			return true;
 		}
 
-		final BitSet result = new BitSet();
-		for (int i = x; i < x + width; i++) {
-			result.or(colls[i]);
+		final int firstWord = x >>> WORD_BITS;
+		final int lastWord = (x + width - 1) >>> WORD_BITS;
+		// Java shifts use the low 6 bits of the distance only
+		final long firstMask = -1L << x;
+		final long lastMask = -1L >>> (63 - ((x + width - 1) & 63));
+
+		int row = y * stride;
+		for (int j = 0; j < height; j++, row += stride) {
+			if (firstWord == lastWord) {
+				if ((bits[row + firstWord] & firstMask & lastMask) != 0) {
+					return false;
+				}
+			} else {
+				if ((bits[row + firstWord] & firstMask) != 0) {
+					return false;
+				}
+				for (int word = firstWord + 1; word < lastWord; word++) {
+					if (bits[row + word] != 0) {
+						return false;
+					}
+				}
+				if ((bits[row + lastWord] & lastMask) != 0) {
+					return false;
+				}
+			}
 		}
 
-		return !result.get(y, y + height).isEmpty();
+		return true;
 	}
 
 	public void clear() {
-		for (int i = 0; i < this.width; i++) {
-			colls[i].clear();
-		}
-
+		Arrays.fill(bits, 0L);
 	}
-	public static CollisionMap create(final LayerDefinition layer) {
 
-		CollisionMap collissionMap = new CollisionMap(layer.getWidth(), layer
-				.getHeight());
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (layer.getTileAt(x, y) != 0) {
-					collissionMap.set(x, y);
-				}
-			}
-		}
-		return collissionMap;
+	public static CollisionMap create(final LayerDefinition layer) {
+		return new CollisionMap(layer);
 	}
 
 	public void unset(final int i, final int k) {
-		colls[i].clear(k);
-
+		if ((i < 0) || (i >= width) || (k < 0) || (k >= height)) {
+			return;
+		}
+		bits[k * stride + (i >>> WORD_BITS)] &= ~(1L << i);
 	}
 
 	public void set(final Rectangle2D shape) {
-		int y = (int) shape.getY();
+		final int y = (int) shape.getY();
 		for (int x = (int) shape.getX(); x < shape.getX() + shape.getWidth(); x++) {
-
-			colls[x].set(y, (int) (y + shape.getHeight()));
+			for (int j = y; j < (int) (y + shape.getHeight()); j++) {
+				set(x, j);
+			}
 		}
-
 	}
-
 }
@@ -16,12 +16,10 @@ import static games.stendhal.common.constants.Actions.INVISIBLE;
 
 import games.stendhal.server.actions.CommandCenter;
 import games.stendhal.server.core.engine.GameEvent;
+import games.stendhal.server.core.engine.PresenceNotifier;
 import games.stendhal.server.core.engine.StendhalRPRuleProcessor;
-import games.stendhal.server.core.engine.dbcommand.SetOnlineStatusCommand;
 import games.stendhal.server.entity.player.Player;
 import marauroa.common.game.RPAction;
-import marauroa.server.db.command.DBCommand;
-import marauroa.server.db.command.DBCommandQueue;
 
 /**
  * changes the ghostmode flag of admins
@@ -47,8 +45,7 @@ public class GhostModeAction extends AdministrationAction {
 		}
 
 		/* Notify database that the player is in Ghost mode */
-		DBCommand command = new SetOnlineStatusCommand(player.getName(), !player.isGhost());
-		DBCommandQueue.get().enqueue(command);
+		PresenceNotifier.get().setOnlineStatus(player.getName(), !player.isGhost());
 
 		/* Notify players about admin going into ghost mode. */
 		StendhalRPRuleProcessor.get().notifyOnlineStatus(!player.isGhost(), player);
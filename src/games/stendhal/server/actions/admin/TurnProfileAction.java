@@ -0,0 +1,86 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.actions.admin;
+
+import static games.stendhal.common.constants.Actions.TARGET;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.server.actions.CommandCenter;
+import games.stendhal.server.core.engine.profiler.TurnProfiler;
+import games.stendhal.server.core.pathfinder.PathRequestService;
+import games.stendhal.server.entity.player.Player;
+import marauroa.common.game.RPAction;
+
+/**
+ * Controls the turn profiler and shows its results.
+ *
+ * <pre>
+ * /turnprofile [on|off|report|zones|listeners|slow|paths|reset|dump]
+ * </pre>
+ */
+public class TurnProfileAction extends AdministrationAction {
+	private static final String TURNPROFILE = "turnprofile";
+
+	/** maximum number of lines in lists */
+	private static final int LIMIT = 15;
+
+	private static Logger logger = Logger.getLogger(TurnProfileAction.class);
+
+	public static void register() {
+		CommandCenter.register(TURNPROFILE, new TurnProfileAction(), 1000);
+	}
+
+	@Override
+	protected void perform(final Player player, final RPAction action) {
+		final TurnProfiler profiler = TurnProfiler.get();
+		String mode = "report";
+		if (action.has(TARGET)) {
+			mode = action.get(TARGET);
+		}
+
+		if ("on".equals(mode)) {
+			profiler.setEnabled(true);
+			player.sendPrivateText("Turn profiler enabled.");
+		} else if ("off".equals(mode)) {
+			profiler.setEnabled(false);
+			player.sendPrivateText("Turn profiler disabled.");
+		} else if ("reset".equals(mode)) {
+			profiler.reset();
+			player.sendPrivateText("Turn profiler data cleared.");
+		} else if ("report".equals(mode)) {
+			player.sendPrivateText(profiler.getReport());
+		} else if ("zones".equals(mode)) {
+			player.sendPrivateText(profiler.getZoneReport(LIMIT));
+		} else if ("listeners".equals(mode)) {
+			player.sendPrivateText(profiler.getListenerReport(LIMIT));
+		} else if ("slow".equals(mode)) {
+			player.sendPrivateText(profiler.getOverBudgetReport(LIMIT));
+		} else if ("paths".equals(mode)) {
+			player.sendPrivateText(PathRequestService.get().getReport());
+		} else if ("dump".equals(mode)) {
+			try {
+				final File file = profiler.dump();
+				player.sendPrivateText("Turn profile written to " + file.getPath());
+			} catch (final IOException e) {
+				logger.error("Error writing turn profile", e);
+				player.sendPrivateText("Error writing turn profile: " + e.getMessage());
+			}
+		} else {
+			player.sendPrivateText("Usage: /turnprofile [on|off|report|zones|listeners|slow|paths|reset|dump]");
+		}
+	}
+
+}
@@ -0,0 +1,399 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import games.stendhal.server.entity.Entity;
+
+/**
+ * A uniform grid of the entities in a zone. The zone is divided into square
+ * cells of CELL_SIZE tiles and every entity is listed in all cells that are
+ * touched by its area, so that queries for entities near a position only
+ * need to look at the cells around it.
+ *
+ * <p>Entities outside of the zone bounds are kept in the border cells. The
+ * grid is not thread safe, the owning zone synchronizes access to it.</p>
+ */
+public final class EntityGrid {
+	/** log2 of the cell size */
+	private static final int CELL_BITS = 3;
+
+	/** edge length of a cell in tiles */
+	public static final int CELL_SIZE = 1 << CELL_BITS;
+
+	/** the cells of the grid in row-major order */
+	private final List<List<Entry>> cells = new ArrayList<List<Entry>>();
+
+	/** cell ranges of the indexed entities */
+	private final Map<Entity, Entry> entries = new IdentityHashMap<Entity, Entry>();
+
+	private int columns;
+	private int rows;
+
+	/**
+	 * Creates a grid covering a single cell. Call <code>setSize</code> once
+	 * the zone size is known.
+	 */
+	public EntityGrid() {
+		setSize(0, 0);
+	}
+
+	/**
+	 * Sets the size of the covered zone. The entities are redistributed if
+	 * the number of cells changes.
+	 *
+	 * @param width zone width in tiles
+	 * @param height zone height in tiles
+	 */
+	public void setSize(final int width, final int height) {
+		final int newColumns = Math.max(1, (width + CELL_SIZE - 1) >> CELL_BITS);
+		final int newRows = Math.max(1, (height + CELL_SIZE - 1) >> CELL_BITS);
+		if ((newColumns == columns) && (newRows == rows)) {
+			return;
+		}
+
+		columns = newColumns;
+		rows = newRows;
+		cells.clear();
+		for (int i = columns * rows; i > 0; i--) {
+			cells.add(new ArrayList<Entry>(2));
+		}
+		for (final Entry entry : entries.values()) {
+			entry.setRange(this);
+			link(entry);
+		}
+	}
+
+	/**
+	 * Adds an entity at its current area.
+	 *
+	 * @param entity entity to add
+	 */
+	public void add(final Entity entity) {
+		if (entries.containsKey(entity)) {
+			update(entity);
+			return;
+		}
+		final Entry entry = new Entry(entity);
+		entry.setRange(this);
+		entries.put(entity, entry);
+		link(entry);
+	}
+
+	/**
+	 * Moves an entity to the cells of its current area.
+	 *
+	 * @param entity entity that moved or changed its size
+	 */
+	public void update(final Entity entity) {
+		final Entry entry = entries.get(entity);
+		if (entry == null) {
+			return;
+		}
+
+		final int minColumn = entry.minColumn;
+		final int minRow = entry.minRow;
+		final int maxColumn = entry.maxColumn;
+		final int maxRow = entry.maxRow;
+		entry.setRange(this);
+		if ((minColumn == entry.minColumn) && (minRow == entry.minRow)
+				&& (maxColumn == entry.maxColumn) && (maxRow == entry.maxRow)) {
+			// Most steps stay inside the same cells
+			return;
+		}
+
+		unlink(entry, minColumn, minRow, maxColumn, maxRow);
+		link(entry);
+	}
+
+	/**
+	 * Removes an entity.
+	 *
+	 * @param entity entity to remove
+	 */
+	public void remove(final Entity entity) {
+		final Entry entry = entries.remove(entity);
+		if (entry != null) {
+			unlink(entry, entry.minColumn, entry.minRow, entry.maxColumn, entry.maxRow);
+		}
+	}
+
+	/**
+	 * Gets the number of indexed entities.
+	 *
+	 * @return number of entities
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Finds the first entity in the cells touched by an area that passes a
+	 * filter. The filter has to check the exact position of the entity,
+	 * because the cells cover more than the area.
+	 *
+	 * @param x x coordinate of the area
+	 * @param y y coordinate of the area
+	 * @param width width of the area
+	 * @param height height of the area
+	 * @param filter filter
+	 * @return entity, or <code>null</code> if none passes the filter
+	 */
+	public Entity find(final double x, final double y, final double width, final double height,
+			final Predicate<? super Entity> filter) {
+		final int minColumn = column(x);
+		final int minRow = row(y);
+		final int maxColumn = column(x + width);
+		final int maxRow = row(y + height);
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				final List<Entry> cell = cells.get(row * columns + column);
+				for (int i = 0; i < cell.size(); i++) {
+					final Entry entry = cell.get(i);
+					if (entry.isFirstCell(column, row, minColumn, minRow)
+							&& filter.test(entry.entity)) {
+						return entry.entity;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Collects the entities of a class in the cells touched by an area that
+	 * pass a filter. The filter has to check the exact position of the
+	 * entity, because the cells cover more than the area.
+	 *
+	 * @param x x coordinate of the area
+	 * @param y y coordinate of the area
+	 * @param width width of the area
+	 * @param height height of the area
+	 * @param clazz class of the entities
+	 * @param filter filter
+	 * @param result list to add the entities to
+	 */
+	public <T extends Entity> void collect(final double x, final double y, final double width, final double height,
+			final Class<T> clazz, final Predicate<? super T> filter, final List<? super T> result) {
+		final int minColumn = column(x);
+		final int minRow = row(y);
+		final int maxColumn = column(x + width);
+		final int maxRow = row(y + height);
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				final List<Entry> cell = cells.get(row * columns + column);
+				for (int i = 0; i < cell.size(); i++) {
+					final Entry entry = cell.get(i);
+					if (entry.isFirstCell(column, row, minColumn, minRow)
+							&& clazz.isInstance(entry.entity)) {
+						final T entity = clazz.cast(entry.entity);
+						if (filter.test(entity)) {
+							result.add(entity);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects the entities of a class nearest to an entity. The cells are
+	 * visited in rings around the entity, and the search stops as soon as
+	 * no unvisited cell can contain a nearer entity.
+	 *
+	 * @param center entity to measure the distances from. It is never
+	 * 	included in the result
+	 * @param range maximum distance
+	 * @param limit maximum number of entities to collect
+	 * @param clazz class of the entities
+	 * @param filter filter
+	 * @param result list to add the entities to, nearest first
+	 */
+	public <T extends Entity> void nearest(final Entity center, final double range, final int limit,
+			final Class<T> clazz, final Predicate<? super T> filter, final List<T> result) {
+		if (limit <= 0) {
+			return;
+		}
+		final double maxDistance = range * range;
+		final int x = center.getX();
+		final int y = center.getY();
+		final double width = center.getWidth();
+		final double height = center.getHeight();
+		final int centerColumn = column(x + width / 2);
+		final int centerRow = row(y + height / 2);
+
+		final int start = result.size();
+		final double[] distances = new double[limit];
+		int found = 0;
+		for (int ring = 0; ; ring++) {
+			final int minColumn = centerColumn - ring;
+			final int maxColumn = centerColumn + ring;
+			final int minRow = centerRow - ring;
+			final int maxRow = centerRow + ring;
+			for (int row = Math.max(minRow, 0); row <= Math.min(maxRow, rows - 1); row++) {
+				final boolean edge = (row == minRow) || (row == maxRow);
+				final int step = (edge || (ring == 0)) ? 1 : 2 * ring;
+				for (int column = minColumn; column <= maxColumn; column += step) {
+					if ((column < 0) || (column >= columns)) {
+						continue;
+					}
+					final List<Entry> cell = cells.get(row * columns + column);
+					for (int i = 0; i < cell.size(); i++) {
+						final Entity entity = cell.get(i).entity;
+						if ((entity == center) || !clazz.isInstance(entity)) {
+							continue;
+						}
+						final double distance = center.squaredDistance(entity);
+						if ((distance > maxDistance)
+								|| ((found == limit) && (distance >= distances[found - 1]))) {
+							continue;
+						}
+						final T candidate = clazz.cast(entity);
+						if (isListed(result, start, found, candidate) || !filter.test(candidate)) {
+							continue;
+						}
+
+						int index = Math.min(found, limit - 1);
+						while ((index > 0) && (distances[index - 1] > distance)) {
+							distances[index] = distances[index - 1];
+							index--;
+						}
+						if (found == limit) {
+							result.remove(start + found - 1);
+						} else {
+							found++;
+						}
+						distances[index] = distance;
+						result.add(start + index, candidate);
+					}
+				}
+			}
+
+			if ((minColumn <= 0) && (minRow <= 0) && (maxColumn >= columns - 1) && (maxRow >= rows - 1)) {
+				// visited the whole grid
+				return;
+			}
+			// the distance of the nearest tile outside the visited cells
+			final int gap = Math.min(Math.min(x - minColumn * CELL_SIZE, (maxColumn + 1) * CELL_SIZE - (int) Math.ceil(x + width)),
+					Math.min(y - minRow * CELL_SIZE, (maxRow + 1) * CELL_SIZE - (int) Math.ceil(y + height)));
+			if (gap > 0) {
+				final double gapDistance = (double) gap * gap;
+				if ((gapDistance > maxDistance)
+						|| ((found == limit) && (distances[found - 1] <= gapDistance))) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks if an entity is already in a part of a result list. Entities
+	 * covering several cells are seen more than once by a search.
+	 * RPObject.equals() compares attributes, so the identity is checked.
+	 */
+	private static boolean isListed(final List<? extends Entity> result, final int start,
+			final int count, final Entity entity) {
+		for (int i = start; i < start + count; i++) {
+			if (result.get(i) == entity) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int column(final double x) {
+		return clamp(((int) Math.floor(x)) >> CELL_BITS, columns);
+	}
+
+	private int row(final double y) {
+		return clamp(((int) Math.floor(y)) >> CELL_BITS, rows);
+	}
+
+	private static int clamp(final int value, final int size) {
+		if (value < 0) {
+			return 0;
+		}
+		if (value >= size) {
+			return size - 1;
+		}
+		return value;
+	}
+
+	private void link(final Entry entry) {
+		for (int row = entry.minRow; row <= entry.maxRow; row++) {
+			for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+				cells.get(row * columns + column).add(entry);
+			}
+		}
+	}
+
+	private void unlink(final Entry entry, final int minColumn, final int minRow,
+			final int maxColumn, final int maxRow) {
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				final List<Entry> cell = cells.get(row * columns + column);
+				final int index = cell.indexOf(entry);
+				if (index >= 0) {
+					final int last = cell.size() - 1;
+					cell.set(index, cell.get(last));
+					cell.remove(last);
+				}
+			}
+		}
+	}
+
+	/**
+	 * An indexed entity and the range of cells it is listed in.
+	 */
+	private static final class Entry {
+		private final Entity entity;
+		private int minColumn;
+		private int minRow;
+		private int maxColumn;
+		private int maxRow;
+
+		private Entry(final Entity entity) {
+			this.entity = entity;
+		}
+
+		/**
+		 * Calculates the cell range from the current area of the entity.
+		 *
+		 * @param grid grid
+		 */
+		private void setRange(final EntityGrid grid) {
+			final int x = entity.getX();
+			final int y = entity.getY();
+			minColumn = grid.column(x);
+			minRow = grid.row(y);
+			// the last tile covered by the area
+			maxColumn = grid.column(x + Math.max(1.0, Math.ceil(entity.getWidth())) - 1);
+			maxRow = grid.row(y + Math.max(1.0, Math.ceil(entity.getHeight())) - 1);
+		}
+
+		/**
+		 * Checks whether a cell is the first cell of a query range, that
+		 * lists this entry. Queries only report an entry in that cell, so
+		 * that entities covering several cells are reported once.
+		 */
+		private boolean isFirstCell(final int column, final int row, final int queryColumn, final int queryRow) {
+			return (column == Math.max(minColumn, queryColumn)) && (row == Math.max(minRow, queryRow));
+		}
+	}
+}
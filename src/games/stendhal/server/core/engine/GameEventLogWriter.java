@@ -0,0 +1,203 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.TurnNotifier;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.command.AbstractDBCommand;
+import marauroa.server.db.command.DBCommandPriority;
+import marauroa.server.db.command.DBCommandQueue;
+import marauroa.server.game.Statistics;
+import marauroa.server.game.db.DAORegister;
+import marauroa.server.game.db.GameEventDAO;
+
+/**
+ * Collects game events in a bounded buffer and hands them to the database
+ * thread in batches.
+ *
+ * <p>A batch is handed over when it is full, or when its oldest event has
+ * waited long enough. If the database thread falls behind, the events stay
+ * in the buffer. Once the buffer is full, the oldest events are dropped and
+ * counted.
+ */
+public final class GameEventLogWriter implements TurnListener {
+	private static final Logger logger = Logger.getLogger(GameEventLogWriter.class);
+
+	/** number of events that fill a batch */
+	private static final int MAX_BATCH_SIZE = 500;
+	/** number of events that may wait in the buffer */
+	private static final int CAPACITY = 20000;
+	/** number of batches that may wait for the database thread */
+	private static final int MAX_PENDING_BATCHES = 10;
+	/** seconds an event may wait for more events */
+	private static final int MAX_BATCH_AGE = 1;
+
+	/** The singleton instance. */
+	private static GameEventLogWriter instance;
+
+	private final int maxBatchSize;
+	private final int capacity;
+	private final int maxPendingBatches;
+
+	private final ArrayDeque<marauroa.server.game.rp.GameEvent> buffer = new ArrayDeque<marauroa.server.game.rp.GameEvent>();
+	/** batches handed to the database thread, but not written yet */
+	private final AtomicInteger pendingBatches = new AtomicInteger();
+	private boolean scheduled;
+	/** events dropped since the last warning */
+	private int recentlyDropped;
+	private long dropped;
+
+	/**
+	 * gets the singleton instance
+	 *
+	 * @return GameEventLogWriter
+	 */
+	public static synchronized GameEventLogWriter get() {
+		if (instance == null) {
+			instance = new GameEventLogWriter(MAX_BATCH_SIZE, CAPACITY, MAX_PENDING_BATCHES);
+		}
+		return instance;
+	}
+
+	/**
+	 * creates a new GameEventLogWriter
+	 *
+	 * @param maxBatchSize number of events that fill a batch
+	 * @param capacity number of events that may wait in the buffer
+	 * @param maxPendingBatches number of batches that may wait for the database thread
+	 */
+	GameEventLogWriter(final int maxBatchSize, final int capacity, final int maxPendingBatches) {
+		this.maxBatchSize = maxBatchSize;
+		this.capacity = capacity;
+		this.maxPendingBatches = maxPendingBatches;
+	}
+
+	/**
+	 * adds a game event to the buffer
+	 *
+	 * @param event game event
+	 */
+	public synchronized void add(final marauroa.server.game.rp.GameEvent event) {
+		if (buffer.size() >= capacity) {
+			buffer.removeFirst();
+			if (recentlyDropped == 0) {
+				logger.warn("The database is falling behind, dropping the oldest game events.");
+			}
+			recentlyDropped++;
+			dropped++;
+			Statistics.getStatistics().add("Game events dropped", 1);
+		}
+		buffer.addLast(event);
+
+		if (buffer.size() >= maxBatchSize) {
+			write(false);
+		}
+		if (!buffer.isEmpty() && !scheduled) {
+			scheduled = true;
+			TurnNotifier.get().notifyInSeconds(MAX_BATCH_AGE, this);
+		}
+	}
+
+	/**
+	 * hands all buffered events to the database thread, even if it is
+	 * behind. This is used on shutdown.
+	 */
+	public synchronized void flush() {
+		TurnNotifier.get().dontNotify(this);
+		scheduled = false;
+		write(true);
+	}
+
+	@Override
+	public synchronized void onTurnReached(final int currentTurn) {
+		scheduled = false;
+		write(false);
+		if (!buffer.isEmpty()) {
+			// the database thread is behind, try again later
+			scheduled = true;
+			TurnNotifier.get().notifyInSeconds(MAX_BATCH_AGE, this);
+		}
+	}
+
+	/**
+	 * gets the number of buffered events
+	 *
+	 * @return number of events
+	 */
+	public synchronized int size() {
+		return buffer.size();
+	}
+
+	/**
+	 * gets the number of events dropped because the database was behind
+	 *
+	 * @return number of events
+	 */
+	public synchronized long getDroppedCount() {
+		return dropped;
+	}
+
+	private void write(final boolean force) {
+		boolean written = false;
+		while (!buffer.isEmpty() && (force || (pendingBatches.get() < maxPendingBatches))) {
+			final List<marauroa.server.game.rp.GameEvent> batch =
+					new ArrayList<marauroa.server.game.rp.GameEvent>(Math.min(buffer.size(), maxBatchSize));
+			while (!buffer.isEmpty() && (batch.size() < maxBatchSize)) {
+				batch.add(buffer.removeFirst());
+			}
+			pendingBatches.incrementAndGet();
+			DBCommandQueue.get().enqueue(new LogGameEventBatchCommand(batch, pendingBatches), DBCommandPriority.LOW);
+			written = true;
+		}
+
+		if (written && (recentlyDropped > 0)) {
+			logger.warn("Dropped " + recentlyDropped + " game events while the database was behind.");
+			recentlyDropped = 0;
+		}
+	}
+
+	/**
+	 * writes a batch of game events
+	 */
+	private static class LogGameEventBatchCommand extends AbstractDBCommand {
+		private final List<marauroa.server.game.rp.GameEvent> events;
+		private final AtomicInteger pendingBatches;
+
+		LogGameEventBatchCommand(final List<marauroa.server.game.rp.GameEvent> events, final AtomicInteger pendingBatches) {
+			this.events = events;
+			this.pendingBatches = pendingBatches;
+		}
+
+		@Override
+		public void execute(final DBTransaction transaction) throws SQLException {
+			try {
+				DAORegister.get().get(GameEventDAO.class).addGameEvents(transaction, events);
+			} finally {
+				pendingBatches.decrementAndGet();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "LogGameEventBatchCommand [events=" + events.size() + "]";
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import games.stendhal.server.core.engine.dbcommand.AbstractLogItemEventCommand;
+import games.stendhal.server.core.engine.dbcommand.LogItemEventBatchCommand;
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.TurnNotifier;
+import marauroa.server.db.command.DBCommandPriority;
+import marauroa.server.db.command.DBCommandQueue;
+
+/**
+ * Collects item events and hands them to the database thread as one command
+ * per batch, instead of one command per event. A batch is handed over when
+ * it is full, or when its oldest event has waited long enough.
+ */
+public final class ItemLogWriter implements TurnListener {
+	/** number of events that fill a batch */
+	private static final int MAX_BATCH_SIZE = 100;
+	/** seconds an event may wait for more events */
+	private static final int MAX_BATCH_AGE = 5;
+
+	/** The singleton instance. */
+	private static ItemLogWriter instance;
+
+	private List<AbstractLogItemEventCommand> pending = new ArrayList<AbstractLogItemEventCommand>();
+	private boolean scheduled;
+
+	/**
+	 * gets the singleton instance
+	 *
+	 * @return ItemLogWriter
+	 */
+	public static synchronized ItemLogWriter get() {
+		if (instance == null) {
+			instance = new ItemLogWriter();
+		}
+		return instance;
+	}
+
+	private ItemLogWriter() {
+		// singleton
+	}
+
+	/**
+	 * adds an item event to the current batch
+	 *
+	 * @param command item event
+	 */
+	public synchronized void add(final AbstractLogItemEventCommand command) {
+		// the events are logged with the time they happened, not with the
+		// time the batch is enqueued
+		command.setEnqueueTime(new Timestamp(System.currentTimeMillis()));
+		pending.add(command);
+		if (pending.size() >= MAX_BATCH_SIZE) {
+			// keep the notification: on a zone thread dontNotify is deferred,
+			// and could remove a notification scheduled after this batch
+			write();
+		}
+		if (!pending.isEmpty() && !scheduled) {
+			scheduled = true;
+			TurnNotifier.get().notifyInSeconds(MAX_BATCH_AGE, this);
+		}
+	}
+
+	/**
+	 * hands the current batch to the database thread. This is used on
+	 * shutdown.
+	 */
+	public synchronized void flush() {
+		TurnNotifier.get().dontNotify(this);
+		scheduled = false;
+		write();
+	}
+
+	private void write() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		DBCommandQueue.get().enqueue(new LogItemEventBatchCommand(pending), DBCommandPriority.LOW);
+		pending = new ArrayList<AbstractLogItemEventCommand>();
+	}
+
+	@Override
+	public synchronized void onTurnReached(final int currentTurn) {
+		scheduled = false;
+		write();
+	}
+}
@@ -0,0 +1,116 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import games.stendhal.server.core.engine.db.KillLogEntry;
+import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
+import games.stendhal.server.core.engine.dbcommand.LogKillsCommand;
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.Killer;
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.player.Player;
+import marauroa.server.db.command.DBCommandPriority;
+import marauroa.server.db.command.DBCommandQueue;
+import marauroa.server.game.db.DAORegister;
+
+/**
+ * Counts kills in memory and adds them to the kill log periodically, so
+ * that a raid does not cause a database update for every killed creature.
+ * Kills of players, rare creatures and bosses are logged right away.
+ */
+public final class KillLogWriter implements TurnListener {
+	/** seconds kills are counted before they are written */
+	private static final int FLUSH_INTERVAL = 60;
+
+	/** The singleton instance. */
+	private static KillLogWriter instance;
+
+	private Map<KillLogEntry, Integer> pending = new HashMap<KillLogEntry, Integer>();
+
+	/**
+	 * gets the singleton instance
+	 *
+	 * @return KillLogWriter
+	 */
+	public static synchronized KillLogWriter get() {
+		if (instance == null) {
+			instance = new KillLogWriter();
+		}
+		return instance;
+	}
+
+	private KillLogWriter() {
+		// singleton
+	}
+
+	/**
+	 * adds a kill to the kill log
+	 *
+	 * @param killed killed entity
+	 * @param killer killer
+	 */
+	public synchronized void add(final Entity killed, final Killer killer) {
+		final StendhalKillLogDAO killLog = DAORegister.get().get(StendhalKillLogDAO.class);
+		final KillLogEntry entry = killLog.createEntry(killed, killer, new Date());
+
+		if (isLoggedImmediately(killed)) {
+			DBCommandQueue.get().enqueue(new LogKillsCommand(Collections.singletonMap(entry, Integer.valueOf(1))),
+					DBCommandPriority.LOW);
+			return;
+		}
+
+		if (pending.isEmpty()) {
+			TurnNotifier.get().notifyInSeconds(FLUSH_INTERVAL, this);
+		}
+		final Integer count = pending.get(entry);
+		if (count == null) {
+			pending.put(entry, Integer.valueOf(1));
+		} else {
+			pending.put(entry, Integer.valueOf(count.intValue() + 1));
+		}
+	}
+
+	private boolean isLoggedImmediately(final Entity killed) {
+		if (killed instanceof Player) {
+			return true;
+		}
+		if (killed instanceof Creature) {
+			final Creature creature = (Creature) killed;
+			return creature.isRare() || creature.isBoss();
+		}
+		return false;
+	}
+
+	/**
+	 * hands the counted kills to the database thread
+	 */
+	public synchronized void flush() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		TurnNotifier.get().dontNotify(this);
+		DBCommandQueue.get().enqueue(new LogKillsCommand(pending), DBCommandPriority.LOW);
+		pending = new HashMap<KillLogEntry, Integer>();
+	}
+
+	@Override
+	public void onTurnReached(final int currentTurn) {
+		flush();
+	}
+}
@@ -0,0 +1,320 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import games.stendhal.server.core.events.MovementListener;
+
+/**
+ * Spatial index of the movement listeners of a zone. The listener areas are
+ * kept in a grid of cells, so that a step only has to look at the listeners
+ * near the entity. The area of a listener is copied when it is added or
+ * updated, so listeners that change their area need to be updated.
+ */
+final class MovementListenerGrid {
+	/** log2 of the cell size */
+	private static final int CELL_BITS = 3;
+
+	/** the cells of the grid in row-major order */
+	private final List<List<Entry>> cells = new ArrayList<List<Entry>>();
+
+	/** the registered listeners */
+	private final Map<MovementListener, Entry> entries = new IdentityHashMap<MovementListener, Entry>();
+
+	/**
+	 * Lists for the candidates of queries. Listeners may move entities, so
+	 * a query can be started while the result of another is still in use.
+	 */
+	private final List<List<Entry>> results = new ArrayList<List<Entry>>();
+	/** number of query results in use */
+	private int depth;
+
+	/** registration counter for keeping the listeners in order */
+	private long sequence;
+	/** query counter for reporting listeners in several cells once */
+	private long query;
+
+	private int columns;
+	private int rows;
+
+	/**
+	 * Creates a grid covering a single cell.
+	 */
+	MovementListenerGrid() {
+		setSize(0, 0);
+	}
+
+	/**
+	 * Sets the size of the covered zone.
+	 *
+	 * @param width zone width in tiles
+	 * @param height zone height in tiles
+	 */
+	void setSize(final int width, final int height) {
+		final int newColumns = Math.max(1, (width + (1 << CELL_BITS) - 1) >> CELL_BITS);
+		final int newRows = Math.max(1, (height + (1 << CELL_BITS) - 1) >> CELL_BITS);
+		if ((newColumns == columns) && (newRows == rows)) {
+			return;
+		}
+
+		columns = newColumns;
+		rows = newRows;
+		cells.clear();
+		for (int i = columns * rows; i > 0; i--) {
+			cells.add(new ArrayList<Entry>(2));
+		}
+		for (final Entry entry : entries.values()) {
+			link(entry);
+		}
+	}
+
+	/**
+	 * Adds a listener at its current area. Adding a listener again moves it
+	 * to the end of the notification order.
+	 *
+	 * @param listener listener
+	 */
+	void add(final MovementListener listener) {
+		remove(listener);
+		final Entry entry = new Entry(listener, sequence++);
+		entry.setArea(listener.getArea());
+		entries.put(listener, entry);
+		link(entry);
+	}
+
+	/**
+	 * Reads the area of a listener again.
+	 *
+	 * @param listener listener that moved or changed its size
+	 */
+	void update(final MovementListener listener) {
+		final Entry entry = entries.get(listener);
+		if (entry != null) {
+			unlink(entry);
+			entry.setArea(listener.getArea());
+			link(entry);
+		}
+	}
+
+	/**
+	 * Removes a listener.
+	 *
+	 * @param listener listener
+	 */
+	void remove(final MovementListener listener) {
+		final Entry entry = entries.remove(listener);
+		if (entry != null) {
+			entry.registered = false;
+			unlink(entry);
+		}
+	}
+
+	/**
+	 * Gets the number of registered listeners.
+	 *
+	 * @return number of listeners
+	 */
+	int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Collects the listeners in the cells touched by one or two entity
+	 * areas, in the order they were registered. The result has to be
+	 * returned with <code>release</code>. The caller must check the exact
+	 * areas and whether the listeners are still registered.
+	 *
+	 * @param x1 x coordinate of the first area
+	 * @param y1 y coordinate of the first area
+	 * @param x2 x coordinate of the second area
+	 * @param y2 y coordinate of the second area
+	 * @param width width of the areas
+	 * @param height height of the areas
+	 * @return candidate listeners
+	 */
+	List<Entry> collect(final int x1, final int y1, final int x2, final int y2,
+			final double width, final double height) {
+		if (depth == results.size()) {
+			results.add(new ArrayList<Entry>());
+		}
+		final List<Entry> result = results.get(depth);
+		depth++;
+		if (entries.isEmpty()) {
+			return result;
+		}
+
+		query++;
+		collect(x1, y1, width, height, result);
+		if ((x1 != x2) || (y1 != y2)) {
+			collect(x2, y2, width, height, result);
+		}
+
+		// restore the registration order
+		for (int i = 1; i < result.size(); i++) {
+			final Entry entry = result.get(i);
+			int j = i;
+			while ((j > 0) && (result.get(j - 1).sequence > entry.sequence)) {
+				result.set(j, result.get(j - 1));
+				j--;
+			}
+			result.set(j, entry);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a result of <code>collect</code> for reuse.
+	 *
+	 * @param result result list
+	 */
+	void release(final List<Entry> result) {
+		result.clear();
+		depth--;
+	}
+
+	private void collect(final int x, final int y, final double width, final double height,
+			final List<Entry> result) {
+		final int minColumn = column(x);
+		final int minRow = row(y);
+		// areas touching a cell border do not intersect the next cell
+		final int maxColumn = column(Math.ceil(x + width) - 1);
+		final int maxRow = row(Math.ceil(y + height) - 1);
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				final List<Entry> cell = cells.get(row * columns + column);
+				for (int i = 0; i < cell.size(); i++) {
+					final Entry entry = cell.get(i);
+					if (entry.query != query) {
+						entry.query = query;
+						result.add(entry);
+					}
+				}
+			}
+		}
+	}
+
+	private void link(final Entry entry) {
+		entry.setRange(this);
+		for (int row = entry.minRow; row <= entry.maxRow; row++) {
+			for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+				cells.get(row * columns + column).add(entry);
+			}
+		}
+	}
+
+	private void unlink(final Entry entry) {
+		for (int row = entry.minRow; row <= entry.maxRow; row++) {
+			for (int column = entry.minColumn; column <= entry.maxColumn; column++) {
+				cells.get(row * columns + column).remove(entry);
+			}
+		}
+	}
+
+	private int column(final double x) {
+		return clamp(((int) Math.floor(x)) >> CELL_BITS, columns);
+	}
+
+	private int row(final double y) {
+		return clamp(((int) Math.floor(y)) >> CELL_BITS, rows);
+	}
+
+	private static int clamp(final int value, final int size) {
+		if (value < 0) {
+			return 0;
+		}
+		if (value >= size) {
+			return size - 1;
+		}
+		return value;
+	}
+
+	/**
+	 * A registered listener and a copy of its area.
+	 */
+	static final class Entry {
+		private final MovementListener listener;
+		private final long sequence;
+		private boolean registered = true;
+		private long query;
+
+		private double x;
+		private double y;
+		private double width;
+		private double height;
+
+		private int minColumn;
+		private int minRow;
+		private int maxColumn;
+		private int maxRow;
+
+		private Entry(final MovementListener listener, final long sequence) {
+			this.listener = listener;
+			this.sequence = sequence;
+		}
+
+		private void setArea(final Rectangle2D area) {
+			x = area.getX();
+			y = area.getY();
+			width = area.getWidth();
+			height = area.getHeight();
+		}
+
+		private void setRange(final MovementListenerGrid grid) {
+			minColumn = grid.column(x);
+			minRow = grid.row(y);
+			maxColumn = Math.max(minColumn, grid.column(Math.ceil(x + width) - 1));
+			maxRow = Math.max(minRow, grid.row(Math.ceil(y + height) - 1));
+		}
+
+		/**
+		 * Get the listener.
+		 *
+		 * @return listener
+		 */
+		MovementListener getListener() {
+			return listener;
+		}
+
+		/**
+		 * Checks if the listener has not been removed.
+		 *
+		 * @return <code>true</code> if the listener is still registered
+		 */
+		boolean isRegistered() {
+			return registered;
+		}
+
+		/**
+		 * Checks if the listener area intersects an area, the same way as
+		 * <code>Rectangle2D.intersects</code> does.
+		 *
+		 * @param otherX x coordinate of the area
+		 * @param otherY y coordinate of the area
+		 * @param otherWidth width of the area
+		 * @param otherHeight height of the area
+		 * @return <code>true</code> if the areas intersect
+		 */
+		boolean intersects(final double otherX, final double otherY, final double otherWidth,
+				final double otherHeight) {
+			if ((width <= 0) || (height <= 0) || (otherWidth <= 0) || (otherHeight <= 0)) {
+				return false;
+			}
+			return (otherX + otherWidth > x) && (otherY + otherHeight > y)
+					&& (otherX < x + width) && (otherY < y + height);
+		}
+	}
+}
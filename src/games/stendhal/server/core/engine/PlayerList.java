@@ -11,8 +11,11 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import games.stendhal.common.NotificationType;
@@ -31,10 +34,14 @@ public class PlayerList {
 	 */
 	public PlayerList() {
 		players = new ConcurrentHashMap<String, Player>();
+		watchers = new ConcurrentHashMap<String, Set<String>>();
 	}
 
 	private final Map<String, Player> players;
 
+	/** keys of the players having a buddy, by the name of the buddy */
+	private final Map<String, Set<String>> watchers;
+
 	/**
 	 * Retrieve from this list a player specified by its name.
 	 *
@@ -114,7 +121,12 @@ public class PlayerList {
 		final String playerName = player.getName();
 
 		if (playerName != null) {
-			players.put(playerName.toLowerCase(), player);
+			final String key = playerName.toLowerCase();
+			final Player previous = players.put(key, player);
+			if (previous != null) {
+				removeWatcher(previous, key);
+			}
+			addWatcher(player, key);
 		} else {
 			throw new IllegalArgumentException("can't add player without name");
 		}
@@ -130,12 +142,90 @@ public class PlayerList {
 		final String playerName = player.getName();
 
 		if (playerName != null) {
-			return players.remove(playerName.toLowerCase()) != null;
+			final String key = playerName.toLowerCase();
+			final Player removed = players.remove(key);
+			if (removed == null) {
+				return false;
+			}
+			removeWatcher(removed, key);
+			return true;
 		} else {
 			throw new IllegalArgumentException("can't remove player without name");
 		}
 	}
 
+	private void addWatcher(final Player player, final String key) {
+		for (final String buddy : player.getBuddies()) {
+			addWatcher(buddy, key);
+		}
+	}
+
+	private void addWatcher(final String buddy, final String key) {
+		watchers.computeIfAbsent(buddy, k -> ConcurrentHashMap.newKeySet()).add(key);
+	}
+
+	private void removeWatcher(final Player player, final String key) {
+		for (final String buddy : player.getBuddies()) {
+			removeWatcher(buddy, key);
+		}
+	}
+
+	private void removeWatcher(final String buddy, final String key) {
+		final Set<String> keys = watchers.get(buddy);
+		if (keys != null) {
+			keys.remove(key);
+			if (keys.isEmpty()) {
+				watchers.remove(buddy);
+			}
+		}
+	}
+
+	/**
+	 * updates the buddy index after a player has added a buddy
+	 *
+	 * @param player player
+	 * @param buddy name of the buddy
+	 */
+	public void onBuddyAdded(final Player player, final String buddy) {
+		final String key = player.getName().toLowerCase();
+		if (players.get(key) == player) {
+			addWatcher(buddy, key);
+		}
+	}
+
+	/**
+	 * updates the buddy index after a player has removed a buddy
+	 *
+	 * @param player player
+	 * @param buddy name of the buddy
+	 */
+	public void onBuddyRemoved(final Player player, final String buddy) {
+		final String key = player.getName().toLowerCase();
+		if (players.get(key) == player) {
+			removeWatcher(buddy, key);
+		}
+	}
+
+	/**
+	 * gets the players, who have a player in their buddy list
+	 *
+	 * @param name name of the buddy
+	 * @return list of players
+	 */
+	public List<Player> getPlayersWithBuddy(final String name) {
+		final List<Player> res = new ArrayList<Player>();
+		final Set<String> keys = watchers.get(name);
+		if (keys != null) {
+			for (final String key : keys) {
+				final Player player = players.get(key);
+				if (player != null) {
+					res.add(player);
+				}
+			}
+		}
+		return res;
+	}
+
 	/**
 	 * gets a mutable list of all players
 	 *
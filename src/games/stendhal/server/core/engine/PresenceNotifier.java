@@ -0,0 +1,107 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import games.stendhal.server.core.engine.dbcommand.SetOnlineStatusCommand;
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.entity.player.Player;
+import marauroa.server.db.command.DBCommandQueue;
+
+/**
+ * Tells players when their buddies go online or offline, and keeps the
+ * online status on the website up to date.
+ *
+ * <p>A change of the status is only told to the players who have the player
+ * in their buddy list, which are looked up in the buddy index of the online
+ * players. Status changes for the website are collected during a turn and
+ * written with one database command.
+ */
+public final class PresenceNotifier implements TurnListener {
+
+	/** The singleton instance. */
+	private static PresenceNotifier instance;
+
+	/** online status by player name, which has not been written yet */
+	private Map<String, Boolean> pendingStatus = new LinkedHashMap<String, Boolean>();
+
+	/**
+	 * gets the singleton instance
+	 *
+	 * @return PresenceNotifier
+	 */
+	public static synchronized PresenceNotifier get() {
+		if (instance == null) {
+			instance = new PresenceNotifier();
+		}
+		return instance;
+	}
+
+	private PresenceNotifier() {
+		// singleton
+	}
+
+	/**
+	 * Notifies the online players, who have the player as buddy, about the
+	 * player going online or offline.
+	 *
+	 * @param isOnline did the player login?
+	 * @param playerToNotifyAbout the player
+	 */
+	public void notifyOnlineStatus(final boolean isOnline, final Player playerToNotifyAbout) {
+		final String name = playerToNotifyAbout.getName();
+		final PlayerList onlinePlayers = SingletonRepository.getRuleProcessor().getOnlinePlayers();
+		for (final Player player : onlinePlayers.getPlayersWithBuddy(name)) {
+			if (isOnline) {
+				player.notifyOnline(name);
+			} else {
+				player.notifyOffline(name);
+			}
+		}
+	}
+
+	/**
+	 * sets the online status of a player shown on the website. The status is
+	 * written at the next turn together with the other changes.
+	 *
+	 * @param playerName name of player
+	 * @param online true, to mark as online; false to mark as offline
+	 */
+	public synchronized void setOnlineStatus(final String playerName, final boolean online) {
+		if (pendingStatus.isEmpty()) {
+			TurnNotifier.get().notifyInTurns(0, this);
+		}
+		// only the last change of a turn is written
+		pendingStatus.remove(playerName);
+		pendingStatus.put(playerName, Boolean.valueOf(online));
+	}
+
+	/**
+	 * hands the pending status changes to the database thread
+	 */
+	public synchronized void flush() {
+		if (pendingStatus.isEmpty()) {
+			return;
+		}
+		TurnNotifier.get().dontNotify(this);
+		DBCommandQueue.get().enqueue(new SetOnlineStatusCommand(pendingStatus));
+		pendingStatus = new LinkedHashMap<String, Boolean>();
+	}
+
+	@Override
+	public void onTurnReached(final int currentTurn) {
+		flush();
+	}
+}
@@ -35,11 +35,11 @@ import games.stendhal.server.actions.admin.AdministrationAction;
 import games.stendhal.server.core.account.AccountCreator;
 import games.stendhal.server.core.account.CharacterCreator;
 import games.stendhal.server.core.engine.db.StendhalWebsiteDAO;
-import games.stendhal.server.core.engine.dbcommand.SetOnlineStatusCommand;
+import games.stendhal.server.core.engine.profiler.TurnPhase;
+import games.stendhal.server.core.engine.profiler.TurnProfiler;
 import games.stendhal.server.core.engine.transformer.PlayerTransformer;
-import games.stendhal.server.core.events.TurnListener;
-import games.stendhal.server.core.events.TurnNotifier;
 import games.stendhal.server.core.events.TutorialNotifier;
+import games.stendhal.server.core.pathfinder.PathRequestService;
 import games.stendhal.server.core.rp.StendhalQuestSystem;
 import games.stendhal.server.core.rp.StendhalRPAction;
 import games.stendhal.server.core.scripting.ScriptRunner;
@@ -56,16 +56,11 @@ import marauroa.common.Configuration;
 import marauroa.common.Pair;
 import marauroa.common.game.AccountResult;
 import marauroa.common.game.CharacterResult;
-import marauroa.common.game.IRPZone;
 import marauroa.common.game.RPAction;
 import marauroa.common.game.RPObject;
 import marauroa.common.io.UnicodeSupportingInputStreamReader;
-import marauroa.server.db.command.DBCommand;
-import marauroa.server.db.command.DBCommandPriority;
-import marauroa.server.db.command.DBCommandQueue;
 import marauroa.server.game.Statistics;
 import marauroa.server.game.db.DAORegister;
-import marauroa.server.game.dbcommand.LogGameEventCommand;
 import marauroa.server.game.rp.IRPRuleProcessor;
 import marauroa.server.game.rp.RPServerManager;
 
@@ -104,7 +99,9 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	/** a list of zone that should be removed (like vaults) */
 	private final List<StendhalRPZone> zonesToRemove = new LinkedList<StendhalRPZone>();
 
-	private LinkedList<marauroa.server.game.rp.GameEvent> gameEvents = new LinkedList<>();
+
+	/** executes the logic of the zones */
+	private ZoneLogicExecutor zoneLogicExecutor = new ZoneLogicExecutor(1);
 
 
 	/**
@@ -189,6 +186,11 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 				logger.info("No server extensions configured in ini file.");
 			}
 
+			zoneLogicExecutor = new ZoneLogicExecutor(config.getInt(ZoneLogicExecutor.THREADS_KEY, 1));
+			StendhalRPZone.setHibernationTurns(config.getInt("zone_hibernation_turns", 0));
+			PathRequestService.get().configure(config.getInt(PathRequestService.BUDGET_KEY, 0),
+					config.getInt(PathRequestService.SEARCH_LIMIT_KEY, PathRequestService.DEFAULT_SEARCH_LIMIT));
+
 			// Remove online info from database.
 			DAORegister.get().get(StendhalWebsiteDAO.class).clearOnlineStatus();
 		} catch (final Exception e) {
@@ -223,6 +225,9 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	 * @param killer
 	 */
 	public void killRPEntity(final RPEntity entity, final Entity killer) {
+		if (ZoneLogicExecutor.defer(() -> killRPEntity(entity, killer))) {
+			return;
+		}
 		entityToKill.add(new Pair<RPEntity, Entity>(entity, killer));
 	}
 
@@ -282,42 +287,51 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	@Override
 	public synchronized void beginTurn() {
 		final long start = System.nanoTime();
+		final TurnProfiler profiler = TurnProfiler.get();
+		profiler.beginTurn(getTurn());
+		long phaseStart = profiler.start();
 
 		try {
 			destroyObsoleteZones();
 		} catch (final Exception e) {
 			logger.error("error in beginTurn", e);
 		}
+		phaseStart = profiler.endPhase(TurnPhase.DESTROY_ZONES, phaseStart);
 
 		try {
 			logNumberOfPlayersOnline();
 		} catch (final Exception e) {
 			logger.error("error in beginTurn", e);
 		}
+		phaseStart = profiler.endPhase(TurnPhase.LOG_PLAYERS_ONLINE, phaseStart);
 
 		try {
 			handleKilledEntities();
 		} catch (final Exception e) {
 			logger.error("error in beginTurn", e);
 		}
+		phaseStart = profiler.endPhase(TurnPhase.KILLED_ENTITIES, phaseStart);
 
 		try {
 			executePlayerLogic();
 		} catch (final Exception e) {
 			logger.error("error in beginTurn", e);
 		}
+		phaseStart = profiler.endPhase(TurnPhase.PLAYER_LOGIC, phaseStart);
 
 		try {
 			executeNPCsPreLogic();
 		} catch (final Exception e) {
 			logger.error("error in beginTurn", e);
 		}
+		phaseStart = profiler.endPhase(TurnPhase.NPC_PRE_LOGIC, phaseStart);
 
 		try {
 			handlePlayersRmTexts();
 		} catch (final Exception e) {
 			logger.error("error in beginTurn", e);
 		}
+		profiler.endPhase(TurnPhase.PLAYER_TEXTS, phaseStart);
 		logger.debug("Begin turn: " + (System.nanoTime() - start) / 1000000.0);
 	}
 
@@ -389,20 +403,25 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	@Override
 	public synchronized void endTurn() {
 		final int currentTurn = getTurn();
+		final TurnProfiler profiler = TurnProfiler.get();
 		try {
 
+			long phaseStart = profiler.start();
 			SingletonRepository.getTurnNotifier().logic(currentTurn);
+			phaseStart = profiler.endPhase(TurnPhase.TURN_NOTIFIER, phaseStart);
 
-			for (final IRPZone zoneI : SingletonRepository.getRPWorld()) {
-				final StendhalRPZone zone = (StendhalRPZone) zoneI;
-				zone.logic();
-			}
+			zoneLogicExecutor.logic(SingletonRepository.getRPWorld(), profiler);
+			phaseStart = profiler.endPhase(TurnPhase.ZONE_LOGIC, phaseStart);
+
+			PathRequestService.get().logic();
+			profiler.endPhase(TurnPhase.PATHFINDING, phaseStart);
 
 			// run registered object's logic method for this turn
 
 		} catch (final Exception e) {
 			logger.error("error in endTurn", e);
 		}
+		profiler.endTurn();
 	}
 
 	/**
@@ -480,8 +499,7 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 
 				if (!player.isGhost()) {
 					notifyOnlineStatus(true, player);
-					DBCommand command = new SetOnlineStatusCommand(player.getName(), true);
-					DBCommandQueue.get().enqueue(command);
+					PresenceNotifier.get().setOnlineStatus(player.getName(), true);
 				}
 				updatePlayerNameListForPlayersOnLogin(player);
 				String[] params = {};
@@ -586,9 +604,7 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 
 				Player.destroy(player);
 				getOnlinePlayers().remove(player);
-
-				DBCommand command = new SetOnlineStatusCommand(player.getName(), false);
-				DBCommandQueue.get().enqueue(command);
+				PresenceNotifier.get().setOnlineStatus(player.getName(), false);
 
 				new GameEvent(player.getName(), "logout", reason).raise();
 				logger.debug("removed player " + player);
@@ -697,22 +713,7 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	 */
 	public void notifyOnlineStatus(final boolean isOnline, final Player playerToNotifyAbout) {
 		if (instance != null) {
-			if (isOnline) {
-				SingletonRepository.getRuleProcessor().getOnlinePlayers().forAllPlayersExecute(new Task<Player>() {
-					@Override
-					public void execute(final Player player) {
-						player.notifyOnline(playerToNotifyAbout.getName());
-					}
-				});
-
-			} else {
-				SingletonRepository.getRuleProcessor().getOnlinePlayers().forAllPlayersExecute(new Task<Player>() {
-					@Override
-					public void execute(final Player player) {
-						player.notifyOffline(playerToNotifyAbout.getName());
-					}
-				});
-			}
+			PresenceNotifier.get().notifyOnlineStatus(isOnline, playerToNotifyAbout);
 		}
 	}
 
@@ -794,20 +795,11 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	 * @param params parameters
 	 */
 	public void logGameEvent(String source, String event, String... params) {
-		this.gameEvents.add(new marauroa.server.game.rp.GameEvent(source, event, params));
-
-		// we collect one second of game events and write them as batch to the database
-		if (this.gameEvents.size() == 1) {
-			TurnNotifier.get().notifyInSeconds(1, new TurnListener() {
-				@Override
-				public void onTurnReached(int currentTurn) {
-					DBCommand command = new LogGameEventCommand(gameEvents);
-					gameEvents.clear();
-					DBCommandQueue.get().enqueue(command, DBCommandPriority.LOW);
-
-				}
-			});
+		if (ZoneLogicExecutor.defer(() -> logGameEvent(source, event, params))) {
+			return;
 		}
+		// the events are collected and written as batch to the database
+		GameEventLogWriter.get().add(new marauroa.server.game.rp.GameEvent(source, event, params));
 	}
 
 	/**
@@ -50,6 +50,9 @@ public class StendhalRPWorld extends RPWorld {
 
 	private final Map<String, Set<StendhalRPZone>> regionMap = new HashMap<String, Set<StendhalRPZone>>();
 
+	/** exterior zones by their world coordinates */
+	private final ZoneIndex zoneIndex = new ZoneIndex();
+
 
 	/**
 	 * Singleton access method.
@@ -80,9 +83,20 @@ public class StendhalRPWorld extends RPWorld {
 				zones.remove(zone);
 			}
 		}
+		if (zone != null) {
+			zoneIndex.remove(zone);
+		}
 		return super.removeRPZone(zoneid);
 	}
 
+	@Override
+	public void addRPZone(final IRPZone zone) {
+		super.addRPZone(zone);
+		if (zone instanceof StendhalRPZone) {
+			zoneIndex.add((StendhalRPZone) zone);
+		}
+	}
+
 	public void removeZone(final StendhalRPZone toBeRemoved) {
 		try {
 			removeRPZone(toBeRemoved.getID());
@@ -170,7 +184,11 @@ public class StendhalRPWorld extends RPWorld {
 	@Override
 	public void onFinish() {
 		super.onFinish();
+		ItemLogWriter.get().flush();
+		KillLogWriter.get().flush();
+		PresenceNotifier.get().flush();
 		new GameEvent("server system", "shutdown").raise();
+		GameEventLogWriter.get().flush();
 		try {
 			//TODO: find a more appropriate way to do this
 			// give gameevents a chance to be processed;
@@ -252,24 +270,11 @@ public class StendhalRPWorld extends RPWorld {
 	 * @return The matching zone, or <code>null</code> if not found.
 	 */
 	public StendhalRPZone getZoneAt(final int level, final int wx, final int wy, final Entity entity) {
-		for (final IRPZone izone : this) {
-			final StendhalRPZone zone = (StendhalRPZone) izone;
-
-			if (zone.isInterior()) {
-				continue;
-			}
-
-			if (zone.getLevel() != level) {
-				continue;
-			}
-
-			if (zone.intersects(entity.getArea(wx, wy))) {
-				logger.debug("Contained at :" + zone.getID());
-				return zone;
-			}
+		final StendhalRPZone zone = zoneIndex.find(level, wx, wy, entity.getWidth(), entity.getHeight());
+		if ((zone != null) && logger.isDebugEnabled()) {
+			logger.debug("Contained at :" + zone.getID());
 		}
-
-		return null;
+		return zone;
 	}
 
 	/**
@@ -278,7 +283,7 @@ public class StendhalRPWorld extends RPWorld {
 	 * @param zone
 	 */
 	public void addRPZone(final String region, final StendhalRPZone zone) {
-		super.addRPZone(zone);
+		addRPZone(zone);
 		if(!regionMap.containsKey(region)) {
 			regionMap.put(region, new HashSet<StendhalRPZone>());
 		}
@@ -302,77 +307,24 @@ public class StendhalRPWorld extends RPWorld {
 	 */
 	public Collection<StendhalRPZone> getAllZonesFromRegion(final String region, final Boolean exterior, final Boolean aboveGround, final Boolean accessible) {
 		final Set<StendhalRPZone> zonesInRegion = new HashSet<StendhalRPZone>();
-		if(regionMap.containsKey(region)) {
-			zonesInRegion.addAll(regionMap.get(region));
-			if(exterior != null) {
-				filterOutInteriorOrExteriorZones(zonesInRegion, exterior);
-			}
-			if(aboveGround != null && exterior != null && exterior) {
-				filterOutAboveOrBelowGround(zonesInRegion, aboveGround);
-			}
-			if(accessible != null) {
-				filterByAccessibility(zonesInRegion, accessible);
-			}
+		final Set<StendhalRPZone> zones = regionMap.get(region);
+		if (zones == null) {
+			return zonesInRegion;
 		}
-		return zonesInRegion;
-	}
-
-	/**
-	 * Filter out exterior or interior zones from the given set
-	 * @param zonesInRegion the set to filter
-	 * @param exterior if true only exterior zones stay in the set
-	 */
-	private void filterOutInteriorOrExteriorZones(final Set<StendhalRPZone> zonesInRegion, final Boolean exterior) {
-		final Set<StendhalRPZone> removals = new HashSet<StendhalRPZone>();
-		for (StendhalRPZone zone : zonesInRegion) {
-			if(exterior) {
-				if(zone.isInterior()) {
-					removals.add(zone);
-				}
-			} else {
-				if(!zone.isInterior()) {
-					removals.add(zone);
-				}
-			}
-		}
-		zonesInRegion.removeAll(removals);
-	}
-
-	/**
-	 * Filter out zones above or below ground
-	 *
-	 * @param zonesInRegion
-	 * @param aboveGround
-	 */
-	private void filterOutAboveOrBelowGround(final Set<StendhalRPZone> zonesInRegion, final Boolean aboveGround) {
-		final Set<StendhalRPZone> removals = new HashSet<StendhalRPZone>();
-		for (StendhalRPZone zone : zonesInRegion) {
-			if(aboveGround.booleanValue()) {
-				if(zone.getLevel() < 0) {
-					removals.add(zone);
-				}
-			} else {
-				if(zone.getLevel() >= 0) {
-					removals.add(zone);
-				}
+		// the level only counts for exterior zones
+		final boolean checkLevel = (aboveGround != null) && (exterior != null) && exterior.booleanValue();
+		for (final StendhalRPZone zone : zones) {
+			if ((exterior != null) && (zone.isInterior() == exterior.booleanValue())) {
+				continue;
 			}
-		}
-		zonesInRegion.removeAll(removals);
-	}
-
-	private void filterByAccessibility(final Set<StendhalRPZone> zonesInRegion, final Boolean accessible) {
-		final Set<StendhalRPZone> removals = new HashSet<StendhalRPZone>();
-		for (StendhalRPZone zone : zonesInRegion) {
-			boolean addToRemovals = false;
-			if(accessible.booleanValue()) {
-				addToRemovals = !zone.isPublicAccessible();
-			} else {
-				addToRemovals = zone.isPublicAccessible();
+			if (checkLevel && ((zone.getLevel() >= 0) != aboveGround.booleanValue())) {
+				continue;
 			}
-			if (addToRemovals) {
-				removals.add(zone);
+			if ((accessible != null) && (zone.isPublicAccessible() != accessible.booleanValue())) {
+				continue;
 			}
+			zonesInRegion.add(zone);
 		}
-		zonesInRegion.removeAll(removals);
+		return zonesInRegion;
 	}
 }
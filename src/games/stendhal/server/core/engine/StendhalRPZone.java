@@ -15,7 +15,6 @@ package games.stendhal.server.core.engine;
 import static games.stendhal.common.constants.Actions.MOVE_CONTINUOUS;
 
 import java.awt.Point;
-import java.awt.Rectangle;
 import java.awt.geom.Rectangle2D;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -28,6 +27,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -130,9 +130,9 @@ public class StendhalRPZone extends MarauroaRPZone {
 	private boolean moveToAllowed = true;
 
 	/**
-	 * Objects that implement MovementListener.
+	 * Objects that implement MovementListener, indexed by their area.
 	 */
-	private final List<MovementListener> movementListeners;
+	private final MovementListenerGrid movementListeners = new MovementListenerGrid();
 
 
 	private final List<ZoneEnterExitListener> zoneListeners;
@@ -144,6 +144,12 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	private final Set<Item> itemsOnGround;
 
+	/** spatial index of the entities in this zone */
+	private final EntityGrid entityGrid = new EntityGrid();
+
+	/** spatial index of the players and friends in this zone */
+	private final EntityGrid friendGrid = new EntityGrid();
+
 	/** contains data to if a certain area is walkable. */
 	public CollisionDetection collisionMap;
 
@@ -181,7 +187,6 @@ public class StendhalRPZone extends MarauroaRPZone {
 		players = new LinkedList<Player>();
 		playersAndFriends = new LinkedList<RPEntity>();
 
-		movementListeners = new LinkedList<MovementListener>();
 		zoneListeners = new LinkedList<ZoneEnterExitListener>();
 
 		collisionMap = new CollisionDetection();
@@ -201,6 +206,9 @@ public class StendhalRPZone extends MarauroaRPZone {
 	public StendhalRPZone(final String name, final int width, final int height) {
 		this(name);
 		collisionMap.init(width, height);
+		entityGrid.setSize(width, height);
+		friendGrid.setSize(width, height);
+		movementListeners.setSize(width, height);
 	}
 
 	public StendhalRPZone(final String name, final StendhalRPZone zone) {
@@ -212,6 +220,9 @@ public class StendhalRPZone extends MarauroaRPZone {
 		contents.addAll(zone.contents);
 		collisionMap = zone.collisionMap;
 		protectionMap  = zone.protectionMap;
+		entityGrid.setSize(getWidth(), getHeight());
+		friendGrid.setSize(getWidth(), getHeight());
+		movementListeners.setSize(getWidth(), getHeight());
 
 		this.zoneid = new ID(name);
 	}
@@ -451,6 +462,11 @@ public class StendhalRPZone extends MarauroaRPZone {
 			throws IOException {
 		addToContent(name, collisionLayer.encode());
 		collisionMap.setCollisionData(collisionLayer);
+		synchronized (this) {
+			entityGrid.setSize(getWidth(), getHeight());
+			friendGrid.setSize(getWidth(), getHeight());
+			movementListeners.setSize(getWidth(), getHeight());
+		}
 	}
 
 	public void addProtectionLayer(final String name, final LayerDefinition protectionLayer)
@@ -495,9 +511,27 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return <code>true</code> if the area overlaps.
 	 */
 	public boolean intersects(final Rectangle2D area) {
-		final Rectangle2D zone = new Rectangle(x, y, getWidth(), getHeight());
+		return intersects(area.getX(), area.getY(), area.getWidth(), area.getHeight());
+	}
 
-		return zone.intersects(area);
+	/**
+	 * Determine if this zone overlaps an area in global coordinates.
+	 *
+	 * @param areaX x coordinate of the area
+	 * @param areaY y coordinate of the area
+	 * @param areaWidth width of the area
+	 * @param areaHeight height of the area
+	 * @return <code>true</code> if the area overlaps.
+	 */
+	public boolean intersects(final double areaX, final double areaY, final double areaWidth,
+			final double areaHeight) {
+		final int width = getWidth();
+		final int height = getHeight();
+		if ((width <= 0) || (height <= 0) || (areaWidth <= 0) || (areaHeight <= 0)) {
+			return false;
+		}
+		return (areaX + areaWidth > x) && (areaY + areaHeight > y)
+				&& (areaX < x + width) && (areaY < y + height);
 	}
 
 	/**
@@ -881,11 +915,19 @@ public class StendhalRPZone extends MarauroaRPZone {
 	}
 
 	private synchronized void add(final RPObject object, final Player player, final boolean expire) {
+		if (ZoneLogicExecutor.deferOutside(this, () -> add(object, player, expire))) {
+			// added by the logic of another zone running in parallel
+			return;
+		}
+
 		/*
 		 * Assign [zone relative] ID info. TODO: Move up to MarauroaRPZone
 		 */
 		assignRPObjectID(object);
 		super.add(object);
+		if (object instanceof Entity) {
+			entityGrid.add((Entity) object);
+		}
 
 		notifyAdded(object);
 
@@ -913,23 +955,28 @@ public class StendhalRPZone extends MarauroaRPZone {
 			Player playerObject = (Player) object;
 			players.add(playerObject);
 			playersAndFriends.add(playerObject);
+			friendGrid.add(playerObject);
 			/*
 			 * super.add() clears the events, so this needs to be after it for
 			 * the player to see the zone achievements. Also, Player.onAdded()
 			 * sets the !visited slot, so this should be after it to have the
 			 * achievement appear when the player enters the last missing zone.
 			 */
-			SingletonRepository.getAchievementNotifier().onZoneEnter(playerObject);
+			SingletonRepository.getAchievementNotifier().onZoneEnter(playerObject,
+					playerObject.isFirstVisitOfZone());
 		} else if (object instanceof AttackableCreature) {
 			playersAndFriends.add((AttackableCreature) object);
+			friendGrid.add((AttackableCreature) object);
 		} else if (object instanceof Sheep) {
 			if (((Sheep) object).wasOwned()) {
 				playersAndFriends.add((Sheep) object);
+				friendGrid.add((Sheep) object);
 			}
 		} else if (object instanceof SheepFood) {
 			sheepFoods.add((SheepFood) object);
 		} else if (object instanceof BabyDragon) {
 			playersAndFriends.add((BabyDragon) object);
+			friendGrid.add((BabyDragon) object);
 		} else if (object instanceof SpeakerNPC) {
 			SingletonRepository.getNPCList().add((SpeakerNPC) object);
 		} else if (object instanceof Portal) {
@@ -940,6 +987,10 @@ public class StendhalRPZone extends MarauroaRPZone {
 			npcs.add((NPC) object);
 		}
 
+		if (hibernating && !playersAndFriends.isEmpty()) {
+			wakeUp();
+		}
+
 		// TODO: Move up to MarauroaRPZone?
 		SingletonRepository.getRPWorld().requestSync(object);
 	}
@@ -949,9 +1000,13 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 *
 	 * @param object RPEntity
 	 */
-	public void addToPlayersAndFriends(RPEntity object) {
+	public synchronized void addToPlayersAndFriends(RPEntity object) {
 		if (!playersAndFriends.contains(object)) {
 			playersAndFriends.add(object);
+			friendGrid.add(object);
+		}
+		if (hibernating) {
+			wakeUp();
 		}
 	}
 
@@ -971,6 +1026,14 @@ public class StendhalRPZone extends MarauroaRPZone {
 	public synchronized RPObject remove(final RPObject.ID id) {
 
 		final RPObject object = get(id);
+		if (ZoneLogicExecutor.deferOutside(this, () -> remove(id))) {
+			// removed by the logic of another zone running in parallel
+			return object;
+		}
+		if (object instanceof Entity) {
+			entityGrid.remove((Entity) object);
+			friendGrid.remove((Entity) object);
+		}
 		notifyRemoved(object);
 		if (object instanceof Entity) {
 			((Entity) object).onRemoved(this);
@@ -1026,6 +1089,10 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return the removed object
 	 */
 	public synchronized RPObject remove(final RPObject object) {
+		if (ZoneLogicExecutor.deferOutside(this, () -> remove(object))) {
+			// removed by the logic of another zone running in parallel
+			return object;
+		}
 		if (object.isContained()) {
 			modify(object);
 
@@ -1044,6 +1111,20 @@ public class StendhalRPZone extends MarauroaRPZone {
 		}
 	}
 
+	/**
+	 * Updates the spatial index after an entity in this zone moved or
+	 * changed its size.
+	 *
+	 * @param entity entity
+	 */
+	public synchronized void updateEntityArea(final Entity entity) {
+		entityGrid.update(entity);
+		friendGrid.update(entity);
+		if (entity instanceof MovementListener) {
+			movementListeners.update((MovementListener) entity);
+		}
+	}
+
 	@Override
 	public synchronized void modify(final RPObject object) {
 		// We modify the base container if the object changes.
@@ -1154,29 +1235,19 @@ public class StendhalRPZone extends MarauroaRPZone {
 		return false;
 	}
 
-	public boolean collidesObjects(final Entity entity, final Rectangle2D area) {
-		// For every other object in this zone, check whether it's in the
+	public synchronized boolean collidesObjects(final Entity entity, final Rectangle2D area) {
+		// For every other object near the area, check whether it's in the
 		// way.
 		return getCollidingObject(entity, area) != null;
 	}
 
 	private Entity getCollidingObject(final Entity entity, final Rectangle2D area) {
-		for (final RPObject other : objects.values()) {
-			// Ignore same object
-			if (entity != other) {
-				final Entity otherEntity = (Entity) other;
-
-				// Check if the objects overlap
-				if (area.intersects(otherEntity.getX(), otherEntity.getY(), otherEntity.getWidth(), otherEntity.getHeight())) {
+		return entityGrid.find(area.getX(), area.getY(), area.getWidth(), area.getHeight(),
+				otherEntity -> (otherEntity != entity)
+					// Check if the objects overlap
+					&& area.intersects(otherEntity.getX(), otherEntity.getY(), otherEntity.getWidth(), otherEntity.getHeight())
 					// Check if it's blocking
-					if (otherEntity.isObstacle(entity)) {
-						return otherEntity;
-					}
-				}
-			}
-		}
-
-		return null;
+					&& otherEntity.isObstacle(entity));
 	}
 
 	/**
@@ -1187,15 +1258,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return the first entity found if there are more than one or null if there are none
 	 */
 	public synchronized Entity getEntityAt(final double x, final double y) {
-		for (final RPObject other : objects.values()) {
-			final Entity otherEntity = (Entity) other;
-
-			final Rectangle2D rect = otherEntity.getArea();
-			if (rect.contains(x, y)) {
-				return otherEntity;
-			}
-		}
-		return null;
+		return entityGrid.find(x, y, 0, 0, otherEntity -> otherEntity.getArea().contains(x, y));
 	}
 
 	/**
@@ -1205,18 +1268,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return list of entities at (x, y)
 	 */
 	public synchronized List<Entity> getEntitiesAt(final double x, final double y) {
-		List<Entity> entities = new LinkedList<Entity>();
-
-		for (final RPObject other : objects.values()) {
-			final Entity entity = (Entity) other;
-
-			final Rectangle2D rect = entity.getArea();
-			if (rect.contains(x, y)) {
-				entities.add(entity);
-			}
-		}
-
-		return entities;
+		return getEntitiesAt(x, y, Entity.class);
 	}
 
 
@@ -1228,22 +1280,29 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	public synchronized <T extends Entity> List<T> getEntitiesAt(final double x, final double y, Class<T> clazz) {
 		List<T> entities = new LinkedList<T>();
-
-		for (final RPObject other : objects.values()) {
-			final Entity entity = (Entity) other;
-			if (!clazz.isInstance(entity)) {
-				continue;
-			}
-
-			final Rectangle2D rect = entity.getArea();
-			if (rect.contains(x, y)) {
-				entities.add(clazz.cast(entity));
-			}
-		}
-
+		entityGrid.collect(x, y, 0, 0, clazz, entity -> entity.getArea().contains(x, y), entities);
 		return entities;
 	}
 
+	/**
+	 * Finds the first entity near an area that passes a filter. The filter
+	 * is called for the entities in the spatial index cells touched by the
+	 * area, so it has to check the exact position of the entities itself. It
+	 * can also be used to visit all entities near an area by returning
+	 * <code>false</code>.
+	 *
+	 * @param x x coordinate of the area
+	 * @param y y coordinate of the area
+	 * @param width width of the area
+	 * @param height height of the area
+	 * @param filter filter
+	 * @return the first entity passing the filter, or <code>null</code>
+	 */
+	public synchronized Entity findEntity(final double x, final double y, final double width,
+			final double height, final Predicate<? super Entity> filter) {
+		return entityGrid.find(x, y, width, height, filter);
+	}
+
 	/**
 	 * Get the zone name. This is the same as <code>getID().getID()</code>,
 	 * only cleaner to use.
@@ -1307,15 +1366,19 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 *            The new Y coordinate.
 	 */
 	public void notifyEntered(final ActiveEntity entity, final int newX, final int newY) {
-		Rectangle2D eArea;
-
-		eArea = entity.getArea(newX, newY);
-
-		for (final MovementListener l : movementListeners) {
-			Rectangle2D area = l.getArea();
-			if (area.intersects(eArea)) {
-				l.onEntered(entity, this, newX, newY);
+		final double width = entity.getWidth();
+		final double height = entity.getHeight();
+		final List<MovementListenerGrid.Entry> candidates = movementListeners.collect(newX, newY,
+				newX, newY, width, height);
+		try {
+			for (int i = 0; i < candidates.size(); i++) {
+				final MovementListenerGrid.Entry entry = candidates.get(i);
+				if (entry.isRegistered() && entry.intersects(newX, newY, width, height)) {
+					entry.getListener().onEntered(entity, this, newX, newY);
+				}
 			}
+		} finally {
+			movementListeners.release(candidates);
 		}
 	}
 
@@ -1330,15 +1393,19 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 *            The old Y coordinate.
 	 */
 	public void notifyExited(final ActiveEntity entity, final int oldX, final int oldY) {
-		Rectangle2D eArea;
-
-		eArea = entity.getArea(oldX, oldY);
-
-		for (final MovementListener l : movementListeners) {
-			Rectangle2D area = l.getArea();
-			if (area.intersects(eArea)) {
-				l.onExited(entity, this, oldX, oldY);
+		final double width = entity.getWidth();
+		final double height = entity.getHeight();
+		final List<MovementListenerGrid.Entry> candidates = movementListeners.collect(oldX, oldY,
+				oldX, oldY, width, height);
+		try {
+			for (int i = 0; i < candidates.size(); i++) {
+				final MovementListenerGrid.Entry entry = candidates.get(i);
+				if (entry.isRegistered() && entry.intersects(oldX, oldY, width, height)) {
+					entry.getListener().onExited(entity, this, oldX, oldY);
+				}
 			}
+		} finally {
+			movementListeners.release(candidates);
 		}
 	}
 
@@ -1358,50 +1425,52 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	public void notifyMovement(final ActiveEntity entity, final int oldX, final int oldY,
 			final int newX, final int newY) {
-		Rectangle2D oeArea;
-		Rectangle2D neArea;
-		boolean oldIn;
-		boolean newIn;
-
-		oeArea = entity.getArea(oldX, oldY);
-		neArea = entity.getArea(newX, newY);
-
-		for (final MovementListener l : movementListeners) {
-			Rectangle2D area = l.getArea();
-
-			oldIn = area.intersects(oeArea);
-			newIn = area.intersects(neArea);
+		final double width = entity.getWidth();
+		final double height = entity.getHeight();
+		final List<MovementListenerGrid.Entry> candidates = movementListeners.collect(oldX, oldY,
+				newX, newY, width, height);
+		try {
+			for (int i = 0; i < candidates.size(); i++) {
+				final MovementListenerGrid.Entry entry = candidates.get(i);
+				if (!entry.isRegistered()) {
+					continue;
+				}
+				final MovementListener l = entry.getListener();
+				final boolean oldIn = entry.intersects(oldX, oldY, width, height);
+				final boolean newIn = entry.intersects(newX, newY, width, height);
 
-			if (!oldIn && newIn) {
-				l.onEntered(entity, this, newX, newY);
-			}
+				if (!oldIn && newIn) {
+					l.onEntered(entity, this, newX, newY);
+				}
 
-			if (oldIn && newIn) {
-				l.onMoved(entity, this, oldX, oldY, newX, newY);
-			}
+				if (oldIn && newIn) {
+					l.onMoved(entity, this, oldX, oldY, newX, newY);
+				}
 
-			if (oldIn && !newIn) {
-				l.onExited(entity, this, oldX, oldY);
+				if (oldIn && !newIn) {
+					l.onExited(entity, this, oldX, oldY);
+				}
 			}
+		} finally {
+			movementListeners.release(candidates);
 		}
 	}
 
 	public void notifyBeforeMovement(final ActiveEntity entity, final int oldX, final int oldY,
 			final int newX, final int newY) {
-		Rectangle2D neArea;
-		boolean newIn;
-
-		neArea = entity.getArea(newX, newY);
-
-		for (final MovementListener l : movementListeners) {
-			Rectangle2D area = l.getArea();
-
-			newIn = area.intersects(neArea);
-
-			if (newIn) {
-				l.beforeMove(entity, this, oldX, oldY, newX, newY);
+		final double width = entity.getWidth();
+		final double height = entity.getHeight();
+		final List<MovementListenerGrid.Entry> candidates = movementListeners.collect(newX, newY,
+				newX, newY, width, height);
+		try {
+			for (int i = 0; i < candidates.size(); i++) {
+				final MovementListenerGrid.Entry entry = candidates.get(i);
+				if (entry.isRegistered() && entry.intersects(newX, newY, width, height)) {
+					entry.getListener().beforeMove(entity, this, oldX, oldY, newX, newY);
+				}
 			}
-
+		} finally {
+			movementListeners.release(candidates);
 		}
 	}
 
@@ -1416,8 +1485,9 @@ public class StendhalRPZone extends MarauroaRPZone {
 
 
 	/**
-	 * Register a movement listener for notification. Eventually create a
-	 * macro-block hash to cut down on listeners to check.
+	 * Register a movement listener for notification. The area of the
+	 * listener is read once. Entity listeners are updated when they move,
+	 * other listeners need to be registered again if their area changes.
 	 *
 	 * @param listener
 	 *            A movement listener to register.
@@ -1467,6 +1537,40 @@ public class StendhalRPZone extends MarauroaRPZone {
 		return playersAndFriends;
 	}
 
+	/**
+	 * Finds the players and friendly entities nearest to an entity.
+	 *
+	 * @param center entity to measure the distances from
+	 * @param range maximum distance
+	 * @param limit maximum number of entities to return
+	 * @param filter filter for the entities
+	 * @return up to <code>limit</code> entities within <code>range</code>,
+	 * 	nearest first
+	 */
+	public synchronized List<RPEntity> getNearestPlayersAndFriends(final Entity center,
+			final double range, final int limit, final Predicate<? super RPEntity> filter) {
+		final List<RPEntity> result = new ArrayList<RPEntity>(Math.min(limit, playersAndFriends.size()));
+		friendGrid.nearest(center, range, limit, RPEntity.class, filter, result);
+		return result;
+	}
+
+	/**
+	 * Finds the first player or friendly entity near an area that passes a
+	 * filter. The filter has to check the exact position of the entities.
+	 *
+	 * @param x x coordinate of the area
+	 * @param y y coordinate of the area
+	 * @param width width of the area
+	 * @param height height of the area
+	 * @param filter filter
+	 * @return the first entity passing the filter, or <code>null</code>
+	 */
+	public synchronized RPEntity findPlayerOrFriend(final double x, final double y,
+			final double width, final double height, final Predicate<? super RPEntity> filter) {
+		return (RPEntity) friendGrid.find(x, y, width, height,
+				entity -> filter.test((RPEntity) entity));
+	}
+
 	/**
 	 * Can moveto (mouse movement using pathfinding) be done on this map?
 	 *
@@ -1490,6 +1594,18 @@ public class StendhalRPZone extends MarauroaRPZone {
 
 	private int debugturn;
 
+	/**
+	 * Number of turns without players and their friends after which a zone
+	 * stops executing its logic. 0 disables hibernation.
+	 */
+	private static int hibernationTurns;
+
+	/** number of consecutive turns without players and their friends */
+	private int emptyTurns;
+
+	/** is the logic of this zone suspended? */
+	private boolean hibernating;
+
 	private boolean accessible;
 
 	private String noItemMoveMessage;
@@ -1521,6 +1637,16 @@ public class StendhalRPZone extends MarauroaRPZone {
 	}
 
 	public void logic() {
+		if (playersAndFriends.isEmpty()) {
+			emptyTurns++;
+			if ((hibernationTurns > 0) && (emptyTurns >= hibernationTurns)) {
+				hibernating = true;
+				return;
+			}
+		} else {
+			emptyTurns = 0;
+		}
+
 		for (final NPC npc : npcs) {
 			try {
 				npc.logic();
@@ -1537,6 +1663,36 @@ public class StendhalRPZone extends MarauroaRPZone {
 		}
 	}
 
+	/**
+	 * Sets the number of turns without players and their friends after which
+	 * zones stop executing their logic.
+	 *
+	 * @param turns number of turns, 0 to disable hibernation
+	 */
+	public static void setHibernationTurns(final int turns) {
+		hibernationTurns = turns;
+	}
+
+	/**
+	 * Checks whether the zone is hibernating. The logic of hibernating zones
+	 * is not executed and notifications of their ZoneTurnListeners are kept
+	 * back, until a player or one of his friends enters the zone.
+	 *
+	 * @return <code>true</code>, if the zone is hibernating
+	 */
+	public boolean isHibernating() {
+		return hibernating;
+	}
+
+	/**
+	 * Resumes the logic of a hibernating zone.
+	 */
+	private void wakeUp() {
+		hibernating = false;
+		emptyTurns = 0;
+		SingletonRepository.getTurnNotifier().resumeZone(this);
+	}
+
 	/**
 	 * Return whether the zone is completely empty.
 	 * @return true if there are no objects in zone
@@ -1588,6 +1744,15 @@ public class StendhalRPZone extends MarauroaRPZone {
 	}
 
 
+	/**
+	 * Gets all entities of this zone that pass a filter. The criteria are not
+	 * related to positions, so all entities have to be checked. Use
+	 * <code>getFilteredEntities(Rectangle2D, FilterCriteria)</code> if only
+	 * entities in some area are of interest.
+	 *
+	 * @param criteria filter
+	 * @return list of entities
+	 */
 	public List<Entity> getFilteredEntities(final FilterCriteria<Entity> criteria) {
 		final List <Entity> result = new LinkedList<Entity>();
 
@@ -1602,8 +1767,21 @@ public class StendhalRPZone extends MarauroaRPZone {
 			}
 
 		return result;
+	}
 
-
+	/**
+	 * Gets the entities that intersect an area and pass a filter. Only the
+	 * entities near the area are checked.
+	 *
+	 * @param area area
+	 * @param criteria filter
+	 * @return list of entities
+	 */
+	public synchronized List<Entity> getFilteredEntities(final Rectangle2D area, final FilterCriteria<Entity> criteria) {
+		final List<Entity> result = new LinkedList<Entity>();
+		entityGrid.collect(area.getX(), area.getY(), area.getWidth(), area.getHeight(), Entity.class,
+				entity -> entity.getArea().intersects(area) && criteria.passes(entity), result);
+		return result;
 	}
 
 	/**
@@ -1694,6 +1872,9 @@ public class StendhalRPZone extends MarauroaRPZone {
 				((ActiveEntity) inspected).onRemoved(this);
 			}
 		}
+		if (hibernating) {
+			wakeUp();
+		}
 	}
 
 	/**
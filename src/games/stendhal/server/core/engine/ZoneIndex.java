@@ -0,0 +1,145 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial index of the exterior zones by their world coordinates. Each level
+ * is a sparse grid of cells, and a zone is listed in every cell its area
+ * touches.
+ */
+final class ZoneIndex {
+	/** log2 of the cell size. Exterior zones are usually 128 tiles wide */
+	private static final int CELL_BITS = 7;
+
+	/** the cells of the levels, by level and packed cell coordinates */
+	private final Map<Integer, Map<Long, List<StendhalRPZone>>> levels = new HashMap<Integer, Map<Long, List<StendhalRPZone>>>();
+
+	/**
+	 * Adds an exterior zone at its current position. Interior zones are
+	 * ignored.
+	 *
+	 * @param zone zone
+	 */
+	synchronized void add(final StendhalRPZone zone) {
+		if (zone.isInterior()) {
+			return;
+		}
+		Map<Long, List<StendhalRPZone>> cells = levels.get(zone.getLevel());
+		if (cells == null) {
+			cells = new HashMap<Long, List<StendhalRPZone>>();
+			levels.put(zone.getLevel(), cells);
+		}
+		for (int row = row(zone); row <= lastRow(zone); row++) {
+			for (int column = column(zone); column <= lastColumn(zone); column++) {
+				final Long key = key(column, row);
+				List<StendhalRPZone> cell = cells.get(key);
+				if (cell == null) {
+					cell = new ArrayList<StendhalRPZone>(1);
+					cells.put(key, cell);
+				}
+				if (!cell.contains(zone)) {
+					cell.add(zone);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes a zone. The zone must not have been moved since it was added.
+	 *
+	 * @param zone zone
+	 */
+	synchronized void remove(final StendhalRPZone zone) {
+		if (zone.isInterior()) {
+			return;
+		}
+		final Map<Long, List<StendhalRPZone>> cells = levels.get(zone.getLevel());
+		if (cells == null) {
+			return;
+		}
+		for (int row = row(zone); row <= lastRow(zone); row++) {
+			for (int column = column(zone); column <= lastColumn(zone); column++) {
+				final Long key = key(column, row);
+				final List<StendhalRPZone> cell = cells.get(key);
+				if (cell != null) {
+					cell.remove(zone);
+					if (cell.isEmpty()) {
+						cells.remove(key);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the exterior zone that intersects an area.
+	 *
+	 * @param level level
+	 * @param x world x coordinate of the area
+	 * @param y world y coordinate of the area
+	 * @param width width of the area
+	 * @param height height of the area
+	 * @return a zone intersecting the area, or <code>null</code>
+	 */
+	synchronized StendhalRPZone find(final int level, final double x, final double y,
+			final double width, final double height) {
+		final Map<Long, List<StendhalRPZone>> cells = levels.get(level);
+		if (cells == null) {
+			return null;
+		}
+		final int lastColumn = cell(Math.ceil(x + width) - 1);
+		final int lastRow = cell(Math.ceil(y + height) - 1);
+		for (int row = cell(y); row <= lastRow; row++) {
+			for (int column = cell(x); column <= lastColumn; column++) {
+				final List<StendhalRPZone> cell = cells.get(key(column, row));
+				if (cell != null) {
+					for (int i = 0; i < cell.size(); i++) {
+						final StendhalRPZone zone = cell.get(i);
+						if (zone.intersects(x, y, width, height)) {
+							return zone;
+						}
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private static int column(final StendhalRPZone zone) {
+		return cell(zone.getX());
+	}
+
+	private static int row(final StendhalRPZone zone) {
+		return cell(zone.getY());
+	}
+
+	private static int lastColumn(final StendhalRPZone zone) {
+		return cell(zone.getX() + Math.max(1, zone.getWidth()) - 1);
+	}
+
+	private static int lastRow(final StendhalRPZone zone) {
+		return cell(zone.getY() + Math.max(1, zone.getHeight()) - 1);
+	}
+
+	private static int cell(final double coordinate) {
+		return ((int) Math.floor(coordinate)) >> CELL_BITS;
+	}
+
+	private static Long key(final int column, final int row) {
+		return Long.valueOf(((long) column << 32) | (row & 0xffffffffL));
+	}
+}
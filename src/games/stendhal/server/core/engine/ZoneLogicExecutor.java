@@ -0,0 +1,206 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.server.core.engine.profiler.TurnProfiler;
+import marauroa.common.game.IRPZone;
+
+/**
+ * Executes the logic of all zones once per turn.
+ *
+ * <p>By default the zones are processed one after the other on the game loop
+ * thread. If the server.ini key <code>zone_logic_threads</code> is set to a
+ * value greater than 1, the zones are processed in parallel on a fork join
+ * pool instead. Zone logic only touches entities of its own zone, but a few
+ * operations reach beyond it: Registrations at the TurnNotifier, zone
+ * changes, objects added to or removed from other zones, killed entities and
+ * logged game events. Those operations call {@link #defer(Runnable)} or
+ * {@link #deferOutside(StendhalRPZone, Runnable)}, which buffer them per zone
+ * while running on a worker thread. After all zones are done, the buffered
+ * operations are applied on the game loop thread, zone by zone in the
+ * iteration order of the world, so that their effect does not depend on
+ * thread scheduling.</p>
+ *
+ * <p>A deferred operation has no result yet when the call returns. Code that
+ * acts on the result, like the success of a teleport, defers itself as a
+ * whole with {@link #defer(Runnable)}.</p>
+ *
+ * <p>Hibernating zones are skipped.</p>
+ */
+public final class ZoneLogicExecutor {
+
+	/** server.ini key for the number of threads */
+	public static final String THREADS_KEY = "zone_logic_threads";
+
+	private static Logger logger = Logger.getLogger(ZoneLogicExecutor.class);
+
+	/** zone logic running on the current thread */
+	private static final ThreadLocal<ZoneTask> current = new ThreadLocal<ZoneTask>();
+
+	/** pool for parallel execution, <code>null</code> for serial execution */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a new ZoneLogicExecutor.
+	 *
+	 * @param threads number of threads, values less than 2 select serial execution
+	 */
+	public ZoneLogicExecutor(final int threads) {
+		if (threads > 1) {
+			pool = new ForkJoinPool(threads);
+			logger.info("Executing zone logic on " + threads + " threads");
+		} else {
+			pool = null;
+		}
+	}
+
+	/**
+	 * Is the zone logic executed in parallel?
+	 *
+	 * @return <code>true</code> if a pool is used
+	 */
+	public boolean isParallel() {
+		return pool != null;
+	}
+
+	/**
+	 * Defers an operation that affects more than the zone whose logic is
+	 * currently executed on this thread.
+	 *
+	 * @param operation operation to execute after all zones are done
+	 * @return <code>true</code>, if the operation was deferred; <code>false</code>
+	 *         if the caller is not parallel zone logic and has to execute it
+	 *         immediately
+	 */
+	public static boolean defer(final Runnable operation) {
+		final ZoneTask task = current.get();
+		if (task == null) {
+			return false;
+		}
+		task.operations.add(operation);
+		return true;
+	}
+
+	/**
+	 * Defers an operation on a zone, if it is not the zone whose logic is
+	 * currently executed on this thread.
+	 *
+	 * @param zone zone the operation changes
+	 * @param operation operation to execute after all zones are done
+	 * @return <code>true</code>, if the operation was deferred; <code>false</code>
+	 *         if the caller has to execute it immediately
+	 */
+	public static boolean deferOutside(final StendhalRPZone zone, final Runnable operation) {
+		final ZoneTask task = current.get();
+		if ((task == null) || (task.zone == zone)) {
+			return false;
+		}
+		task.operations.add(operation);
+		return true;
+	}
+
+	/**
+	 * Executes the logic of all zones.
+	 *
+	 * @param zones zones
+	 * @param profiler profiler to report the zone times to
+	 */
+	public void logic(final Iterable<IRPZone> zones, final TurnProfiler profiler) {
+		if (pool == null) {
+			for (final IRPZone zoneI : zones) {
+				final StendhalRPZone zone = (StendhalRPZone) zoneI;
+				if (zone.isHibernating()) {
+					continue;
+				}
+				final long zoneStart = profiler.start();
+				zone.logic();
+				profiler.endZone(zone, zoneStart);
+			}
+			return;
+		}
+
+		final List<ZoneTask> tasks = new ArrayList<ZoneTask>();
+		for (final IRPZone zoneI : zones) {
+			final StendhalRPZone zone = (StendhalRPZone) zoneI;
+			if (!zone.isHibernating()) {
+				tasks.add(new ZoneTask(zone, profiler.isEnabled()));
+			}
+		}
+
+		final List<Future<Void>> results = pool.invokeAll(tasks);
+		for (int i = 0; i < tasks.size(); i++) {
+			final ZoneTask task = tasks.get(i);
+			try {
+				results.get(i).get();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				logger.error("Interrupted in logic of zone " + task.zone.getName(), e);
+			} catch (final ExecutionException e) {
+				logger.error("Error in logic of zone " + task.zone.getName(), e.getCause());
+			}
+			profiler.recordZone(task.zone, task.nanos);
+
+			for (final Runnable operation : task.operations) {
+				try {
+					operation.run();
+				} catch (final RuntimeException e) {
+					logger.error("Error in deferred operation of zone " + task.zone.getName(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Logic of a single zone, executed on a worker thread.
+	 */
+	private static final class ZoneTask implements Callable<Void> {
+		private final StendhalRPZone zone;
+		private final boolean measure;
+		private final List<Runnable> operations = new ArrayList<Runnable>();
+		private long nanos;
+
+		/**
+		 * Creates a new ZoneTask.
+		 *
+		 * @param zone zone
+		 * @param measure measure the execution time
+		 */
+		ZoneTask(final StendhalRPZone zone, final boolean measure) {
+			this.zone = zone;
+			this.measure = measure;
+		}
+
+		@Override
+		public Void call() {
+			current.set(this);
+			try {
+				final long start = measure ? System.nanoTime() : 0;
+				zone.logic();
+				if (measure) {
+					nanos = System.nanoTime() - start;
+				}
+			} finally {
+				current.remove();
+			}
+			return null;
+		}
+	}
+}
@@ -24,11 +24,22 @@ import marauroa.server.db.DBTransaction;
 import marauroa.server.db.TransactionPool;
 /**
  * DAO to handle achievements for the stendhal website
+ *
+ * <p>The achievements reached by a player are cached for some minutes.
+ * Saving an achievement drops the cached set of the player, so that it is
+ * read again from the database after the transaction has been committed.
+ *
  * @author madmetzger
  *
  */
 public class AchievementDAO {
 
+	/** milliseconds a cached entry is used */
+	private static final long CACHE_TIME_TO_LIVE = 5 * 60 * 1000L;
+
+	/** identifiers of reached achievements by player name */
+	private final ExpiringCache<String, Set<String>> reachedCache =
+			new ExpiringCache<String, Set<String>>("Reached achievements", CACHE_TIME_TO_LIVE, 1000);
 
 	/**
 	 * logs a reached achievement into the database
@@ -53,6 +64,8 @@ public class AchievementDAO {
 			query = "UPDATE achievement SET reached = reached+1 WHERE id=[achievement_id];";
 			transaction.execute(query, parameters);
 		}
+
+		reachedCache.remove(playerName);
 	}
 
 	/**
@@ -190,6 +203,11 @@ public class AchievementDAO {
 	 * @throws SQLException in case of an database error
 	 */
 	public Set<String> loadAllReachedAchievementsOfPlayer(DBTransaction transaction, String playerName) throws SQLException {
+		Set<String> cached = reachedCache.get(playerName);
+		if (cached != null) {
+			return new HashSet<String>(cached);
+		}
+
 		Map<String, Object> params = new HashMap<String, Object>();
 		params.put("playername", playerName);
 		String query = "SELECT identifier FROM achievement a JOIN reached_achievement ra ON ra.achievement_id = a.id WHERE ra.charname = '[playername]';";
@@ -198,7 +216,26 @@ public class AchievementDAO {
 		while(resultSet.next()) {
 			identifiers.add(resultSet.getString(1));
 		}
+		reachedCache.put(playerName, new HashSet<String>(identifiers));
 		return identifiers;
 	}
 
+	/**
+	 * gets the number of reads, which were answered from the cache
+	 *
+	 * @return number of hits
+	 */
+	public long getCacheHits() {
+		return reachedCache.getHits();
+	}
+
+	/**
+	 * gets the number of reads, which had to query the database
+	 *
+	 * @return number of misses
+	 */
+	public long getCacheMisses() {
+		return reachedCache.getMisses();
+	}
+
 }
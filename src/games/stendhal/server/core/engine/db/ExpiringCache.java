@@ -0,0 +1,142 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import marauroa.server.game.Statistics;
+
+/**
+ * A size limited cache, whose entries expire some time after they have been
+ * stored.
+ *
+ * <p>Hits and misses are counted and added to the server statistics as
+ * "&lt;name&gt; cache hits" and "&lt;name&gt; cache misses".
+ *
+ * @param <K> type of key
+ * @param <V> type of value
+ */
+class ExpiringCache<K, V> {
+	private final long timeToLive;
+	private final String hitStatistic;
+	private final String missStatistic;
+	private final LinkedHashMap<K, Entry<V>> entries;
+	private long hits;
+	private long misses;
+
+	/**
+	 * creates a new ExpiringCache
+	 *
+	 * @param name name used in the statistics
+	 * @param timeToLive milliseconds an entry is valid after it was stored
+	 * @param maxSize maximum number of entries, the least recently used entries are removed first
+	 */
+	ExpiringCache(final String name, final long timeToLive, final int maxSize) {
+		this.timeToLive = timeToLive;
+		this.hitStatistic = name + " cache hits";
+		this.missStatistic = name + " cache misses";
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<K, Entry<V>> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * gets a value, which has not expired yet
+	 *
+	 * @param key key
+	 * @return value or <code>null</code>, if there is none
+	 */
+	synchronized V get(final K key) {
+		final Entry<V> entry = entries.get(key);
+		if ((entry != null) && (entry.expires > System.currentTimeMillis())) {
+			hits++;
+			Statistics.getStatistics().add(hitStatistic, 1);
+			return entry.value;
+		}
+		if (entry != null) {
+			entries.remove(key);
+		}
+		misses++;
+		Statistics.getStatistics().add(missStatistic, 1);
+		return null;
+	}
+
+	/**
+	 * stores a value
+	 *
+	 * @param key key
+	 * @param value value
+	 */
+	synchronized void put(final K key, final V value) {
+		entries.put(key, new Entry<V>(value, System.currentTimeMillis() + timeToLive));
+	}
+
+	/**
+	 * removes a value
+	 *
+	 * @param key key
+	 */
+	synchronized void remove(final K key) {
+		entries.remove(key);
+	}
+
+	/**
+	 * removes all values whose key matches
+	 *
+	 * @param filter filter for keys
+	 */
+	synchronized void removeIf(final Predicate<? super K> filter) {
+		entries.keySet().removeIf(filter);
+	}
+
+	/**
+	 * removes all values
+	 */
+	synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * gets the number of lookups, which were answered from the cache
+	 *
+	 * @return number of hits
+	 */
+	synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * gets the number of lookups, which had to go to the database
+	 *
+	 * @return number of misses
+	 */
+	synchronized long getMisses() {
+		return misses;
+	}
+
+	private static class Entry<V> {
+		final V value;
+		final long expires;
+
+		Entry(final V value, final long expires) {
+			this.value = value;
+			this.expires = expires;
+		}
+	}
+}
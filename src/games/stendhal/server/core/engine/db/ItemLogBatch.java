@@ -0,0 +1,209 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import marauroa.common.game.RPObject;
+import marauroa.server.db.DBTransaction;
+
+/**
+ * Rows for the item and itemlog tables, written with one JDBC batch per
+ * table. The rows of each table are written in the order in which they were
+ * added, so the itemlog keeps the order of the events.
+ *
+ * <p>The logids of new items are put on the items only after the rows have
+ * been written. Until then they are kept in the batch, so that an item does
+ * not keep a logid without a row in the item table, if the batch fails.
+ */
+public class ItemLogBatch {
+	private final DBTransaction transaction;
+	private final List<Object[]> items = new ArrayList<Object[]>();
+	private final List<Object[]> entries = new ArrayList<Object[]>();
+	/** new items in the order they were added */
+	private final List<RPObject> newItems = new ArrayList<RPObject>();
+	/** logids of the new items */
+	private final Map<RPObject, Integer> newItemIds = new IdentityHashMap<RPObject, Integer>();
+
+	/**
+	 * creates a new ItemLogBatch
+	 *
+	 * @param transaction transaction to write the rows in
+	 */
+	public ItemLogBatch(final DBTransaction transaction) {
+		this.transaction = transaction;
+	}
+
+	/**
+	 * gets the transaction the rows are written in
+	 *
+	 * @return DBTransaction
+	 */
+	public DBTransaction getTransaction() {
+		return transaction;
+	}
+
+	/**
+	 * adds a row to the item table for a new item
+	 *
+	 * @param item item
+	 * @param id logid of the item
+	 * @param timestamp timestamp
+	 */
+	void addItem(final RPObject item, final int id, final Timestamp timestamp) {
+		items.add(new Object[] { Integer.valueOf(id), item.get("name"), timestamp });
+		newItems.add(item);
+		newItemIds.put(item, Integer.valueOf(id));
+	}
+
+	/**
+	 * checks whether an item has a logid, either on the item or in this batch
+	 *
+	 * @param item item
+	 * @return true, if the item has a logid
+	 */
+	public boolean hasItemId(final RPObject item) {
+		return newItemIds.containsKey(item) || item.has(StendhalItemDAO.ATTR_ITEM_LOGID);
+	}
+
+	/**
+	 * gets the logid of an item, either from this batch or from the item
+	 *
+	 * @param item item
+	 * @return logid
+	 */
+	public int getItemId(final RPObject item) {
+		final Integer id = newItemIds.get(item);
+		if (id != null) {
+			return id.intValue();
+		}
+		return item.getInt(StendhalItemDAO.ATTR_ITEM_LOGID);
+	}
+
+	/**
+	 * adds a row to the itemlog table
+	 *
+	 * @param itemid logid of the item
+	 * @param source name of the player, may be <code>null</code>
+	 * @param event name of the event
+	 * @param param1 param 1
+	 * @param param2 param 2
+	 * @param param3 param 3
+	 * @param param4 param 4
+	 * @param timestamp timestamp
+	 */
+	void addEntry(final int itemid, final String source, final String event, final String param1,
+			final String param2, final String param3, final String param4, final Timestamp timestamp) {
+		entries.add(new Object[] { Integer.valueOf(itemid), source, event, param1, param2, param3, param4, timestamp });
+	}
+
+	/**
+	 * marks the rows added so far
+	 *
+	 * @return mark to reset the batch to
+	 */
+	public Mark mark() {
+		return new Mark(items.size(), entries.size(), newItems.size());
+	}
+
+	/**
+	 * removes the rows and new items added after a mark
+	 *
+	 * @param mark mark
+	 */
+	public void reset(final Mark mark) {
+		items.subList(mark.items, items.size()).clear();
+		entries.subList(mark.entries, entries.size()).clear();
+		final List<RPObject> added = newItems.subList(mark.newItems, newItems.size());
+		for (final RPObject item : added) {
+			newItemIds.remove(item);
+		}
+		added.clear();
+	}
+
+	/**
+	 * gets the number of rows that have not been written yet
+	 *
+	 * @return number of rows
+	 */
+	public int size() {
+		return items.size() + entries.size();
+	}
+
+	/**
+	 * writes the collected rows and puts the logids on the new items
+	 *
+	 * @throws SQLException in case of a database error
+	 */
+	public void flush() throws SQLException {
+		// the items first, so that no log entry refers to a missing item
+		write("INSERT INTO item (id, name, timedate) VALUES (?, ?, ?)", items);
+		write("INSERT INTO itemlog (itemid, source, event, param1, param2, param3, param4, timedate)"
+				+ " VALUES (?, ?, ?, ?, ?, ?, ?, ?)", entries);
+
+		for (final RPObject item : newItems) {
+			item.put(StendhalItemDAO.ATTR_ITEM_LOGID, newItemIds.get(item).intValue());
+		}
+		newItems.clear();
+		newItemIds.clear();
+	}
+
+	private void write(final String sql, final List<Object[]> rows) throws SQLException {
+		if (rows.isEmpty()) {
+			return;
+		}
+		final PreparedStatement stmt = transaction.prepareStatement(sql, null);
+		try {
+			for (final Object[] row : rows) {
+				for (int i = 0; i < row.length; i++) {
+					final Object value = row[i];
+					if (value instanceof Integer) {
+						stmt.setInt(i + 1, ((Integer) value).intValue());
+					} else if (value instanceof Timestamp) {
+						stmt.setTimestamp(i + 1, (Timestamp) value);
+					} else if (value == null) {
+						// the former statements wrote missing values as empty strings
+						stmt.setString(i + 1, "");
+					} else {
+						stmt.setString(i + 1, (String) value);
+					}
+				}
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+		} finally {
+			stmt.close();
+		}
+		rows.clear();
+	}
+
+	/**
+	 * the number of rows and new items of a batch at some point
+	 */
+	public static final class Mark {
+		private final int items;
+		private final int entries;
+		private final int newItems;
+
+		Mark(final int items, final int entries, final int newItems) {
+			this.items = items;
+			this.entries = entries;
+			this.newItems = newItems;
+		}
+	}
+}
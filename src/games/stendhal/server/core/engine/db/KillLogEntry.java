@@ -0,0 +1,91 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import java.util.Objects;
+
+/**
+ * a row of the kill log, which counts the kills of one killed entity by
+ * one killer on one day
+ */
+public final class KillLogEntry {
+	private final String killed;
+	private final String killedType;
+	private final String killer;
+	private final String killerType;
+	private final String day;
+
+	/**
+	 * creates a new KillLogEntry
+	 *
+	 * @param killed name of killed entity
+	 * @param killedType type of killed entity
+	 * @param killer name of killer
+	 * @param killerType type of killer
+	 * @param day day in the format yyyy-MM-dd
+	 */
+	public KillLogEntry(final String killed, final String killedType, final String killer,
+			final String killerType, final String day) {
+		this.killed = killed;
+		this.killedType = killedType;
+		this.killer = killer;
+		this.killerType = killerType;
+		this.day = day;
+	}
+
+	public String getKilled() {
+		return killed;
+	}
+
+	public String getKilledType() {
+		return killedType;
+	}
+
+	public String getKiller() {
+		return killer;
+	}
+
+	public String getKillerType() {
+		return killerType;
+	}
+
+	public String getDay() {
+		return day;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(killed, killedType, killer, killerType, day);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof KillLogEntry)) {
+			return false;
+		}
+		final KillLogEntry other = (KillLogEntry) obj;
+		return Objects.equals(killed, other.killed)
+				&& Objects.equals(killedType, other.killedType)
+				&& Objects.equals(killer, other.killer)
+				&& Objects.equals(killerType, other.killerType)
+				&& Objects.equals(day, other.day);
+	}
+
+	@Override
+	public String toString() {
+		return "KillLogEntry [killed=" + killed + ", killedType=" + killedType + ", killer=" + killer
+				+ ", killerType=" + killerType + ", day=" + day + "]";
+	}
+}
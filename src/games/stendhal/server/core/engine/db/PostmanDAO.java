@@ -11,13 +11,12 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine.db;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.log4j.Logger;
 
@@ -47,15 +46,19 @@ public class PostmanDAO {
 	 */
 	public void storeMessage(DBTransaction transaction, String source, String target, String message, String messagetype, Timestamp timestamp) throws SQLException {
 		String query = "INSERT INTO postman(source, target, message, messagetype, timedate)"
-				+ " values ('[source]', '[target]', '[message]', '[messagetype]', '[timedate]')";
+				+ " values (?, ?, ?, ?, ?)";
 		logger.debug("postman is storing a message " + query);
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("source", source);
-		params.put("target", target);
-		params.put("message", message);
-		params.put("messagetype", messagetype);
-		params.put("timedate", timestamp);
-		transaction.execute(query, params);
+		PreparedStatement stmt = transaction.prepareStatement(query, null);
+		try {
+			stmt.setString(1, source);
+			stmt.setString(2, target);
+			stmt.setString(3, message);
+			stmt.setString(4, messagetype);
+			stmt.setTimestamp(5, timestamp);
+			stmt.executeUpdate();
+		} finally {
+			stmt.close();
+		}
 	}
 
 
@@ -70,25 +73,27 @@ public class PostmanDAO {
 	public List<ChatMessage> getChatMessages(DBTransaction transaction, String charname) throws SQLException {
 		try {
 			// we do not yet use the delivered flag but I am being super careful and including the check for it already.
-			String query = "SELECT source, message, timedate, messagetype FROM postman WHERE target='[charname]' and delivered = 0 ORDER BY timedate FOR UPDATE";
-			Map<String, Object> params = new HashMap<String, Object>();
-			params.put("charname", charname);
+			String query = "SELECT source, message, timedate, messagetype FROM postman WHERE target=? and delivered = 0 ORDER BY timedate FOR UPDATE";
 			logger.debug("getChatMessages is executing query " + query);
 
-			ResultSet chatMessagesSet = transaction.query(query, params);
-			List<ChatMessage> list = new LinkedList<ChatMessage>();
+			PreparedStatement stmt = transaction.prepareStatement(query, null);
+			try {
+				stmt.setString(1, charname);
+				ResultSet chatMessagesSet = stmt.executeQuery();
+				List<ChatMessage> list = new LinkedList<ChatMessage>();
 
-			while (chatMessagesSet.next()) {
-				String source = chatMessagesSet.getString("source");
-				String message = chatMessagesSet.getString("message");
-				String timedate = chatMessagesSet.getString("timedate");
-				String messagetype = chatMessagesSet.getString("messagetype");
-				ChatMessage chatmessage = new ChatMessage(source, message, timedate, messagetype);
-				list.add(chatmessage);
+				while (chatMessagesSet.next()) {
+					String source = chatMessagesSet.getString("source");
+					String message = chatMessagesSet.getString("message");
+					String timedate = chatMessagesSet.getString("timedate");
+					String messagetype = chatMessagesSet.getString("messagetype");
+					ChatMessage chatmessage = new ChatMessage(source, message, timedate, messagetype);
+					list.add(chatmessage);
+				}
+				return list;
+			} finally {
+				stmt.close();
 			}
-
-			chatMessagesSet.close();
-			return list;
 		} catch (SQLException e) {
 			logger.error("Can't query for character \"" + charname + "\"", e);
 			throw e;
@@ -105,12 +110,16 @@ public class PostmanDAO {
 	 */
 	public void markMessagesDelivered(DBTransaction transaction, String charname) throws SQLException {
 		try {
-			String query = "UPDATE postman SET delivered = 1 WHERE target = '[charname]'";
-			Map<String, Object> params = new HashMap<String, Object>();
-			params.put("charname", charname);
+			String query = "UPDATE postman SET delivered = 1 WHERE target = ?";
 			logger.debug("markMessagesDelivered is using query: " + query);
 
-			transaction.execute(query, params);
+			PreparedStatement stmt = transaction.prepareStatement(query, null);
+			try {
+				stmt.setString(1, charname);
+				stmt.executeUpdate();
+			} finally {
+				stmt.close();
+			}
 		} catch (SQLException e) {
 			logger.error("Can't mark messages delivered for character \"" + charname + "\"", e);
 			throw e;
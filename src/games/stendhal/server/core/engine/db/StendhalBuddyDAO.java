@@ -11,11 +11,10 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine.db;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -40,12 +39,16 @@ public class StendhalBuddyDAO {
 	 */
 	public Multimap<String, String> loadRelations(DBTransaction transaction, String charname) throws SQLException {
 		HashMultimap<String, String> map = HashMultimap.create();
-		String query = "SELECT relationtype, buddy FROM buddy WHERE charname='[charname]'";
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("charname", charname);
-		ResultSet resultSet = transaction.query(query, params);
-		while (resultSet.next()) {
-			map.put(resultSet.getString(1), resultSet.getString(2));
+		PreparedStatement stmt = transaction.prepareStatement(
+				"SELECT relationtype, buddy FROM buddy WHERE charname=?", null);
+		try {
+			stmt.setString(1, charname);
+			ResultSet resultSet = stmt.executeQuery();
+			while (resultSet.next()) {
+				map.put(resultSet.getString(1), resultSet.getString(2));
+			}
+		} finally {
+			stmt.close();
 		}
 		return map;
 	}
@@ -62,11 +65,16 @@ public class StendhalBuddyDAO {
 	 * @throws SQLException SQLException
 	 */
 	public boolean isIgnored(DBTransaction transaction, String character, String candidate) throws SQLException {
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("charname", character);
-		params.put("candidate", candidate);
-		int count = transaction.querySingleCellInt("SELECT count(*) FROM buddy WHERE charname='[charname]' AND buddy='[candidate]' AND relationtype='ignore'", params);
-		return count > 0;
+		PreparedStatement stmt = transaction.prepareStatement(
+				"SELECT count(*) FROM buddy WHERE charname=? AND buddy=? AND relationtype='ignore'", null);
+		try {
+			stmt.setString(1, character);
+			stmt.setString(2, candidate);
+			ResultSet resultSet = stmt.executeQuery();
+			return resultSet.next() && (resultSet.getInt(1) > 0);
+		} finally {
+			stmt.close();
+		}
 	}
 
 
@@ -100,26 +108,42 @@ public class StendhalBuddyDAO {
 	 * @throws SQLException in case of an database error
 	 */
 	private void syncBuddyListToDB(DBTransaction transaction, String charname, String relationtype, Collection<String> oldList, Collection<String> newList) throws SQLException {
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("charname", charname);
-		params.put("relationtype", relationtype);
-
 		// add
 		Set<String> toAdd = new TreeSet<String>(newList);
 		toAdd.removeAll(oldList);
-		String query = "INSERT INTO buddy (charname, relationtype, buddy) VALUES ('[charname]', '[relationtype]', '[buddy]')";
-		for (String buddy : toAdd) {
-			params.put("buddy", buddy);
-			transaction.execute(query, params);
+		if (!toAdd.isEmpty()) {
+			PreparedStatement stmt = transaction.prepareStatement(
+					"INSERT INTO buddy (charname, relationtype, buddy) VALUES (?, ?, ?)", null);
+			try {
+				for (String buddy : toAdd) {
+					stmt.setString(1, charname);
+					stmt.setString(2, relationtype);
+					stmt.setString(3, buddy);
+					stmt.addBatch();
+				}
+				stmt.executeBatch();
+			} finally {
+				stmt.close();
+			}
 		}
 
 		// delete
 		Set<String> toDel = new TreeSet<String>(oldList);
 		toDel.removeAll(newList);
-		query = "DELETE FROM buddy WHERE charname='[charname]' AND buddy='[buddy]' AND relationtype='[relationtype]'";
-		for (String buddy : toDel) {
-			params.put("buddy", buddy);
-			transaction.execute(query, params);
+		if (!toDel.isEmpty()) {
+			PreparedStatement stmt = transaction.prepareStatement(
+					"DELETE FROM buddy WHERE charname=? AND buddy=? AND relationtype=?", null);
+			try {
+				for (String buddy : toDel) {
+					stmt.setString(1, charname);
+					stmt.setString(2, buddy);
+					stmt.setString(3, relationtype);
+					stmt.addBatch();
+				}
+				stmt.executeBatch();
+			} finally {
+				stmt.close();
+			}
 		}
 	}
 
@@ -13,6 +13,7 @@ package games.stendhal.server.core.engine.db;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -25,11 +26,26 @@ import marauroa.server.db.DBTransaction;
 /**
  * database access for the hall of fame used in deathmatch
  *
+ * <p>Points and rankings are cached for some minutes. Writing points drops
+ * the cached points and the cached rankings of their fame type, so that
+ * they are read again from the database after the transaction has been
+ * committed. Changes made outside of the server are seen once the cached
+ * entries have expired.
+ *
  * @author hendrik
  */
 public class StendhalHallOfFameDAO {
 	private static Logger logger = Logger.getLogger(StendhalHallOfFameDAO.class);
 
+	/** milliseconds a cached entry is used */
+	private static final long CACHE_TIME_TO_LIVE = 5 * 60 * 1000L;
+
+	/** points by fame type and character name */
+	private final ExpiringCache<String, Integer> pointsCache =
+			new ExpiringCache<String, Integer>("Hall of fame points", CACHE_TIME_TO_LIVE, 10000);
+	/** character names by fame type, maximum and sort order */
+	private final ExpiringCache<List<Object>, List<String>> rankingCache =
+			new ExpiringCache<List<Object>, List<String>>("Hall of fame ranking", CACHE_TIME_TO_LIVE, 1000);
 
 	/**
 	 * Returns the points in the specified hall of fame.
@@ -43,6 +59,12 @@ public class StendhalHallOfFameDAO {
 	 * @return points or 0 in case there is no entry
 	 */
 	public int getHallOfFamePoints(final DBTransaction transaction, final String charname, final String fametype) {
+		final String key = pointsKey(charname, fametype);
+		final Integer cached = pointsCache.get(key);
+		if (cached != null) {
+			return cached.intValue();
+		}
+
 		int res = 0;
 		try {
 			final String query = "SELECT points FROM halloffame WHERE charname="
@@ -56,6 +78,7 @@ public class StendhalHallOfFameDAO {
 				res = result.getInt("points");
 			}
 			result.close();
+			pointsCache.put(key, Integer.valueOf(res));
 		} catch (final Exception sqle) {
 			logger.warn("Error reading hall of fame", sqle);
 		}
@@ -101,6 +124,9 @@ public class StendhalHallOfFameDAO {
 		} catch (final SQLException sqle) {
 			logger.warn("error adding game event", sqle);
 			throw sqle;
+		} finally {
+			pointsCache.remove(pointsKey(charname, fametype));
+			rankingCache.removeIf(key -> fametype.equals(key.get(0)));
 		}
 	}
 
@@ -115,6 +141,12 @@ public class StendhalHallOfFameDAO {
 	 * @throws SQLException in case of an database error
 	 */
 	public List<String> getCharactersByFametype(DBTransaction transaction, String fametype, int max, boolean ascending) throws SQLException {
+		List<Object> key = Arrays.<Object>asList(fametype, Integer.valueOf(max), Boolean.valueOf(ascending));
+		List<String> cached = rankingCache.get(key);
+		if (cached != null) {
+			return new LinkedList<String>(cached);
+		}
+
 		List<String> res = new LinkedList<String>();
 		Map<String, Object> params = new HashMap<String, Object>();
 		params.put("fametype", fametype);
@@ -136,7 +168,30 @@ public class StendhalHallOfFameDAO {
 		while (resultSet.next()) {
 			res.add(resultSet.getString(1));
 		}
+		rankingCache.put(key, new LinkedList<String>(res));
 		return res;
 	}
 
+	/**
+	 * gets the number of reads, which were answered from the cache
+	 *
+	 * @return number of hits
+	 */
+	public long getCacheHits() {
+		return pointsCache.getHits() + rankingCache.getHits();
+	}
+
+	/**
+	 * gets the number of reads, which had to query the database
+	 *
+	 * @return number of misses
+	 */
+	public long getCacheMisses() {
+		return pointsCache.getMisses() + rankingCache.getMisses();
+	}
+
+	private static String pointsKey(final String charname, final String fametype) {
+		return fametype + ":" + charname;
+	}
+
 }
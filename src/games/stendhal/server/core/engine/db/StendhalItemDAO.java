@@ -40,47 +40,67 @@ public class StendhalItemDAO {
 	public static final String ATTR_ITEM_LOGID = "logid";
 	private static final Logger logger = Logger.getLogger(StendhalItemDAO.class);
 
+	/** number of item logids reserved at once */
+	private static final int ITEM_ID_BLOCK_SIZE = 100;
+
+	/** next logid to assign */
+	private int nextItemId;
+	/** last logid of the reserved block */
+	private int lastReservedItemId = -1;
+
 	/**
 	 * Assigns the next logid to the specified item in case it does not already have one.
+	 * The logid is put on the item when the batch is written.
 	 *
-	 * @param transaction database transaction
+	 * @param batch batch to add the rows of the item to
 	 * @param item item
 	 * @param timestamp timestamp
 	 * @throws SQLException in case of a database error
 	 */
-	public void itemLogAssignIDIfNotPresent(final DBTransaction transaction, final RPObject item, Timestamp timestamp) throws SQLException {
-		if (item.has(ATTR_ITEM_LOGID)) {
+	public void itemLogAssignIDIfNotPresent(final ItemLogBatch batch, final RPObject item, Timestamp timestamp) throws SQLException {
+		if (batch.hasItemId(item)) {
 			return;
 		}
 
-		// insert row into
-		String sql = "INSERT INTO item (name, timedate) VALUES ('[name]', '[timedate]')";
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("name", item.get("name"));
-		params.put("timedate", timestamp);
-		transaction.execute(sql, params);
-
-		// get the insert id and store it into the item
-		item.put(ATTR_ITEM_LOGID, transaction.getLastInsertId("item", "id"));
-		itemLogInsertName(transaction, item, timestamp);
+		final int id = nextItemId(batch.getTransaction());
+		batch.addItem(item, id, timestamp);
+		itemLogInsertName(batch, item, timestamp);
 	}
 
+	/**
+	 * Gets the next logid from the reserved block, reserving a new block
+	 * after the highest id in the item table if the block is used up. The
+	 * server is the only one adding items, so the ids of a block stay
+	 * unused until the server assigns them.
+	 *
+	 * @param transaction DBTransaction
+	 * @return logid
+	 * @throws SQLException in case of a database error
+	 */
+	private synchronized int nextItemId(final DBTransaction transaction) throws SQLException {
+		if (nextItemId > lastReservedItemId) {
+			final int maxId = transaction.querySingleCellInt("SELECT COALESCE(MAX(id), 0) FROM item", null);
+			nextItemId = Math.max(nextItemId, maxId + 1);
+			lastReservedItemId = nextItemId + ITEM_ID_BLOCK_SIZE - 1;
+		}
+		return nextItemId++;
+	}
 
 	/**
 	 * Logs the name of the item on first.
 	 *
-	 * @param transaction
+	 * @param batch
 	 * @param item
 	 * @param timestamp timestamp
 	 * @throws SQLException
 	 */
-	private void itemLogInsertName(final DBTransaction transaction, final RPObject item, Timestamp timestamp) throws SQLException {
-		itemLogWriteEntry(transaction, timestamp, item, null, "register", getAttribute(item, "name"), getAttribute(item, "quantity"), getAttribute(item, "itemdata"), getAttribute(item, "bound"));
+	private void itemLogInsertName(final ItemLogBatch batch, final RPObject item, Timestamp timestamp) throws SQLException {
+		itemLogWriteEntry(batch, timestamp, item, null, "register", getAttribute(item, "name"), getAttribute(item, "quantity"), getAttribute(item, "itemdata"), getAttribute(item, "bound"));
 	}
 	/**
 	 * writes a log entry
 	 *
-	 * @param transaction DBTransaction
+	 * @param batch batch to add the entry to
 	 * @param timestamp timestamp
 	 * @param item item
 	 * @param player player object
@@ -91,15 +111,15 @@ public class StendhalItemDAO {
 	 * @param param4 param 4
 	 * @throws SQLException in case of an database error
 	 */
-	public  void itemLogWriteEntry(final DBTransaction transaction, Timestamp timestamp, final RPObject item, final RPEntity player, final String event, final String param1, final String param2, final String param3, final String param4) throws SQLException {
-		int itemid = item.getInt(StendhalItemDAO.ATTR_ITEM_LOGID);
-		itemLogWriteEntry(transaction, timestamp, itemid, player, event, param1, param2, param3, param4);
+	public  void itemLogWriteEntry(final ItemLogBatch batch, Timestamp timestamp, final RPObject item, final RPEntity player, final String event, final String param1, final String param2, final String param3, final String param4) throws SQLException {
+		int itemid = batch.getItemId(item);
+		itemLogWriteEntry(batch, timestamp, itemid, player, event, param1, param2, param3, param4);
 	}
 
 	/**
 	 * writes a log entry
 	 *
-	 * @param transaction DBTransaction
+	 * @param batch batch to add the entry to
 	 * @param timestamp timestamp
 	 * @param itemid itemid of item
 	 * @param player player object
@@ -110,26 +130,14 @@ public class StendhalItemDAO {
 	 * @param param4 param 4
 	 * @throws SQLException in case of an database error
 	 */
-	public void itemLogWriteEntry(final DBTransaction transaction, Timestamp timestamp, final int itemid, final RPEntity player, final String event, final String param1, final String param2, final String param3, final String param4) throws SQLException {
+	public void itemLogWriteEntry(final ItemLogBatch batch, Timestamp timestamp, final int itemid, final RPEntity player, final String event, final String param1, final String param2, final String param3, final String param4) throws SQLException {
 		String playerName = null;
 		if (player != null) {
 			playerName = player.getName();
 		}
-		final String query = "INSERT INTO itemlog (itemid, source, event, "
-			+ "param1, param2, param3, param4, timedate) VALUES ("
-			+ "[itemid], '[source]', '[event]', '[param1]', '[param2]', '[param3]', '[param4]', '[timedate]');";
-
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("itemid", itemid);
-		params.put("source", StringUtils.trimTo(playerName, 64));
-		params.put("event", StringUtils.trimTo(event, 64));
-		params.put("param1", StringUtils.trimTo(param1, 64));
-		params.put("param2", StringUtils.trimTo(param2, 64));
-		params.put("param3", StringUtils.trimTo(param3, 64));
-		params.put("param4", StringUtils.trimTo(param4, 64));
-		params.put("timedate", timestamp);
-
-		transaction.execute(query, params);
+		batch.addEntry(itemid, StringUtils.trimTo(playerName, 64), StringUtils.trimTo(event, 64),
+				StringUtils.trimTo(param1, 64), StringUtils.trimTo(param2, 64),
+				StringUtils.trimTo(param3, 64), StringUtils.trimTo(param4, 64), timestamp);
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /***************************************************************************
- *                    (C) Copyright 2003-2020 - Stendhal                   *
+ *                    (C) Copyright 2003-2026 - Stendhal                   *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -11,10 +11,10 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine.db;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
-import java.util.HashMap;
+import java.util.Date;
 import java.util.Map;
 
 import games.stendhal.server.entity.Entity;
@@ -31,36 +31,62 @@ import marauroa.server.db.DBTransaction;
 public class StendhalKillLogDAO {
 
 	/**
-	 * Logs a kill.
+	 * Logs kills, which have been counted in memory.
 	 *
 	 * @param transaction transaction
-	 * @param killed killed entity
-	 * @param killer killer
+	 * @param kills number of kills by kill log row
 	 * @throws SQLException in case of an database error
 	 */
-	public void logKill(final DBTransaction transaction, final Entity killed, final Killer killer, Timestamp timestamp) throws SQLException {
+	public void logKills(final DBTransaction transaction, final Map<KillLogEntry, Integer> kills) throws SQLException {
 		// try update in case we already have this combination
-		String query = "UPDATE kills SET cnt = cnt+1"
-			+ " WHERE killed = '[killed]' AND killed_type = '[killed_type]'"
-			+ " AND killer = '[killer]' AND killer_type = '[killer_type]'"
-			+ " AND day = '[day]';";
-
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("killed", killed.getName());
-		params.put("killed_type", entityToType(killed));
-		params.put("killer", killer.getName());
-		params.put("killer_type", entityToType(killer));
-		params.put("day", new SimpleDateFormat("yyyy-MM-dd").format(timestamp));
+		final PreparedStatement update = transaction.prepareStatement("UPDATE kills SET cnt = cnt + ?"
+				+ " WHERE killed = ? AND killed_type = ? AND killer = ? AND killer_type = ? AND day = ?", null);
+		PreparedStatement insert = null;
+		try {
+			for (final Map.Entry<KillLogEntry, Integer> kill : kills.entrySet()) {
+				final KillLogEntry entry = kill.getKey();
+				update.setInt(1, kill.getValue().intValue());
+				setEntry(update, 2, entry);
+				final int rowCount = update.executeUpdate();
 
-		final int rowCount = transaction.execute(query, params);
-
-		// in case we did not have this combination yet, make an insert
-		if (rowCount == 0) {
-			query = "INSERT INTO kills (killed, killed_type, killer, killer_type, day, cnt)"
-				+ " VALUES ('[killed]', '[killed_type]', '[killer]', '[killer_type]', '[day]', 1)";
-			transaction.execute(query, params);
+				// in case we did not have this combination yet, make an insert
+				if (rowCount == 0) {
+					if (insert == null) {
+						insert = transaction.prepareStatement("INSERT INTO kills"
+								+ " (killed, killed_type, killer, killer_type, day, cnt) VALUES (?, ?, ?, ?, ?, ?)", null);
+					}
+					setEntry(insert, 1, entry);
+					insert.setInt(6, kill.getValue().intValue());
+					insert.executeUpdate();
+				}
+			}
+		} finally {
+			update.close();
+			if (insert != null) {
+				insert.close();
+			}
 		}
+	}
+
+	private void setEntry(final PreparedStatement stmt, final int index, final KillLogEntry entry) throws SQLException {
+		stmt.setString(index, entry.getKilled());
+		stmt.setString(index + 1, entry.getKilledType());
+		stmt.setString(index + 2, entry.getKiller());
+		stmt.setString(index + 3, entry.getKillerType());
+		stmt.setDate(index + 4, java.sql.Date.valueOf(entry.getDay()));
+	}
 
+	/**
+	 * Creates the kill log row for a kill.
+	 *
+	 * @param killed killed entity
+	 * @param killer killer
+	 * @param timestamp time of the kill
+	 * @return KillLogEntry
+	 */
+	public KillLogEntry createEntry(final Entity killed, final Killer killer, final Date timestamp) {
+		return new KillLogEntry(killed.getName(), entityToType(killed), killer.getName(),
+				entityToType(killer), new SimpleDateFormat("yyyy-MM-dd").format(timestamp));
 	}
 
 	/**
@@ -11,6 +11,7 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine.db;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.HashMap;
@@ -53,21 +54,37 @@ public class StendhalWebsiteDAO {
 	 * @throws SQLException in case of an database error
 	 */
 	public void setOnlineStatus(final DBTransaction transaction, final String playerName, final boolean online) throws SQLException {
-		String onlinestate;
-		if (online) {
-			onlinestate = "1";
-		} else {
-			onlinestate = "0";
+		final PreparedStatement stmt = transaction.prepareStatement(
+				"UPDATE character_stats SET online=? WHERE name=?", null);
+		try {
+			stmt.setInt(1, online ? 1 : 0);
+			stmt.setString(2, playerName);
+			stmt.executeUpdate();
+		} finally {
+			stmt.close();
 		}
-		// first try an update
-		final String query = "UPDATE character_stats SET online='[onlinestate]'"
-			+ " WHERE name='[name]'";
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("onlinestate", onlinestate);
-		params.put("name", playerName);
-		logger.debug("setOnlineStatus is running: " + query);
+	}
 
-		transaction.execute(query, params);
+	/**
+	 * sets the online status of several players
+	 *
+	 * @param transaction DBTransaction
+	 * @param statuses online status by player name
+	 * @throws SQLException in case of an database error
+	 */
+	public void setOnlineStatus(final DBTransaction transaction, final Map<String, Boolean> statuses) throws SQLException {
+		final PreparedStatement stmt = transaction.prepareStatement(
+				"UPDATE character_stats SET online=? WHERE name=?", null);
+		try {
+			for (final Map.Entry<String, Boolean> status : statuses.entrySet()) {
+				stmt.setInt(1, status.getValue().booleanValue() ? 1 : 0);
+				stmt.setString(2, status.getKey());
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+		} finally {
+			stmt.close();
+		}
 	}
 
 	/**
@@ -98,17 +115,21 @@ public class StendhalWebsiteDAO {
 	 */
 	public void logTradeEvent(final DBTransaction transaction, String charname, String itemname, int itemid,
 			int quantity, int price, String stats, Timestamp timestamp) throws SQLException {
-		String sql = "INSERT INTO trade(charname, itemname, itemid, quantity, price, stats, timedate) "
-				+ " VALUES ('[charname]', '[itemname]', [itemid], [quantity], [price], '[stats]', '[timedate]')";
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("charname", charname);
-		params.put("itemname", itemname);
-		params.put("itemid", itemid);
-		params.put("quantity", quantity);
-		params.put("price", price);
-		params.put("stats", stats);
-		params.put("timedate", timestamp);
-		transaction.execute(sql, params);
+		final PreparedStatement stmt = transaction.prepareStatement(
+				"INSERT INTO trade(charname, itemname, itemid, quantity, price, stats, timedate)"
+				+ " VALUES (?, ?, ?, ?, ?, ?, ?)", null);
+		try {
+			stmt.setString(1, charname);
+			stmt.setString(2, itemname);
+			stmt.setInt(3, itemid);
+			stmt.setInt(4, quantity);
+			stmt.setInt(5, price);
+			stmt.setString(6, stats);
+			stmt.setTimestamp(7, timestamp);
+			stmt.executeUpdate();
+		} finally {
+			stmt.close();
+		}
 	}
 
 	/**
@@ -0,0 +1,67 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.dbcommand;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.base.MoreObjects;
+
+import games.stendhal.server.core.engine.db.ItemLogBatch;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.command.AbstractDBCommand;
+
+/**
+ * logs several item events in one transaction, writing the rows of all
+ * events with one batch per table. An event that fails is skipped, so
+ * that it does not take the other events of the batch with it.
+ */
+public class LogItemEventBatchCommand extends AbstractDBCommand {
+	private static Logger logger = Logger.getLogger(LogItemEventBatchCommand.class);
+	private final List<AbstractLogItemEventCommand> commands;
+
+	/**
+	 * creates a new LogItemEventBatchCommand
+	 *
+	 * @param commands item events in the order they happened
+	 */
+	public LogItemEventBatchCommand(final List<AbstractLogItemEventCommand> commands) {
+		this.commands = commands;
+	}
+
+	@Override
+	public void execute(final DBTransaction transaction) throws SQLException {
+		final ItemLogBatch batch = new ItemLogBatch(transaction);
+		for (final AbstractLogItemEventCommand command : commands) {
+			final ItemLogBatch.Mark mark = batch.mark();
+			try {
+				command.log(batch);
+			} catch (final RuntimeException e) {
+				logger.error("Skipping item event " + command, e);
+				batch.reset(mark);
+			}
+		}
+		batch.flush();
+	}
+
+	/**
+	 * returns a string suitable for debug output of this DBCommand.
+	 *
+	 * @return debug string
+	 */
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("events", commands.size()).toString();
+	}
+}
@@ -1,5 +1,5 @@
 /***************************************************************************
- *                    (C) Copyright 2007-2010 - Stendhal                   *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -12,39 +12,33 @@
 package games.stendhal.server.core.engine.dbcommand;
 
 import java.sql.SQLException;
+import java.util.Map;
 
+import games.stendhal.server.core.engine.db.KillLogEntry;
 import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
-import games.stendhal.server.entity.Entity;
-import games.stendhal.server.entity.Killer;
 import marauroa.server.db.DBTransaction;
 import marauroa.server.db.command.AbstractDBCommand;
 import marauroa.server.game.db.DAORegister;
 
 /**
- * logs kill events
- *
- * @author hendrik
+ * logs kills, which have been counted in memory
  */
-public class LogKillEventCommand extends AbstractDBCommand {
-
-	private Entity frozenKilled;
-	private Killer frozenKiller;
+public class LogKillsCommand extends AbstractDBCommand {
+	private final Map<KillLogEntry, Integer> kills;
 
 	/**
-	 * creates a new LogKillEventCommand
+	 * creates a new LogKillsCommand
 	 *
-	 * @param killed killed entity
-	 * @param killer killer entity
+	 * @param kills number of kills by kill log row
 	 */
-	public LogKillEventCommand(Entity killed, Killer killer) {
-		this.frozenKilled = (Entity) killed.clone();
-		this.frozenKiller = (Killer) killer.clone();
+	public LogKillsCommand(final Map<KillLogEntry, Integer> kills) {
+		this.kills = kills;
 	}
 
 	@Override
-	public void execute(DBTransaction transaction) throws SQLException {
+	public void execute(final DBTransaction transaction) throws SQLException {
 		StendhalKillLogDAO killLog = DAORegister.get().get(StendhalKillLogDAO.class);
-		killLog.logKill(transaction, frozenKilled, frozenKiller, getEnqueueTime());
+		killLog.logKills(transaction, kills);
 	}
 
 	/**
@@ -54,7 +48,6 @@ public class LogKillEventCommand extends AbstractDBCommand {
 	 */
 	@Override
 	public String toString() {
-		return "LogKillEventCommand [frozenKilled=" + frozenKilled
-				+ ", frozenKiller=" + frozenKiller + "]";
+		return "LogKillsCommand [rows=" + kills.size() + "]";
 	}
 }
@@ -15,10 +15,10 @@ import java.sql.SQLException;
 
 import com.google.common.base.MoreObjects;
 
+import games.stendhal.server.core.engine.db.ItemLogBatch;
 import games.stendhal.server.core.engine.db.StendhalItemDAO;
 import games.stendhal.server.entity.RPEntity;
 import marauroa.common.game.RPObject;
-import marauroa.server.db.DBTransaction;
 import marauroa.server.game.db.DAORegister;
 
 /**
@@ -49,20 +49,20 @@ public class LogMergeItemEventCommand extends AbstractLogItemEventCommand {
 	}
 
 	@Override
-	protected void log(DBTransaction transaction) throws SQLException {
+	protected void log(ItemLogBatch batch) throws SQLException {
 		StendhalItemDAO stendhalItemDAO = DAORegister.get().get(StendhalItemDAO.class);
-		stendhalItemDAO.itemLogAssignIDIfNotPresent(transaction, liveOldItem, getEnqueueTime());
-		stendhalItemDAO.itemLogAssignIDIfNotPresent(transaction, liveOutlivingItem, getEnqueueTime());
+		stendhalItemDAO.itemLogAssignIDIfNotPresent(batch, liveOldItem, getEnqueueTime());
+		stendhalItemDAO.itemLogAssignIDIfNotPresent(batch, liveOutlivingItem, getEnqueueTime());
 
 		final String oldQuantity = getQuantity(frozenOldItem);
 		final String oldOutlivingQuantity = getQuantity(frozenOutlivingItem);
 		final String newQuantity = Integer.toString(Integer.parseInt(oldQuantity) + Integer.parseInt(oldOutlivingQuantity));
 
-		stendhalItemDAO.itemLogWriteEntry(transaction, getEnqueueTime(), liveOldItem.getInt(StendhalItemDAO.ATTR_ITEM_LOGID), player, "merge in",
-				liveOutlivingItem.get(StendhalItemDAO.ATTR_ITEM_LOGID), oldQuantity,
+		stendhalItemDAO.itemLogWriteEntry(batch, getEnqueueTime(), batch.getItemId(liveOldItem), player, "merge in",
+				Integer.toString(batch.getItemId(liveOutlivingItem)), oldQuantity,
 				oldOutlivingQuantity, newQuantity);
-		stendhalItemDAO.itemLogWriteEntry(transaction, getEnqueueTime(), liveOutlivingItem.getInt(StendhalItemDAO.ATTR_ITEM_LOGID), player, "merged in",
-				liveOldItem.get(StendhalItemDAO.ATTR_ITEM_LOGID), oldOutlivingQuantity,
+		stendhalItemDAO.itemLogWriteEntry(batch, getEnqueueTime(), batch.getItemId(liveOutlivingItem), player, "merged in",
+				Integer.toString(batch.getItemId(liveOldItem)), oldOutlivingQuantity,
 				oldQuantity, newQuantity);
 	}
 
@@ -15,10 +15,10 @@ import java.sql.SQLException;
 
 import com.google.common.base.MoreObjects;
 
+import games.stendhal.server.core.engine.db.ItemLogBatch;
 import games.stendhal.server.core.engine.db.StendhalItemDAO;
 import games.stendhal.server.entity.RPEntity;
 import marauroa.common.game.RPObject;
-import marauroa.server.db.DBTransaction;
 import marauroa.server.game.db.DAORegister;
 
 /**
@@ -49,19 +49,19 @@ public class LogSplitItemEventCommand extends AbstractLogItemEventCommand {
 	}
 
 	@Override
-	protected void log(DBTransaction transaction) throws SQLException {
+	protected void log(ItemLogBatch batch) throws SQLException {
 		StendhalItemDAO stendhalItemDAO = DAORegister.get().get(StendhalItemDAO.class);
-		stendhalItemDAO.itemLogAssignIDIfNotPresent(transaction, liveItem, getEnqueueTime());
-		stendhalItemDAO.itemLogAssignIDIfNotPresent(transaction, liveNewItem, getEnqueueTime());
+		stendhalItemDAO.itemLogAssignIDIfNotPresent(batch, liveItem, getEnqueueTime());
+		stendhalItemDAO.itemLogAssignIDIfNotPresent(batch, liveNewItem, getEnqueueTime());
 
 		final String outlivingQuantity = getQuantity(frozenItem);
 		final String newQuantity = getQuantity(frozenNewItem);
 		final String oldQuantity = Integer.toString(Integer.parseInt(outlivingQuantity) + Integer.parseInt(newQuantity));
-		stendhalItemDAO.itemLogWriteEntry(transaction, getEnqueueTime(), liveItem.getInt(StendhalItemDAO.ATTR_ITEM_LOGID), player, "split out",
-				liveNewItem.get(StendhalItemDAO.ATTR_ITEM_LOGID), oldQuantity,
+		stendhalItemDAO.itemLogWriteEntry(batch, getEnqueueTime(), batch.getItemId(liveItem), player, "split out",
+				Integer.toString(batch.getItemId(liveNewItem)), oldQuantity,
 				outlivingQuantity, newQuantity);
-		stendhalItemDAO.itemLogWriteEntry(transaction, getEnqueueTime(), liveNewItem.getInt(StendhalItemDAO.ATTR_ITEM_LOGID), player, "splitted out",
-				liveItem.get(StendhalItemDAO.ATTR_ITEM_LOGID), oldQuantity,
+		stendhalItemDAO.itemLogWriteEntry(batch, getEnqueueTime(), batch.getItemId(liveNewItem), player, "splitted out",
+				Integer.toString(batch.getItemId(liveItem)), oldQuantity,
 				newQuantity, outlivingQuantity);
 
 	}
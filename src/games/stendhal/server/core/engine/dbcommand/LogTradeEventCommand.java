@@ -14,6 +14,7 @@ package games.stendhal.server.core.engine.dbcommand;
 import java.io.IOException;
 import java.sql.SQLException;
 
+import games.stendhal.server.core.engine.db.ItemLogBatch;
 import games.stendhal.server.core.engine.db.StendhalItemDAO;
 import games.stendhal.server.core.engine.db.StendhalWebsiteDAO;
 import games.stendhal.server.entity.item.Item;
@@ -51,7 +52,9 @@ public class LogTradeEventCommand extends AbstractDBCommand {
 	@Override
 	public void execute(DBTransaction transaction) throws SQLException, IOException {
 		StendhalItemDAO stendhalItemDao = DAORegister.get().get(StendhalItemDAO.class);
-		stendhalItemDao.itemLogAssignIDIfNotPresent(transaction, item, getEnqueueTime());
+		final ItemLogBatch batch = new ItemLogBatch(transaction);
+		stendhalItemDao.itemLogAssignIDIfNotPresent(batch, item, getEnqueueTime());
+		batch.flush();
 
 		StendhalWebsiteDAO stendhalWebsiteDao = DAORegister.get().get(StendhalWebsiteDAO.class);
 		String description = item.describe();
@@ -13,6 +13,8 @@ package games.stendhal.server.core.engine.dbcommand;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
 
 import games.stendhal.server.core.engine.db.StendhalWebsiteDAO;
 import marauroa.server.db.DBTransaction;
@@ -25,8 +27,7 @@ import marauroa.server.game.db.DAORegister;
  * @author hendrik
  */
 public class SetOnlineStatusCommand extends AbstractDBCommand {
-	private String playerName;
-	private boolean online;
+	private Map<String, Boolean> statuses;
 
 	/**
 	 * Creates a new SetOnlineStatusCommand
@@ -35,13 +36,21 @@ public class SetOnlineStatusCommand extends AbstractDBCommand {
 	 * @param online true, to mark as online; false to mark as offline
 	 */
 	public SetOnlineStatusCommand(String playerName, boolean online) {
-		this.playerName = playerName;
-		this.online = online;
+		this(Collections.singletonMap(playerName, Boolean.valueOf(online)));
+	}
+
+	/**
+	 * Creates a new SetOnlineStatusCommand for several players
+	 *
+	 * @param statuses online status by player name
+	 */
+	public SetOnlineStatusCommand(Map<String, Boolean> statuses) {
+		this.statuses = statuses;
 	}
 
 	@Override
 	public void execute(DBTransaction transaction) throws SQLException, IOException {
-		DAORegister.get().get(StendhalWebsiteDAO.class).setOnlineStatus(transaction, playerName, online);
+		DAORegister.get().get(StendhalWebsiteDAO.class).setOnlineStatus(transaction, statuses);
 	}
 
 }
@@ -0,0 +1,120 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.profiler;
+
+/**
+ * A histogram of durations with buckets of exponentially growing size. It
+ * does not allocate on recording.
+ */
+public final class LatencyHistogram {
+
+	/** bucket i counts durations of less than 2^i microseconds */
+	private static final int BUCKETS = 24;
+
+	private final long[] buckets = new long[BUCKETS];
+	private long count;
+	private long totalNanos;
+	private long maxNanos;
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param nanos duration in nanoseconds
+	 */
+	public void record(final long nanos) {
+		final long micros = Math.max(0, nanos / 1000);
+		final int bucket = Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(micros));
+		buckets[bucket]++;
+		count++;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+	}
+
+	/**
+	 * Gets the number of recorded durations.
+	 *
+	 * @return count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the sum of all recorded durations.
+	 *
+	 * @return total in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * Gets the longest recorded duration.
+	 *
+	 * @return maximum in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * Gets the average duration.
+	 *
+	 * @return mean in nanoseconds, 0 if nothing was recorded
+	 */
+	public long getMeanNanos() {
+		if (count == 0) {
+			return 0;
+		}
+		return totalNanos / count;
+	}
+
+	/**
+	 * Gets an upper bound of a percentile. As the buckets grow exponentially,
+	 * the result is at most twice the real value.
+	 *
+	 * @param percentile percentile between 0 and 100
+	 * @return upper bound of the percentile in microseconds
+	 */
+	public long getPercentileMicros(final double percentile) {
+		final long threshold = (long) Math.ceil(count * percentile / 100.0);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets[i];
+			if ((seen >= threshold) && (seen > 0)) {
+				return 1L << i;
+			}
+		}
+		return 1L << (BUCKETS - 1);
+	}
+
+	/**
+	 * Forgets all recorded durations.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = 0;
+		}
+		count = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + count + " mean=" + TurnProfiler.formatMillis(getMeanNanos())
+			+ " p50<=" + TurnProfiler.formatMillis(getPercentileMicros(50) * 1000)
+			+ " p99<=" + TurnProfiler.formatMillis(getPercentileMicros(99) * 1000)
+			+ " max=" + TurnProfiler.formatMillis(maxNanos)
+			+ " total=" + TurnProfiler.formatMillis(totalNanos);
+	}
+}
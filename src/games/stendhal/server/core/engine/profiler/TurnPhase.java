@@ -0,0 +1,36 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.profiler;
+
+/**
+ * The phases of a turn that are measured by the TurnProfiler.
+ */
+public enum TurnPhase {
+	/** removal of obsolete zones */
+	DESTROY_ZONES,
+	/** statistics about the number of online players */
+	LOG_PLAYERS_ONLINE,
+	/** handling of entities killed in the last turn */
+	KILLED_ENTITIES,
+	/** player logic */
+	PLAYER_LOGIC,
+	/** pre logic of SpeakerNPCs */
+	NPC_PRE_LOGIC,
+	/** removal of chat texts */
+	PLAYER_TEXTS,
+	/** turn listeners */
+	TURN_NOTIFIER,
+	/** logic of all zones */
+	ZONE_LOGIC,
+	/** time sliced path searches */
+	PATHFINDING;
+}
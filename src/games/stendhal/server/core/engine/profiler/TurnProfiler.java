@@ -0,0 +1,529 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.profiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.core.events.TurnListener;
+
+/**
+ * Measures how long the phases of a turn, the logic of each zone and
+ * each class of TurnListener take.
+ *
+ * <p>The profiler is disabled by default. While it is disabled every method
+ * returns immediately. While it is enabled, latency histograms are kept per
+ * phase, per zone and per TurnListener class, and the last turns are kept
+ * in a ring buffer, so that turns exceeding the turn length can be analysed.
+ * The profiler is only accessed by the game loop thread.</p>
+ */
+public final class TurnProfiler {
+
+	/** number of turns kept in the history */
+	public static final int HISTORY_SIZE = 1000;
+
+	private static final long BUDGET_NANOS = StendhalRPWorld.MILLISECONDS_PER_TURN * 1000000L;
+
+	private static Logger logger = Logger.getLogger(TurnProfiler.class);
+
+	/** The singleton instance. */
+	private static TurnProfiler instance;
+
+	private boolean enabled;
+
+	private final LatencyHistogram turns = new LatencyHistogram();
+	private final LatencyHistogram[] phases = new LatencyHistogram[TurnPhase.values().length];
+	private final Map<String, LatencyHistogram> zones = new HashMap<String, LatencyHistogram>();
+	private final Map<Class<?>, LatencyHistogram> listeners = new HashMap<Class<?>, LatencyHistogram>();
+
+	/** ring buffer of the last turns */
+	private final TurnRecord[] history = new TurnRecord[HISTORY_SIZE];
+	/** index of the record of the next turn */
+	private int next;
+	/** number of recorded turns since the last reset */
+	private long recordedTurns;
+	/** number of turns that exceeded the turn length since the last reset */
+	private long overBudgetTurns;
+
+	/** record of the turn in progress, <code>null</code> outside of a turn */
+	private TurnRecord current;
+	private long turnStart;
+
+	/**
+	 * Return the TurnProfiler instance.
+	 *
+	 * @return TurnProfiler the Singleton instance
+	 */
+	public static TurnProfiler get() {
+		if (instance == null) {
+			instance = new TurnProfiler();
+		}
+		return instance;
+	}
+
+	/**
+	 * Hidden singleton constructor.
+	 */
+	private TurnProfiler() {
+		for (int i = 0; i < phases.length; i++) {
+			phases[i] = new LatencyHistogram();
+		}
+		for (int i = 0; i < history.length; i++) {
+			history[i] = new TurnRecord();
+		}
+	}
+
+	/**
+	 * Is the profiler recording?
+	 *
+	 * @return <code>true</code>, if it is enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables recording. The recorded data is kept.
+	 *
+	 * @param enabled <code>true</code> to enable recording
+	 */
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+		current = null;
+	}
+
+	/**
+	 * Forgets all recorded data.
+	 */
+	public void reset() {
+		turns.reset();
+		for (final LatencyHistogram histogram : phases) {
+			histogram.reset();
+		}
+		zones.clear();
+		listeners.clear();
+		for (final TurnRecord record : history) {
+			record.reset(0);
+		}
+		next = 0;
+		recordedTurns = 0;
+		overBudgetTurns = 0;
+		current = null;
+	}
+
+	/**
+	 * Starts a turn.
+	 *
+	 * @param turn turn number
+	 */
+	public void beginTurn(final int turn) {
+		if (!enabled) {
+			return;
+		}
+		current = history[next];
+		current.reset(turn);
+		turnStart = System.nanoTime();
+	}
+
+	/**
+	 * Gets the start time of a measurement.
+	 *
+	 * @return current time in nanoseconds, or 0 if the profiler is disabled
+	 */
+	public long start() {
+		if (!enabled) {
+			return 0;
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Ends the measurement of a phase.
+	 *
+	 * @param phase phase
+	 * @param start start time as returned by start()
+	 * @return current time, which can be used as start time of the next phase
+	 */
+	public long endPhase(final TurnPhase phase, final long start) {
+		if (!enabled) {
+			return 0;
+		}
+		final long now = System.nanoTime();
+		final long duration = now - start;
+		phases[phase.ordinal()].record(duration);
+		if (current != null) {
+			current.phaseNanos[phase.ordinal()] += duration;
+		}
+		return now;
+	}
+
+	/**
+	 * Ends the measurement of the logic of a zone.
+	 *
+	 * @param zone zone
+	 * @param start start time as returned by start()
+	 */
+	public void endZone(final StendhalRPZone zone, final long start) {
+		if (!enabled) {
+			return;
+		}
+		recordZone(zone, System.nanoTime() - start);
+	}
+
+	/**
+	 * Records the duration of the logic of a zone, that was measured
+	 * elsewhere.
+	 *
+	 * @param zone zone
+	 * @param duration duration in nanoseconds
+	 */
+	public void recordZone(final StendhalRPZone zone, final long duration) {
+		if (!enabled) {
+			return;
+		}
+		final String name = zone.getName();
+		LatencyHistogram histogram = zones.get(name);
+		if (histogram == null) {
+			histogram = new LatencyHistogram();
+			zones.put(name, histogram);
+		}
+		histogram.record(duration);
+		if ((current != null) && (duration > current.slowestZoneNanos)) {
+			current.slowestZone = name;
+			current.slowestZoneNanos = duration;
+		}
+	}
+
+	/**
+	 * Ends the measurement of a TurnListener.
+	 *
+	 * @param listener listener
+	 * @param start start time as returned by start()
+	 */
+	public void endListener(final TurnListener listener, final long start) {
+		if (!enabled) {
+			return;
+		}
+		final long duration = System.nanoTime() - start;
+		final Class<?> clazz = listener.getClass();
+		LatencyHistogram histogram = listeners.get(clazz);
+		if (histogram == null) {
+			histogram = new LatencyHistogram();
+			listeners.put(clazz, histogram);
+		}
+		histogram.record(duration);
+		if ((current != null) && (duration > current.slowestListenerNanos)) {
+			current.slowestListener = clazz;
+			current.slowestListenerNanos = duration;
+		}
+	}
+
+	/**
+	 * Ends a turn.
+	 */
+	public void endTurn() {
+		if (current == null) {
+			return;
+		}
+		final long duration = System.nanoTime() - turnStart;
+		current.totalNanos = duration;
+		turns.record(duration);
+		if (duration > BUDGET_NANOS) {
+			overBudgetTurns++;
+			if (logger.isDebugEnabled()) {
+				logger.debug("Turn over budget: " + current);
+			}
+		}
+		recordedTurns++;
+		next = (next + 1) % history.length;
+		current = null;
+	}
+
+	/**
+	 * Gets a summary of the turns and phases.
+	 *
+	 * @return report
+	 */
+	public String getReport() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("Turn profiler is ");
+		sb.append(enabled ? "enabled" : "disabled");
+		sb.append(". Recorded turns: ");
+		sb.append(recordedTurns);
+		sb.append(", over budget of ");
+		sb.append(StendhalRPWorld.MILLISECONDS_PER_TURN);
+		sb.append(" ms: ");
+		sb.append(overBudgetTurns);
+		sb.append("\nturn: ");
+		sb.append(turns);
+		for (final TurnPhase phase : TurnPhase.values()) {
+			sb.append("\n");
+			sb.append(phase.name().toLowerCase(Locale.ENGLISH));
+			sb.append(": ");
+			sb.append(phases[phase.ordinal()]);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Gets the zones with the highest total logic time.
+	 *
+	 * @param limit maximum number of zones
+	 * @return report
+	 */
+	public String getZoneReport(final int limit) {
+		return formatTop("Zones", zones, limit);
+	}
+
+	/**
+	 * Gets the TurnListener classes with the highest total time.
+	 *
+	 * @param limit maximum number of classes
+	 * @return report
+	 */
+	public String getListenerReport(final int limit) {
+		final Map<String, LatencyHistogram> byName = new HashMap<String, LatencyHistogram>();
+		for (final Map.Entry<Class<?>, LatencyHistogram> entry : listeners.entrySet()) {
+			byName.put(entry.getKey().getName(), entry.getValue());
+		}
+		return formatTop("TurnListeners", byName, limit);
+	}
+
+	/**
+	 * Gets the turns in the history, that exceeded the turn length.
+	 *
+	 * @param limit maximum number of turns
+	 * @return report
+	 */
+	public String getOverBudgetReport(final int limit) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("Turns over budget (");
+		sb.append(overBudgetTurns);
+		sb.append(" since last reset), latest first:");
+		int count = 0;
+		for (final TurnRecord record : getHistory()) {
+			if (count >= limit) {
+				break;
+			}
+			if (record.totalNanos > BUDGET_NANOS) {
+				sb.append("\n");
+				sb.append(record);
+				count++;
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes the complete profiling data to a file in the log directory.
+	 *
+	 * @return the written file
+	 * @throws IOException in case of an input/output error
+	 */
+	public File dump() throws IOException {
+		final File dir = new File(System.getProperty("log.directory", "log"));
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Cannot create directory " + dir);
+		}
+		final String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+		final File file = new File(dir, "turnprofile-" + timestamp + ".txt");
+
+		final PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+				Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8));
+		try {
+			writer.println(getReport());
+			writer.println();
+			writer.println(getZoneReport(Integer.MAX_VALUE));
+			writer.println();
+			writer.println(getListenerReport(Integer.MAX_VALUE));
+			writer.println();
+
+			// history as semicolon separated values, oldest first
+			final StringBuilder header = new StringBuilder("turn;total_ms");
+			for (final TurnPhase phase : TurnPhase.values()) {
+				header.append(";");
+				header.append(phase.name().toLowerCase(Locale.ENGLISH));
+				header.append("_ms");
+			}
+			header.append(";slowest_zone;slowest_zone_ms;slowest_listener;slowest_listener_ms");
+			writer.println(header);
+			final List<TurnRecord> records = getHistory();
+			Collections.reverse(records);
+			for (final TurnRecord record : records) {
+				writer.println(record.toCsv());
+			}
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	/**
+	 * Gets the recorded turns of the history.
+	 *
+	 * @return turns, latest first
+	 */
+	private List<TurnRecord> getHistory() {
+		final long size = Math.min(recordedTurns, history.length);
+		final List<TurnRecord> res = new ArrayList<TurnRecord>((int) size);
+		for (int i = 1; i <= size; i++) {
+			res.add(history[(next - i + history.length) % history.length]);
+		}
+		return res;
+	}
+
+	/**
+	 * Formats the histograms with the highest total time.
+	 *
+	 * @param title title of the report
+	 * @param histograms histograms by name
+	 * @param limit maximum number of histograms
+	 * @return report
+	 */
+	private static String formatTop(final String title, final Map<String, LatencyHistogram> histograms, final int limit) {
+		final List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<Map.Entry<String, LatencyHistogram>>(histograms.entrySet());
+		Collections.sort(entries, new Comparator<Map.Entry<String, LatencyHistogram>>() {
+			@Override
+			public int compare(final Map.Entry<String, LatencyHistogram> o1, final Map.Entry<String, LatencyHistogram> o2) {
+				return Long.compare(o2.getValue().getTotalNanos(), o1.getValue().getTotalNanos());
+			}
+		});
+
+		final StringBuilder sb = new StringBuilder();
+		sb.append(title);
+		sb.append(" by total time (");
+		sb.append(entries.size());
+		sb.append("):");
+		for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+			sb.append("\n");
+			sb.append(entries.get(i).getKey());
+			sb.append(": ");
+			sb.append(entries.get(i).getValue());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Formats a duration in milliseconds.
+	 *
+	 * @param nanos duration in nanoseconds
+	 * @return formatted duration
+	 */
+	static String formatMillis(final long nanos) {
+		return String.format(Locale.ENGLISH, "%.3fms", nanos / 1000000.0);
+	}
+
+	/**
+	 * Measurements of a single turn.
+	 */
+	private static final class TurnRecord {
+		private int turn;
+		private long totalNanos;
+		private final long[] phaseNanos = new long[TurnPhase.values().length];
+		private String slowestZone;
+		private long slowestZoneNanos;
+		private Class<?> slowestListener;
+		private long slowestListenerNanos;
+
+		/**
+		 * Prepares the record for reuse.
+		 *
+		 * @param turn turn number
+		 */
+		void reset(final int turn) {
+			this.turn = turn;
+			totalNanos = 0;
+			for (int i = 0; i < phaseNanos.length; i++) {
+				phaseNanos[i] = 0;
+			}
+			slowestZone = null;
+			slowestZoneNanos = 0;
+			slowestListener = null;
+			slowestListenerNanos = 0;
+		}
+
+		/**
+		 * Formats the record as a line of semicolon separated values.
+		 *
+		 * @return values
+		 */
+		String toCsv() {
+			final StringBuilder sb = new StringBuilder();
+			sb.append(turn);
+			sb.append(";");
+			sb.append(totalNanos / 1000000.0);
+			for (final long nanos : phaseNanos) {
+				sb.append(";");
+				sb.append(nanos / 1000000.0);
+			}
+			sb.append(";");
+			sb.append(slowestZone);
+			sb.append(";");
+			sb.append(slowestZoneNanos / 1000000.0);
+			sb.append(";");
+			if (slowestListener != null) {
+				sb.append(slowestListener.getName());
+			}
+			sb.append(";");
+			sb.append(slowestListenerNanos / 1000000.0);
+			return sb.toString();
+		}
+
+		@Override
+		public String toString() {
+			final StringBuilder sb = new StringBuilder();
+			sb.append("turn ");
+			sb.append(turn);
+			sb.append(": ");
+			sb.append(formatMillis(totalNanos));
+			for (final TurnPhase phase : TurnPhase.values()) {
+				final long nanos = phaseNanos[phase.ordinal()];
+				if (nanos > 0) {
+					sb.append(", ");
+					sb.append(phase.name().toLowerCase(Locale.ENGLISH));
+					sb.append("=");
+					sb.append(formatMillis(nanos));
+				}
+			}
+			if (slowestZone != null) {
+				sb.append(", slowest zone ");
+				sb.append(slowestZone);
+				sb.append("=");
+				sb.append(formatMillis(slowestZoneNanos));
+			}
+			if (slowestListener != null) {
+				sb.append(", slowest listener ");
+				sb.append(slowestListener.getSimpleName());
+				sb.append("=");
+				sb.append(formatMillis(slowestListenerNanos));
+			}
+			return sb.toString();
+		}
+	}
+}
@@ -13,38 +13,82 @@
 package games.stendhal.server.core.events;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.apache.log4j.Logger;
 
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.core.engine.ZoneLogicExecutor;
+import games.stendhal.server.core.engine.profiler.TurnProfiler;
 
 /**
  * Other classes can register here to be notified at some time in the future.
  *
+ * <p>The registrations are kept in a hierarchical timing wheel: level 0 has
+ * one slot per turn of the current block of 256 turns, level 1 one slot per
+ * block of 256 turns of the current block of 65536 turns and so on. Whenever
+ * a new block is entered, the matching slot of the level above is cascaded
+ * down. In addition every listener is indexed to its registrations, so that
+ * scheduling, cancelling and querying are independent of the number of
+ * registered events.</p>
+ *
  * @author hendrik, daniel
  */
 public final class TurnNotifier {
 
 	private static Logger logger = Logger.getLogger(TurnNotifier.class);
 
+	/** number of bits of the turn number covered by one wheel level */
+	private static final int BITS_PER_LEVEL = 8;
+
+	/** number of slots per wheel level */
+	private static final int SLOTS_PER_LEVEL = 1 << BITS_PER_LEVEL;
+
+	/** mask to get the slot index of a level */
+	private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+
+	/** number of levels required to cover the complete range of turn numbers */
+	private static final int LEVELS = Integer.SIZE / BITS_PER_LEVEL;
+
 	/** The singleton instance. */
 	private static TurnNotifier instance;
 
 	private int currentTurn = -1;
 
 	/**
-	 * This Map maps each turn to the set of all events that will take place at
-	 * this turn. Turns at which no event should take place needn't be
-	 * registered here.
+	 * The timing wheel. Each slot is the sentinel of a circular list of
+	 * registrations.
 	 */
-	private final Map<Integer, Set<TurnListener>> register = new HashMap<Integer, Set<TurnListener>>();
+	private final Registration[][] wheel = new Registration[LEVELS][SLOTS_PER_LEVEL];
+
+	/**
+	 * Registrations for turns which have been skipped because logic() was
+	 * invoked with a turn number out of sequence. They are kept so that they
+	 * show up in the debugging information, just as they would have been
+	 * kept in the past.
+	 */
+	private final Map<Integer, Registration> skipped = new HashMap<Integer, Registration>();
+
+	/**
+	 * Due registrations of ZoneTurnListeners whose zone is hibernating. They
+	 * are kept back until the zone wakes up.
+	 */
+	private final Map<StendhalRPZone, Registration> parked = new HashMap<StendhalRPZone, Registration>();
+
+	/**
+	 * Maps each listener to the chain of all its registrations.
+	 */
+	private final Map<TurnListener, Registration> index = new HashMap<TurnListener, Registration>();
+
+	/** number of registrations */
+	private int size;
 
 	/** Used for multi-threading synchronization. * */
 	private final Object sync = new Object();
@@ -67,7 +111,11 @@ public final class TurnNotifier {
 	 * Hidden singleton constructor.
 	 */
 	private TurnNotifier() {
-		// singleton
+		for (int level = 0; level < LEVELS; level++) {
+			for (int slot = 0; slot < SLOTS_PER_LEVEL; slot++) {
+				wheel[level][slot] = new Registration();
+			}
+		}
 	}
 
 	/**
@@ -83,20 +131,23 @@ public final class TurnNotifier {
 		// for the current turn. So it is important to
 		// adjust currentTurn before the loop.
 
-		this.currentTurn = currentTurn;
-
-		// get and remove the set for this turn
-		Set<TurnListener> set = null;
+		// get and remove the listeners for this turn
+		List<TurnListener> listeners = null;
 		synchronized (sync) {
-			set = register.remove(Integer.valueOf(currentTurn));
+			if (currentTurn == this.currentTurn + 1) {
+				advance();
+			} else {
+				rebase(currentTurn);
+			}
+			listeners = removeDue();
 		}
 
 		if (logger.isDebugEnabled()) {
 			final StringBuilder os = new StringBuilder();
-			os.append("register: " + register.size() + "\n");
+			os.append("register: " + size + "\n");
 			int setSize;
-			if (set != null) {
-				setSize = set.size();
+			if (listeners != null) {
+				setSize = listeners.size();
 			} else {
 				setSize = 0;
 			}
@@ -104,15 +155,194 @@ public final class TurnNotifier {
 			logger.info(os);
 		}
 
-		if (set != null) {
-			for (final TurnListener turnListener : set) {
+		if (listeners != null) {
+			final TurnProfiler profiler = TurnProfiler.get();
+			for (final TurnListener turnListener : listeners) {
 
+				final long start = profiler.start();
 				try {
 					turnListener.onTurnReached(currentTurn);
 				} catch (final RuntimeException e) {
 					logger.error("Exception in " + turnListener, e);
 				}
+				profiler.endListener(turnListener, start);
+			}
+		}
+	}
+
+	/**
+	 * Moves the wheel to the next turn, cascading the registrations of every
+	 * block that starts at the new turn down to the lower levels.
+	 */
+	private void advance() {
+		currentTurn++;
+		for (int level = LEVELS - 1; level > 0; level--) {
+			final int shift = level * BITS_PER_LEVEL;
+			if ((currentTurn & ((1 << shift) - 1)) == 0) {
+				final Registration sentinel = wheel[level][(currentTurn >>> shift) & SLOT_MASK];
+				while (!sentinel.isEmpty()) {
+					final Registration registration = sentinel.next;
+					registration.unlink();
+					place(registration);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Jumps to a turn that does not follow the current one. All registrations
+	 * are placed again relative to the new turn. This does not happen on a
+	 * running server, where the turns are strictly sequential.
+	 *
+	 * @param turn new current turn
+	 */
+	private void rebase(final int turn) {
+		final List<Registration> registrations = new ArrayList<Registration>(size);
+		for (final Registration[] level : wheel) {
+			for (final Registration sentinel : level) {
+				sentinel.drainTo(registrations);
+			}
+		}
+		for (final Registration sentinel : skipped.values()) {
+			sentinel.drainTo(registrations);
+		}
+		skipped.clear();
+
+		currentTurn = turn;
+		for (final Registration registration : registrations) {
+			place(registration);
+		}
+	}
+
+	/**
+	 * Removes all registrations for the current turn.
+	 *
+	 * @return listeners to notify, or <code>null</code> if there are none
+	 */
+	private List<TurnListener> removeDue() {
+		final Registration sentinel = wheel[0][currentTurn & SLOT_MASK];
+		if (sentinel.isEmpty()) {
+			return null;
+		}
+
+		final List<TurnListener> listeners = new ArrayList<TurnListener>();
+		while (!sentinel.isEmpty()) {
+			final Registration registration = sentinel.next;
+			registration.unlink();
+			if (registration.listener instanceof ZoneTurnListener) {
+				final StendhalRPZone zone = ((ZoneTurnListener) registration.listener).getZone();
+				if ((zone != null) && zone.isHibernating()) {
+					park(zone, registration);
+					continue;
+				}
+			}
+			removeFromIndex(registration);
+			listeners.add(registration.listener);
+		}
+		return listeners;
+	}
+
+	/**
+	 * Keeps a due registration back until its zone wakes up. It stays in the
+	 * listener index, so that it can still be cancelled.
+	 *
+	 * @param zone hibernating zone
+	 * @param registration registration
+	 */
+	private void park(final StendhalRPZone zone, final Registration registration) {
+		Registration sentinel = parked.get(zone);
+		if (sentinel == null) {
+			sentinel = new Registration();
+			parked.put(zone, sentinel);
+		}
+		sentinel.append(registration);
+	}
+
+	/**
+	 * Delivers the notifications, that were kept back while a zone was
+	 * hibernating, in the next turn.
+	 *
+	 * @param zone zone that woke up
+	 */
+	public void resumeZone(final StendhalRPZone zone) {
+		synchronized (sync) {
+			final Registration sentinel = parked.remove(zone);
+			if (sentinel == null) {
+				return;
+			}
+
+			final int turn = currentTurn + 1;
+			while (!sentinel.isEmpty()) {
+				final Registration registration = sentinel.next;
+				registration.unlink();
+				boolean duplicate = false;
+				for (Registration other = index.get(registration.listener); other != null; other = other.sameListener) {
+					if ((other != registration) && (other.turn == turn)) {
+						duplicate = true;
+					}
+				}
+				if (duplicate) {
+					removeFromIndex(registration);
+				} else {
+					registration.turn = turn;
+					place(registration);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Puts a registration into the slot matching its turn. The level is the
+	 * lowest one whose block contains both the current turn and the turn of
+	 * the registration.
+	 *
+	 * @param registration registration to place
+	 */
+	private void place(final Registration registration) {
+		final int turn = registration.turn;
+		if (turn < currentTurn) {
+			Registration sentinel = skipped.get(Integer.valueOf(turn));
+			if (sentinel == null) {
+				sentinel = new Registration();
+				skipped.put(Integer.valueOf(turn), sentinel);
+			}
+			sentinel.append(registration);
+			return;
+		}
+
+		final int diff = turn ^ currentTurn;
+		int level = 0;
+		while ((level < LEVELS - 1) && ((diff >>> ((level + 1) * BITS_PER_LEVEL)) != 0)) {
+			level++;
+		}
+		wheel[level][(turn >>> (level * BITS_PER_LEVEL)) & SLOT_MASK].append(registration);
+	}
+
+	/**
+	 * Removes a registration, that is already unlinked from its slot, from
+	 * the listener index.
+	 *
+	 * @param registration registration to remove
+	 */
+	private void removeFromIndex(final Registration registration) {
+		size--;
+		final Registration first = index.get(registration.listener);
+		if (first == registration) {
+			if (registration.sameListener == null) {
+				index.remove(registration.listener);
+			} else {
+				index.put(registration.listener, registration.sameListener);
+			}
+			return;
+		}
+
+		Registration previous = first;
+		while (previous != null) {
+			if (previous.sameListener == registration) {
+				previous.sameListener = registration.sameListener;
+				return;
 			}
+			previous = previous.sameListener;
 		}
 	}
 
@@ -169,6 +399,10 @@ public final class TurnNotifier {
 			logger.info(st);
 		}
 
+		if (ZoneLogicExecutor.defer(() -> notifyAtTurn(turn, turnListener))) {
+			return;
+		}
+
 		if (turn <= currentTurn) {
 			logger.error("requested turn " + turn
 					+ " is in the past. Current turn is " + currentTurn,
@@ -177,15 +411,19 @@ public final class TurnNotifier {
 		}
 
 		synchronized (sync) {
-			// do we have other events for this turn?
-			final Integer turnInt = Integer.valueOf(turn);
-			Set<TurnListener> set = register.get(turnInt);
-			if (set == null) {
-				set = new HashSet<TurnListener>();
-				register.put(turnInt, set);
+			// is this listener already registered for that turn?
+			final Registration first = index.get(turnListener);
+			for (Registration other = first; other != null; other = other.sameListener) {
+				if (other.turn == turn) {
+					return;
+				}
 			}
-			// add it to the list
-			set.add(turnListener);
+
+			final Registration registration = new Registration(turnListener, turn);
+			registration.sameListener = first;
+			index.put(turnListener, registration);
+			place(registration);
+			size++;
 		}
 	}
 
@@ -197,18 +435,16 @@ public final class TurnNotifier {
 	 */
 
 	public void dontNotify(final TurnListener turnListener) {
-		// all events that are equal to this one should be forgotten.
-		// TurnEvent turnEvent = new TurnEvent(turnListener);
-		for (final Map.Entry<Integer, Set<TurnListener>> mapEntry : register.entrySet()) {
-			final Set<TurnListener> set = mapEntry.getValue();
-			// We don't remove directly, but first store in this
-			// set. This is to avoid ConcurrentModificationExceptions.
-			final Set<TurnListener> toBeRemoved = new HashSet<TurnListener>();
-			if (set.contains(turnListener)) {
-					toBeRemoved.add(turnListener);
-			}
-			for (final TurnListener event : toBeRemoved) {
-				set.remove(event);
+		if (ZoneLogicExecutor.defer(() -> dontNotify(turnListener))) {
+			return;
+		}
+
+		synchronized (sync) {
+			Registration registration = index.remove(turnListener);
+			while (registration != null) {
+				registration.unlink();
+				size--;
+				registration = registration.sameListener;
 			}
 		}
 	}
@@ -223,24 +459,17 @@ public final class TurnNotifier {
 	 */
 
 	public int getRemainingTurns(final TurnListener turnListener) {
-		// all events match that are equal to this.
-		// TurnEvent turnEvent = new TurnEvent(turnListener);
-		// the HashMap is unsorted, so we need to run through
-		// all of it.
-		final List<Integer> matchingTurns = new ArrayList<Integer>();
-		for (final Map.Entry<Integer, Set<TurnListener>> mapEntry : register.entrySet()) {
-			final Set<TurnListener> set = mapEntry.getValue();
-			for (final TurnListener currentEvent : set) {
-				if (currentEvent.equals(turnListener)) {
-					matchingTurns.add(mapEntry.getKey());
-				}
+		synchronized (sync) {
+			Registration registration = index.get(turnListener);
+			if (registration == null) {
+				return -1;
 			}
-		}
-		if (matchingTurns.size() > 0) {
-			Collections.sort(matchingTurns);
-			return matchingTurns.get(0).intValue() - currentTurn;
-		} else {
-			return -1;
+
+			int turn = registration.turn;
+			for (registration = registration.sameListener; registration != null; registration = registration.sameListener) {
+				turn = Math.min(turn, registration.turn);
+			}
+			return turn - currentTurn;
 		}
 	}
 
@@ -259,13 +488,45 @@ public final class TurnNotifier {
 	}
 
 	/**
-	 * Returns the list of events. Note this is only for debugging the
-	 * TurnNotifier
+	 * Returns a snapshot of the list of events. Note this is only for
+	 * debugging the TurnNotifier
 	 *
 	 * @return eventList
 	 */
 	public Map<Integer, Set<TurnListener>> getEventListForDebugging() {
-		return register;
+		final Map<Integer, Set<TurnListener>> res = new TreeMap<Integer, Set<TurnListener>>();
+		synchronized (sync) {
+			for (Registration registration : index.values()) {
+				for (; registration != null; registration = registration.sameListener) {
+					final Integer turn = Integer.valueOf(registration.turn);
+					Set<TurnListener> set = res.get(turn);
+					if (set == null) {
+						set = new HashSet<TurnListener>();
+						res.put(turn, set);
+					}
+					set.add(registration.listener);
+				}
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Forgets all registered events. Note this is only for debugging the
+	 * TurnNotifier
+	 */
+	public void clearForDebugging() {
+		synchronized (sync) {
+			for (final Registration[] level : wheel) {
+				for (final Registration sentinel : level) {
+					sentinel.clear();
+				}
+			}
+			skipped.clear();
+			parked.clear();
+			index.clear();
+			size = 0;
+		}
 	}
 
 	/**
@@ -276,4 +537,94 @@ public final class TurnNotifier {
 	public int getCurrentTurnForDebugging() {
 		return currentTurn;
 	}
+
+	/**
+	 * A listener registered for a turn. Registrations are linked into a
+	 * circular list per wheel slot, which is headed by a sentinel
+	 * registration without listener.
+	 */
+	private static final class Registration {
+		private final TurnListener listener;
+		private int turn;
+
+		/** previous registration in the same slot */
+		private Registration previous;
+		/** next registration in the same slot */
+		private Registration next;
+		/** next registration of the same listener for another turn */
+		private Registration sameListener;
+
+		/**
+		 * Creates a sentinel for an empty slot.
+		 */
+		Registration() {
+			this(null, 0);
+			previous = this;
+			next = this;
+		}
+
+		/**
+		 * Creates a registration.
+		 *
+		 * @param listener listener to notify
+		 * @param turn turn to notify at
+		 */
+		Registration(final TurnListener listener, final int turn) {
+			this.listener = listener;
+			this.turn = turn;
+		}
+
+		/**
+		 * Checks if a slot is empty. Only valid for sentinels.
+		 *
+		 * @return <code>true</code> if there are no registrations in the slot
+		 */
+		boolean isEmpty() {
+			return next == this;
+		}
+
+		/**
+		 * Appends a registration to the slot. Only valid for sentinels.
+		 *
+		 * @param registration registration to append
+		 */
+		void append(final Registration registration) {
+			registration.previous = previous;
+			registration.next = this;
+			previous.next = registration;
+			previous = registration;
+		}
+
+		/**
+		 * Removes this registration from its slot.
+		 */
+		void unlink() {
+			previous.next = next;
+			next.previous = previous;
+			previous = null;
+			next = null;
+		}
+
+		/**
+		 * Moves all registrations of the slot to a list. Only valid for
+		 * sentinels.
+		 *
+		 * @param registrations list to add to
+		 */
+		void drainTo(final List<Registration> registrations) {
+			while (!isEmpty()) {
+				final Registration registration = next;
+				registration.unlink();
+				registrations.add(registration);
+			}
+		}
+
+		/**
+		 * Empties the slot. Only valid for sentinels.
+		 */
+		void clear() {
+			previous = this;
+			next = this;
+		}
+	}
 }
@@ -0,0 +1,29 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.events;
+
+import games.stendhal.server.core.engine.StendhalRPZone;
+
+/**
+ * A TurnListener whose work only affects a single zone. While that zone is
+ * hibernating, the TurnNotifier keeps due notifications back and delivers
+ * them when the zone wakes up again.
+ */
+public interface ZoneTurnListener extends TurnListener {
+
+	/**
+	 * Gets the zone affected by this listener.
+	 *
+	 * @return zone, or <code>null</code> if it is not bound to a zone at the moment
+	 */
+	StendhalRPZone getZone();
+}
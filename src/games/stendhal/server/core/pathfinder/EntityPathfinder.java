@@ -14,12 +14,12 @@ package games.stendhal.server.core.pathfinder;
 
 import java.awt.Point;
 import java.awt.geom.Rectangle2D;
+import java.util.function.Predicate;
 
 import games.stendhal.server.core.engine.StendhalRPZone;
 import games.stendhal.server.entity.Entity;
 import games.stendhal.server.entity.mapstuff.portal.Portal;
 import games.stendhal.server.entity.player.Player;
-import marauroa.common.game.RPObject;
 
 /**
  * Server side path finder.
@@ -43,9 +43,9 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 	private final boolean checkEntities;
 
 	/**
-	 * Contains the resistance data for entities.
+	 * Calculates the resistance of the entities in the zone.
 	 */
-	private ResistanceMap resistanceMap;
+	private EntityResistance entityResistance;
 
 	EntityPathfinder(final Entity entity, final StendhalRPZone zone, final int startX, final int startY,
 			final Rectangle2D destination, final double maxDist, final boolean checkEntities) {
@@ -59,38 +59,46 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 	protected void init() {
 		super.init();
 		if (checkEntities) {
-			createEntityCollisionMap();
+			entityResistance = new EntityResistance(new Point(goalNode.getX(), goalNode.getY()),
+					startNode.getX(), startNode.getY());
 		}
 	}
 
-	/**
-	 * Creates resistance data for entities.
-	 * <p>The positions with entities are only
-	 * considered as not valid if they:
-	 * <li> are next to the start position or
-	 * <li> have stopped
-	 */
-	private void createEntityCollisionMap() {
-		Point targetPoint = new Point(goalNode.getX(), goalNode.getY());
-		resistanceMap = new ResistanceMap(zone.getWidth(), zone.getHeight());
-		for (final RPObject obj : zone) {
-			final Entity otherEntity = (Entity) obj;
-			if (!entity.getID().equals(otherEntity.getID())
-					&& (otherEntity.stopped()|| (otherEntity.squaredDistance(startNode.getX(), startNode.getY()) < COLLISION_DISTANCE_SQUARED))) {
-				final Rectangle2D area = otherEntity.getArea();
-				// Hack: Allow players to move onto portals as destination
-				if ((entity instanceof Player) && (otherEntity instanceof Portal) && area.contains(targetPoint)) {
-					continue;
-				}
-				int resistance = otherEntity.getResistance(entity);
-				resistanceMap.addResistance(area, resistance);
-			}
+	@Override
+	public TreeNode createNode(int x, int y) {
+		return new PathTreeNode(x, y);
+	}
+
+	@Override
+	protected int getMapWidth() {
+		return zone.getWidth();
+	}
+
+	@Override
+	protected int getMapHeight() {
+		return zone.getHeight();
+	}
+
+	@Override
+	protected boolean isValidPosition(int x, int y) {
+		boolean result = !zone.simpleCollides(entity, x, y, entity.getWidth(), entity.getHeight());
+		if (checkEntities && result) {
+			result = !entityResistance.collides(x, y, entity.getWidth(), entity.getHeight());
 		}
+
+		return result;
 	}
 
 	@Override
-	public TreeNode createNode(int x, int y) {
-		return new PathTreeNode(x, y);
+	protected double getMoveCost(int x, int y) {
+		/*
+		 * Modify movement cost by resistance
+		 */
+		if (entityResistance != null) {
+			int resistance = entityResistance.getResistance(x, y , entity.getWidth(), entity.getHeight());
+			return 100.0 / (100 - resistance);
+		}
+		return 1.0;
 	}
 
 	/**
@@ -101,16 +109,7 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 
 		protected PathTreeNode(int x, int y) {
 			super(x, y);
-
-			/*
-			 * Modify movement cost by resistance
-			 */
-			if (resistanceMap != null) {
-				int resistance = resistanceMap.getResistance(x, y , entity.getWidth(), entity.getHeight());
-				cost = 100.0 / (100 - resistance);
-			} else {
-				cost = 1.0;
-			}
+			cost = getMoveCost(x, y);
 		}
 
 		@Override
@@ -130,37 +129,50 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 
 		@Override
 		public boolean isValid(int x, int y) {
-			boolean result = !zone.simpleCollides(entity, x, y, entity.getWidth(), entity.getHeight());
-			if (checkEntities && result) {
-				result = !resistanceMap.collides(x, y, entity.getWidth(), entity.getHeight());
-			}
-
-			return result;
+			return isValidPosition(x, y);
 		}
 	}
 
 	/**
-	 * Resistance data for entities.
+	 * Resistance data for entities. The entities are looked up in the
+	 * spatial index of the zone, which is kept up to date when entities are
+	 * added, removed or moved. The positions with entities are only
+	 * considered as not valid if they:
+	 * <li> are next to the start position or
+	 * <li> have stopped
 	 */
-	private static class ResistanceMap {
+	private class EntityResistance implements Predicate<Entity> {
 		/** Resistance that corresponds to collision */
 		private static final int COLLISION = 100;
 		/** Minimum resistance that is considered a collision */
 		private static final int COLLIDE_THRESHOLD = 95;
 
-		private final int width, height;
-		private final int[][] map;
+		/** the destination, that players may enter even if it is a portal */
+		private final Point targetPoint;
+		private final int startX, startY;
+
+		/** the tile, whose resistance is calculated */
+		private int tileX, tileY;
+		/** the resistance of the tile */
+		private int tileResistance;
+		/**
+		 * resistances of the tiles looked up so far, plus 1, indexed by node
+		 * id. 0 means that the tile has not been looked up yet. It is created
+		 * when first needed.
+		 */
+		private int[] tileResistances;
 
 		/**
-		 * Create a new ResistanceMap.
+		 * Create a new EntityResistance.
 		 *
-		 * @param width width of the area
-		 * @param height height of the area
+		 * @param targetPoint destination
+		 * @param startX x coordinate of the start position
+		 * @param startY y coordinate of the start position
 		 */
-		public ResistanceMap(int width, int height) {
-			this.width = width;
-			this.height = height;
-			map = new int[width][height];
+		EntityResistance(final Point targetPoint, final int startX, final int startY) {
+			this.targetPoint = targetPoint;
+			this.startX = startX;
+			this.startY = startY;
 		}
 
 		/**
@@ -173,49 +185,10 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 		 * @return <code>true</code> if area can not be occupied,
 		 * 	<code>false</code> otherwise
 		 */
-		public boolean collides(final double x, final double y, double w, double h) {
+		boolean collides(final double x, final double y, double w, double h) {
 			return getResistance(x, y, w, h) > COLLIDE_THRESHOLD;
 		}
 
-		/**
-		 * Add resistance of an area to the entity.
-		 *
-		 * @param area affected area
-		 * @param resistance value between 0 and 100
-		 */
-		public void addResistance(Rectangle2D area, int resistance) {
-			final double x = area.getX();
-			final double y = area.getY();
-			double w = area.getWidth();
-			double h = area.getHeight();
-
-			final int startx = (int) Math.max(0, x);
-			final int endx = (int) Math.min(width, x + w);
-			final int starty = (int) Math.max(0, y);
-			final int endy = (int) Math.min(height, y + h);
-
-			// Fill the area
-			for (int k = startx; k < endx; k++) {
-				for (int i = starty; i < endy; i++) {
-					/*
-					 * There can be multiple entities covering an area. (Such
-					 * as blood covering a grower). Can we have multiple
-					 * non-zero resistances? Cover the case anyway, in case we
-					 * want to give something like corpses some resistance to
-					 * make it harder to wade through a pile of bodies.
-					 */
-					int old = map[k][i];
-					/*
-					 * Add up like probabilities. Several slightly resistant
-					 * entities can still add up to a completely impassable
-					 * barrier, when the resistance grows over
-					 * COLLIDE_THRESHOLD.
-					 */
-					map[k][i] = 100 - ((100 - old) * (100 - resistance)) / 100;
-				}
-			}
-		}
-
 		/**
 		 * Get resistance for placing the entity to an area.
 		 *
@@ -225,7 +198,9 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 		 * @param h the height of the rectangle to be checked
 		 * @return resistance
 		 */
-		public int getResistance(final double x, final double y, double w, double h) {
+		int getResistance(final double x, final double y, double w, double h) {
+			final int width = zone.getWidth();
+			final int height = zone.getHeight();
 			if ((x < 0) || (x >= width)) {
 				return COLLISION;
 			}
@@ -243,7 +218,7 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 			int resistance = 0;
 			for (int k = startx; k < endx; k++) {
 				for (int i = starty; i < endy; i++) {
-					int r = map[k][i];
+					int r = getTileResistance(k, i);
 					if (r > COLLIDE_THRESHOLD) {
 						/*
 						 * A full collision is always collision, regardless of
@@ -265,5 +240,63 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 
 			return resistance;
 		}
+
+		/**
+		 * Get the combined resistance of the entities covering a tile. The
+		 * zone is asked only once per tile and search, as both the validity
+		 * check and the move cost of a node need the resistance.
+		 *
+		 * @param x x coordinate
+		 * @param y y coordinate
+		 * @return resistance
+		 */
+		private int getTileResistance(final int x, final int y) {
+			final int width = zone.getWidth();
+			if (tileResistances == null) {
+				tileResistances = new int[width * zone.getHeight()];
+			}
+			final int node = x + y * width;
+			if (tileResistances[node] == 0) {
+				tileX = x;
+				tileY = y;
+				tileResistance = 0;
+				zone.findEntity(x, y, 0, 0, this);
+				tileResistances[node] = tileResistance + 1;
+			}
+			return tileResistances[node] - 1;
+		}
+
+		/**
+		 * Adds the resistance of an entity, if it covers the current tile.
+		 *
+		 * @param otherEntity entity near the tile
+		 * @return <code>true</code> if the tile is a collision, so that the
+		 * 	remaining entities do not need to be checked
+		 */
+		@Override
+		public boolean test(final Entity otherEntity) {
+			if ((otherEntity == entity)
+					|| !(otherEntity.stopped() || (otherEntity.squaredDistance(startX, startY) < COLLISION_DISTANCE_SQUARED))) {
+				return false;
+			}
+			final Rectangle2D area = otherEntity.getArea();
+			if (!area.intersects(tileX, tileY, 1, 1)) {
+				return false;
+			}
+			// Hack: Allow players to move onto portals as destination
+			if ((entity instanceof Player) && (otherEntity instanceof Portal) && area.contains(targetPoint)) {
+				return false;
+			}
+			final int resistance = otherEntity.getResistance(entity);
+			/*
+			 * There can be multiple entities covering an area. (Such
+			 * as blood covering a grower). Add up like probabilities.
+			 * Several slightly resistant entities can still add up to a
+			 * completely impassable barrier, when the resistance grows over
+			 * COLLIDE_THRESHOLD.
+			 */
+			tileResistance = 100 - ((100 - tileResistance) * (100 - resistance)) / 100;
+			return tileResistance > COLLIDE_THRESHOLD;
+		}
 	}
 }
@@ -11,6 +11,8 @@
  ***************************************************************************/
 package games.stendhal.server.core.pathfinder;
 
+import java.util.List;
+
 import games.stendhal.server.entity.GuidedEntity;
 import games.stendhal.server.entity.Registrator;
 import games.stendhal.server.util.Observable;
@@ -66,21 +68,35 @@ public class GoToPosition implements Observer {
 			finish();
 		} else {
 			// do we need to walk?
-			path = new FixedPath(Path.searchPath(ent, position.getX(), position.getY()),false);
-			if(path.getNodeList().size()==0) {
+			Path.requestPath(ent, position.getX(), position.getY(), new PathListener() {
+				@Override
+				public void onPathFound(final List<Node> nodes) {
+					walk(nodes);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Follow the found path, or finish if there is nothing to walk.
+	 *
+	 * @param nodes path to the target position
+	 */
+	private void walk(final List<Node> nodes) {
+		path = new FixedPath(nodes, false);
+		if(path.getNodeList().size()==0) {
+			finish();
+		} else {
+			// do we started already?
+			if(s) {
+				// yes, finishing
+				s=false;
 				finish();
 			} else {
-				// do we started already?
-				if(s) {
-					// yes, finishing
-					s=false;
-					finish();
-				} else {
-					// no, adding ourselves to npc's path end notifications
-					ent.pathnotifier.setObserver(this);
-					ent.setPath(path);
-					s=true;
-				}
+				// no, adding ourselves to npc's path end notifications
+				ent.pathnotifier.setObserver(this);
+				ent.setPath(path);
+				s=true;
 			}
 		}
 	}
@@ -134,6 +134,52 @@ public abstract class Path {
 		return resultPath;
 	}
 
+	/**
+	 * Requests a path for the Entity <code>entity</code>. Depending on the
+	 * server configuration the search may be spread over several turns.
+	 *
+	 * @param entity
+	 *            the Entity
+	 * @param ex
+	 *            destination x
+	 * @param ey
+	 *            destination y
+	 * @param listener
+	 *            listener that gets the path nodes, or an empty list if no
+	 *            path is found
+	 * @return the request
+	 */
+	public static PathRequest requestPath(final Entity entity, final int ex, final int ey,
+			final PathListener listener) {
+		return PathRequestService.get().searchPath(entity, null, entity.getX(), entity.getY(),
+				entity.getArea(ex, ey), defaultMaximumDistance(entity, ex, ey), true, listener);
+	}
+
+	/**
+	 * Requests a path for the Entity <code>entity</code>. Depending on the
+	 * server configuration the search may be spread over several turns.
+	 *
+	 * @param entity
+	 *            the Entity
+	 * @param x
+	 *            start x
+	 * @param y
+	 *            start y
+	 * @param destination
+	 *            the destination area
+	 * @param maxDistance
+	 *            the maximum distance (air line) a possible path may be
+	 * @param listener
+	 *            listener that gets the path nodes, or an empty list if no
+	 *            path is found
+	 * @return the request
+	 */
+	public static PathRequest requestPath(final Entity entity, final int x, final int y,
+			final Rectangle2D destination, final double maxDistance, final PathListener listener) {
+		return PathRequestService.get().searchPath(entity, null, x, y, destination,
+				maxDistance, true, listener);
+	}
+
 	/**
 	 * Find an one tile wide path. Entities on the map are ignored.
 	 *
@@ -166,16 +212,50 @@ public abstract class Path {
 	 */
 	public static List<Node> searchPath(final Entity entity, final Entity dest,
 			final double maxDistance) {
+		return searchPath(entity, entity.getX(), entity.getY(), getAdjacentArea(entity, dest),
+				maxDistance);
+	}
+
+	/**
+	 * Requests a path for the Entity <code>entity</code> to the other Entity
+	 * <code>dest</code>. Depending on the server configuration the search
+	 * may be spread over several turns.
+	 *
+	 * @param entity
+	 *            the Entity (also start point)
+	 * @param dest
+	 *            the destination Entity
+	 * @param maxDistance
+	 *            the maximum distance (air line) a possible path may be
+	 * @param listener
+	 *            listener that gets the path nodes, or an empty list if no
+	 *            path is found
+	 * @return the request
+	 */
+	public static PathRequest requestPath(final Entity entity, final Entity dest,
+			final double maxDistance, final PathListener listener) {
+		return requestPath(entity, entity.getX(), entity.getY(), getAdjacentArea(entity, dest),
+				maxDistance, listener);
+	}
+
+	/**
+	 * Get the area where <code>entity</code> is next to <code>dest</code>.
+	 *
+	 * @param entity
+	 *            the moving Entity
+	 * @param dest
+	 *            the destination Entity
+	 * @return destination area
+	 */
+	private static Rectangle2D getAdjacentArea(final Entity entity, final Entity dest) {
 		/*
 		 * Choose destination area so that the result corresponds to
 		 * any part of the entities being next to each other
 		 */
-		final Rectangle2D area = new Rectangle((int) (dest.getX() - entity.getWidth()),
+		return new Rectangle((int) (dest.getX() - entity.getWidth()),
 				(int) (dest.getY() - entity.getHeight()),
 				(int) (dest.getWidth() + entity.getWidth() + 1),
 				(int) (dest.getHeight() + entity.getHeight() + 1));
-
-		return searchPath(entity, entity.getX(), entity.getY(), area, maxDistance);
 	}
 
 	/**
@@ -0,0 +1,28 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.pathfinder;
+
+import java.util.List;
+
+/**
+ * Receives the result of a path search requested from the
+ * PathRequestService.
+ */
+public interface PathListener {
+
+	/**
+	 * Called when the search is finished.
+	 *
+	 * @param path found path, or an empty list if no path was found
+	 */
+	void onPathFound(List<Node> path);
+}
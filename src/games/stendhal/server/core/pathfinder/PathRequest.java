@@ -0,0 +1,134 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.pathfinder;
+
+import java.util.LinkedList;
+
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.entity.Entity;
+
+/**
+ * A path search that has been submitted to the PathRequestService.
+ */
+public final class PathRequest {
+	private final Pathfinder pathfinder;
+	private final Entity entity;
+	private final StendhalRPZone zone;
+	private final PathListener listener;
+
+	/** number of nodes expanded so far */
+	private int expandedNodes;
+	private boolean started;
+	private boolean finished;
+
+	/**
+	 * Creates a new PathRequest.
+	 *
+	 * @param pathfinder path finder
+	 * @param entity entity searching the path
+	 * @param zone zone searched
+	 * @param listener listener to notify about the result
+	 */
+	PathRequest(final Pathfinder pathfinder, final Entity entity, final StendhalRPZone zone,
+			final PathListener listener) {
+		this.pathfinder = pathfinder;
+		this.entity = entity;
+		this.zone = zone;
+		this.listener = listener;
+	}
+
+	/**
+	 * Checks if the search is done, either because the listener has been
+	 * notified or because it was cancelled.
+	 *
+	 * @return <code>true</code> if the search is finished
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Cancels the search. The listener will not be notified.
+	 */
+	public void cancel() {
+		finished = true;
+	}
+
+	/**
+	 * Checks if the result is still of interest, which it is not if the
+	 * search was cancelled or the entity has left the zone.
+	 *
+	 * @return <code>true</code> if the search should be continued
+	 */
+	boolean isValid() {
+		return !finished && ((entity == null)
+				|| ((entity.getZone() == zone) && zone.has(entity.getID())));
+	}
+
+	/**
+	 * Continues the search.
+	 *
+	 * @param scratch node data for the search
+	 * @param maxSteps maximum number of nodes to expand
+	 * @return number of expanded nodes
+	 */
+	int step(final PathfinderScratch scratch, final int maxSteps) {
+		if (!started) {
+			started = true;
+			pathfinder.begin(scratch);
+		}
+		final int steps = pathfinder.step(maxSteps);
+		expandedNodes += steps;
+		return steps;
+	}
+
+	/**
+	 * Does the whole search at once, and notifies the listener.
+	 */
+	void run() {
+		finished = true;
+		listener.onPathFound(pathfinder.getPath());
+	}
+
+	/**
+	 * Checks if the path finder has finished.
+	 *
+	 * @return <code>true</code> if the search has a result
+	 */
+	boolean isDone() {
+		return started && (pathfinder.getStatus() != Pathfinder.IN_PROGRESS);
+	}
+
+	/**
+	 * Get the number of nodes expanded so far.
+	 *
+	 * @return number of nodes
+	 */
+	int getExpandedNodes() {
+		return expandedNodes;
+	}
+
+	/**
+	 * Finishes the search and notifies the listener.
+	 *
+	 * @param aborted <code>true</code> if the search was aborted, so that
+	 * 	the listener gets an empty path
+	 */
+	void finish(final boolean aborted) {
+		finished = true;
+		if (aborted) {
+			listener.onPathFound(new LinkedList<Node>());
+		} else {
+			listener.onPathFound(pathfinder.getFoundPath());
+		}
+	}
+}
@@ -0,0 +1,327 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.pathfinder;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.entity.Entity;
+
+/**
+ * Runs path searches spread over several turns. Each turn the searches in
+ * the queue may expand a limited number of nodes in total, so that a burst
+ * of expensive searches does not delay the turn. The searches are processed
+ * in order, so a long search can span several turns before the next one is
+ * started.
+ * <p>
+ * With a budget of 0 (the default) the searches are done immediately, and
+ * the listener is notified before the request methods return.
+ */
+public final class PathRequestService {
+	/** configuration key for the number of nodes expanded per turn */
+	public static final String BUDGET_KEY = "pathfinding_budget";
+	/** configuration key for the maximum number of nodes of a single search */
+	public static final String SEARCH_LIMIT_KEY = "pathfinding_search_limit";
+	/** default maximum number of nodes expanded by a single search */
+	public static final int DEFAULT_SEARCH_LIMIT = 20000;
+
+	private static final Logger logger = Logger.getLogger(PathRequestService.class);
+
+	/** the singleton instance */
+	private static PathRequestService instance;
+
+	/** searches waiting for completion */
+	private final Deque<PathRequest> queue = new ArrayDeque<PathRequest>();
+	/** node data of the searches. Only one search is active at a time */
+	private final PathfinderScratch scratch = new PathfinderScratch();
+
+	/** number of nodes that may be expanded per turn, 0 for synchronous searches */
+	private volatile int budget;
+	/** maximum number of nodes of a single search */
+	private volatile int searchLimit = DEFAULT_SEARCH_LIMIT;
+
+	private long requests;
+	private long completed;
+	private long aborted;
+	private long cancelled;
+	private long expandedNodes;
+	private long exhaustedTurns;
+	private int maxQueueDepth;
+
+	/**
+	 * Get the PathRequestService instance.
+	 *
+	 * @return PathRequestService
+	 */
+	public static synchronized PathRequestService get() {
+		if (instance == null) {
+			instance = new PathRequestService();
+		}
+		return instance;
+	}
+
+	private PathRequestService() {
+		// singleton
+	}
+
+	/**
+	 * Configure the service.
+	 *
+	 * @param budget number of nodes expanded per turn. 0 for doing the
+	 * 	searches immediately
+	 * @param searchLimit maximum number of nodes expanded by a single search
+	 * 	before it gets aborted
+	 */
+	public void configure(final int budget, final int searchLimit) {
+		this.budget = Math.max(0, budget);
+		this.searchLimit = Math.max(1, searchLimit);
+		logger.info("Path finding budget: " + this.budget + " nodes per turn, search limit: "
+				+ this.searchLimit);
+	}
+
+	/**
+	 * Check if the searches are spread over turns.
+	 *
+	 * @return <code>true</code> if searches are asynchronous
+	 */
+	public boolean isAsynchronous() {
+		return budget > 0;
+	}
+
+	/**
+	 * Request a path for an entity. The listener gets an empty list if no
+	 * path is found.
+	 *
+	 * @param entity the moving entity
+	 * @param zone zone to search, or <code>null</code> for the current zone
+	 * 	of the entity
+	 * @param x start x
+	 * @param y start y
+	 * @param destination destination area
+	 * @param maxDistance the maximum distance (air line) a possible path may be
+	 * @param withEntities <code>true</code> if entities should be treated as
+	 * 	obstacles
+	 * @param listener listener to notify about the result
+	 * @return the request
+	 */
+	public PathRequest searchPath(final Entity entity, StendhalRPZone zone, final int x,
+			final int y, final Rectangle2D destination, final double maxDistance,
+			final boolean withEntities, final PathListener listener) {
+		if (zone == null) {
+			zone = entity.getZone();
+		}
+		final EntityPathfinder pathfinder = new EntityPathfinder(entity, zone, x, y,
+				destination, maxDistance, withEntities);
+		final PathRequest request = new PathRequest(pathfinder, entity, zone, listener);
+		if (budget > 0) {
+			synchronized (queue) {
+				requests++;
+				queue.add(request);
+				maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+			}
+		} else {
+			synchronized (queue) {
+				requests++;
+				completed++;
+			}
+			request.run();
+		}
+		return request;
+	}
+
+	/**
+	 * Continue the queued searches. Called once per turn.
+	 */
+	public void logic() {
+		// searches left over from a configuration change get finished at once
+		int remaining = (budget > 0) ? budget : Integer.MAX_VALUE;
+		while (remaining > 0) {
+			final PathRequest request;
+			synchronized (queue) {
+				request = queue.peek();
+			}
+			if (request == null) {
+				break;
+			}
+			if (!request.isValid()) {
+				request.cancel();
+				remove(request);
+				synchronized (queue) {
+					cancelled++;
+				}
+				continue;
+			}
+
+			final boolean done;
+			try {
+				final int limit = searchLimit - request.getExpandedNodes();
+				final int steps = request.step(scratch, Math.min(remaining, limit));
+				remaining -= steps;
+				synchronized (queue) {
+					expandedNodes += steps;
+				}
+				done = request.isDone();
+			} catch (final RuntimeException e) {
+				logger.error("Error while searching path", e);
+				abort(request);
+				continue;
+			}
+
+			if (done) {
+				remove(request);
+				synchronized (queue) {
+					completed++;
+				}
+				notify(request, false);
+			} else if (request.getExpandedNodes() >= searchLimit) {
+				abort(request);
+			}
+		}
+
+		synchronized (queue) {
+			if ((remaining <= 0) && !queue.isEmpty()) {
+				exhaustedTurns++;
+			}
+		}
+	}
+
+	/**
+	 * Give up a search, and notify the listener with an empty path.
+	 *
+	 * @param request aborted search
+	 */
+	private void abort(final PathRequest request) {
+		remove(request);
+		synchronized (queue) {
+			aborted++;
+		}
+		notify(request, true);
+	}
+
+	private void remove(final PathRequest request) {
+		synchronized (queue) {
+			queue.remove(request);
+		}
+	}
+
+	private void notify(final PathRequest request, final boolean aborted) {
+		try {
+			request.finish(aborted);
+		} catch (final RuntimeException e) {
+			logger.error("Error in path listener", e);
+		}
+	}
+
+	/**
+	 * Get the number of searches waiting for completion.
+	 *
+	 * @return queue depth
+	 */
+	public int getQueueDepth() {
+		synchronized (queue) {
+			return queue.size();
+		}
+	}
+
+	/**
+	 * Get the number of turns where the budget was used up while searches
+	 * were still waiting.
+	 *
+	 * @return number of turns
+	 */
+	public long getExhaustedTurns() {
+		synchronized (queue) {
+			return exhaustedTurns;
+		}
+	}
+
+	/**
+	 * Get the total number of expanded nodes.
+	 *
+	 * @return number of nodes
+	 */
+	public long getExpandedNodes() {
+		synchronized (queue) {
+			return expandedNodes;
+		}
+	}
+
+	/**
+	 * Get the number of searches that were aborted because of the search
+	 * limit.
+	 *
+	 * @return number of searches
+	 */
+	public long getAborted() {
+		synchronized (queue) {
+			return aborted;
+		}
+	}
+
+	/**
+	 * Get the number of searches that were dropped without notifying the
+	 * listener.
+	 *
+	 * @return number of searches
+	 */
+	public long getCancelled() {
+		synchronized (queue) {
+			return cancelled;
+		}
+	}
+
+	/**
+	 * Clear the statistics.
+	 */
+	public void resetStatistics() {
+		synchronized (queue) {
+			requests = 0;
+			completed = 0;
+			aborted = 0;
+			cancelled = 0;
+			expandedNodes = 0;
+			exhaustedTurns = 0;
+			maxQueueDepth = queue.size();
+		}
+	}
+
+	/**
+	 * Get a summary of the statistics.
+	 *
+	 * @return report
+	 */
+	public String getReport() {
+		synchronized (queue) {
+			final StringBuilder sb = new StringBuilder();
+			sb.append("Path finding: ");
+			if (budget > 0) {
+				sb.append(budget).append(" nodes per turn");
+			} else {
+				sb.append("synchronous");
+			}
+			sb.append(", search limit ").append(searchLimit);
+			sb.append("\nRequests: ").append(requests);
+			sb.append(", completed: ").append(completed);
+			sb.append(", aborted: ").append(aborted);
+			sb.append(", cancelled: ").append(cancelled);
+			sb.append("\nExpanded nodes: ").append(expandedNodes);
+			sb.append("\nQueue depth: ").append(queue.size());
+			sb.append(", maximum: ").append(maxQueueDepth);
+			sb.append("\nTurns with exhausted budget: ").append(exhaustedTurns);
+			return sb.toString();
+		}
+	}
+}
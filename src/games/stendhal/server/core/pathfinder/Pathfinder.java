@@ -25,6 +25,7 @@ package games.stendhal.server.core.pathfinder;
 
 
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -35,6 +36,11 @@ import java.util.Stack;
 /**
  * Implements the A* algorithm. Pathing can be done on any class that implements
  * the <code>Navigable</code> interface. See org.generation5.ai.Navigable.
+ * <p>
+ * Subclasses that know the size of the searched area (see
+ * <code>getMapWidth</code>) are searched with primitive arrays from
+ * <code>PathfinderScratch</code>. The other ones use a <code>TreeNode</code>
+ * per visited position. Both searches find the same paths.
  *
  * @author James Matthews
  *
@@ -103,6 +109,15 @@ public abstract class Pathfinder {
 	 */
 	private TreeNode bestNode;
 
+	/**
+	 * Node data of the array based search, or <code>null</code> if
+	 * <code>TreeNode</code>s are used.
+	 */
+	private PathfinderScratch arrays;
+
+	/** The current best node of the array based search. */
+	private int arrayBest = -1;
+
 	/**
 	 * The maximum distance for the path. It is compared with the f value of the
 	 * node. The minimum for working pathfinding is
@@ -149,8 +164,6 @@ public abstract class Pathfinder {
 		startNode = createNode(startX, startY);
 		goalNode = createNode((int) (destination.getCenterX()),
 				(int) (destination.getCenterY()));
-		openList.offer(startNode);
-		nodeRegistry.put(startNode.nodeNumber, startNode);
 
 		// calculate shortest distance and allow a variance of X percent
 		final double startF = 1.1 * startNode.getHeuristic(goalNode) + 1;
@@ -168,29 +181,271 @@ public abstract class Pathfinder {
 	}
 
 	public final List<Node> getPath() {
+		return getPath(true);
+	}
+
+	/**
+	 * Search a path.
+	 *
+	 * @param useArrays <code>true</code> if the array based search should be
+	 * 	used if possible, <code>false</code> to use <code>TreeNode</code>s
+	 * @return found path, or an empty list
+	 */
+	final List<Node> getPath(final boolean useArrays) {
 		init();
-		final List<Node> list = new LinkedList<Node>();
 
 		if (unreachableGoal()) {
-			return list;
+			return new LinkedList<Node>();
 		}
 
-		while (pathStatus == Pathfinder.IN_PROGRESS) {
-			doStep();
+		if (useArrays && canUseArrays()) {
+			final PathfinderScratch scratch = PathfinderScratch.acquire(getMapWidth() * getMapHeight());
+			try {
+				beginArraySearch(scratch);
+				step(Integer.MAX_VALUE);
+				return getFoundPath();
+			} finally {
+				arrays = null;
+				scratch.release();
+			}
 		}
 
-		if (pathStatus == Pathfinder.PATH_FOUND) {
-			TreeNode node = bestNode;
-			while (node != null) {
-				list.add(0, new Node(node.getX(), node.getY()));
-				node = node.getParent();
+		openList.offer(startNode);
+		nodeRegistry.put(startNode.nodeNumber, startNode);
+		step(Integer.MAX_VALUE);
+		return getFoundPath();
+	}
+
+	/**
+	 * Starts a search that is continued with <code>step</code>, so that it
+	 * can be spread over several turns.
+	 *
+	 * @param scratch node data for the array based search. It must not be
+	 * 	used by another search until this one is finished
+	 */
+	final void begin(final PathfinderScratch scratch) {
+		init();
+
+		if (unreachableGoal()) {
+			pathStatus = PATH_NOT_FOUND;
+			return;
+		}
+
+		if (canUseArrays()) {
+			scratch.reset(getMapWidth() * getMapHeight());
+			beginArraySearch(scratch);
+		} else {
+			openList.offer(startNode);
+			nodeRegistry.put(startNode.nodeNumber, startNode);
+		}
+	}
+
+	/**
+	 * Continues the search.
+	 *
+	 * @param maxSteps maximum number of nodes to expand
+	 * @return number of expanded nodes
+	 */
+	final int step(final int maxSteps) {
+		int steps = 0;
+		while ((pathStatus == IN_PROGRESS) && (steps < maxSteps)) {
+			steps++;
+			if (arrays != null) {
+				doArrayStep();
+			} else {
+				doStep();
+			}
+		}
+		return steps;
+	}
+
+	/**
+	 * Get the path found by the search.
+	 *
+	 * @return found path, or an empty list if the search has not found one
+	 */
+	final List<Node> getFoundPath() {
+		if (pathStatus != PATH_FOUND) {
+			return new LinkedList<Node>();
+		}
+
+		if (arrays != null) {
+			final int width = getMapWidth();
+			int length = 0;
+			for (int node = arrayBest; node >= 0; node = arrays.parent[node]) {
+				length++;
+			}
+			final Node[] nodes = new Node[length];
+			for (int node = arrayBest; node >= 0; node = arrays.parent[node]) {
+				nodes[--length] = new Node(node % width, node / width);
+			}
+			final List<Node> list = new ArrayList<Node>(nodes.length);
+			for (final Node node : nodes) {
+				list.add(node);
 			}
+			return list;
 		}
-		/* */
 
+		final List<Node> list = new LinkedList<Node>();
+		TreeNode node = bestNode;
+		while (node != null) {
+			list.add(0, new Node(node.getX(), node.getY()));
+			node = node.getParent();
+		}
 		return list;
 	}
 
+	/**
+	 * Checks if the array based search can be used.
+	 *
+	 * @return <code>true</code> if the size of the searched area is known
+	 * 	and the start position is inside it
+	 */
+	private boolean canUseArrays() {
+		final int width = getMapWidth();
+		final int height = getMapHeight();
+		return (width > 0) && (height > 0) && (startX >= 0) && (startX < width)
+				&& (startY >= 0) && (startY < height);
+	}
+
+	/**
+	 * Starts the search on primitive arrays. The steps are the same as those
+	 * of <code>doStep</code> and <code>TreeNode</code>, including the order
+	 * of nodes in the open list.
+	 *
+	 * @param scratch node data
+	 */
+	private void beginArraySearch(final PathfinderScratch scratch) {
+		arrays = scratch;
+		final int start = startX + startY * getMapWidth();
+		scratch.create(start, 1.0);
+		scratch.offer(start);
+	}
+
+	/**
+	 * Array based version of <code>doStep</code>.
+	 */
+	private void doArrayStep() {
+		final int width = getMapWidth();
+		final int height = getMapHeight();
+		final PathfinderScratch scratch = arrays;
+
+		arrayBest = scratch.poll();
+		if (arrayBest < 0) {
+			pathStatus = PATH_NOT_FOUND;
+			return;
+		}
+
+		final int x = arrayBest % width;
+		final int y = arrayBest / width;
+		if (goalArea.contains(x, y)) {
+			pathStatus = PATH_FOUND;
+			return;
+		}
+
+		if (scratch.g[arrayBest] < maxDistance) {
+			linkChild(scratch, arrayBest, x - 1, y + 0, width, height);
+			linkChild(scratch, arrayBest, x + 1, y + 0, width, height);
+			linkChild(scratch, arrayBest, x + 0, y - 1, width, height);
+			linkChild(scratch, arrayBest, x + 0, y + 1, width, height);
+		}
+	}
+
+	/**
+	 * Array based version of <code>TreeNode.linkChild</code>.
+	 *
+	 * @param scratch node data
+	 * @param node parent node
+	 * @param x x coordinate of the child
+	 * @param y y coordinate of the child
+	 * @param width width of the searched area
+	 * @param height height of the searched area
+	 */
+	private void linkChild(final PathfinderScratch scratch, final int node, final int x, final int y,
+			final int width, final int height) {
+		// Positions outside the area are never valid
+		if ((x < 0) || (x >= width) || (y < 0) || (y >= height) || !isValidPosition(x, y)) {
+			return;
+		}
+
+		final int child = x + y * width;
+		if (!scratch.exists(child)) {
+			scratch.create(child, getMoveCost(x, y));
+			scratch.addChild(node, child);
+			updateChild(scratch, node, child, width);
+			scratch.offer(child);
+		} else {
+			if (scratch.g[child] > (scratch.g[node] + scratch.cost[child])) {
+				updateChild(scratch, node, child, width);
+			}
+
+			if (!scratch.open[child]) {
+				updateSubTree(scratch, child, width);
+			}
+		}
+	}
+
+	/**
+	 * Array based version of <code>TreeNode.updateChild</code>.
+	 *
+	 * @param scratch node data
+	 * @param node parent node
+	 * @param child child node
+	 * @param width width of the searched area
+	 */
+	private void updateChild(final PathfinderScratch scratch, final int node, final int child, final int width) {
+		scratch.parent[child] = node;
+		scratch.g[child] = scratch.g[node] + scratch.cost[child];
+
+		final int x = node % width;
+		final int y = node / width;
+		final int childX = child % width;
+		final int childY = child / width;
+		final int goalX = goalNode.getX();
+		final int goalY = goalNode.getY();
+		final double heuristic = manhattanDistance(childX, childY, goalX, goalY);
+		final double tieBreaking = 0.01 * squareDistance(childX, childY, goalX, goalY);
+		double childweight = scratch.g[child] + (heuristic + tieBreaking);
+
+		// Prefer nodes that do not result in direction change
+		final int parent = scratch.parent[node];
+		if (parent >= 0) {
+			final int incx = (parent % width) - x;
+			final int incy = (parent / width) - y;
+
+			final int incx2 = x - childX;
+			final int incy2 = y - childY;
+
+			if ((incx == incx2) && (incy == incy2)) {
+				childweight -= STRAIGHT_PATH_PREFERENCE_FACTOR;
+			}
+		}
+
+		scratch.weight[child] = childweight;
+	}
+
+	/**
+	 * Array based version of <code>TreeNode.updateSubTree</code>.
+	 *
+	 * @param scratch node data
+	 * @param root root node
+	 * @param width width of the searched area
+	 */
+	private void updateSubTree(final PathfinderScratch scratch, final int root, final int width) {
+		scratch.push(root);
+		for (int node = scratch.pop(); node >= 0; node = scratch.pop()) {
+			final int first = node * PathfinderScratch.MAX_CHILDREN;
+			final int last = first + scratch.childCount[node];
+			for (int i = first; i < last; i++) {
+				final int child = scratch.children[i];
+				if (scratch.g[node] + scratch.cost[child] < scratch.g[child]) {
+					updateChild(scratch, node, child, width);
+					scratch.push(child);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Iterate the pathfinder through one step.
 	 */
@@ -251,7 +506,7 @@ public abstract class Pathfinder {
 		for (int i = 0; i <= w; i++) {
 			for (int j = 0; j <= h; j++) {
 				if ((i == 0) || (j == 0) || (i == w) || (j == h)) {
-					if (createNode(x + i, y + j).isValid()) {
+					if (isValidPosition(x + i, y + j)) {
 						return false;
 					}
 				}
@@ -271,6 +526,49 @@ public abstract class Pathfinder {
 	// A workaround for java lacking proper generics
 	public abstract TreeNode createNode(final int x, final int y);
 
+	/**
+	 * Get the width of the searched area. Positions outside the area must
+	 * not be valid. Subclasses that return a positive size are searched with
+	 * primitive arrays instead of <code>TreeNode</code>s.
+	 *
+	 * @return width, or 0 if unknown
+	 */
+	protected int getMapWidth() {
+		return 0;
+	}
+
+	/**
+	 * Get the height of the searched area.
+	 *
+	 * @return height, or 0 if unknown
+	 * @see #getMapWidth()
+	 */
+	protected int getMapHeight() {
+		return 0;
+	}
+
+	/**
+	 * Checks if the entity could stand on a position.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return <code>true</code> if the entity could stand on the position
+	 */
+	protected boolean isValidPosition(final int x, final int y) {
+		return createNode(x, y).isValid();
+	}
+
+	/**
+	 * Get the cost of moving to a position.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return movement cost
+	 */
+	protected double getMoveCost(final int x, final int y) {
+		return createNode(x, y).getCost();
+	}
+
 
 	/**
 	 * Calculates the manhattan distance between to positions.
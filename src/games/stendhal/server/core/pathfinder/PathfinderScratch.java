@@ -0,0 +1,232 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.pathfinder;
+
+import java.util.Arrays;
+
+/**
+ * Node data of the array based A* search in <code>Pathfinder</code>. The
+ * arrays are indexed by <code>x + y * width</code> and are reused by all
+ * searches of a thread, so that a search does not allocate an object per
+ * visited node.
+ */
+final class PathfinderScratch {
+	/** Maximum number of children of a node */
+	static final int MAX_CHILDREN = 4;
+
+	private static final ThreadLocal<PathfinderScratch> POOL = new ThreadLocal<PathfinderScratch>() {
+		@Override
+		protected PathfinderScratch initialValue() {
+			return new PathfinderScratch();
+		}
+	};
+
+	/** search generation in which a node was created */
+	private int[] created = new int[0];
+	/** the current search generation */
+	private int generation;
+	/** <code>true</code> while a search uses this instance */
+	private boolean inUse;
+
+	/** f-values */
+	double[] weight = new double[0];
+	/** g-values */
+	double[] g = new double[0];
+	/** movement costs */
+	double[] cost = new double[0];
+	/** parent nodes, -1 for none */
+	int[] parent = new int[0];
+	/** open flags */
+	boolean[] open = new boolean[0];
+	/** children of the nodes, MAX_CHILDREN per node */
+	int[] children = new int[0];
+	/** number of children of the nodes */
+	byte[] childCount = new byte[0];
+
+	/** the open list as binary heap */
+	private int[] heap = new int[64];
+	private int heapSize;
+
+	/** stack for updating subtrees */
+	private int[] stack = new int[64];
+	private int stackSize;
+
+	/**
+	 * Gets the scratch data of the current thread.
+	 *
+	 * @param size number of nodes of the searched area
+	 * @return scratch data ready for a new search. Call <code>release</code>
+	 * 	when the search is done
+	 */
+	static PathfinderScratch acquire(final int size) {
+		PathfinderScratch scratch = POOL.get();
+		if (scratch.inUse) {
+			// a search started by a search
+			scratch = new PathfinderScratch();
+		}
+		scratch.reset(size);
+		scratch.inUse = true;
+		return scratch;
+	}
+
+	/**
+	 * Marks the scratch data as unused.
+	 */
+	void release() {
+		inUse = false;
+	}
+
+	/**
+	 * Prepares the scratch data for a new search.
+	 *
+	 * @param size number of nodes of the searched area
+	 */
+	void reset(final int size) {
+		if (created.length < size) {
+			created = new int[size];
+			weight = new double[size];
+			g = new double[size];
+			cost = new double[size];
+			parent = new int[size];
+			open = new boolean[size];
+			children = new int[size * MAX_CHILDREN];
+			childCount = new byte[size];
+			generation = 0;
+		}
+		generation++;
+		if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(created, 0);
+			generation = 1;
+		}
+		heapSize = 0;
+		stackSize = 0;
+	}
+
+	/**
+	 * Checks if a node has been created in the current search.
+	 *
+	 * @param node node index
+	 * @return <code>true</code> if the node exists
+	 */
+	boolean exists(final int node) {
+		return created[node] == generation;
+	}
+
+	/**
+	 * Creates a node without parent.
+	 *
+	 * @param node node index
+	 * @param nodeCost cost of moving to the node
+	 */
+	void create(final int node, final double nodeCost) {
+		created[node] = generation;
+		weight[node] = 0.0;
+		g[node] = 0.0;
+		cost[node] = nodeCost;
+		parent[node] = -1;
+		open[node] = true;
+		childCount[node] = 0;
+	}
+
+	/**
+	 * Adds a child to a node.
+	 *
+	 * @param node parent node
+	 * @param child child node
+	 */
+	void addChild(final int node, final int child) {
+		children[node * MAX_CHILDREN + childCount[node]] = child;
+		childCount[node]++;
+	}
+
+	/**
+	 * Adds a node to the open list. The heap operations match those of
+	 * <code>java.util.PriorityQueue</code>, so that nodes of equal weight are
+	 * taken in the same order as by the TreeNode search.
+	 *
+	 * @param node node index
+	 */
+	void offer(final int node) {
+		if (heapSize == heap.length) {
+			heap = Arrays.copyOf(heap, heapSize * 2);
+		}
+		int k = heapSize++;
+		while (k > 0) {
+			final int parentIndex = (k - 1) >>> 1;
+			final int e = heap[parentIndex];
+			if (compare(node, e) >= 0) {
+				break;
+			}
+			heap[k] = e;
+			k = parentIndex;
+		}
+		heap[k] = node;
+	}
+
+	/**
+	 * Takes the best node from the open list and closes it.
+	 *
+	 * @return node index, or -1 if the open list is empty
+	 */
+	int poll() {
+		if (heapSize == 0) {
+			return -1;
+		}
+		final int result = heap[0];
+		final int n = --heapSize;
+		final int x = heap[n];
+		if (n > 0) {
+			int k = 0;
+			final int half = n >>> 1;
+			while (k < half) {
+				int child = (k << 1) + 1;
+				int c = heap[child];
+				final int right = child + 1;
+				if ((right < n) && (compare(c, heap[right]) > 0)) {
+					child = right;
+					c = heap[child];
+				}
+				if (compare(x, c) <= 0) {
+					break;
+				}
+				heap[k] = c;
+				k = child;
+			}
+			heap[k] = x;
+		}
+		open[result] = false;
+		return result;
+	}
+
+	private int compare(final int node1, final int node2) {
+		return (int) Math.signum(weight[node1] - weight[node2]);
+	}
+
+	void push(final int node) {
+		if (stackSize == stack.length) {
+			stack = Arrays.copyOf(stack, stackSize * 2);
+		}
+		stack[stackSize++] = node;
+	}
+
+	/**
+	 * Takes the top node from the stack.
+	 *
+	 * @return node index, or -1 if the stack is empty
+	 */
+	int pop() {
+		if (stackSize == 0) {
+			return -1;
+		}
+		return stack[--stackSize];
+	}
+}
@@ -44,6 +44,26 @@ public class SimplePathfinder extends Pathfinder {
 		return new SimpleTreeNode(x, y);
 	}
 
+	@Override
+	protected int getMapWidth() {
+		return collision.getWidth();
+	}
+
+	@Override
+	protected int getMapHeight() {
+		return collision.getHeight();
+	}
+
+	@Override
+	protected boolean isValidPosition(int x, int y) {
+		return !collision.collides(x, y);
+	}
+
+	@Override
+	protected double getMoveCost(int x, int y) {
+		return 1.0;
+	}
+
 	private class SimpleTreeNode extends TreeNode {
 		protected SimpleTreeNode(int x, int y) {
 			super(x, y);
@@ -61,7 +81,7 @@ public class SimplePathfinder extends Pathfinder {
 
 		@Override
 		public boolean isValid(int x, int y) {
-			return !collision.collides(x, y);
+			return isValidPosition(x, y);
 		}
 	}
 }
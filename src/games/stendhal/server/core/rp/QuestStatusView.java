@@ -0,0 +1,169 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.rp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.quests.IQuest;
+
+/**
+ * The open and completed quests of a player. The quest system keeps it with
+ * the player, and creates a new one when the quest states of the player or
+ * the loaded quests have changed.
+ *
+ * <p>Quests whose state also depends on the world, and not only on the quest
+ * slots, are checked again on every request.
+ */
+public final class QuestStatusView {
+	private enum State { NOT_STARTED, OPEN, COMPLETED }
+
+	private final int stateVersion;
+	private final int questsVersion;
+	/** loaded quests when the view was created */
+	private final IQuest[] quests;
+	/** state of each quest, or <code>null</code> for quests checked on every request */
+	private final State[] states;
+	/** are there quests that are checked on every request? */
+	private final boolean checkOnRequest;
+	private final List<IQuest> open = new ArrayList<IQuest>();
+	private final List<IQuest> completed = new ArrayList<IQuest>();
+	/** quests completed at least once, found when first needed */
+	private List<IQuest> completedBefore;
+
+	/**
+	 * Creates a new QuestStatusView.
+	 *
+	 * @param player player
+	 * @param quests loaded quests
+	 * @param questsVersion version of the loaded quests
+	 */
+	QuestStatusView(final Player player, final List<IQuest> quests, final int questsVersion) {
+		this.stateVersion = player.getQuestStateVersion();
+		this.questsVersion = questsVersion;
+		this.quests = quests.toArray(new IQuest[quests.size()]);
+		this.states = new State[this.quests.length];
+		boolean check = false;
+		for (int i = 0; i < this.quests.length; i++) {
+			final IQuest quest = this.quests[i];
+			if (quest.dependsOnQuestSlotsOnly()) {
+				states[i] = getState(quest, player);
+				if (states[i] == State.COMPLETED) {
+					completed.add(quest);
+				} else if (states[i] == State.OPEN) {
+					open.add(quest);
+				}
+			} else {
+				check = true;
+			}
+		}
+		checkOnRequest = check;
+	}
+
+	private static State getState(final IQuest quest, final Player player) {
+		if (quest.isCompleted(player)) {
+			return State.COMPLETED;
+		} else if (quest.isStarted(player)) {
+			return State.OPEN;
+		}
+		return State.NOT_STARTED;
+	}
+
+	/**
+	 * Checks if the view still matches the quest states of a player.
+	 *
+	 * @param player player
+	 * @param questsVersion current version of the loaded quests
+	 * @return <code>true</code> if nothing has changed since the view was
+	 * 	created
+	 */
+	boolean isCurrent(final Player player, final int questsVersion) {
+		return (this.questsVersion == questsVersion)
+				&& (stateVersion == player.getQuestStateVersion());
+	}
+
+	/**
+	 * Gets the quests that are started, but not completed.
+	 *
+	 * @param player player
+	 * @return open quests in loading order
+	 */
+	List<IQuest> getOpen(final Player player) {
+		if (!checkOnRequest) {
+			return open;
+		}
+		return collect(player, State.OPEN);
+	}
+
+	/**
+	 * Gets the completed quests.
+	 *
+	 * @param player player
+	 * @return completed quests in loading order
+	 */
+	List<IQuest> getCompleted(final Player player) {
+		if (!checkOnRequest) {
+			return completed;
+		}
+		return collect(player, State.COMPLETED);
+	}
+
+	private List<IQuest> collect(final Player player, final State state) {
+		final List<IQuest> res = new ArrayList<IQuest>();
+		for (int i = 0; i < quests.length; i++) {
+			State questState = states[i];
+			if (questState == null) {
+				questState = getState(quests[i], player);
+			}
+			if (questState == state) {
+				res.add(quests[i]);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Gets the quests that have been completed at least once, including
+	 * repeated quests that are currently open.
+	 *
+	 * @param player player
+	 * @return quests in loading order
+	 */
+	List<IQuest> getCompletedBefore(final Player player) {
+		if (completedBefore == null) {
+			completedBefore = new ArrayList<IQuest>();
+			for (final IQuest quest : quests) {
+				if (quest.dependsOnQuestSlotsOnly() && (quest.getCompletedCount(player) > 0)) {
+					completedBefore.add(quest);
+				}
+			}
+		}
+		if (!checkOnRequest) {
+			return completedBefore;
+		}
+
+		final List<IQuest> res = new ArrayList<IQuest>();
+		int next = 0;
+		for (final IQuest quest : quests) {
+			if (quest.dependsOnQuestSlotsOnly()) {
+				if ((next < completedBefore.size()) && (completedBefore.get(next) == quest)) {
+					res.add(quest);
+					next++;
+				}
+			} else if (quest.getCompletedCount(player) > 0) {
+				res.add(quest);
+			}
+		}
+		return res;
+	}
+}
@@ -14,8 +14,11 @@ package games.stendhal.server.core.rp;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 
@@ -38,7 +41,16 @@ public class StendhalQuestSystem {
 	/** The singleton instance. */
 	private static StendhalQuestSystem instance;
 
-	private final static List<IQuest> quests = new LinkedList<IQuest>();
+	private final static List<IQuest> quests = new ArrayList<IQuest>();
+
+	/** loaded quests by name, in loading order */
+	private final static Map<String, List<IQuest>> questsByName = new HashMap<String, List<IQuest>>();
+	/** loaded quests by slot name, in loading order */
+	private final static Map<String, List<IQuest>> questsBySlot = new HashMap<String, List<IQuest>>();
+	/** loaded quests by the name shown to players. Created when first needed */
+	private static Map<String, List<IQuest>> questsByTitle;
+	/** incremented whenever a quest is loaded or unloaded */
+	private static int questsVersion;
 
 	private final static List<IQuest> cached = new ArrayList<>();
 	private static boolean cacheLoaded = false;
@@ -253,7 +265,101 @@ public class StendhalQuestSystem {
 
 		logger.info("Loading Quest: " + quest.getName());
 		quest.addToWorld();
+		addLoaded(quest);
+	}
+
+	/**
+	 * Adds a quest to the list of loaded quests and to the indexes.
+	 *
+	 * @param quest loaded quest
+	 */
+	private static void addLoaded(final IQuest quest) {
 		quests.add(quest);
+		addToIndex(questsByName, quest.getName(), quest);
+		addToIndex(questsBySlot, quest.getSlotName(), quest);
+		questsByTitle = null;
+		questsVersion++;
+	}
+
+	/**
+	 * Removes a quest from the list of loaded quests and from the indexes.
+	 *
+	 * @param quest unloaded quest
+	 */
+	private static void removeLoaded(final IQuest quest) {
+		quests.remove(quest);
+		removeFromIndex(questsByName, quest.getName(), quest);
+		removeFromIndex(questsBySlot, quest.getSlotName(), quest);
+		questsByTitle = null;
+		questsVersion++;
+	}
+
+	private static void addToIndex(final Map<String, List<IQuest>> index, final String key, final IQuest quest) {
+		List<IQuest> list = index.get(key);
+		if (list == null) {
+			list = new ArrayList<IQuest>(1);
+			index.put(key, list);
+		}
+		list.add(quest);
+	}
+
+	private static void removeFromIndex(final Map<String, List<IQuest>> index, final String key, final IQuest quest) {
+		final List<IQuest> list = index.get(key);
+		if (list != null) {
+			list.remove(quest);
+			if (list.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Gets the loaded quests with a key.
+	 *
+	 * @param index index to search
+	 * @param key key
+	 * @return quests in loading order
+	 */
+	private static List<IQuest> lookup(final Map<String, List<IQuest>> index, final String key) {
+		final List<IQuest> list = index.get(key);
+		if (list == null) {
+			return Collections.emptyList();
+		}
+		return list;
+	}
+
+	/**
+	 * Gets the loaded quests with a name shown to players.
+	 *
+	 * @param player player the quest information is for
+	 * @param title shown quest name
+	 * @return quests in loading order
+	 */
+	private static List<IQuest> lookupTitle(final Player player, final String title) {
+		if (questsByTitle == null) {
+			final Map<String, List<IQuest>> index = new HashMap<String, List<IQuest>>();
+			for (final IQuest quest : quests) {
+				addToIndex(index, quest.getQuestInfo(player).getName(), quest);
+			}
+			questsByTitle = index;
+		}
+		return lookup(questsByTitle, title);
+	}
+
+	/**
+	 * Gets the overview of the open and completed quests of a player, and
+	 * creates a new one if the quest states have changed.
+	 *
+	 * @param player player
+	 * @return overview
+	 */
+	private static QuestStatusView getStatusView(final Player player) {
+		QuestStatusView view = player.getQuestStatusView();
+		if ((view == null) || !view.isCurrent(player, questsVersion)) {
+			view = new QuestStatusView(player, quests, questsVersion);
+			player.setQuestStatusView(view);
+		}
+		return view;
 	}
 
 	/**
@@ -353,28 +459,25 @@ public class StendhalQuestSystem {
 
 		// Open quests
 		sb.append("\r\n#'Open Quests': ");
+		final QuestStatusView view = getStatusView(player);
 		boolean first = true;
-		for (final IQuest quest : quests) {
-			if (quest.isStarted(player) && !quest.isCompleted(player)) {
-				if (!first) {
-					sb.append(", ");
-				}
-				sb.append(quest.getName());
-				first = false;
+		for (final IQuest quest : view.getOpen(player)) {
+			if (!first) {
+				sb.append(", ");
 			}
+			sb.append(quest.getName());
+			first = false;
 		}
 
 		// Completed Quests
 		sb.append("\r\n#'Completed Quests': ");
 		first = true;
-		for (final IQuest quest : quests) {
-			if (quest.isCompleted(player)) {
-				if (!first) {
-					sb.append(", ");
-				}
-				sb.append(quest.getName());
-				first = false;
+		for (final IQuest quest : view.getCompleted(player)) {
+			if (!first) {
+				sb.append(", ");
 			}
+			sb.append(quest.getName());
+			first = false;
 		}
 
 		return sb.toString();
@@ -389,10 +492,8 @@ public class StendhalQuestSystem {
 	 */
 	public String listQuest(final Player player, final String questName) {
 		final StringBuilder sb = new StringBuilder();
-		for (final IQuest quest : quests) {
-			if (quest.getName().equals(questName)) {
-				dumpQuest(sb, quest, player);
-			}
+		for (final IQuest quest : lookup(questsByName, questName)) {
+			dumpQuest(sb, quest, player);
 		}
 		return sb.toString();
 	}
@@ -408,19 +509,15 @@ public class StendhalQuestSystem {
 
 		// Open quests
 		sb.append("\r\n#'Open Quests': ");
-
-		for (final IQuest quest : quests) {
-			if (quest.isStarted(player) && !quest.isCompleted(player)) {
-				sb.append("\r\n" + quest.getName() + " (" + quest.getSlotName() + "): " + player.getQuest(quest.getSlotName()));
-			}
+		final QuestStatusView view = getStatusView(player);
+		for (final IQuest quest : view.getOpen(player)) {
+			sb.append("\r\n" + quest.getName() + " (" + quest.getSlotName() + "): " + player.getQuest(quest.getSlotName()));
 		}
 
 		// Completed Quests
 		sb.append("\n#'Completed Quests': ");
-		for (final IQuest quest : quests) {
-			if (quest.isCompleted(player)) {
-				sb.append("\r\n" + quest.getName() + " (" + quest.getSlotName() + "): " + player.getQuest(quest.getSlotName()));
-			}
+		for (final IQuest quest : view.getCompleted(player)) {
+			sb.append("\r\n" + quest.getName() + " (" + quest.getSlotName() + "): " + player.getQuest(quest.getSlotName()));
 		}
 
 		return sb.toString();
@@ -434,8 +531,8 @@ public class StendhalQuestSystem {
 	 */
 	public List<String> getOpenQuests(Player player) {
 		List<String> res = new LinkedList<String>();
-		for (final IQuest quest : quests) {
-			if (quest.isStarted(player) && !quest.isCompleted(player) && quest.isVisibleOnQuestStatus(player)) {
+		for (final IQuest quest : getStatusView(player).getOpen(player)) {
+			if (quest.isVisibleOnQuestStatus(player)) {
 				res.add(quest.getQuestInfo(player).getName());
 			}
 		}
@@ -499,10 +596,16 @@ public class StendhalQuestSystem {
 	 *   Completed quests.
 	 */
 	private Collection<IQuest> findCompletedQuests(Player player, final boolean repeatIsCompleted) {
+		final QuestStatusView view = getStatusView(player);
+		final List<IQuest> completed;
+		if (repeatIsCompleted) {
+			completed = view.getCompletedBefore(player);
+		} else {
+			completed = view.getCompleted(player);
+		}
 		List<IQuest> res = new ArrayList<IQuest>();
-		for (IQuest quest : quests) {
-			final boolean completed = repeatIsCompleted ? quest.getCompletedCount(player) > 0 : quest.isCompleted(player);
-			if (completed && quest.isVisibleOnQuestStatus(player)) {
+		for (IQuest quest : completed) {
+			if (quest.isVisibleOnQuestStatus(player)) {
 				res.add(quest);
 			}
 		}
@@ -529,13 +632,11 @@ public class StendhalQuestSystem {
 	 * @return description
 	 */
 	public String getQuestDescription(final Player player, final String questName) {
-		for (final IQuest quest : quests) {
-			final QuestInfo questInfo = quest.getQuestInfo(player);
-			if (questInfo.getName().equals(questName)) {
-				return questInfo.getDescription();
-			}
+		final List<IQuest> found = lookupTitle(player, questName);
+		if (found.isEmpty()) {
+			return "";
 		}
-		return "";
+		return found.get(0).getQuestInfo(player).getDescription();
 	}
 
 	/**
@@ -547,10 +648,9 @@ public class StendhalQuestSystem {
 	 * @return warning or empty string
 	 */
 	public String getQuestLevelWarning(Player player, String questName) {
-		for (final IQuest quest : quests) {
+		for (final IQuest quest : lookupTitle(player, questName)) {
 			final QuestInfo questInfo = quest.getQuestInfo(player);
-			if (questInfo.getName().equals(questName)
-					&& (questInfo.getSuggestedMinLevel() > player.getLevel())
+			if ((questInfo.getSuggestedMinLevel() > player.getLevel())
 					&& !quest.isCompleted(player)) {
 				return "This task may be too dangerous for your level of experience.";
 			}
@@ -566,13 +666,10 @@ public class StendhalQuestSystem {
 	 */
 	public List<String> getQuestProgressDetails(final Player player, final String questName) {
 		List<String> res = new LinkedList<String>();
-		for (final IQuest quest : quests) {
-			final QuestInfo questInfo = quest.getQuestInfo(player);
-			if (questInfo.getName().equals(questName)) {
-				final List<String> history = quest.getFormattedHistory(player);
-				for (final String entry : history) {
-					res.add(entry);
-				}
+		for (final IQuest quest : lookupTitle(player, questName)) {
+			final List<String> history = quest.getFormattedHistory(player);
+			for (final String entry : history) {
+				res.add(entry);
 			}
 		}
 		return res;
@@ -586,13 +683,11 @@ public class StendhalQuestSystem {
 	 * @return IQuest or <code>null</code> if it does not exist.
 	 */
 	public IQuest getQuest(String questName) {
-		for (final IQuest quest : quests) {
-			if (quest.getName().equals(questName)) {
-				return quest;
-			}
+		final List<IQuest> found = lookup(questsByName, questName);
+		if (found.isEmpty()) {
+			return null;
 		}
-
-		return null;
+		return found.get(0);
 	}
 
 	/**
@@ -604,13 +699,11 @@ public class StendhalQuestSystem {
 	 * 		IQuest or <code>null</code> if it does not exist.
 	 */
 	public IQuest getQuestFromSlot(final String questSlot) {
-		for (final IQuest quest : quests) {
-			if (quest.getSlotName().equals(questSlot)) {
-				return quest;
-			}
+		final List<IQuest> found = lookup(questsBySlot, questSlot);
+		if (found.isEmpty()) {
+			return null;
 		}
-
-		return null;
+		return found.get(0);
 	}
 
 	/**
@@ -625,14 +718,14 @@ public class StendhalQuestSystem {
 	public boolean unloadQuest(final IQuest quest) {
 		logger.info("Unloading Quest: " + quest.getName());
 		// remove from loaded list before calling removeFromWorld to prevent redundancies
-		quests.remove(quest);
+		removeLoaded(quest);
 		if (quest.removeFromWorld()) {
 			return true;
 		} else {
 			logger.error(quest.getClass().getName() + " cannot be removed from the world");
 		}
 		// removal failed, re-add to loaded list
-		quests.add(quest);
+		addLoaded(quest);
 		return false;
 	}
 
@@ -658,13 +751,7 @@ public class StendhalQuestSystem {
 	 * Retrieves all loaded instances with slot.
 	 */
 	private List<IQuest> _getAllBySlot(final String slot) {
-		final List<IQuest> qfound = new ArrayList<>();
-		for (final IQuest q: quests) {
-			if (q.getSlotName().equals(slot)) {
-				qfound.add(q);
-			}
-		}
-		return qfound;
+		return new ArrayList<>(lookup(questsBySlot, slot));
 	}
 
 	/**
@@ -783,12 +870,7 @@ public class StendhalQuestSystem {
 	 *     <code>true</code> if quest slot matches stored quests.
 	 */
 	public boolean isLoadedSlot(final String slot) {
-		for (final IQuest loaded: quests) {
-			if (loaded.getSlotName().equals(slot)) {
-				return true;
-			}
-		}
-		return false;
+		return questsBySlot.containsKey(slot);
 	}
 
 	/**
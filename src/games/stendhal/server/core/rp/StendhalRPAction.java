@@ -29,6 +29,7 @@ import games.stendhal.server.core.engine.DataProvider;
 import games.stendhal.server.core.engine.GameEvent;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.core.engine.ZoneLogicExecutor;
 import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
 import games.stendhal.server.core.events.TutorialNotifier;
 import games.stendhal.server.core.events.ZoneNotifier;
@@ -624,6 +625,10 @@ public class StendhalRPAction {
 	 *     new position.
 	 * @return
 	 *     <code>true</code> if it was possible to place the entity, false otherwise.
+	 *     A zone change requested by parallel zone logic is applied after all
+	 *     zones are done, and <code>true</code> is returned before it is known
+	 *     whether it succeeds. Callers that act on the result defer themselves
+	 *     with {@link ZoneLogicExecutor#defer(Runnable)}.
 	 */
 	public static boolean placeat(final StendhalRPZone zone, final Entity entity,
 			int x, int y, final Shape allowedArea) {
@@ -631,6 +636,15 @@ public class StendhalRPAction {
 			return false;
 		}
 
+		if (entity.getZone() != zone) {
+			// zone changes during parallel zone logic are applied afterwards
+			final int targetX = x;
+			final int targetY = y;
+			if (ZoneLogicExecutor.defer(() -> placeat(zone, entity, targetX, targetY, allowedArea))) {
+				return true;
+			}
+		}
+
 		Player player = null;
 		if (entity instanceof Player) {
 			player = (Player) entity;
@@ -12,6 +12,11 @@
  ***************************************************************************/
 package games.stendhal.server.core.rp.achievement;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import games.stendhal.server.entity.npc.ChatCondition;
 import games.stendhal.server.entity.player.Player;
 /**
@@ -49,6 +54,9 @@ public class Achievement {
 
 	private final ChatCondition condition;
 
+	/** facts the condition depends on, or <code>null</code> if not declared */
+	private final Set<String> facts;
+
 
 
 	/**
@@ -63,6 +71,25 @@ public class Achievement {
 	 * @param condition
 	 */
 	public Achievement(String identifier, String title, Category category, String description, int baseScore, boolean active, ChatCondition condition) {
+		this(identifier, title, category, description, baseScore, active, condition, (String[]) null);
+	}
+
+	/**
+	 * create a new achievement that declares the player facts its condition
+	 * depends on. Such an achievement is checked only when one of these facts
+	 * changes, or when the trigger does not tell which facts have changed.
+	 *
+	 * @param identifier
+	 * @param title
+	 * @param category
+	 * @param description
+	 * @param baseScore
+	 * @param active
+	 * @param condition
+	 * @param facts keys created by {@link AchievementFact}, or <code>null</code>
+	 * 	to check the achievement on every trigger of its category
+	 */
+	public Achievement(String identifier, String title, Category category, String description, int baseScore, boolean active, ChatCondition condition, String... facts) {
 		this.identifier = identifier;
 		this.title = title;
 		this.category = category;
@@ -70,6 +97,11 @@ public class Achievement {
 		this.description = description;
 		this.baseScore = baseScore;
 		this.active = active;
+		if (facts == null) {
+			this.facts = null;
+		} else {
+			this.facts = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(facts)));
+		}
 	}
 
 	/**
@@ -114,6 +146,14 @@ public class Achievement {
 		return active;
 	}
 
+	/**
+	 * @return the facts this achievement depends on, or <code>null</code> if
+	 * 	they are not declared
+	 */
+	public Set<String> getFacts() {
+		return facts;
+	}
+
 	/**
 	 * Check if a player has fulfilled this achievement
 	 * @param p the player to check
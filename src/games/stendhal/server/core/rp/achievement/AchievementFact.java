@@ -0,0 +1,86 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.rp.achievement;
+
+/**
+ * Keys of the player facts an achievement can depend on. The triggers of the
+ * AchievementNotifier report which facts have changed, so that only the
+ * achievements depending on them are checked again.
+ */
+public final class AchievementFact {
+
+	/**
+	 * Reported when a player kills a kind of creature for the first time,
+	 * either solo or shared. Achievements that need kills of many different
+	 * creatures can only be reached after such a kill.
+	 */
+	public static final String FIRST_KILL = "first-kill";
+
+	/**
+	 * Reported when a player enters a zone that player has not visited
+	 * before. Achievements about visited zones can only be reached after
+	 * such a visit.
+	 */
+	public static final String FIRST_VISIT = "first-visit";
+
+	private AchievementFact() {
+		// static helpers only
+	}
+
+	/**
+	 * Gets the fact of the kills of a creature.
+	 *
+	 * @param creature name of the creature
+	 * @return fact key
+	 */
+	public static String kill(final String creature) {
+		return "kill:" + creature;
+	}
+
+	/**
+	 * Gets the facts of the kills of creatures.
+	 *
+	 * @param creatures names of the creatures
+	 * @return fact keys
+	 */
+	public static String[] kills(final String... creatures) {
+		final String[] facts = new String[creatures.length];
+		for (int i = 0; i < creatures.length; i++) {
+			facts[i] = kill(creatures[i]);
+		}
+		return facts;
+	}
+
+	/**
+	 * Gets the fact of a quest state.
+	 *
+	 * @param slot quest slot
+	 * @return fact key
+	 */
+	public static String quest(final String slot) {
+		return "quest:" + slot;
+	}
+
+	/**
+	 * Gets the facts of quest states.
+	 *
+	 * @param slots quest slots
+	 * @return fact keys
+	 */
+	public static String[] quests(final String... slots) {
+		final String[] facts = new String[slots.length];
+		for (int i = 0; i < slots.length; i++) {
+			facts[i] = quest(slots[i]);
+		}
+		return facts;
+	}
+}
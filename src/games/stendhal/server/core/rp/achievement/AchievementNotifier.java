@@ -16,9 +16,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 
@@ -50,11 +52,20 @@ public final class AchievementNotifier {
 
 	private static final Logger logger = Logger.getLogger(AchievementNotifier.class);
 
+	/** changed facts of a trigger that changes none of the declared facts */
+	private static final String[] NO_FACTS = new String[0];
+
 	/** The singleton instance. */
 	private static AchievementNotifier instance;
 
 	final private Map<Category, List<Achievement>> achievements;
 
+	/** achievements of each category that do not declare their facts */
+	final private Map<Category, List<Achievement>> undeclaredAchievements;
+
+	/** achievements of each category by the facts they depend on */
+	final private Map<Category, Map<String, List<Achievement>>> achievementsByFact;
+
 	final private Map<String, Integer> identifiersToIds;
 
 
@@ -77,6 +88,8 @@ public final class AchievementNotifier {
 	 */
 	private AchievementNotifier() {
 		achievements = new EnumMap<Category, List<Achievement>>(Category.class);
+		undeclaredAchievements = new EnumMap<Category, List<Achievement>>(Category.class);
+		achievementsByFact = new EnumMap<Category, Map<String, List<Achievement>>>(Category.class);
 		identifiersToIds = new HashMap<String, Integer>();
 	}
 
@@ -92,6 +105,7 @@ public final class AchievementNotifier {
 				achievements.put(a.getCategory(), new LinkedList<Achievement>());
 			}
 			achievements.get(a.getCategory()).add(a);
+			addToFactIndex(a);
 		}
 		//collect all identifiers from database
 		final Map<String, Integer> allIdentifiersInDatabase = collectAllIdentifiersFromDatabase();
@@ -130,6 +144,39 @@ public final class AchievementNotifier {
 		SingletonRepository.getLoginNotifier().addListener(new ReadAchievementsOnLogin());
 	}
 
+	/**
+	 * Adds an achievement to the lists used by the triggers that report the
+	 * changed facts.
+	 *
+	 * @param achievement achievement
+	 */
+	private void addToFactIndex(final Achievement achievement) {
+		final Category category = achievement.getCategory();
+		final Set<String> facts = achievement.getFacts();
+		if (facts == null) {
+			List<Achievement> list = undeclaredAchievements.get(category);
+			if (list == null) {
+				list = new ArrayList<Achievement>();
+				undeclaredAchievements.put(category, list);
+			}
+			list.add(achievement);
+			return;
+		}
+		Map<String, List<Achievement>> byFact = achievementsByFact.get(category);
+		if (byFact == null) {
+			byFact = new HashMap<String, List<Achievement>>();
+			achievementsByFact.put(category, byFact);
+		}
+		for (final String fact : facts) {
+			List<Achievement> list = byFact.get(fact);
+			if (list == null) {
+				list = new ArrayList<Achievement>();
+				byFact.put(fact, list);
+			}
+			list.add(achievement);
+		}
+	}
+
 	/**
 	 * Checks if the achievement list has already been populated.
 	 */
@@ -182,6 +229,24 @@ public final class AchievementNotifier {
 		getAndCheckAchievementsInCategory(player, Category.FIGHTING);
 	}
 
+	/**
+	 * checks the achievements for a player that depend on the kills of a creature
+	 *
+	 * @param player
+	 * @param creature name of the killed creature
+	 * @param firstKill <code>true</code> if the player has not killed this
+	 * 	creature in the same way before
+	 */
+	public void onKill(final Player player, final String creature, final boolean firstKill) {
+		if (firstKill) {
+			getAndCheckAchievementsInCategory(player, Category.FIGHTING,
+					AchievementFact.kill(creature), AchievementFact.FIRST_KILL);
+		} else {
+			getAndCheckAchievementsInCategory(player, Category.FIGHTING,
+					AchievementFact.kill(creature));
+		}
+	}
+
 	/**
 	 * check all achievements for a player that are relevant on finishing a quest
 	 *
@@ -199,6 +264,26 @@ public final class AchievementNotifier {
 		getAndCheckAchievementsInCategory(player, Category.QUEST_KILL_BLORDROUGHS);
 	}
 
+	/**
+	 * check the achievements for a player that are relevant on changing the
+	 * state of a quest
+	 *
+	 * @param player
+	 * @param questSlot slot of the changed quest
+	 */
+	public void onFinishQuest(final Player player, final String questSlot) {
+		final String fact = AchievementFact.quest(questSlot);
+		getAndCheckAchievementsInCategory(player, Category.QUEST, fact);
+		getAndCheckAchievementsInCategory(player, Category.QUEST_ADOS_ITEMS, fact);
+		getAndCheckAchievementsInCategory(player, Category.QUEST_SEMOS_MONSTER, fact);
+		getAndCheckAchievementsInCategory(player, Category.QUEST_KIRDNEH_ITEM, fact);
+		getAndCheckAchievementsInCategory(player, Category.FRIEND, fact);
+		getAndCheckAchievementsInCategory(player, Category.OBTAIN, fact);
+		getAndCheckAchievementsInCategory(player, Category.PRODUCTION, fact);
+		getAndCheckAchievementsInCategory(player, Category.QUEST_MITHRILBOURGH_ENEMY_ARMY, fact);
+		getAndCheckAchievementsInCategory(player, Category.QUEST_KILL_BLORDROUGHS, fact);
+	}
+
 	/**
 	 * check all achievements for a player that are related to deathmatch
 	 *
@@ -219,6 +304,24 @@ public final class AchievementNotifier {
 		getAndCheckAchievementsInCategory(player, Category.INTERIOR_ZONE);
 	}
 
+	/**
+	 * check the achievements for a player that belong to the zone category,
+	 * skipping those about visited zones if the zone is not new to the player
+	 *
+	 * @param player
+	 * @param firstVisit <code>true</code> if the player has not visited the
+	 * 	zone before
+	 */
+	public void onZoneEnter(final Player player, final boolean firstVisit) {
+		if (firstVisit) {
+			onZoneEnter(player);
+		} else {
+			getAndCheckAchievementsInCategory(player, Category.OUTSIDE_ZONE, NO_FACTS);
+			getAndCheckAchievementsInCategory(player, Category.UNDERGROUND_ZONE, NO_FACTS);
+			getAndCheckAchievementsInCategory(player, Category.INTERIOR_ZONE, NO_FACTS);
+		}
+	}
+
 	/**
 	 * check all achievements for a player that belong to the age category
 	 *
@@ -300,13 +403,9 @@ public final class AchievementNotifier {
 	 */
 	public void onLogin(final Player player) {
 		List<Achievement> toCheck = new ArrayList<Achievement>();
-		//Avoid checking of zone achievements on login to
-		//prevent double check when player is initially placed into a zone
-		final Map<Category,List<Achievement>> map = new HashMap<Category, List<Achievement>>(achievements);
-		map.remove(Category.OUTSIDE_ZONE);
-		map.remove(Category.UNDERGROUND_ZONE);
-		Collection<List<Achievement>> values = map.values();
-		for (List<Achievement> list : values) {
+		// zone achievements are included, as entering an already visited zone
+		// on login does not check the achievements about visited zones
+		for (List<Achievement> list : achievements.values()) {
 			toCheck.addAll(list);
 		}
 		final List<Achievement> reached = checkAchievements(player, toCheck);
@@ -334,6 +433,36 @@ public final class AchievementNotifier {
 		}
 	}
 
+	/**
+	 * retrieve the achievements of a category that depend on at least one of
+	 * the changed facts, or do not declare their facts, and check if player
+	 * has reached them
+	 *
+	 * @param player
+	 * @param category
+	 * @param facts changed facts
+	 */
+	private void getAndCheckAchievementsInCategory(final Player player, final Category category, final String... facts) {
+		final Set<Achievement> toCheck = new LinkedHashSet<Achievement>();
+		final List<Achievement> undeclared = undeclaredAchievements.get(category);
+		if (undeclared != null) {
+			toCheck.addAll(undeclared);
+		}
+		final Map<String, List<Achievement>> byFact = achievementsByFact.get(category);
+		if (byFact != null) {
+			for (final String fact : facts) {
+				final List<Achievement> list = byFact.get(fact);
+				if (list != null) {
+					toCheck.addAll(list);
+				}
+			}
+		}
+		if (!toCheck.isEmpty()) {
+			final List<Achievement> reached = checkAchievements(player, toCheck);
+			notifyPlayerAboutReachedAchievements(player, reached);
+		}
+	}
+
 	/**
 	 * Checks for each achievement if the player has reached it. in case of reaching
 	 * an achievement it starts logging and notifying about reaching.
@@ -343,7 +472,7 @@ public final class AchievementNotifier {
 	 * @return list of reached achievements
 	 */
 	private List<Achievement> checkAchievements(final Player player,
-			final List<Achievement> toCheck) {
+			final Collection<Achievement> toCheck) {
 		List<Achievement> reached = new ArrayList<Achievement>();
 
 		// continue checking only if player's achievements are already loaded from the database
@@ -352,7 +481,8 @@ public final class AchievementNotifier {
 		}
 
 		for (Achievement achievement : toCheck) {
-			if(achievement.isFulfilled(player) && !player.hasReachedAchievement(achievement.getIdentifier())) {
+			// the reached achievements are known, while the conditions may be expensive
+			if(!player.hasReachedAchievement(achievement.getIdentifier()) && achievement.isFulfilled(player)) {
 				logReachingOfAnAchievement(player, achievement);
 				if (achievement.isActive()) {
 					reached.add(achievement);
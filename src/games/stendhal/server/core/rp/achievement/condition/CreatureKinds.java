@@ -0,0 +1,75 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.rp.achievement.condition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.entity.creature.Creature;
+
+/**
+ * The names of the normal and the rare creatures, as used by the conditions
+ * about killing kinds of creatures. The entity manager only ever adds
+ * creatures, so the names are collected again only when the number of
+ * creatures has changed.
+ */
+final class CreatureKinds {
+	private static int knownCreatures = -1;
+	private static List<String> normal = Collections.emptyList();
+	private static List<String> rare = Collections.emptyList();
+
+	private CreatureKinds() {
+		// static helpers only
+	}
+
+	/**
+	 * Gets the names of the creatures that are neither rare nor abnormal.
+	 *
+	 * @return creature names. The list must not be modified
+	 */
+	static synchronized List<String> getNormal() {
+		update();
+		return normal;
+	}
+
+	/**
+	 * Gets the names of the rare creatures.
+	 *
+	 * @return creature names. The list must not be modified
+	 */
+	static synchronized List<String> getRare() {
+		update();
+		return rare;
+	}
+
+	private static void update() {
+		final Collection<Creature> creatures = SingletonRepository.getEntityManager().getCreatures();
+		if (creatures.size() == knownCreatures) {
+			return;
+		}
+		final List<String> newNormal = new ArrayList<String>();
+		final List<String> newRare = new ArrayList<String>();
+		for (final Creature creature : creatures) {
+			if (creature.isRare()) {
+				newRare.add(creature.getName());
+			} else if (!creature.isAbnormal()) {
+				newNormal.add(creature.getName());
+			}
+		}
+		normal = newNormal;
+		rare = newRare;
+		knownCreatures = creatures.size();
+	}
+}
@@ -11,12 +11,10 @@
  ***************************************************************************/
 package games.stendhal.server.core.rp.achievement.condition;
 
-import java.util.Collection;
+import java.util.List;
 
 import games.stendhal.common.parser.Sentence;
-import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.entity.Entity;
-import games.stendhal.server.entity.creature.Creature;
 import games.stendhal.server.entity.npc.ChatCondition;
 import games.stendhal.server.entity.player.Player;
 
@@ -28,12 +26,10 @@ import games.stendhal.server.entity.player.Player;
 public class KilledRareCreatureCondition implements ChatCondition {
 	@Override
 	public boolean fire(final Player player, final Sentence sentence, final Entity entity) {
-		final Collection<Creature> creatures = SingletonRepository.getEntityManager().getCreatures();
-		for (Creature creature : creatures) {
-			if (creature.isRare()) {
-				if (player.hasKilled(creature.getName())) {
-					return true;
-				}
+		final List<String> creatures = CreatureKinds.getRare();
+		for (final String creature : creatures) {
+			if (player.hasKilled(creature)) {
+				return true;
 			}
 		}
 		return false;
@@ -11,12 +11,10 @@
  ***************************************************************************/
 package games.stendhal.server.core.rp.achievement.condition;
 
-import java.util.Collection;
+import java.util.List;
 
 import games.stendhal.common.parser.Sentence;
-import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.entity.Entity;
-import games.stendhal.server.entity.creature.Creature;
 import games.stendhal.server.entity.npc.ChatCondition;
 import games.stendhal.server.entity.player.Player;
 
@@ -28,12 +26,14 @@ import games.stendhal.server.entity.player.Player;
 public class KilledSoloAllCreaturesCondition implements ChatCondition {
 	@Override
 	public boolean fire(final Player player, final Sentence sentence, final Entity entity) {
-		final Collection<Creature> creatures = SingletonRepository.getEntityManager().getCreatures();
-		for (Creature creature : creatures) {
-			if (!creature.isAbnormal()) {
-				if (!player.hasKilledSolo(creature.getName())) {
-					return false;
-				}
+		final List<String> creatures = CreatureKinds.getNormal();
+		// a player with fewer kinds of kills cannot have killed them all
+		if (player.getSoloKillKinds() < creatures.size()) {
+			return false;
+		}
+		for (final String creature : creatures) {
+			if (!player.hasKilledSolo(creature)) {
+				return false;
 			}
 		}
 		return true;
@@ -54,6 +54,22 @@ public abstract class AbstractAchievementFactory {
 		return new Achievement(identifier, title, getCategory(),  description, score, active, condition);
 	}
 
+	/**
+	 * Creates a single achievement that is checked only when one of the
+	 * given player facts changes
+	 * @param identifier
+	 * @param title
+	 * @param description
+	 * @param score
+	 * @param active
+	 * @param condition
+	 * @param facts the facts the condition depends on
+	 * @return the new Achievement
+	 */
+	protected Achievement createAchievement(String identifier, String title, String description, int score, boolean active, ChatCondition condition, String... facts) {
+		return new Achievement(identifier, title, getCategory(),  description, score, active, condition, facts);
+	}
+
 	/**
 	 * Create a list of all known achievement factories
 	 * @return the list of factories
@@ -15,6 +15,7 @@ import java.util.Collection;
 import java.util.LinkedList;
 
 import games.stendhal.server.core.rp.achievement.Achievement;
+import games.stendhal.server.core.rp.achievement.AchievementFact;
 import games.stendhal.server.core.rp.achievement.Category;
 import games.stendhal.server.entity.npc.condition.QuestStateGreaterThanCondition;
 
@@ -47,37 +48,43 @@ public class AdosItemQuestAchievementsFactory extends AbstractAchievementFactory
 			ID_SUPPORTER, "Ados's Supporter",
 			"Finish daily item quest 10 times",
 			Achievement.EASY_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily_item", 2, 9)));
+			new QuestStateGreaterThanCondition("daily_item", 2, 9),
+			AchievementFact.quest("daily_item")));
 
 		achievements.add(createAchievement(
 			ID_PROVIDER, "Ados's Provider",
 			"Finish daily item quest 50 times",
 			Achievement.EASY_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily_item", 2, 49)));
+			new QuestStateGreaterThanCondition("daily_item", 2, 49),
+			AchievementFact.quest("daily_item")));
 
 		achievements.add(createAchievement(
 			ID_SUPPLIER, "Ados's Supplier",
 			"Finish daily item quest 100 times",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily_item", 2, 99)));
+			new QuestStateGreaterThanCondition("daily_item", 2, 99),
+			AchievementFact.quest("daily_item")));
 
 		achievements.add(createAchievement(
 			ID_STOCKPILER, "Ados's Stockpiler",
 			"Finish daily item quest 250 times",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily_item", 2, 249)));
+			new QuestStateGreaterThanCondition("daily_item", 2, 249),
+			AchievementFact.quest("daily_item")));
 
 		achievements.add(createAchievement(
 			ID_HOARDER, "Ados's Hoarder",
 			"Finish daily item quest 500 times",
 			Achievement.HARD_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily_item", 2, 499)));
+			new QuestStateGreaterThanCondition("daily_item", 2, 499),
+			AchievementFact.quest("daily_item")));
 
 		achievements.add(createAchievement(
 			ID_LIFEBLOOD, "Ados's Lifeblood",
 			"Finish daily item quest 1,000 times",
 			Achievement.EXTREME_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily_item", 2, 999)));
+			new QuestStateGreaterThanCondition("daily_item", 2, 999),
+			AchievementFact.quest("daily_item")));
 
 		return achievements;
 	}
@@ -18,6 +18,7 @@ import java.util.LinkedList;
 import games.stendhal.common.parser.Sentence;
 import games.stendhal.server.constants.KillType;
 import games.stendhal.server.core.rp.achievement.Achievement;
+import games.stendhal.server.core.rp.achievement.AchievementFact;
 import games.stendhal.server.core.rp.achievement.Category;
 import games.stendhal.server.core.rp.achievement.condition.KilledRareCreatureCondition;
 import games.stendhal.server.core.rp.achievement.condition.KilledSharedAllCreaturesCondition;
@@ -117,37 +118,43 @@ public class FightingAchievementFactory extends AbstractAchievementFactory {
 			ID_RATS, "Rat Hunter",
 			"Kill 15 rats",
 			Achievement.EASY_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition("rat", 15)));
+			new PlayerHasKilledNumberOfCreaturesCondition("rat", 15),
+			AchievementFact.kill("rat")));
 
 		achievements.add(createAchievement(
 			ID_EXTERMINATOR, "Exterminator",
 			"Kill 10 rats of each kind",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition(10, ENEMIES_EXTERMINATOR)));
+			new PlayerHasKilledNumberOfCreaturesCondition(10, ENEMIES_EXTERMINATOR),
+			AchievementFact.kills(ENEMIES_EXTERMINATOR)));
 
 		achievements.add(createAchievement(
 			ID_DEER, "Deer Hunter",
 			"Kill 25 deer",
 			Achievement.EASY_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition("deer", 25)));
+			new PlayerHasKilledNumberOfCreaturesCondition("deer", 25),
+			AchievementFact.kill("deer")));
 
 		achievements.add(createAchievement(
 			ID_BOARS, "Boar Hunter",
 			"Kill 20 boar",
 			Achievement.EASY_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition("boar", 20)));
+			new PlayerHasKilledNumberOfCreaturesCondition("boar", 20),
+			AchievementFact.kill("boar")));
 
 		achievements.add(createAchievement(
 			ID_BEARS, "Bear Hunter",
 			"Kill 10 black bears, 10 bears and 10 babybears",
 			Achievement.EASY_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition(10, ENEMIES_BEARS)));
+			new PlayerHasKilledNumberOfCreaturesCondition(10, ENEMIES_BEARS),
+			AchievementFact.kills(ENEMIES_BEARS)));
 
 		achievements.add(createAchievement(
 			ID_FOXES, "Fox Hunter",
 			"Kill 20 foxes",
 			Achievement.EASY_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition("fox", 20)));
+			new PlayerHasKilledNumberOfCreaturesCondition("fox", 20),
+			AchievementFact.kill("fox")));
 
 		achievements.add(createAchievement(
 			ID_SAFARI, "Safari",
@@ -156,49 +163,57 @@ public class FightingAchievementFactory extends AbstractAchievementFactory {
 			new AndCondition(
 				new PlayerHasKilledNumberOfCreaturesCondition("tiger", 30),
 				new PlayerHasKilledNumberOfCreaturesCondition("lion", 30),
-				new PlayerHasKilledNumberOfCreaturesCondition("elephant", 50))));
+				new PlayerHasKilledNumberOfCreaturesCondition("elephant", 50)),
+			AchievementFact.kills("tiger", "lion", "elephant")));
 
 		achievements.add(createAchievement(
 			ID_ENTS, "Wood Cutter",
 			"Kill 10 ents, 10 entwives and 10 old ents",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition(10, "ent", "entwife", "old ent")));
+			new PlayerHasKilledNumberOfCreaturesCondition(10, "ent", "entwife", "old ent"),
+			AchievementFact.kills("ent", "entwife", "old ent")));
 
 		achievements.add(createAchievement(
 			ID_POACHER, "Poacher",
 			"Kill any rare creature",
 			Achievement.HARD_BASE_SCORE, true,
-			new KilledRareCreatureCondition()));
+			new KilledRareCreatureCondition(),
+			AchievementFact.FIRST_KILL));
 
 		achievements.add(createAchievement(
 			ID_LEGEND, "Legend",
 			"Kill all creatures solo",
 			Achievement.HARD_BASE_SCORE, true,
-			new KilledSoloAllCreaturesCondition()));
+			new KilledSoloAllCreaturesCondition(),
+			AchievementFact.FIRST_KILL));
 
 		achievements.add(createAchievement(
 			ID_TEAM_PLAYER, "Team Player",
 			"Kill all creatures in a team",
 			Achievement.HARD_BASE_SCORE, true,
-			new KilledSharedAllCreaturesCondition()));
+			new KilledSharedAllCreaturesCondition(),
+			AchievementFact.FIRST_KILL));
 
 		achievements.add(createAchievement(
 			ID_GIANTS, "David vs. Goliath",
 			"Kill 20 of each type of giant solo",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition(20, KillType.SOLO, ENEMIES_GIANTS)));
+			new PlayerHasKilledNumberOfCreaturesCondition(20, KillType.SOLO, ENEMIES_GIANTS),
+			AchievementFact.kills(ENEMIES_GIANTS)));
 
 		achievements.add(createAchievement(
 			ID_ANGELS, "Heavenly Wrath",
 			"Kill 100 of each type of angel",
 			Achievement.HARD_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition(100, ENEMIES_ANGELS)));
+			new PlayerHasKilledNumberOfCreaturesCondition(100, ENEMIES_ANGELS),
+			AchievementFact.kills(ENEMIES_ANGELS)));
 
 		achievements.add(createAchievement(
 			ID_WEREWOLF, "Silver Bullet",
 			"Kill 500 werewolves",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition(500, "werewolf")));
+			new PlayerHasKilledNumberOfCreaturesCondition(500, "werewolf"),
+			AchievementFact.kill("werewolf")));
 
 		achievements.add(createAchievement(
 			ID_MERMAIDS, "Serenade the Siren",
@@ -214,13 +229,15 @@ public class FightingAchievementFactory extends AbstractAchievementFactory {
 
 					return kills >= 10000;
 				}
-			}));
+			},
+			AchievementFact.kills(ENEMIES_MERMAIDS)));
 
 		achievements.add(createAchievement(
 			ID_DEEPSEA, "Deep Sea Fisherman",
 			"Kill 500 sharks, 500 kraken and 500 neo kraken",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition(500, ENEMIES_DEEPSEA)));
+			new PlayerHasKilledNumberOfCreaturesCondition(500, ENEMIES_DEEPSEA),
+			AchievementFact.kills(ENEMIES_DEEPSEA)));
 
 		achievements.add(createAchievement(
 			ID_ZOMBIES, "Zombie Apocalypse",
@@ -236,19 +253,22 @@ public class FightingAchievementFactory extends AbstractAchievementFactory {
 
 					return kills >= 500;
 				}
-			}));
+			},
+			AchievementFact.kills(ENEMIES_ZOMBIES)));
 
 		achievements.add(createAchievement(
 			ID_FOWL, "Chicken Nuggets",
 			"Kill 100 of each type of fowl",
 			Achievement.EASY_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition(100, ENEMIES_FOWL)));
+			new PlayerHasKilledNumberOfCreaturesCondition(100, ENEMIES_FOWL),
+			AchievementFact.kills(ENEMIES_FOWL)));
 
 		achievements.add(createAchievement(
 			ID_PACHYDERM, "Pachyderm Mayhem",
 			"Kill 100 of each type of pachyderm",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new PlayerHasKilledNumberOfCreaturesCondition(100, ENEMIES_PACHYDERM)));
+			new PlayerHasKilledNumberOfCreaturesCondition(100, ENEMIES_PACHYDERM),
+			AchievementFact.kills(ENEMIES_PACHYDERM)));
 
 		return achievements;
 	}
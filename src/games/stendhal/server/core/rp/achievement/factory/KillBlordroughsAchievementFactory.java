@@ -16,6 +16,7 @@ import java.util.LinkedList;
 
 import games.stendhal.common.parser.Sentence;
 import games.stendhal.server.core.rp.achievement.Achievement;
+import games.stendhal.server.core.rp.achievement.AchievementFact;
 import games.stendhal.server.core.rp.achievement.Category;
 import games.stendhal.server.entity.Entity;
 import games.stendhal.server.entity.npc.ChatCondition;
@@ -57,31 +58,36 @@ public class KillBlordroughsAchievementFactory extends AbstractAchievementFactor
 			ID_LACKEY, "Imperialist Lackey",
 			"Finish Kill Blordroughs quest 5 times",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new CompletedCountCondition(COUNT_LACKEY)));
+			new CompletedCountCondition(COUNT_LACKEY),
+			AchievementFact.quest("kill_blordroughs")));
 
 		achievements.add(createAchievement(
 			ID_SOLDIER, "Imperialist Soldier",
 			"Finish Kill Blordroughs quest 25 times",
 			Achievement.HARD_BASE_SCORE, true,
-			new CompletedCountCondition(COUNT_SOLDIER)));
+			new CompletedCountCondition(COUNT_SOLDIER),
+			AchievementFact.quest("kill_blordroughs")));
 
 		achievements.add(createAchievement(
 			ID_DOMINATOR, "Imperialist Dominator",
 			"Finish Kill Blordroughs quest 50 times",
 			Achievement.HARD_BASE_SCORE, true,
-			new CompletedCountCondition(COUNT_DOMINATOR)));
+			new CompletedCountCondition(COUNT_DOMINATOR),
+			AchievementFact.quest("kill_blordroughs")));
 
 		achievements.add(createAchievement(
 			ID_DICTATOR, "Imperialist Dictator",
 			"Finish Kill Blordroughs quest 100 times",
 			Achievement.HARD_BASE_SCORE, true,
-			new CompletedCountCondition(COUNT_DICTATOR)));
+			new CompletedCountCondition(COUNT_DICTATOR),
+			AchievementFact.quest("kill_blordroughs")));
 
 		achievements.add(createAchievement(
 			ID_CRUSHER, "Nation Crusher",
 			"Finish Kill Blordroughs quest 200 times",
 			Achievement.EXTREME_BASE_SCORE, true,
-			new CompletedCountCondition(COUNT_CRUSHER)));
+			new CompletedCountCondition(COUNT_CRUSHER),
+			AchievementFact.quest("kill_blordroughs")));
 
 		return achievements;
 	}
@@ -15,6 +15,7 @@ import java.util.Collection;
 import java.util.LinkedList;
 
 import games.stendhal.server.core.rp.achievement.Achievement;
+import games.stendhal.server.core.rp.achievement.AchievementFact;
 import games.stendhal.server.core.rp.achievement.Category;
 import games.stendhal.server.entity.npc.condition.PlayerVisitedZonesCondition;
 import games.stendhal.server.entity.npc.condition.PlayerVisitedZonesInRegionCondition;
@@ -41,49 +42,57 @@ public class OutsideZoneAchievementFactory extends AbstractAchievementFactory {
 			"zone.outside.semos", "Junior Explorer",
 			"Visit all outside zones in the Semos region",
 			Achievement.EASY_BASE_SCORE, true,
-			new PlayerVisitedZonesInRegionCondition("semos", Boolean.TRUE, Boolean.TRUE)));
+			new PlayerVisitedZonesInRegionCondition("semos", Boolean.TRUE, Boolean.TRUE),
+			AchievementFact.FIRST_VISIT));
 
 		achievements.add(createAchievement(
 			"zone.outside.ados", "Big City Explorer",
 			"Visit all outside zones in the Ados region",
 			Achievement.EASY_BASE_SCORE, true,
-			new PlayerVisitedZonesInRegionCondition("ados", Boolean.TRUE, Boolean.TRUE)));
+			new PlayerVisitedZonesInRegionCondition("ados", Boolean.TRUE, Boolean.TRUE),
+			AchievementFact.FIRST_VISIT));
 
 		achievements.add(createAchievement(
 			"zone.outside.fado", "Far South",
 			"Visit all outside zones in the Fado region",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new PlayerVisitedZonesInRegionCondition("fado", Boolean.TRUE, Boolean.TRUE)));
+			new PlayerVisitedZonesInRegionCondition("fado", Boolean.TRUE, Boolean.TRUE),
+			AchievementFact.FIRST_VISIT));
 
 		achievements.add(createAchievement(
 			"zone.outside.orril", "Scout",
 			"Visit all outside zones in the Orril region",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new PlayerVisitedZonesInRegionCondition("orril", Boolean.TRUE, Boolean.TRUE)));
+			new PlayerVisitedZonesInRegionCondition("orril", Boolean.TRUE, Boolean.TRUE),
+			AchievementFact.FIRST_VISIT));
 
 		achievements.add(createAchievement(
 			"zone.outside.amazon", "Jungle Explorer",
 			"Visit all outside zones in the Amazon region",
 			Achievement.HARD_BASE_SCORE, true,
-			new PlayerVisitedZonesInRegionCondition("amazon", Boolean.TRUE, Boolean.TRUE)));
+			new PlayerVisitedZonesInRegionCondition("amazon", Boolean.TRUE, Boolean.TRUE),
+			AchievementFact.FIRST_VISIT));
 
 		achievements.add(createAchievement(
 			"zone.outside.athor", "Tourist",
 			"Visit all outside zones in the Athor region",
 			Achievement.EASY_BASE_SCORE, true,
-			new PlayerVisitedZonesInRegionCondition("athor", Boolean.TRUE, Boolean.TRUE)));
+			new PlayerVisitedZonesInRegionCondition("athor", Boolean.TRUE, Boolean.TRUE),
+			AchievementFact.FIRST_VISIT));
 
 		achievements.add(createAchievement(
 			"zone.outside.kikareukin", "Sky Tower",
 			"Visit all outside zones in the Kikareukin region",
 			Achievement.HARD_BASE_SCORE, true,
-			new PlayerVisitedZonesInRegionCondition("kikareukin", Boolean.TRUE, Boolean.TRUE)));
+			new PlayerVisitedZonesInRegionCondition("kikareukin", Boolean.TRUE, Boolean.TRUE),
+			AchievementFact.FIRST_VISIT));
 
 		achievements.add(createAchievement(
 			"zone.outside.deniran", "Westerner",
 			"Visit all outside zones in the Deniran region",
 			Achievement.EASY_BASE_SCORE, true,
-			new PlayerVisitedZonesInRegionCondition("deniran", true, true)));
+			new PlayerVisitedZonesInRegionCondition("deniran", true, true),
+			AchievementFact.FIRST_VISIT));
 
 		// special zone achievements
 		achievements.add(createAchievement(
@@ -93,7 +102,8 @@ public class OutsideZoneAchievementFactory extends AbstractAchievementFactory {
 			new PlayerVisitedZonesCondition(
 				"int_semos_bank", "int_nalwor_bank", "int_kirdneh_bank",
 				"int_fado_bank", "int_magic_bank", "int_ados_bank",
-				"int_deniran_bank_blue_roof")));
+				"int_deniran_bank_blue_roof"),
+			AchievementFact.FIRST_VISIT));
 
 		return achievements;
 	}
@@ -16,6 +16,7 @@ import java.util.Collection;
 import java.util.LinkedList;
 
 import games.stendhal.server.core.rp.achievement.Achievement;
+import games.stendhal.server.core.rp.achievement.AchievementFact;
 import games.stendhal.server.core.rp.achievement.Category;
 import games.stendhal.server.entity.npc.condition.QuestStateGreaterThanCondition;
 
@@ -48,37 +49,43 @@ public class SemosMonsterQuestAchievementFactory extends AbstractAchievementFact
 			ID_PROTECTOR, "Semos's Protector",
 			"Finish daily monster quest 10 times",
 			Achievement.EASY_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily", 2, 9)));
+			new QuestStateGreaterThanCondition("daily", 2, 9),
+			AchievementFact.quest("daily")));
 
 		achievements.add(createAchievement(
 			ID_GUARDIAN, "Semos's Guardian",
 			"Finish daily monster quest 50 times",
 			Achievement.EASY_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily", 2, 49)));
+			new QuestStateGreaterThanCondition("daily", 2, 49),
+			AchievementFact.quest("daily")));
 
 		achievements.add(createAchievement(
 			ID_HERO, "Semos's Hero",
 			"Finish daily monster quest 100 times",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily", 2, 99)));
+			new QuestStateGreaterThanCondition("daily", 2, 99),
+			AchievementFact.quest("daily")));
 
 		achievements.add(createAchievement(
 			ID_CHAMPION, "Semos's Champion",
 			"Finish daily monster quest 250 times",
 			Achievement.MEDIUM_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily", 2, 249)));
+			new QuestStateGreaterThanCondition("daily", 2, 249),
+			AchievementFact.quest("daily")));
 
 		achievements.add(createAchievement(
 			ID_VANQUISHER, "Semos's Vanquisher",
 			"Finish daily monster quest 500 times",
 			Achievement.HARD_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily", 2, 499)));
+			new QuestStateGreaterThanCondition("daily", 2, 499),
+			AchievementFact.quest("daily")));
 
 		achievements.add(createAchievement(
 			ID_RULER, "Semos's Ruler",
 			"Finish daily monster quest 1,000 times",
 			Achievement.EXTREME_BASE_SCORE, true,
-			new QuestStateGreaterThanCondition("daily", 2, 999)));
+			new QuestStateGreaterThanCondition("daily", 2, 999),
+			AchievementFact.quest("daily")));
 
 		return achievements;
 	}
@@ -621,6 +621,12 @@ public class LuaQuestHelper {
 			return checkBoolFunction(completedCheck);
 		}
 
+		@Override
+		public boolean dependsOnQuestSlotsOnly() {
+			// the Lua check functions may look at anything
+			return startedCheck == null && completedCheck == null;
+		}
+
 		/**
 		 * Sets the quest name string.
 		 *
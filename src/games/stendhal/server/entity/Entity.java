@@ -164,6 +164,8 @@ public abstract class Entity extends RPObject implements Killer {
 	public void update() {
 		final int oldX = x;
 		final int oldY = y;
+		final double oldWidth = area.width;
+		final double oldHeight = area.height;
 		boolean moved = false;
 
 		if (has("x")) {
@@ -185,6 +187,7 @@ public abstract class Entity extends RPObject implements Killer {
 		}
 
 		if (moved && (zone != null)) {
+			zone.updateEntityArea(this);
 			onMoved(oldX, oldY, x, y);
 		}
 
@@ -196,6 +199,10 @@ public abstract class Entity extends RPObject implements Killer {
 			area.width = getInt("width");
 		}
 
+		if ((zone != null) && ((area.width != oldWidth) || (area.height != oldHeight))) {
+			zone.updateEntityArea(this);
+		}
+
 		if (has("resistance")) {
 			resistance = getInt("resistance");
 		}
@@ -658,6 +665,7 @@ public abstract class Entity extends RPObject implements Killer {
 		}
 
 		if (moved && (zone != null)) {
+			zone.updateEntityArea(this);
 			onMoved(oldX, oldY, x, y);
 		}
 	}
@@ -695,6 +703,10 @@ public abstract class Entity extends RPObject implements Killer {
 
 		this.area.height = height;
 		put("height", height);
+
+		if (zone != null) {
+			zone.updateEntityArea(this);
+		}
 	}
 
 	/**
@@ -0,0 +1,175 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import games.stendhal.server.entity.item.Item;
+import games.stendhal.server.entity.slot.EntitySlot;
+import games.stendhal.server.entity.slot.Slots;
+import marauroa.common.game.RPObject;
+import marauroa.common.game.RPSlot;
+
+/**
+ * The items in the slots of an entity, grouped by item name. The items in
+ * the carrying slots are kept in the order in which they are found by going
+ * through the slots and containers, so the first item of a list is the one
+ * a search through the slots would find first.
+ * <p>
+ * The index is a snapshot. The owning entity discards it when an EntitySlot
+ * below it or the quantity or name of an item below it changes. Other slot
+ * types do not report changes, so the parts of an index that contain such
+ * slots are marked as not reusable.
+ */
+final class EquippedItemIndex {
+	/** carried items by lower case name */
+	private final Map<String, List<Item>> carried = new HashMap<String, List<Item>>();
+	/** carried quantity by lower case name */
+	private final Map<String, Integer> carriedCount = new HashMap<String, Integer>();
+	/** quantity in all slots, including the carrying slots, by lower case name */
+	private final Map<String, Integer> totalCount = new HashMap<String, Integer>();
+	private boolean carriedComplete = true;
+	private boolean totalComplete = true;
+
+	/**
+	 * Creates an index of the items of an entity.
+	 *
+	 * @param entity indexed entity
+	 */
+	EquippedItemIndex(final RPEntity entity) {
+		final List<String> carryingSlots = Slots.CARRYING.getNames();
+		for (final String slotName : carryingSlots) {
+			final RPSlot slot = entity.getSlot(slotName);
+			if (slot != null) {
+				addSlot(slot, true);
+			}
+		}
+
+		final Set<String> carryingNames = new HashSet<String>(carryingSlots);
+		for (final RPSlot slot : entity.slots()) {
+			if (!carryingNames.contains(slot.getName())) {
+				addSlot(slot, false);
+			}
+		}
+	}
+
+	private void addSlot(final RPSlot slot, final boolean carrying) {
+		if (!(slot instanceof EntitySlot)) {
+			totalComplete = false;
+			if (carrying) {
+				carriedComplete = false;
+			}
+		}
+		for (final RPObject object : slot) {
+			if (object instanceof Item) {
+				addItem((Item) object, carrying);
+			}
+		}
+	}
+
+	private void addItem(final Item item, final boolean carrying) {
+		final String key = key(item.getName());
+		if (key != null) {
+			final int quantity = item.getQuantity();
+			add(totalCount, key, quantity);
+			if (carrying) {
+				add(carriedCount, key, quantity);
+				List<Item> items = carried.get(key);
+				if (items == null) {
+					items = new ArrayList<Item>(2);
+					carried.put(key, items);
+				}
+				items.add(item);
+			}
+		}
+
+		for (final RPSlot slot : item.slots()) {
+			addSlot(slot, carrying);
+		}
+	}
+
+	private static void add(final Map<String, Integer> counts, final String key, final int quantity) {
+		final Integer old = counts.get(key);
+		counts.put(key, (old == null) ? quantity : old + quantity);
+	}
+
+	private static String key(final String name) {
+		if (name == null) {
+			// matches no item
+			return null;
+		}
+		return name.toLowerCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * Checks if the carried items can be used until the entity reports a
+	 * change.
+	 *
+	 * @return <code>true</code> if all carrying slots report their changes
+	 */
+	boolean isCarriedReusable() {
+		return carriedComplete;
+	}
+
+	/**
+	 * Checks if the total quantities can be used until the entity reports a
+	 * change.
+	 *
+	 * @return <code>true</code> if all slots report their changes
+	 */
+	boolean isTotalReusable() {
+		return totalComplete;
+	}
+
+	/**
+	 * Gets the carried items of a name.
+	 *
+	 * @param name item name, not case sensitive
+	 * @return items in slot order. The list must not be modified
+	 */
+	List<Item> getCarried(final String name) {
+		final List<Item> items = carried.get(key(name));
+		if (items == null) {
+			return Collections.emptyList();
+		}
+		return items;
+	}
+
+	/**
+	 * Gets the carried quantity of an item.
+	 *
+	 * @param name item name, not case sensitive
+	 * @return quantity in the carrying slots
+	 */
+	int getCarriedQuantity(final String name) {
+		final Integer count = carriedCount.get(key(name));
+		return (count == null) ? 0 : count;
+	}
+
+	/**
+	 * Gets the quantity of an item in all slots.
+	 *
+	 * @param name item name, not case sensitive
+	 * @return quantity in all slots
+	 */
+	int getTotalQuantity(final String name) {
+		final Integer count = totalCount.get(key(name));
+		return (count == null) ? 0 : count;
+	}
+}
@@ -28,6 +28,8 @@ import games.stendhal.server.core.pathfinder.EntityGuide;
 import games.stendhal.server.core.pathfinder.FixedPath;
 import games.stendhal.server.core.pathfinder.Node;
 import games.stendhal.server.core.pathfinder.Path;
+import games.stendhal.server.core.pathfinder.PathListener;
+import games.stendhal.server.core.pathfinder.PathRequest;
 import games.stendhal.server.entity.npc.ConversationStates;
 import games.stendhal.server.entity.npc.SpeakerNPC;
 import marauroa.common.game.RPObject;
@@ -65,6 +67,9 @@ public abstract class GuidedEntity extends ActiveEntity {
 	// used to store & restore the entity's base speed for suspension
 	private Double storedSpeed = null;
 
+	/** path search that has not finished yet */
+	private PathRequest pathRequest;
+
 	/**
 	 * Create a guided entity.
 	 */
@@ -257,9 +262,43 @@ public abstract class GuidedEntity extends ActiveEntity {
 	 * Clear the entity's path.
 	 */
 	public void clearPath() {
+		cancelPathRequest();
 		guide.clearPath();
 	}
 
+	/**
+	 * Check if a path search for this entity is still running.
+	 *
+	 * @return <code>true</code> if a path has been requested, but the result
+	 * 	is not available yet
+	 */
+	public boolean isSearchingPath() {
+		return (pathRequest != null) && !pathRequest.isFinished();
+	}
+
+	/**
+	 * Remember a path search for this entity. A previous search that has
+	 * not finished yet is cancelled.
+	 *
+	 * @param request path search
+	 */
+	protected void setPathRequest(final PathRequest request) {
+		if (request != pathRequest) {
+			cancelPathRequest();
+		}
+		pathRequest = request;
+	}
+
+	/**
+	 * Cancel the running path search, if any.
+	 */
+	private void cancelPathRequest() {
+		if (pathRequest != null) {
+			pathRequest.cancel();
+			pathRequest = null;
+		}
+	}
+
 	/**
 	 * Determine if the entity has a path.
 	 *
@@ -303,21 +342,24 @@ public abstract class GuidedEntity extends ActiveEntity {
 	 * Plan a new path to the old destination.
 	 */
 	public void reroute() {
-		if (hasPath()) {
+		if (hasPath() && !isSearchingPath()) {
 			Node node = guide.path.getDestination();
-			final List<Node> path = Path.searchPath(this, node.getX(), node.getY());
-
-			if (path.size() >= 1) {
-				setPath(new FixedPath(path, false));
-			} else {
-				/*
-				 * It can happen that some other entity goes to occupy the
-				 * target position after the path has been planned. Just
-				 * stop if that happens and we are next to the goal.
-				 */
-				clearPath();
-				stop();
-			}
+			setPathRequest(Path.requestPath(this, node.getX(), node.getY(), new PathListener() {
+				@Override
+				public void onPathFound(final List<Node> path) {
+					if (path.size() >= 1) {
+						setPath(new FixedPath(path, false));
+					} else {
+						/*
+						 * It can happen that some other entity goes to occupy the
+						 * target position after the path has been planned. Just
+						 * stop if that happens and we are next to the goal.
+						 */
+						clearPath();
+						stop();
+					}
+				}
+			}));
 		}
 	}
 
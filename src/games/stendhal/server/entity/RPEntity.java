@@ -40,10 +40,10 @@ import games.stendhal.common.parser.WordList;
 import games.stendhal.server.actions.equip.DropAction;
 import games.stendhal.server.core.engine.GameEvent;
 import games.stendhal.server.core.engine.ItemLogger;
+import games.stendhal.server.core.engine.KillLogWriter;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPZone;
 import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
-import games.stendhal.server.core.engine.dbcommand.LogKillEventCommand;
 import games.stendhal.server.core.events.TurnListener;
 import games.stendhal.server.core.events.TutorialNotifier;
 import games.stendhal.server.entity.creature.Creature;
@@ -68,8 +68,6 @@ import marauroa.common.game.RPAction;
 import marauroa.common.game.RPObject;
 import marauroa.common.game.RPSlot;
 import marauroa.common.game.SyntaxException;
-import marauroa.server.db.command.DBCommandPriority;
-import marauroa.server.db.command.DBCommandQueue;
 import marauroa.server.game.Statistics;
 import marauroa.server.game.db.DAORegister;
 
@@ -104,6 +102,17 @@ public abstract class RPEntity extends CombatEntity {
 	private String deathSound;
 	private String bloodClass;
 
+	/** slots of the items counted by getItemAtk(), getItemDef() and getItemRatk() */
+	private static final String[] EQUIPMENT_SLOTS = { "lhand", "rhand", "armor", "head", "legs", "feet", "cloak", "finger" };
+	/** cached item stats, valid while itemStatsCached is set and the level is unchanged */
+	private float itemAtk;
+	private float itemRatk;
+	private float itemDef;
+	private int itemStatsLevel;
+	private boolean itemStatsCached;
+	/** items by name, or <code>null</code> if the slot contents have changed */
+	private EquippedItemIndex itemIndex;
+
 	/** Entity uses a status attack */
 	protected ImmutableList<StatusAttacker> statusAttackers = ImmutableList.of();
 	/** a list of current statuses */
@@ -1612,16 +1621,19 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 
 			if (killedName == null) {
 				logger.warn("This entity returns null as name: " + this);
+				SingletonRepository.getAchievementNotifier().onKill(killer);
 			} else {
+				final boolean firstKill;
 				if (damageDone == totalDamageReceived) {
+					firstKill = !killer.hasKilledSolo(killedName);
 					killer.setSoloKill(killedName);
 				} else {
+					firstKill = !killer.hasKilledShared(killedName);
 					killer.setSharedKill(killedName);
 				}
+				SingletonRepository.getAchievementNotifier().onKill(killer, killedName, firstKill);
 			}
 
-			SingletonRepository.getAchievementNotifier().onKill(killer);
-
 			killer.notifyWorldAboutChanges();
 		}
 	}
@@ -1732,7 +1744,7 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 			new GameEvent(killerName, "killed", this.getName(), killLog.entityToType(killer), killLog.entityToType(this)).raise();
 		}
 
-		DBCommandQueue.get().enqueue(new LogKillEventCommand(this, killer), DBCommandPriority.LOW);
+		KillLogWriter.get().add(this, killer);
 
 		die(killer, remove);
 	}
@@ -2272,7 +2284,8 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 *         number.
 	 */
 	public boolean isEquipped(final String name, final int amount) {
-		return isEquipped(nameMatches(name), amount);
+		final int quantity = getItemIndex(false).getCarriedQuantity(name);
+		return (quantity > 0) && (quantity >= amount);
 	}
 
 	/**
@@ -2326,8 +2339,7 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 * @return The number of carried items
 	 */
 	public int getNumberOfEquipped(final String name) {
-		return equippedStream().filter(nameMatches(name))
-				.mapToInt(Item::getQuantity).sum();
+		return getItemIndex(false).getCarriedQuantity(name);
 	}
 
 	/**
@@ -2339,8 +2351,7 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 * @return The number of carried items
 	 */
 	public int getTotalNumberOf(final String name) {
-		Stream<Item> allItems = slots().stream().flatMap(this::slotStream);
-		return allItems.filter(nameMatches(name)).mapToInt(Item::getQuantity).sum();
+		return getItemIndex(true).getTotalQuantity(name);
 	}
 
 	/**
@@ -2353,7 +2364,11 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 *         found
 	 */
 	public Item getFirstEquipped(final String name) {
-		return equippedStream().filter(nameMatches(name)).findFirst().orElse(null);
+		final List<Item> items = getItemIndex(false).getCarried(name);
+		if (items.isEmpty()) {
+			return null;
+		}
+		return items.get(0);
 	}
 
 	/**
@@ -2366,7 +2381,7 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 *         found
 	 */
 	public List<Item> getAllEquipped(final String name) {
-		return getAllEquipped(nameMatches(name));
+		return new ArrayList<Item>(getItemIndex(false).getCarried(name));
 	}
 
 	private List<Item> getAllEquipped(Predicate<Item> condition) {
@@ -2384,8 +2399,13 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 * 		List<Item>
 	 */
 	public List<Item> getAllEquippedWithItemdata(String name, String itemdata) {
-		return getAllEquipped(item -> name.equals(item.getName())
-				&& itemdata.equalsIgnoreCase(item.getItemData()));
+		final List<Item> result = new ArrayList<Item>();
+		for (final Item item : getItemIndex(false).getCarried(name)) {
+			if (name.equals(item.getName()) && itemdata.equalsIgnoreCase(item.getItemData())) {
+				result.add(item);
+			}
+		}
+		return result;
 	}
 
 	/**
@@ -2709,6 +2729,16 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 * Retrieves total ATK value of held weapons.
 	 */
 	public float getItemAtk() {
+		updateItemStats();
+		return itemAtk;
+	}
+
+	/**
+	 * Calculates the total ATK value of held weapons.
+	 *
+	 * @return attack value of the items
+	 */
+	float calculateItemAtk() {
 		int weapon = 0;
 		int ring = 0;
 
@@ -2735,6 +2765,16 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 	 * Retrieves total range attack value of held weapon & ammunition.
 	 */
 	public float getItemRatk() {
+		updateItemStats();
+		return itemRatk;
+	}
+
+	/**
+	 * Calculates the total range attack value of held weapon & ammunition.
+	 *
+	 * @return ranged attack value of the items
+	 */
+	float calculateItemRatk() {
 		float ratk = 0;
 		final List<Item> weapons = getWeapons();
 
@@ -2768,7 +2808,20 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 		return ammo;
 	}
 
+	/**
+	 * Retrieves total DEF value of the equipped items.
+	 */
 	public float getItemDef() {
+		updateItemStats();
+		return itemDef;
+	}
+
+	/**
+	 * Calculates the total DEF value of the equipped items.
+	 *
+	 * @return defense value of the items
+	 */
+	float calculateItemDef() {
 		int shield = 0;
 		int armor = 0;
 		int helmet = 0;
@@ -2852,10 +2905,102 @@ System.out.printf("  drop: %2d %2d\n", attackerRoll, defenderRoll);
 		return items;
 	}
 
+	/**
+	 * Recalculates the item stats if the equipment has changed since they
+	 * were last calculated.
+	 */
+	private void updateItemStats() {
+		// items with a min_level are weaker for low level entities
+		final int currentLevel = getLevel();
+		if (!itemStatsCached || (itemStatsLevel != currentLevel)) {
+			itemAtk = calculateItemAtk();
+			itemRatk = calculateItemRatk();
+			itemDef = calculateItemDef();
+			itemStatsLevel = currentLevel;
+			itemStatsCached = canCacheItemStats();
+		}
+	}
+
+	/**
+	 * Checks if changes to the equipment slots are reported. Slots that are
+	 * not EntitySlots do not report changes, so the item stats of entities
+	 * having such slots are calculated every time.
+	 *
+	 * @return <code>true</code> if the item stats can be cached
+	 */
+	private boolean canCacheItemStats() {
+		for (final String slotName : EQUIPMENT_SLOTS) {
+			final RPSlot slot = getSlot(slotName);
+			if ((slot != null) && !(slot instanceof EntitySlot)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Marks the cached item stats as outdated. Called when the equipment or
+	 * an equipped item changes.
+	 */
+	public void invalidateItemStats() {
+		itemStatsCached = false;
+	}
+
+	/**
+	 * Discards the index of the items by name. Called when the contents of
+	 * a slot of this entity or of a container in one of its slots changes.
+	 */
+	public void invalidateItemIndex() {
+		itemIndex = null;
+	}
+
+	/**
+	 * Gets the index of the items by name, and creates it if the slot
+	 * contents have changed since it was last used.
+	 *
+	 * @param total <code>true</code> if the quantities in all slots are
+	 * 	needed, <code>false</code> if the carried items are enough
+	 * @return item index
+	 */
+	private EquippedItemIndex getItemIndex(final boolean total) {
+		EquippedItemIndex index = itemIndex;
+		if ((index == null) || (total && !index.isTotalReusable())) {
+			index = new EquippedItemIndex(this);
+			if (index.isCarriedReusable()) {
+				itemIndex = index;
+			} else {
+				itemIndex = null;
+			}
+		}
+		return index;
+	}
+
+	@Override
+	public void addSlot(final String name) {
+		super.addSlot(name);
+		invalidateItemStats();
+		invalidateItemIndex();
+	}
+
+	@Override
+	public void addSlot(final RPSlot slot) {
+		super.addSlot(slot);
+		invalidateItemStats();
+		invalidateItemIndex();
+	}
+
+	@Override
+	public RPSlot removeSlot(final String name) {
+		invalidateItemStats();
+		invalidateItemIndex();
+		return super.removeSlot(name);
+	}
+
 	/**
 	 * Recalculates item based atk and def.
 	 */
 	public void updateItemAtkDef() {
+		invalidateItemStats();
 		put("atk_item", ((int) getItemAtk()));
 		if (Testing.COMBAT) {
 			put("ratk_item", ((int) getItemRatk()));
@@ -13,8 +13,12 @@
 package games.stendhal.server.entity.creature;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -85,6 +89,11 @@ public class Creature extends NPC {
 	 */
 	private static final double SERVER_DROP_GENEROSITY = 1;
 
+	/** maximum number of enemies checked for reachability when choosing a target */
+	private static final int MAX_ENEMY_CANDIDATES = 8;
+	/** number of turns an unreachable target is not checked again, if nothing moves */
+	private static final int UNREACHABLE_CACHE_TURNS = 5;
+
 	private HealerBehavior healer = HealerBehaviourFactory.get(null);
 
 	private AttackStrategy strategy;
@@ -150,6 +159,12 @@ public class Creature extends NPC {
 
 	private CounterMap<String> hitPlayers;
 
+	/**
+	 * Targets to which no path was found: turn of the check, and the packed
+	 * positions of this creature and the target at that time.
+	 */
+	private Map<RPEntity, long[]> unreachable;
+
 	/**
 	 * creates a new Creature
 	 *
@@ -709,6 +724,8 @@ public class Creature extends NPC {
 
 	/**
 	 * Returns the nearest enemy, which is reachable or otherwise attackable.
+	 * The enemies are checked in the order of their distance, and at most
+	 * {@link #MAX_ENEMY_CANDIDATES} of them are tried.
 	 *
 	 * @param range
 	 *            attack radius
@@ -721,61 +738,151 @@ public class Creature extends NPC {
 			return null;
 		}
 
-		// calculate the distance of all possible enemies
-		final Map<RPEntity, Double> distances = new HashMap<RPEntity, Double>();
-		for (final RPEntity enemy : enemyList) {
-			if (enemy == this) {
+		final List<RPEntity> candidates;
+		final StendhalRPZone zone = getZone();
+		if ((zone != null) && (enemyList == zone.getPlayerAndFriends())) {
+			candidates = zone.getNearestPlayersAndFriends(this, range, MAX_ENEMY_CANDIDATES,
+					enemy -> !enemy.isInvisibleToCreatures());
+		} else {
+			candidates = getNearestEntities(enemyList, range);
+		}
+
+		// now choose the nearest enemy for which there is a path, or is
+		// attackable otherwise
+		final int turn = SingletonRepository.getRuleProcessor().getTurn();
+		for (final RPEntity chosen : candidates) {
+			if (squaredDistance(chosen) < 1) {
+				return chosen;
+			}
+			if (isKnownUnreachable(chosen, turn)) {
 				continue;
 			}
 
-			if (enemy.isInvisibleToCreatures()) {
+			final List<Node> path = Path.searchPath(this, chosen, getMovementRange());
+			if ((path == null) || path.isEmpty() && !strategy.canAttackNow(this, chosen)) {
+				setUnreachable(chosen, turn);
+			} else {
+				// set the path. if not setMovement() will search a new one
+				setPath(new FixedPath(path, false));
+				return chosen;
+			}
+		}
+		// we could not find one in reach
+		return null;
+	}
+
+	/**
+	 * Get the visible entities of a list that are within range, nearest
+	 * first.
+	 *
+	 * @param entities list of entities
+	 * @param range maximum distance
+	 * @return up to {@link #MAX_ENEMY_CANDIDATES} entities
+	 */
+	private List<RPEntity> getNearestEntities(final List<RPEntity> entities, final double range) {
+		final List<RPEntity> result = new ArrayList<RPEntity>();
+		final Map<RPEntity, Double> distances = new IdentityHashMap<RPEntity, Double>();
+		for (final RPEntity enemy : entities) {
+			if ((enemy == this) || enemy.isInvisibleToCreatures()) {
 				continue;
 			}
 
 			final double squaredDistance = this.squaredDistance(enemy);
-			if (squaredDistance <= (range * range)) {
+			if ((squaredDistance <= (range * range)) && !distances.containsKey(enemy)) {
 				distances.put(enemy, squaredDistance);
+				result.add(enemy);
 			}
 		}
-
-		// now choose the nearest enemy for which there is a path, or is
-		// attackable otherwise
-		RPEntity chosen = null;
-		while ((chosen == null) && !distances.isEmpty()) {
-			double shortestDistance = Double.MAX_VALUE;
-			for (final Map.Entry<RPEntity, Double> enemy : distances.entrySet()) {
-				final double distance = enemy.getValue();
-				if (distance < shortestDistance) {
-					chosen = enemy.getKey();
-					shortestDistance = distance;
-				}
+		Collections.sort(result, new Comparator<RPEntity>() {
+			@Override
+			public int compare(final RPEntity entity1, final RPEntity entity2) {
+				return Double.compare(distances.get(entity1), distances.get(entity2));
 			}
+		});
+		if (result.size() > MAX_ENEMY_CANDIDATES) {
+			return result.subList(0, MAX_ENEMY_CANDIDATES);
+		}
+		return result;
+	}
 
-			if (shortestDistance >= 1) {
-				final List<Node> path = Path.searchPath(this, chosen, getMovementRange());
-				if ((path == null) || path.isEmpty() && !strategy.canAttackNow(this, chosen)) {
-					distances.remove(chosen);
-					chosen = null;
-				} else {
-					// set the path. if not setMovement() will search a new one
-					setPath(new FixedPath(path, false));
+	/**
+	 * Check if an earlier path search found no way to an entity. The result
+	 * is used for a few turns, as long as neither this creature nor the
+	 * target move.
+	 *
+	 * @param target target entity
+	 * @param turn current turn
+	 * @return <code>true</code> if the target is known to be unreachable
+	 */
+	private boolean isKnownUnreachable(final RPEntity target, final int turn) {
+		if (unreachable == null) {
+			return false;
+		}
+		final long[] check = unreachable.get(target);
+		if (check == null) {
+			return false;
+		}
+		if ((turn - check[0] < UNREACHABLE_CACHE_TURNS)
+				&& (check[1] == position(getX(), getY()))
+				&& (check[2] == position(target.getX(), target.getY()))) {
+			return true;
+		}
+		unreachable.remove(target);
+		return false;
+	}
+
+	/**
+	 * Remember that no path to an entity was found.
+	 *
+	 * @param target target entity
+	 * @param turn current turn
+	 */
+	private void setUnreachable(final RPEntity target, final int turn) {
+		if (unreachable == null) {
+			unreachable = new IdentityHashMap<RPEntity, long[]>();
+		} else if (unreachable.size() >= MAX_ENEMY_CANDIDATES) {
+			// forget targets that were not checked lately
+			final Iterator<long[]> it = unreachable.values().iterator();
+			while (it.hasNext()) {
+				if (turn - it.next()[0] >= UNREACHABLE_CACHE_TURNS) {
+					it.remove();
 				}
 			}
 		}
-		// return the chosen enemy or null if we could not find one in reach
-		return chosen;
+		unreachable.put(target, new long[] {turn, position(getX(), getY()),
+				position(target.getX(), target.getY())});
+	}
+
+	/**
+	 * Pack coordinates to a single value.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return packed coordinates
+	 */
+	private static long position(final int x, final int y) {
+		return ((long) x << 32) | (y & 0xffffffffL);
 	}
 
 	public boolean isEnemyNear(final double range) {
 		final int x = getX();
 		final int y = getY();
+		final StendhalRPZone zone = getZone();
 
 		List<RPEntity> enemyList = getEnemyList();
 		if (enemyList.isEmpty()) {
-			final StendhalRPZone zone = getZone();
 			enemyList = zone.getPlayerAndFriends();
 		}
 
+		if ((zone != null) && (enemyList == zone.getPlayerAndFriends())) {
+			// the entity positions have to be strictly within range
+			return zone.findPlayerOrFriend(x - range, y - range, 2 * range, 2 * range,
+					playerOrFriend -> (playerOrFriend != this)
+						&& !playerOrFriend.isInvisibleToCreatures()
+						&& (Math.abs(playerOrFriend.getX() - x) < range)
+						&& (Math.abs(playerOrFriend.getY() - y) < range)) != null;
+		}
+
 		for (final RPEntity playerOrFriend : enemyList) {
 			if (playerOrFriend == this) {
 				continue;
@@ -785,7 +892,7 @@ public class Creature extends NPC {
 				continue;
 			}
 
-			if (playerOrFriend.getZone() == getZone()) {
+			if (playerOrFriend.getZone() == zone) {
 				final int fx = playerOrFriend.getX();
 				final int fy = playerOrFriend.getY();
 
@@ -17,11 +17,13 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
+import com.google.common.collect.ImmutableSet;
 
 import games.stendhal.common.MathHelper;
 import games.stendhal.common.Rand;
@@ -30,8 +32,8 @@ import games.stendhal.common.grammar.Grammar;
 import games.stendhal.server.core.engine.ItemLogger;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.events.EquipListener;
-import games.stendhal.server.core.events.TurnListener;
 import games.stendhal.server.core.events.UseListener;
+import games.stendhal.server.core.events.ZoneTurnListener;
 import games.stendhal.server.entity.PassiveEntity;
 import games.stendhal.server.entity.RPEntity;
 import games.stendhal.server.entity.item.behavior.UseBehavior;
@@ -44,11 +46,12 @@ import marauroa.common.game.Definition.Type;
 import marauroa.common.game.RPClass;
 import marauroa.common.game.RPObject;
 import marauroa.common.game.RPSlot;
+import marauroa.common.game.SlotOwner;
 
 /**
  * This is an item.
  */
-public class Item extends PassiveEntity implements TurnListener, EquipListener,
+public class Item extends PassiveEntity implements ZoneTurnListener, EquipListener,
 	UseListener {
 
 	private static final int DEFAULT_ATTACK_RATE = 5;
@@ -71,6 +74,10 @@ public class Item extends PassiveEntity implements TurnListener, EquipListener,
 	// 10 minutes
 	public static final int DEGRADATION_TIMEOUT = 10 * MathHelper.SECONDS_IN_ONE_MINUTE;
 
+	/** attributes used for the item stats of the entity holding the item */
+	private static final Set<String> STAT_ATTRIBUTES = ImmutableSet.of("name", "class", "atk",
+			"def", "ratk", "min_level", "deterioration");
+
 
 	/** list of possible slots for this item. */
 	private List<String> possibleSlots;
@@ -91,6 +98,18 @@ public class Item extends PassiveEntity implements TurnListener, EquipListener,
 
 	private boolean fromCorpse = false;
 
+	/*
+	 * Parsed copies of the attributes read in combat. They are valid while
+	 * statsParsed is set, and are reset whenever one of the attributes
+	 * changes.
+	 */
+	private int parsedAtk;
+	private int parsedDef;
+	private int parsedRatk;
+	private int parsedRate;
+	private int parsedDeterioration;
+	private boolean statsParsed;
+
 	/**
 	 * Use behavior implementation, or <code>null</code> if the item does not
 	 * have any, or if the behavior is implemented in a subclass.
@@ -301,6 +320,86 @@ public class Item extends PassiveEntity implements TurnListener, EquipListener,
 		return plantGrower;
 	}
 
+	@Override
+	public void put(final String attribute, final String value) {
+		super.put(attribute, value);
+		onAttributeChanged(attribute);
+	}
+
+	@Override
+	public String remove(final String attribute) {
+		final String result = super.remove(attribute);
+		onAttributeChanged(attribute);
+		return result;
+	}
+
+	@Override
+	public void fill(final RPObject rpobject) {
+		super.fill(rpobject);
+		statsParsed = false;
+		onStatsChanged();
+		onCountChanged();
+	}
+
+	/**
+	 * Resets the parsed stats if they depend on a changed attribute.
+	 *
+	 * @param attribute name of the changed attribute
+	 */
+	private void onAttributeChanged(final String attribute) {
+		if (STAT_ATTRIBUTES.contains(attribute)) {
+			statsParsed = false;
+			onStatsChanged();
+		} else if ("rate".equals(attribute)) {
+			statsParsed = false;
+		}
+		if ("quantity".equals(attribute) || "name".equals(attribute)) {
+			onCountChanged();
+		}
+	}
+
+	/**
+	 * Parses the attributes read in combat, if they changed since the last
+	 * call.
+	 */
+	private void parseStats() {
+		if (statsParsed) {
+			return;
+		}
+		if (has("deterioration")) {
+			parsedDeterioration = getInt("deterioration");
+		} else {
+			parsedDeterioration = DEFAULT_DETERIORATION;
+		}
+		final boolean intact = parsedDeterioration <= MAX_DETERIORATION;
+		parsedAtk = (intact && has("atk")) ? getInt("atk") : 0;
+		parsedDef = (intact && has("def")) ? getInt("def") : 0;
+		parsedRatk = (intact && has("ratk")) ? getInt("ratk") : 0;
+		parsedRate = has("rate") ? getInt("rate") : DEFAULT_ATTACK_RATE;
+		statsParsed = true;
+	}
+
+	/**
+	 * Tells the entity carrying this item, possibly inside a container, that
+	 * its item counts changed.
+	 */
+	private void onCountChanged() {
+		final SlotOwner base = getContainerBaseOwner();
+		if (base instanceof RPEntity) {
+			((RPEntity) base).invalidateItemIndex();
+		}
+	}
+
+	/**
+	 * Tells the entity holding this item that the item stats changed.
+	 */
+	private void onStatsChanged() {
+		final RPObject container = getContainer();
+		if (container instanceof RPEntity) {
+			((RPEntity) container).invalidateItemStats();
+		}
+	}
+
 	/**
 	 * Returns the attack points of this item. Positive and negative values are
 	 * allowed. If this item doesn't modify the attack it should return '0'.
@@ -308,11 +407,8 @@ public class Item extends PassiveEntity implements TurnListener, EquipListener,
 	 * @return attack points
 	 */
 	public int getAttack() {
-		if (has("atk") && getDeterioration() <= MAX_DETERIORATION) {
-			return getInt("atk");
-		}
-
-		return 0;
+		parseStats();
+		return parsedAtk;
 	}
 
 	/**
@@ -322,11 +418,8 @@ public class Item extends PassiveEntity implements TurnListener, EquipListener,
 	 * @return defense points
 	 */
 	public int getDefense() {
-		if (has("def") && getDeterioration() <= MAX_DETERIORATION) {
-			return getInt("def");
-		}
-
-		return 0;
+		parseStats();
+		return parsedDef;
 	}
 
 	/**
@@ -337,11 +430,8 @@ public class Item extends PassiveEntity implements TurnListener, EquipListener,
 	 * @return ranged attack points
 	 */
 	public int getRangedAttack() {
-		if (has("ratk") && getDeterioration() <= MAX_DETERIORATION) {
-			return getInt("ratk");
-		}
-
-		return 0;
+		parseStats();
+		return parsedRatk;
 	}
 
 	/**
@@ -350,11 +440,8 @@ public class Item extends PassiveEntity implements TurnListener, EquipListener,
 	 * @return each how many turns this item can attack.
 	 */
 	public int getAttackRate() {
-		if (has("rate")) {
-			return getInt("rate");
-		}
-
-		return DEFAULT_ATTACK_RATE;
+		parseStats();
+		return parsedRate;
 	}
 
 	/**
@@ -387,10 +474,8 @@ public class Item extends PassiveEntity implements TurnListener, EquipListener,
 	 * @return the current degree of deterioration
 	 */
 	public int getDeterioration() {
-		if(has("deterioration")) {
-			return getInt("deterioration");
-		}
-		return DEFAULT_DETERIORATION;
+		parseStats();
+		return parsedDeterioration;
 	}
 
 	/**
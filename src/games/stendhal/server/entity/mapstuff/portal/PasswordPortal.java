@@ -16,6 +16,7 @@ import java.util.List;
 
 import org.apache.log4j.Logger;
 
+import games.stendhal.server.core.engine.ZoneLogicExecutor;
 import games.stendhal.server.entity.RPEntity;
 import games.stendhal.server.entity.player.Player;
 
@@ -103,7 +104,19 @@ public class PasswordPortal extends Portal {
 	@Override
 	public void logic() {
 		List<Player> players = getNearbyPlayersThatHaveSpoken();
+		if (!players.isEmpty() && ZoneLogicExecutor.defer(() -> usePassword(players))) {
+			// using the portal changes the zone, and needs the teleport result
+			return;
+		}
+		usePassword(players);
+	}
 
+	/**
+	 * Lets the players through that said the password.
+	 *
+	 * @param players players that have spoken
+	 */
+	private void usePassword(final List<Player> players) {
 		String text;
 
 		for (Player player : players) {
@@ -21,7 +21,7 @@ import games.stendhal.common.MathHelper;
 import games.stendhal.common.Rand;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPZone;
-import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.ZoneTurnListener;
 import games.stendhal.server.core.rp.StendhalRPAction;
 import games.stendhal.server.entity.creature.Creature;
 import games.stendhal.server.util.Observer;
@@ -38,7 +38,7 @@ import games.stendhal.server.util.Observer;
  * pattern is used; the <i>prototypeCreature</i> will be copied to create new
  * creatures.
  */
-public class CreatureRespawnPoint implements TurnListener {
+public class CreatureRespawnPoint implements ZoneTurnListener {
 	/** longest possible respawn time in turns. half a year - should be longer than the
 	 * server is up in one phase */
 	private static final int MAX_RESPAWN_TIME = 200 * 60 * 24 * 30 * 6;
@@ -242,6 +242,7 @@ public class CreatureRespawnPoint implements TurnListener {
 	 * return zone where respawn point placed
 	 * @return - zone where respawn point placed
 	 */
+	@Override
 	public StendhalRPZone getZone() {
 		return this.zone;
 	}
@@ -18,7 +18,7 @@ import games.stendhal.common.grammar.Grammar;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPWorld;
 import games.stendhal.server.core.engine.StendhalRPZone;
-import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.ZoneTurnListener;
 import games.stendhal.server.entity.Entity;
 import games.stendhal.server.entity.item.Item;
 import games.stendhal.server.entity.player.Player;
@@ -39,7 +39,7 @@ import marauroa.common.game.RPObject;
  * @author Daniel Herding
  *
  */
-public class PassiveEntityRespawnPoint extends Entity implements TurnListener {
+public class PassiveEntityRespawnPoint extends Entity implements ZoneTurnListener {
 	private static Logger LOGGER = Logger.getLogger(PassiveEntityRespawnPoint.class);
 	/**
 	 * Tells how many turns it takes in average for a new fruit to become ripe.
@@ -25,6 +25,7 @@ import games.stendhal.common.constants.SoundLayer;
 import games.stendhal.server.core.pathfinder.FixedPath;
 import games.stendhal.server.core.pathfinder.Node;
 import games.stendhal.server.core.pathfinder.Path;
+import games.stendhal.server.core.pathfinder.PathListener;
 import games.stendhal.server.entity.DressedEntity;
 import games.stendhal.server.entity.Entity;
 import games.stendhal.server.entity.item.Corpse;
@@ -183,8 +184,9 @@ public abstract class NPC extends DressedEntity {
 	 * not have a path already one is searched and saved.
 	 * <p>
 	 * <b>Note:</b> When the distance to the destination is less than
-	 * <code>min</code> the path is removed. <b>Warning:</b> The pathfinder
-	 * is not asynchronous, so this thread is blocked until a path is found.
+	 * <code>min</code> the path is removed. Depending on the server
+	 * configuration the path search may take several turns. No new search is
+	 * started while the previous one is running.
 	 *
 	 * @param destEntity
 	 *   the destination entity
@@ -206,12 +208,16 @@ public abstract class NPC extends DressedEntity {
 						+ min + ") of (" + getX() + "," + getY() + ")");
 				clearPath();
 			}
-		} else if ((squaredDistance(destEntity) > max)) {
+		} else if ((squaredDistance(destEntity) > max) && !isSearchingPath()) {
 			logger.debug("Creating path because (" + getX() + "," + getY()
 					+ ") distance(" + destEntity.getX() + ","
 					+ destEntity.getY() + ")>" + max);
-			final List<Node> path = Path.searchPath(this, destEntity, maxPathRadius);
-			setPath(new FixedPath(path, false));
+			setPathRequest(Path.requestPath(this, destEntity, maxPathRadius, new PathListener() {
+				@Override
+				public void onPathFound(final List<Node> path) {
+					setPath(new FixedPath(path, false));
+				}
+			}));
 		}
 	}
 
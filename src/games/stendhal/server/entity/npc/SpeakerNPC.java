@@ -31,6 +31,7 @@ import games.stendhal.common.parser.ExpressionType;
 import games.stendhal.common.parser.Sentence;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.engine.ZoneLogicExecutor;
 import games.stendhal.server.entity.CollisionAction;
 import games.stendhal.server.entity.Killer;
 import games.stendhal.server.entity.RPEntity;
@@ -770,6 +771,10 @@ public class SpeakerNPC extends PassiveNPC {
 
 
 	public void listenTo(final Player player, final String text) {
+		if (ZoneLogicExecutor.defer(() -> listenTo(player, text))) {
+			// chat actions may reach beyond the zone, run them after the zone logic
+			return;
+		}
 		tell(player, text);
 	}
 
@@ -1007,6 +1012,16 @@ public class SpeakerNPC extends PassiveNPC {
 		return engine.getTransitions();
 	}
 
+	/**
+	 * Returns a copy of the transitions starting at a state.
+	 *
+	 * @param state start state
+	 * @return list of transitions
+	 */
+	public List<Transition> getTransitions(final ConversationStates state) {
+		return engine.getTransitions(state);
+	}
+
 	public Engine getEngine() {
 		return engine;
 	}
@@ -22,6 +22,7 @@ import games.stendhal.server.core.config.annotations.Dev;
 import games.stendhal.server.core.config.annotations.Dev.Category;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.core.engine.ZoneLogicExecutor;
 import games.stendhal.server.entity.npc.ChatAction;
 import games.stendhal.server.entity.npc.EventRaiser;
 import games.stendhal.server.entity.player.Player;
@@ -58,6 +59,10 @@ public class TeleportAction implements ChatAction {
 
 	@Override
 	public void fire(final Player player, final Sentence sentence, final EventRaiser raiser) {
+		if (ZoneLogicExecutor.defer(() -> fire(player, sentence, raiser))) {
+			// the teleport result is needed, so wait for the zone logic to finish
+			return;
+		}
 		final StendhalRPZone zone = SingletonRepository.getRPWorld().getZone(zonename);
 		player.teleport(zone, x, y, direction, player);
 		player.notifyWorldAboutChanges();
@@ -1,6 +1,6 @@
 // $Id$
 /***************************************************************************
- *                   (C) Copyright 2003-2023 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -48,6 +48,9 @@ public class Engine {
 	// FSM state transition table
 	private final List<Transition> stateTransitionTable = new LinkedList<Transition>();
 
+	// transitions by state and trigger, to look up the candidates for an input
+	private final TransitionIndex transitionIndex = new TransitionIndex();
+
 	// current FSM state
 	private ConversationStates currentState = ConversationStates.IDLE;
 
@@ -74,7 +77,7 @@ public class Engine {
 	 * @return previous transition entry
 	 */
 	private Transition get(final ConversationStates state, final Expression trigger, final ChatCondition condition) {
-		for (final Transition transition : stateTransitionTable) {
+		for (final Transition transition : transitionIndex.getExactCandidates(state, trigger)) {
 			if (transition.matchesWithCondition(state, trigger, condition)) {
 				return transition;
 			}
@@ -288,7 +291,7 @@ public class Engine {
 	public void add(Collection<Expression> triggerExpressions, final ConversationStates state, final ChatCondition condition,
 			boolean secondary, final ConversationStates nextState, final String reply, final ChatAction action, final String label) {
 		if (triggerExpressions!=null && !triggerExpressions.isEmpty()) {
-			stateTransitionTable.add(new Transition(state, triggerExpressions, condition, secondary, nextState, reply, action, label));
+			addTransition(new Transition(state, triggerExpressions, condition, secondary, nextState, reply, action, label));
 		}
 	}
 
@@ -313,10 +316,15 @@ public class Engine {
 	public void add(Collection<Expression> triggerExpressions, final ConversationStates state, final ChatCondition condition,
 			boolean secondary, final ConversationStates nextState, final String reply, final ChatAction action) {
 		if (triggerExpressions!=null && !triggerExpressions.isEmpty()) {
-			stateTransitionTable.add(new Transition(state, triggerExpressions, condition, secondary, nextState, reply, action));
+			addTransition(new Transition(state, triggerExpressions, condition, secondary, nextState, reply, action));
 		}
 	}
 
+	private void addTransition(final Transition transition) {
+		stateTransitionTable.add(transition);
+		transitionIndex.add(transition);
+	}
+
 	/**
 	 * remove matches transition
 	 *
@@ -338,6 +346,9 @@ public class Engine {
 				res = true;
 			}
 		}
+		if (res) {
+			transitionIndex.rebuild(stateTransitionTable);
+		}
 		return res;
 	}
 
@@ -530,8 +541,8 @@ public class Engine {
 		final TransitionSet preferredTransitions = new TransitionSet();
 		final TransitionSet secondaryTransitions = new TransitionSet();
 
-		// match with all the registered transitions
-		for (final Transition transition : stateTransitionTable) {
+		// match with the registered transitions that can match the input
+		for (final Transition transition : getCandidates(type, sentence)) {
 			if (matchesTransition(type, sentence, transition)) {
 				if (transition.isConditionFulfilled(player, sentence, speakerNPC)) {
 					if (transition.isPreferred()) {
@@ -582,6 +593,37 @@ public class Engine {
 		}
 	}
 
+	/**
+	 * Gets the transitions which may match the sentence, in the order they
+	 * were added. Exact and normalized matches are looked up by the trigger,
+	 * similarity matches have to check all transitions of the state.
+	 *
+	 * @param type
+	 * @param sentence
+	 * @return list of transitions
+	 */
+	private List<Transition> getCandidates(final MatchType type, final Sentence sentence) {
+		final Expression trigger = sentence.getTriggerExpression();
+
+		switch (type) {
+		case EXACT_MATCH:
+			return transitionIndex.getExactCandidates(currentState, trigger);
+		case NORMALIZED_MATCH:
+			return transitionIndex.getNormalizedCandidates(currentState, trigger);
+		case SIMILAR_MATCH:
+			return transitionIndex.getTransitions(currentState);
+		// jumps are done by the transitions of the ANY state
+		case ABSOLUTE_JUMP:
+			return transitionIndex.getExactCandidates(ConversationStates.ANY, trigger);
+		case NORMALIZED_JUMP:
+			return transitionIndex.getNormalizedCandidates(ConversationStates.ANY, trigger);
+		case SIMILAR_JUMP:
+			return transitionIndex.getTransitions(ConversationStates.ANY);
+		default:
+			return stateTransitionTable;
+		}
+	}
+
 	/**
 	 * Look for a match between given sentence and transition in the current state.
 	 * TODO mf - refactor match type handling
@@ -632,5 +674,15 @@ public class Engine {
 		return new LinkedList<Transition>(stateTransitionTable);
 	}
 
+	/**
+	 * Returns a copy of the transitions starting at a state.
+	 *
+	 * @param state start state
+	 * @return list of transitions
+	 */
+	public List<Transition> getTransitions(final ConversationStates state) {
+		return new ArrayList<Transition>(transitionIndex.getTransitions(state));
+	}
+
 
 }
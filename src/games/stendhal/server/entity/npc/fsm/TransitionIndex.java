@@ -0,0 +1,170 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.npc.fsm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import games.stendhal.common.parser.Expression;
+import games.stendhal.server.entity.npc.ConversationStates;
+
+/**
+ * Index of the transitions of a finite state machine by their start state and
+ * by the original and normalized text of their triggers.
+ *
+ * <p>Triggers with an ExpressionMatcher (for example jokers) can match any
+ * text, so their transitions are part of every lookup result. All lists keep
+ * the order in which the transitions were added.
+ */
+class TransitionIndex {
+
+	/** transitions by their start state */
+	private final Map<ConversationStates, StateTransitions> states =
+			new EnumMap<ConversationStates, StateTransitions>(ConversationStates.class);
+
+	/**
+	 * adds a transition
+	 *
+	 * @param transition transition
+	 */
+	void add(final Transition transition) {
+		StateTransitions stateTransitions = states.get(transition.getState());
+		if (stateTransitions == null) {
+			stateTransitions = new StateTransitions();
+			states.put(transition.getState(), stateTransitions);
+		}
+		stateTransitions.add(transition);
+	}
+
+	/**
+	 * replaces the indexed transitions
+	 *
+	 * @param transitions transitions in the order they were added
+	 */
+	void rebuild(final Collection<Transition> transitions) {
+		states.clear();
+		for (final Transition transition : transitions) {
+			add(transition);
+		}
+	}
+
+	/**
+	 * gets all transitions starting at a state
+	 *
+	 * @param state start state
+	 * @return list of transitions
+	 */
+	List<Transition> getTransitions(final ConversationStates state) {
+		final StateTransitions stateTransitions = states.get(state);
+		if (stateTransitions == null) {
+			return Collections.emptyList();
+		}
+		return stateTransitions.all;
+	}
+
+	/**
+	 * gets the transitions starting at a state, which may match the trigger
+	 * exactly
+	 *
+	 * @param state start state
+	 * @param trigger trigger
+	 * @return list of transitions
+	 */
+	List<Transition> getExactCandidates(final ConversationStates state, final Expression trigger) {
+		final StateTransitions stateTransitions = states.get(state);
+		if (stateTransitions == null) {
+			return Collections.emptyList();
+		}
+		return stateTransitions.lookup(stateTransitions.byOriginal, trigger.getOriginal());
+	}
+
+	/**
+	 * gets the transitions starting at a state, which may match the normalized
+	 * trigger
+	 *
+	 * @param state start state
+	 * @param trigger trigger
+	 * @return list of transitions
+	 */
+	List<Transition> getNormalizedCandidates(final ConversationStates state, final Expression trigger) {
+		final StateTransitions stateTransitions = states.get(state);
+		if (stateTransitions == null) {
+			return Collections.emptyList();
+		}
+		return stateTransitions.lookup(stateTransitions.byNormalized, trigger.getNormalized());
+	}
+
+	/**
+	 * transitions starting at one state
+	 */
+	private static class StateTransitions {
+		private final List<Transition> all = new ArrayList<Transition>();
+		/** transitions with at least one ExpressionMatcher trigger */
+		private final List<Transition> matching = new ArrayList<Transition>();
+		private final Map<String, List<Transition>> byOriginal = new HashMap<String, List<Transition>>();
+		private final Map<String, List<Transition>> byNormalized = new HashMap<String, List<Transition>>();
+
+		void add(final Transition transition) {
+			all.add(transition);
+
+			boolean hasMatcher = false;
+			for (final Expression trigger : transition.getTriggers()) {
+				if (trigger.getMatcher() != null) {
+					hasMatcher = true;
+					break;
+				}
+			}
+			if (hasMatcher) {
+				matching.add(transition);
+				for (final List<Transition> list : byOriginal.values()) {
+					list.add(transition);
+				}
+				for (final List<Transition> list : byNormalized.values()) {
+					list.add(transition);
+				}
+			}
+
+			for (final Expression trigger : transition.getTriggers()) {
+				if (trigger.getMatcher() == null) {
+					addKey(byOriginal, trigger.getOriginal(), transition);
+					addKey(byNormalized, trigger.getNormalized(), transition);
+				}
+			}
+		}
+
+		private void addKey(final Map<String, List<Transition>> map, final String key, final Transition transition) {
+			List<Transition> list = map.get(key);
+			if (list == null) {
+				// the matcher transitions added so far come before this one
+				list = new ArrayList<Transition>(matching);
+				map.put(key, list);
+			}
+			// a transition may have several triggers with the same key
+			if (list.isEmpty() || (list.get(list.size() - 1) != transition)) {
+				list.add(transition);
+			}
+		}
+
+		List<Transition> lookup(final Map<String, List<Transition>> map, final String key) {
+			final List<Transition> list = map.get(key);
+			if (list == null) {
+				return matching;
+			}
+			return list;
+		}
+	}
+}
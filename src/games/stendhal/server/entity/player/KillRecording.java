@@ -12,7 +12,9 @@
  ***************************************************************************/
 package games.stendhal.server.entity.player;
 
+import games.stendhal.common.KeyedSlotUtil;
 import games.stendhal.common.MathHelper;
+import marauroa.common.game.RPObject;
 
 /**
  * recording of killings.
@@ -26,6 +28,13 @@ class KillRecording {
 
 	private final Player player;
 
+	/** kill slot object the kinds of killed creatures were counted in */
+	private RPObject countedKills;
+	/** number of different creatures killed solo */
+	private int soloKinds;
+	/** number of different creatures killed shared */
+	private int sharedKinds;
+
 	public KillRecording(final Player player) {
 		this.player = player;
 	}
@@ -76,6 +85,13 @@ class KillRecording {
 		final String count = player.getKeyedSlot(KILL_SLOT_NAME, key);
 		final int oldValue = MathHelper.parseIntDefault(count, 0);
 		player.setKeyedSlot(KILL_SLOT_NAME, key, Integer.toString(oldValue + 1));
+		if ((oldValue <= 0) && (countedKills != null)) {
+			if (mode.equals("solo")) {
+				soloKinds++;
+			} else if (mode.equals("shared")) {
+				sharedKinds++;
+			}
+		}
 	}
 
 	/**
@@ -107,6 +123,8 @@ class KillRecording {
 	public void setKillCount(final String name, final String mode, final int count) {
 		final String key = mode + "." + name;
 		player.setKeyedSlot(KILL_SLOT_NAME, key, Integer.toString(count));
+		// count again when needed
+		countedKills = null;
 	}
 
 	/**
@@ -159,4 +177,51 @@ class KillRecording {
 		return(getKill(name, "shared"));
 	}
 
+	/**
+	 * Gets the number of different creatures the player has killed solo.
+	 *
+	 * @return number of creature names with solo kills
+	 */
+	public int getSoloKillKinds() {
+		countKinds();
+		return soloKinds;
+	}
+
+	/**
+	 * Gets the number of different creatures the player has killed with the
+	 * help of others.
+	 *
+	 * @return number of creature names with shared kills
+	 */
+	public int getSharedKillKinds() {
+		countKinds();
+		return sharedKinds;
+	}
+
+	/**
+	 * Counts the kinds of killed creatures, unless they have been counted in
+	 * the current kill slot. Later kills keep the counts up to date.
+	 */
+	private void countKinds() {
+		final RPObject kills = KeyedSlotUtil.getKeyedSlotObject(player, KILL_SLOT_NAME);
+		if ((kills == countedKills) && (kills != null)) {
+			return;
+		}
+		soloKinds = 0;
+		sharedKinds = 0;
+		if (kills != null) {
+			for (final String key : kills) {
+				if (key.startsWith(PREFIX_SOLO)) {
+					if (MathHelper.parseIntDefault(kills.get(key), 0) > 0) {
+						soloKinds++;
+					}
+				} else if (key.startsWith(PREFIX_SHARED)) {
+					if (MathHelper.parseIntDefault(kills.get(key), 0) > 0) {
+						sharedKinds++;
+					}
+				}
+			}
+		}
+		countedKills = kills;
+	}
 }
@@ -0,0 +1,123 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.player;
+
+/**
+ * A quest state split into its ";" separated sub states. The "item=amount"
+ * pairs and the numbers of the sub states are parsed when they are first
+ * asked for.
+ */
+final class ParsedQuestState {
+	private static final byte NUMBER_UNKNOWN = 0;
+	private static final byte NUMBER_VALID = 1;
+	private static final byte NUMBER_INVALID = 2;
+	/** pair of a missing sub state */
+	private static final String[] EMPTY_PAIR = { "" };
+
+	private final String state;
+	private final String[] elements;
+	private String[][] pairs;
+	private int[] numbers;
+	private byte[] numberStates;
+
+	/**
+	 * Creates a new ParsedQuestState.
+	 *
+	 * @param state quest state
+	 */
+	ParsedQuestState(final String state) {
+		this.state = state;
+		this.elements = state.split(";");
+	}
+
+	/**
+	 * Checks if this was parsed from a quest state.
+	 *
+	 * @param other quest state
+	 * @return <code>true</code> if the states are equal
+	 */
+	boolean isStateOf(final String other) {
+		return (state == other) || state.equals(other);
+	}
+
+	/**
+	 * Gets a copy of the sub states.
+	 *
+	 * @return sub states
+	 */
+	String[] copyElements() {
+		return elements.clone();
+	}
+
+	/**
+	 * Gets a sub state.
+	 *
+	 * @param index index of the sub state
+	 * @return sub state, or an empty string if there are not that many
+	 */
+	String getElement(final int index) {
+		if (index < elements.length) {
+			return elements[index];
+		}
+		return "";
+	}
+
+	/**
+	 * Gets a sub state split at "=".
+	 *
+	 * @param index index of the sub state
+	 * @return parts of the sub state. The array must not be modified
+	 */
+	String[] getPair(final int index) {
+		if (index >= elements.length) {
+			return EMPTY_PAIR;
+		}
+		if (pairs == null) {
+			pairs = new String[elements.length][];
+		}
+		String[] pair = pairs[index];
+		if (pair == null) {
+			pair = elements[index].split("=");
+			pairs[index] = pair;
+		}
+		return pair;
+	}
+
+	/**
+	 * Gets a sub state as number.
+	 *
+	 * @param index index of the sub state
+	 * @param def value to use if the sub state is not a number
+	 * @return number
+	 */
+	int getNumber(final int index, final int def) {
+		if (index >= elements.length) {
+			return def;
+		}
+		if (numbers == null) {
+			numbers = new int[elements.length];
+			numberStates = new byte[elements.length];
+		}
+		if (numberStates[index] == NUMBER_UNKNOWN) {
+			try {
+				numbers[index] = Integer.parseInt(elements[index]);
+				numberStates[index] = NUMBER_VALID;
+			} catch (final NumberFormatException e) {
+				numberStates[index] = NUMBER_INVALID;
+			}
+		}
+		if (numberStates[index] == NUMBER_VALID) {
+			return numbers[index];
+		}
+		return def;
+	}
+}
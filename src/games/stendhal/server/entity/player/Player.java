@@ -55,6 +55,7 @@ import games.stendhal.server.core.events.TurnListener;
 import games.stendhal.server.core.events.TurnNotifier;
 import games.stendhal.server.core.events.TutorialNotifier;
 import games.stendhal.server.core.events.UseListener;
+import games.stendhal.server.core.rp.QuestStatusView;
 import games.stendhal.server.core.rp.StendhalRPAction;
 import games.stendhal.server.core.rp.achievement.AchievementNotifier;
 import games.stendhal.server.entity.DressedEntity;
@@ -109,6 +110,12 @@ public class Player extends DressedEntity implements UseListener {
 	 */
 	private final List<Integer> unlockedPortals;
 
+	/** cached overview of the quests, maintained by the quest system */
+	private QuestStatusView questStatusView;
+
+	/** was the zone the player was last added to new to the player? */
+	private boolean firstVisitOfZone;
+
 	private final PlayerQuests quests = new PlayerQuests(this);
 	private final PlayerDieer dieer = new PlayerDieer(this);
 	private final PlayerTrade trade = new PlayerTrade(this);
@@ -1387,6 +1394,34 @@ public class Player extends DressedEntity implements UseListener {
 		quests.removeQuest(name);
 	}
 
+	/**
+	 * Gets a number that changes whenever a quest state of the player is
+	 * changed.
+	 *
+	 * @return version of the quest states
+	 */
+	public int getQuestStateVersion() {
+		return quests.getStateVersion();
+	}
+
+	/**
+	 * Gets the cached overview of the open and completed quests.
+	 *
+	 * @return overview, or <code>null</code>
+	 */
+	public QuestStatusView getQuestStatusView() {
+		return questStatusView;
+	}
+
+	/**
+	 * Sets the cached overview of the open and completed quests.
+	 *
+	 * @param view overview
+	 */
+	public void setQuestStatusView(final QuestStatusView view) {
+		questStatusView = view;
+	}
+
 	/**
 	 * Is the named quest in one of the listed states?
 	 *
@@ -1564,6 +1599,25 @@ public class Player extends DressedEntity implements UseListener {
 		return killRec.getSharedKill(name);
 	}
 
+	/**
+	 * Gets the number of different creatures this player has killed solo.
+	 *
+	 * @return number of kinds of creatures
+	 */
+	public int getSoloKillKinds() {
+		return killRec.getSoloKillKinds();
+	}
+
+	/**
+	 * Gets the number of different creatures this player has killed with the
+	 * help of others.
+	 *
+	 * @return number of kinds of creatures
+	 */
+	public int getSharedKillKinds() {
+		return killRec.getSharedKillKinds();
+	}
+
 	/**
 	 * Retrieves number of creatures killed by this player with help
 	 * from others.
@@ -2146,6 +2200,7 @@ public class Player extends DressedEntity implements UseListener {
 		/*
 		 * Remember zones we've been in
 		 */
+		firstVisitOfZone = !hasVisitedZone(zoneName);
 		setKeyedSlot("!visited", zoneName,
 				Long.toString(System.currentTimeMillis()));
 		trade.cancelTrade();
@@ -2481,6 +2536,9 @@ public class Player extends DressedEntity implements UseListener {
 				|| !getMap("buddies").containsKey(name);
 
 		put("buddies", name, online);
+		if (isNew) {
+			SingletonRepository.getRuleProcessor().getOnlinePlayers().onBuddyAdded(this, name);
+		}
 
 		return isNew;
 	}
@@ -2493,7 +2551,11 @@ public class Player extends DressedEntity implements UseListener {
 	 * @return true if a buddy was removed
 	 */
 	public boolean removeBuddy(String name) {
-		return remove("buddies", name) != null;
+		if (remove("buddies", name) == null) {
+			return false;
+		}
+		SingletonRepository.getRuleProcessor().getOnlinePlayers().onBuddyRemoved(this, name);
+		return true;
 	}
 
 	@Override
@@ -2612,6 +2674,18 @@ public class Player extends DressedEntity implements UseListener {
 		return hasVisitedZone(zone.getName());
 	}
 
+	/**
+	 * Checks if the player had not visited the zone the player was last
+	 * added to.
+	 *
+	 * @return
+	 *     <code>true</code> if the last zone change brought the player to a
+	 *     new zone.
+	 */
+	public boolean isFirstVisitOfZone() {
+		return firstVisitOfZone;
+	}
+
 	/**
 	 * offers the other player to start a trading session
 	 *
@@ -11,8 +11,10 @@
  ***************************************************************************/
 package games.stendhal.server.entity.player;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 
@@ -33,6 +35,14 @@ class PlayerQuests {
 
 	private static Logger logger = Logger.getLogger(PlayerQuests.class);
 
+	/**
+	 * Parsed quest states by slot name. The quest slot stays authoritative:
+	 * an entry is only used while its state equals the one in the slot.
+	 */
+	private final Map<String, ParsedQuestState> parsedStates = new HashMap<String, ParsedQuestState>();
+
+	/** incremented on each change of a quest state */
+	private int stateVersion;
 
 	public PlayerQuests(final Player player) {
 		this.player = player;
@@ -93,13 +103,16 @@ class PlayerQuests {
 	 *            reset the player's status for the quest.
 	 */
 	public void setQuest(final String name, final String status) {
-		final String oldStatus = player.getKeyedSlot("!quests", QuestUtils.evaluateQuestSlotName(name));
-		player.setKeyedSlot("!quests", QuestUtils.evaluateQuestSlotName(name), status);
+		final String slotName = QuestUtils.evaluateQuestSlotName(name);
+		final String oldStatus = player.getKeyedSlot("!quests", slotName);
+		player.setKeyedSlot("!quests", slotName, status);
+		parsedStates.remove(slotName);
+		stateVersion++;
 		if ((status == null) || !status.equals(oldStatus)) {
-			new GameEvent(player.getName(), "quest", QuestUtils.evaluateQuestSlotName(name), status).raise();
+			new GameEvent(player.getName(), "quest", slotName, status).raise();
 		}
 		// check for reached achievements
-		SingletonRepository.getAchievementNotifier().onFinishQuest(player);
+		SingletonRepository.getAchievementNotifier().onFinishQuest(player, slotName);
 	}
 
 
@@ -113,7 +126,8 @@ class PlayerQuests {
 	 * @return the player's status in the quest
 	 */
 	public String getQuest(final String name, final int index) {
-		String state = getQuest(name);
+		final String slotName = QuestUtils.evaluateQuestSlotName(name);
+		final String state = player.getKeyedSlot("!quests", slotName);
 		if (state == null) {
 			return null;
 		}
@@ -122,11 +136,40 @@ class PlayerQuests {
 			return state;
 		}
 
-		String[] elements = state.split(";");
-		if (index < elements.length) {
-			return elements[index];
+		return getParsedState(slotName, state).getElement(index);
+	}
+
+	/**
+	 * Gets the parsed form of a quest state, and parses the state if it has
+	 * changed since the last call.
+	 *
+	 * @param slotName evaluated quest slot name
+	 * @param state current state in the quest slot
+	 * @return parsed state
+	 */
+	private ParsedQuestState getParsedState(final String slotName, final String state) {
+		ParsedQuestState parsed = parsedStates.get(slotName);
+		if ((parsed == null) || !parsed.isStateOf(state)) {
+			parsed = new ParsedQuestState(state);
+			parsedStates.put(slotName, parsed);
 		}
-		return "";
+		return parsed;
+	}
+
+	/**
+	 * Gets the parsed form of the current quest state.
+	 *
+	 * @param name The quest's name
+	 * @return parsed state, or <code>null</code> if the player does not have
+	 * 	the quest
+	 */
+	private ParsedQuestState getParsedState(final String name) {
+		final String slotName = QuestUtils.evaluateQuestSlotName(name);
+		final String state = player.getKeyedSlot("!quests", slotName);
+		if (state == null) {
+			return null;
+		}
+		return getParsedState(slotName, state);
 	}
 
 	/**
@@ -145,11 +188,13 @@ class PlayerQuests {
 	 *            reset the player's status for the quest.
 	 */
 	public void setQuest(final String name, final int index, final String subStatus) {
-		String state = getQuest(name);
-		if (state == null) {
-			state = "";
+		final ParsedQuestState parsed = getParsedState(name);
+		String[] elements;
+		if (parsed == null) {
+			elements = new String[] { "" };
+		} else {
+			elements = parsed.copyElements();
 		}
-		String[] elements = state.split(";");
 		if (elements.length <= index) {
 			String[] temp = new String[index + 1];
 			System.arraycopy(elements, 0, temp, 0, elements.length);
@@ -183,7 +228,20 @@ class PlayerQuests {
 	}
 
 	public void removeQuest(final String name) {
-		player.setKeyedSlot("!quests", QuestUtils.evaluateQuestSlotName(name), null);
+		final String slotName = QuestUtils.evaluateQuestSlotName(name);
+		player.setKeyedSlot("!quests", slotName, null);
+		parsedStates.remove(slotName);
+		stateVersion++;
+	}
+
+	/**
+	 * Gets a number that changes whenever a quest state is changed by
+	 * setQuest() or removeQuest().
+	 *
+	 * @return version of the quest states
+	 */
+	int getStateVersion() {
+		return stateVersion;
 	}
 
 	/**
@@ -248,10 +306,7 @@ class PlayerQuests {
 			logger.error(player.getName() + " does not have quest " + name);
 			return "";
 		}
-		String questSubString = getQuest(name, index);
-		final String[] elements = questSubString.split("=");
-		String questItem = elements[0];
-		return questItem;
+		return getPair(name, index)[0];
 	}
 
 	/**
@@ -269,8 +324,7 @@ class PlayerQuests {
 			logger.error(player.getName() + " does not have quest " + name);
 			return amount;
 		}
-		String questSubString = getQuest(name, index);
-		final String[] elements = questSubString.split("=");
+		final String[] elements = getPair(name, index);
 		if(elements.length > 1) {
 			amount=MathHelper.parseIntDefault(elements[1], 1);
 		}
@@ -292,8 +346,26 @@ class PlayerQuests {
 			logger.error(player.getName() + " does not have quest " + name);
 			return 0;
 		}
-		String questState = player.getQuest(name, index);
-		return MathHelper.parseIntDefault(questState, 0);
+		if (index == -1) {
+			return MathHelper.parseIntDefault(getQuest(name), 0);
+		}
+		return getParsedState(name).getNumber(index, 0);
+	}
+
+	/**
+	 * Gets a sub state of an existing quest split at "=".
+	 *
+	 * @param name
+	 *            The quest's name
+	 * @param index
+	 *            the index of the sub state to get (separated by ";")
+	 * @return parts of the sub state. The array must not be modified
+	 */
+	private String[] getPair(final String name, final int index) {
+		if (index == -1) {
+			return getQuest(name).split("=");
+		}
+		return getParsedState(name).getPair(index);
 	}
 
 }
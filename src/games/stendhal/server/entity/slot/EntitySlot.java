@@ -13,7 +13,10 @@
 package games.stendhal.server.entity.slot;
 
 import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.RPEntity;
+import marauroa.common.game.RPObject;
 import marauroa.common.game.RPSlot;
+import marauroa.common.game.SlotOwner;
 
 /**
  * Stendhal specific information about this slot.
@@ -43,6 +46,45 @@ public class EntitySlot extends RPSlot implements Slot {
 		this.contentSlotName = contentSlotName;
 	}
 
+	@Override
+	protected int add(final RPObject object, final boolean assignId) {
+		final int result = super.add(object, assignId);
+		onContentChanged();
+		return result;
+	}
+
+	@Override
+	public RPObject remove(final RPObject.ID id) {
+		final RPObject result = super.remove(id);
+		onContentChanged();
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		onContentChanged();
+	}
+
+	/**
+	 * Tells the owning entity that the items in its slots have changed, so
+	 * that it can update its item stats. The entity carrying the owner, if
+	 * the owner is a container, is told to update its item index.
+	 */
+	private void onContentChanged() {
+		final SlotOwner owner = getOwner();
+		if (owner instanceof RPEntity) {
+			((RPEntity) owner).invalidateItemStats();
+		}
+		SlotOwner base = owner;
+		if (owner instanceof RPObject) {
+			base = ((RPObject) owner).getContainerBaseOwner();
+		}
+		if (base instanceof RPEntity) {
+			((RPEntity) base).invalidateItemIndex();
+		}
+	}
+
 	@Override
 	public boolean isReachableForTakingThingsOutOfBy(final Entity entity) {
 		setErrorMessage("The " + getName() + " of " + ((Entity) getOwner()).getDescriptionName(true) + " is too far away.");
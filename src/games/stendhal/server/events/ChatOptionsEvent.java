@@ -138,19 +138,12 @@ public class ChatOptionsEvent extends RPEvent {
 		TreeSet<ChatOption> res = new TreeSet<>();
 		Sentence sentence = ConversationParser.parse("");
 
-		final List<Transition> transitions = npc.getTransitions();
-		for (final Transition transition : transitions) {
-			if (transition.getState() != currentState) {
-				continue;
-			}
+		for (final Transition transition : npc.getTransitions(currentState)) {
 			processTransition(npc, player, res, sentence, transition);
 		}
 
 		if (currentState != ConversationStates.IDLE) {
-			for (final Transition transition : transitions) {
-				if (transition.getState() != ConversationStates.ANY) {
-					continue;
-				}
+			for (final Transition transition : npc.getTransitions(ConversationStates.ANY)) {
 				processTransition(npc, player, res, sentence, transition);
 			}
 		}
@@ -166,6 +166,11 @@ public abstract class AbstractQuest implements IQuest {
 		return completed ? 1 : 0;
 	}
 
+	@Override
+	public boolean dependsOnQuestSlotsOnly() {
+		return true;
+	}
+
 	@Override
 	public boolean isRepeatable(final Player player) {
 		// TODO implement
@@ -125,6 +125,12 @@ public class AdventureIsland extends AbstractQuest {
 		return player.hasQuest(QUEST_SLOT) && !isIslandActive(player);
 	}
 
+	@Override
+	public boolean dependsOnQuestSlotsOnly() {
+		// the island zone may be removed without changing the quest slot
+		return false;
+	}
+
 	@Override
 	public boolean isRepeatable(final Player player) {
 		return isCompleted(player)
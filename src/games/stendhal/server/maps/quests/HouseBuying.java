@@ -58,6 +58,12 @@ public class HouseBuying extends AbstractQuest {
 		return quest.isCompleted(player);
 	}
 
+	@Override
+	public boolean dependsOnQuestSlotsOnly() {
+		// a house may be taken back for unpaid taxes
+		return false;
+	}
+
 	@Override
 	public String getNPCName() {
 		return "Barrett Holmes";
@@ -76,6 +76,16 @@ public interface IQuest {
 	 */
 	int getCompletedCount(Player player);
 
+	/**
+	 * Do isStarted, isCompleted and getCompletedCount depend only on the
+	 * quest slots of the player? The quest system keeps the open and
+	 * completed quests of a player until a quest slot changes, quests that
+	 * also look at the world are checked again on every request.
+	 *
+	 * @return true, if only the quest slots are used, false otherwise
+	 */
+	boolean dependsOnQuestSlotsOnly();
+
 	/**
 	 * May the quest be repeated?
 	 *
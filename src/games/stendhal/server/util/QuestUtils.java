@@ -24,6 +24,10 @@ public class QuestUtils {
 	 * @return evaluated slot
 	 */
 	public static String evaluateQuestSlotName(String name) {
+		// most slot names do not have variables
+		if ((name == null) || ((name.indexOf('[') < 0) && (name.indexOf(']') < 0))) {
+			return name;
+		}
 		Map<String, String> params = new HashMap<String, String>();
 		Calendar calendar = Calendar.getInstance();
 		int year = calendar.get(Calendar.YEAR);
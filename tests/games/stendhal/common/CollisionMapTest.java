@@ -18,6 +18,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.awt.geom.Rectangle2D;
 import java.util.BitSet;
+import java.util.Random;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -353,4 +354,66 @@ public class CollisionMapTest {
 				.getWidth(), (int) bob.getHeight()));
 	}
 
+	/**
+	 * Tests rectangles spanning several words against single tile checks.
+	 */
+	@Test
+	public void testCollidesWideMap() {
+		final CollisionMap map = new CollisionMap(150, 10);
+		map.set(64, 3);
+		map.set(130, 7);
+
+		for (int x = 0; x < 150; x++) {
+			for (int width = 1; width <= 80 && x + width <= 150; width++) {
+				for (int y = 0; y < 10; y++) {
+					for (int height = 1; height <= 3 && y + height <= 10; height++) {
+						boolean expected = false;
+						for (int i = x; i < x + width; i++) {
+							for (int j = y; j < y + height; j++) {
+								expected |= map.get(i, j);
+							}
+						}
+						assertThat(map.collides(x, y, width, height), is(expected));
+						assertThat(map.isFree(x, y, width, height), is(!expected));
+					}
+				}
+			}
+		}
+		assertTrue(map.collides(149, 0, 2, 1));
+		assertFalse(map.isFree(-1, 0, 1, 1));
+
+		map.unset(64, 3);
+		assertTrue(map.isFree(0, 0, 100, 10));
+	}
+
+	/**
+	 * Tests random rectangles, also ones reaching out of the map, on a
+	 * randomly filled map against single tile checks.
+	 */
+	@Test
+	public void testCollidesRandomRectangles() {
+		final int width = 200;
+		final int height = 70;
+		final Random random = new Random(42);
+		final CollisionMap map = new CollisionMap(width, height);
+		for (int i = 0; i < width * height / 5; i++) {
+			map.set(random.nextInt(width), random.nextInt(height));
+		}
+
+		for (int n = 0; n < 20000; n++) {
+			final int x = random.nextInt(width + 4) - 2;
+			final int y = random.nextInt(height + 4) - 2;
+			final int w = 1 + random.nextInt((n % 2 == 0) ? 3 : 100);
+			final int h = 1 + random.nextInt(3);
+
+			boolean expected = (x < 0) || (y < 0) || (x + w > width) || (y + h > height);
+			for (int i = Math.max(x, 0); !expected && (i < x + w); i++) {
+				for (int j = Math.max(y, 0); !expected && (j < y + h); j++) {
+					expected = map.get(i, j);
+				}
+			}
+			assertThat(map.collides(x, y, w, h), is(expected));
+			assertThat(map.isFree(x, y, w, h), is(!expected));
+		}
+	}
 }
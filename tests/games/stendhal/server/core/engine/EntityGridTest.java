@@ -0,0 +1,206 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.common.filter.FilterCriteria;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.RPEntity;
+import games.stendhal.server.entity.mapstuff.block.Block;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+import utilities.RPClass.BlockTestHelper;
+
+public class EntityGridTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+		BlockTestHelper.generateRPClasses();
+	}
+
+	/**
+	 * Tests that entities covering several cells are found once.
+	 */
+	@Test
+	public void testCollect() {
+		final EntityGrid grid = new EntityGrid();
+		grid.setSize(64, 64);
+		final Entity big = new Entity() { };
+		big.setPosition(5, 5);
+		big.setSize(20, 20);
+		final Entity small = new Entity() { };
+		small.setPosition(40, 40);
+		grid.add(big);
+		grid.add(small);
+		assertEquals(2, grid.size());
+
+		final List<Entity> found = new ArrayList<Entity>();
+		grid.collect(0, 0, 63, 63, Entity.class, entity -> true, found);
+		assertEquals(2, found.size());
+
+		found.clear();
+		grid.collect(16, 16, 2, 2, Entity.class, entity -> true, found);
+		assertEquals(1, found.size());
+		assertSame(big, found.get(0));
+
+		assertNull(grid.find(50, 50, 1, 1, entity -> true));
+		assertSame(small, grid.find(40, 40, 0, 0, entity -> true));
+	}
+
+	/**
+	 * Tests that moved entities are found at their new position only.
+	 */
+	@Test
+	public void testUpdate() {
+		final EntityGrid grid = new EntityGrid();
+		grid.setSize(64, 64);
+		final Entity entity = new Entity() { };
+		grid.add(entity);
+		entity.setPosition(60, 60);
+		grid.update(entity);
+		assertNull(grid.find(0, 0, 1, 1, other -> true));
+		assertSame(entity, grid.find(60, 60, 0, 0, other -> true));
+
+		// outside of the zone
+		entity.setPosition(-10, 100);
+		grid.update(entity);
+		assertSame(entity, grid.find(-10, 100, 0, 0, other -> true));
+
+		grid.remove(entity);
+		assertEquals(0, grid.size());
+		assertNull(grid.find(-10, 100, 0, 0, other -> true));
+	}
+
+	/**
+	 * Tests that the zone queries follow entity movement.
+	 */
+	@Test
+	public void testZoneQueries() {
+		final StendhalRPZone zone = new StendhalRPZone("grid_test", 100, 100);
+		final Block block = new Block(true);
+		block.setPosition(10, 10);
+		zone.add(block);
+		assertSame(block, zone.getEntityAt(10, 10));
+		assertTrue(zone.collidesObjects(new Entity() { }, new Rectangle(10, 10, 1, 1)));
+
+		block.setPosition(70, 80);
+		assertNull(zone.getEntityAt(10, 10));
+		assertEquals(1, zone.getEntitiesAt(70, 80).size());
+		assertEquals(1, zone.getEntitiesAt(70, 80, Block.class).size());
+		assertEquals(1, zone.getFilteredEntities(new Rectangle(60, 70, 20, 20), new FilterCriteria<Entity>() {
+			@Override
+			public boolean passes(final Entity entity) {
+				return entity instanceof Block;
+			}
+		}).size());
+
+		zone.remove(block);
+		assertTrue(zone.getEntitiesAt(70, 80).isEmpty());
+	}
+
+	/**
+	 * Tests that the nearest entities are the same as found by sorting all
+	 * entities by distance.
+	 */
+	@Test
+	public void testNearest() {
+		final Random random = new Random(1);
+		final EntityGrid grid = new EntityGrid();
+		grid.setSize(100, 80);
+		final List<Entity> all = new ArrayList<Entity>();
+		for (int i = 0; i < 200; i++) {
+			final Entity entity = new Entity() { };
+			entity.setPosition(random.nextInt(100), random.nextInt(80));
+			if (i % 10 == 0) {
+				entity.setSize(1 + random.nextInt(12), 1 + random.nextInt(12));
+			}
+			grid.add(entity);
+			all.add(entity);
+		}
+
+		for (int round = 0; round < 50; round++) {
+			final Entity center = all.get(random.nextInt(all.size()));
+			final double range = 1 + random.nextInt(40);
+			final int limit = 1 + random.nextInt(10);
+
+			final List<Entity> expected = new ArrayList<Entity>();
+			for (final Entity entity : all) {
+				if ((entity != center) && (center.squaredDistance(entity) <= range * range)) {
+					expected.add(entity);
+				}
+			}
+			Collections.sort(expected, new Comparator<Entity>() {
+				@Override
+				public int compare(final Entity e1, final Entity e2) {
+					return Double.compare(center.squaredDistance(e1), center.squaredDistance(e2));
+				}
+			});
+
+			final List<Entity> found = new ArrayList<Entity>();
+			grid.nearest(center, range, limit, Entity.class, entity -> true, found);
+			assertEquals(Math.min(limit, expected.size()), found.size());
+			for (int i = 0; i < found.size(); i++) {
+				// entities at the same distance may be in a different order
+				assertEquals(center.squaredDistance(expected.get(i)), center.squaredDistance(found.get(i)), 0.0);
+			}
+		}
+	}
+
+	/**
+	 * Tests the zone query for the nearest players and friends.
+	 */
+	@Test
+	public void testNearestPlayersAndFriends() {
+		final StendhalRPZone zone = new StendhalRPZone("grid_test", 100, 100);
+		final Player near = PlayerTestHelper.createPlayer("near");
+		near.setPosition(20, 20);
+		zone.add(near);
+		final Player far = PlayerTestHelper.createPlayer("far");
+		far.setPosition(60, 20);
+		zone.add(far);
+		final Entity center = new Entity() { };
+		center.setPosition(10, 20);
+
+		List<RPEntity> found = zone.getNearestPlayersAndFriends(center, 100, 5, entity -> true);
+		assertEquals(2, found.size());
+		assertSame(near, found.get(0));
+		assertSame(far, found.get(1));
+
+		near.setPosition(80, 20);
+		found = zone.getNearestPlayersAndFriends(center, 100, 1, entity -> true);
+		assertEquals(1, found.size());
+		assertSame(far, found.get(0));
+		assertTrue(zone.getNearestPlayersAndFriends(center, 40, 5, entity -> true).isEmpty());
+
+		zone.remove(far);
+		found = zone.getNearestPlayersAndFriends(center, 100, 5, entity -> true);
+		assertEquals(1, found.size());
+		assertSame(near, found.get(0));
+		assertSame(near, zone.findPlayerOrFriend(75, 15, 10, 10, entity -> true));
+	}
+}
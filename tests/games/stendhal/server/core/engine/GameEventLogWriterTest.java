@@ -0,0 +1,44 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import games.stendhal.server.core.events.TurnNotifier;
+
+/**
+ * Tests for the buffer of game events.
+ */
+public class GameEventLogWriterTest {
+
+	/**
+	 * Tests that the oldest events are dropped and counted, when the database
+	 * thread does not accept more batches.
+	 */
+	@Test
+	public void testDropWhenBehind() {
+		// no batch may be handed to the database thread
+		final GameEventLogWriter writer = new GameEventLogWriter(2, 5, 0);
+		for (int i = 0; i < 8; i++) {
+			writer.add(new marauroa.server.game.rp.GameEvent("test", "event", Integer.toString(i)));
+		}
+		assertEquals(5, writer.size());
+		assertEquals(3, writer.getDroppedCount());
+
+		// the buffer waits for the database thread
+		writer.onTurnReached(TurnNotifier.get().getCurrentTurnForDebugging());
+		assertEquals(5, writer.size());
+		TurnNotifier.get().dontNotify(writer);
+	}
+}
@@ -0,0 +1,201 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.events.MovementListener;
+import games.stendhal.server.entity.ActiveEntity;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+public class MovementListenerGridTest {
+	private final List<String> events = new ArrayList<String>();
+	private StendhalRPZone zone;
+	private Player player;
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+		PlayerTestHelper.generatePlayerRPClasses();
+	}
+
+	@Before
+	public void setUp() {
+		events.clear();
+		zone = new StendhalRPZone("movement_listener_test", 100, 100);
+		player = PlayerTestHelper.createPlayer("bob");
+		player.setPosition(5, 10);
+		zone.add(player);
+	}
+
+	/**
+	 * Tests that the listeners get the same notifications as without the
+	 * index, in the order they were registered.
+	 */
+	@Test
+	public void testNotifications() {
+		zone.addMovementListener(new RecordingListener("small", new Rectangle(10, 10, 3, 3)));
+		zone.addMovementListener(new RecordingListener("far", new Rectangle(60, 60, 5, 5)));
+		zone.addMovementListener(new RecordingListener("all", new Rectangle(0, 0, 100, 100)));
+
+		zone.notifyMovement(player, 5, 10, 9, 10);
+		assertEquals(Arrays.asList("all moved"), events);
+
+		events.clear();
+		zone.notifyBeforeMovement(player, 9, 10, 10, 10);
+		zone.notifyMovement(player, 9, 10, 10, 10);
+		assertEquals(Arrays.asList("small before", "all before", "small entered", "all moved"), events);
+
+		events.clear();
+		zone.notifyMovement(player, 12, 12, 13, 13);
+		assertEquals(Arrays.asList("small exited", "all moved"), events);
+
+		events.clear();
+		zone.notifyEntered(player, 62, 64);
+		zone.notifyExited(player, 62, 64);
+		assertEquals(Arrays.asList("far entered", "all entered", "far exited", "all exited"), events);
+	}
+
+	/**
+	 * Tests that listeners may be removed and added while being notified.
+	 */
+	@Test
+	public void testChangeDuringNotification() {
+		final RecordingListener later = new RecordingListener("later", new Rectangle(0, 0, 20, 20));
+		zone.addMovementListener(new RecordingListener("once", new Rectangle(0, 0, 20, 20)) {
+			@Override
+			public void onEntered(final ActiveEntity entity, final StendhalRPZone zone, final int newX, final int newY) {
+				super.onEntered(entity, zone, newX, newY);
+				zone.removeMovementListener(this);
+				zone.addMovementListener(later);
+				// nested notification
+				zone.notifyEntered(entity, newX, newY);
+			}
+		});
+		final RecordingListener removed = new RecordingListener("removed", new Rectangle(0, 0, 20, 20));
+		zone.addMovementListener(removed);
+		zone.addMovementListener(new RecordingListener("remover", new Rectangle(0, 0, 1, 1)) {
+			@Override
+			public void onEntered(final ActiveEntity entity, final StendhalRPZone zone, final int newX, final int newY) {
+				zone.removeMovementListener(removed);
+			}
+		});
+
+		zone.notifyEntered(player, 0, 0);
+		assertEquals(Arrays.asList("once entered", "removed entered", "later entered"), events);
+
+		events.clear();
+		zone.notifyEntered(player, 5, 5);
+		assertEquals(Arrays.asList("later entered"), events);
+	}
+
+	/**
+	 * Tests that entity listeners are found at their new position after
+	 * they moved.
+	 */
+	@Test
+	public void testMovingListener() {
+		final MovingListener listener = new MovingListener();
+		listener.setPosition(30, 30);
+		listener.setSize(2, 2);
+		zone.add(listener);
+		zone.addMovementListener(listener);
+
+		zone.notifyEntered(player, 31, 31);
+		assertEquals(Arrays.asList("moving entered"), events);
+
+		listener.setPosition(80, 20);
+		events.clear();
+		zone.notifyEntered(player, 31, 31);
+		zone.notifyEntered(player, 81, 21);
+		assertEquals(Arrays.asList("moving entered"), events);
+
+		zone.remove(listener);
+		events.clear();
+		zone.notifyEntered(player, 81, 21);
+		assertEquals(0, events.size());
+	}
+
+	private class RecordingListener implements MovementListener {
+		private final String name;
+		private final Rectangle2D area;
+
+		RecordingListener(final String name, final Rectangle2D area) {
+			this.name = name;
+			this.area = area;
+		}
+
+		@Override
+		public Rectangle2D getArea() {
+			return area;
+		}
+
+		@Override
+		public void onEntered(final ActiveEntity entity, final StendhalRPZone zone, final int newX, final int newY) {
+			events.add(name + " entered");
+		}
+
+		@Override
+		public void onExited(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY) {
+			events.add(name + " exited");
+		}
+
+		@Override
+		public void beforeMove(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+			events.add(name + " before");
+		}
+
+		@Override
+		public void onMoved(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+			events.add(name + " moved");
+		}
+	}
+
+	private class MovingListener extends Entity implements MovementListener {
+		@Override
+		public void onEntered(final ActiveEntity entity, final StendhalRPZone zone, final int newX, final int newY) {
+			events.add("moving entered");
+		}
+
+		@Override
+		public void onExited(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY) {
+			events.add("moving exited");
+		}
+
+		@Override
+		public void beforeMove(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+			// not tested
+		}
+
+		@Override
+		public void onMoved(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+			// not tested
+		}
+	}
+}
@@ -20,6 +20,8 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -142,4 +144,29 @@ public class PlayerListTest {
 		assertSame(jack, list.getOnlinePlayer("jAck"));
 	}
 
+	/**
+	 * Tests looking up the players who have a buddy.
+	 */
+	@Test
+	public void testGetPlayersWithBuddy() {
+		final PlayerList list = new PlayerList();
+		final Player jack = PlayerTestHelper.createPlayer("jack");
+		jack.put("buddies", "bob", false);
+		final Player tom = PlayerTestHelper.createPlayer("tom");
+		list.add(jack);
+		list.add(tom);
+		assertEquals(Arrays.asList(jack), list.getPlayersWithBuddy("bob"));
+		assertTrue(list.getPlayersWithBuddy("jack").isEmpty());
+
+		tom.addBuddy("bob", false);
+		list.onBuddyAdded(tom, "bob");
+		assertEquals(2, list.getPlayersWithBuddy("bob").size());
+
+		jack.removeBuddy("bob");
+		list.onBuddyRemoved(jack, "bob");
+		assertEquals(Arrays.asList(tom), list.getPlayersWithBuddy("bob"));
+
+		list.remove(tom);
+		assertTrue(list.getPlayersWithBuddy("bob").isEmpty());
+	}
 }
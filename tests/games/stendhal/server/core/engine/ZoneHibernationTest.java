@@ -0,0 +1,137 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.core.events.ZoneTurnListener;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+public class ZoneHibernationTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+		PlayerTestHelper.generatePlayerRPClasses();
+	}
+
+	@After
+	public void tearDown() {
+		StendhalRPZone.setHibernationTurns(0);
+		TurnNotifier.get().clearForDebugging();
+	}
+
+	/**
+	 * Tests that zones do not hibernate unless it is enabled.
+	 */
+	@Test
+	public void testDisabled() {
+		final StendhalRPZone zone = new StendhalRPZone("hibernation_disabled");
+		for (int i = 0; i < 100; i++) {
+			zone.logic();
+		}
+		assertFalse(zone.isHibernating());
+	}
+
+	/**
+	 * Tests that an empty zone hibernates, keeps notifications of its
+	 * ZoneTurnListeners back and delivers them after a player entered.
+	 */
+	@Test
+	public void testHibernation() {
+		StendhalRPZone.setHibernationTurns(3);
+		final StendhalRPZone zone = new StendhalRPZone("hibernation_test");
+		zone.logic();
+		zone.logic();
+		assertFalse(zone.isHibernating());
+		zone.logic();
+		assertTrue(zone.isHibernating());
+
+		final TurnNotifier notifier = TurnNotifier.get();
+		int turn = notifier.getCurrentTurnForDebugging();
+		final CountingListener listener = new CountingListener(zone);
+		notifier.notifyAtTurn(turn + 1, listener);
+		for (int i = 0; i < 5; i++) {
+			turn++;
+			notifier.logic(turn);
+		}
+		assertEquals(0, listener.count);
+
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		zone.add(player);
+		assertFalse(zone.isHibernating());
+		turn++;
+		notifier.logic(turn);
+		assertEquals(1, listener.count);
+		assertEquals(-1, notifier.getRemainingTurns(listener));
+
+		zone.logic();
+		zone.logic();
+		zone.logic();
+		assertFalse(zone.isHibernating());
+	}
+
+	/**
+	 * Tests that notifications kept back for a hibernating zone can be cancelled.
+	 */
+	@Test
+	public void testDontNotifyParked() {
+		StendhalRPZone.setHibernationTurns(1);
+		final StendhalRPZone zone = new StendhalRPZone("hibernation_cancel");
+		zone.logic();
+		assertTrue(zone.isHibernating());
+
+		final TurnNotifier notifier = TurnNotifier.get();
+		int turn = notifier.getCurrentTurnForDebugging();
+		final CountingListener listener = new CountingListener(zone);
+		notifier.notifyAtTurn(turn + 1, listener);
+		turn++;
+		notifier.logic(turn);
+		notifier.dontNotify(listener);
+
+		zone.add(PlayerTestHelper.createPlayer("alice"));
+		turn++;
+		notifier.logic(turn);
+		assertEquals(0, listener.count);
+	}
+
+	/**
+	 * Counts its notifications.
+	 */
+	private static class CountingListener implements ZoneTurnListener {
+		private final StendhalRPZone zone;
+		private int count;
+
+		CountingListener(final StendhalRPZone zone) {
+			this.zone = zone;
+		}
+
+		@Override
+		public StendhalRPZone getZone() {
+			return zone;
+		}
+
+		@Override
+		public void onTurnReached(final int currentTurn) {
+			count++;
+		}
+	}
+}
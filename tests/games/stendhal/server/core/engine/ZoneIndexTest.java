@@ -0,0 +1,99 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.maps.MockStendlRPWorld;
+
+public class ZoneIndexTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	private static StendhalRPZone createZone(final String name, final int level, final int x,
+			final int y, final int width, final int height) {
+		final StendhalRPZone zone = new StendhalRPZone(name, width, height);
+		zone.setPosition(level, x, y);
+		return zone;
+	}
+
+	/**
+	 * Tests finding zones at world coordinates.
+	 */
+	@Test
+	public void testFind() {
+		final ZoneIndex index = new ZoneIndex();
+		final StendhalRPZone center = createZone("index_center", 0, 0, 0, 128, 128);
+		final StendhalRPZone east = createZone("index_east", 0, 128, 0, 100, 128);
+		final StendhalRPZone west = createZone("index_west", 0, -64, 0, 64, 200);
+		final StendhalRPZone below = createZone("index_below", -1, 0, 0, 128, 128);
+		final StendhalRPZone interior = new StendhalRPZone("index_interior", 20, 20);
+		index.add(center);
+		index.add(east);
+		index.add(west);
+		index.add(below);
+		index.add(interior);
+
+		assertSame(center, index.find(0, 127, 5, 1, 1));
+		assertSame(east, index.find(0, 128, 5, 1, 1));
+		assertSame(west, index.find(0, -1, 150, 1, 1));
+		assertSame(below, index.find(-1, 10, 10, 1, 1));
+		assertNull(index.find(0, 228, 5, 1, 1));
+		assertNull(index.find(0, 10, 128, 1, 1));
+		assertNull(index.find(1, 10, 10, 1, 1));
+		// a large entity at the border touches the neighbour zone
+		assertSame(east, index.find(0, 227, 127, 2, 2));
+
+		index.remove(east);
+		assertNull(index.find(0, 128, 5, 1, 1));
+	}
+
+	/**
+	 * Tests that the world uses the index for zone changes.
+	 */
+	@Test
+	public void testWorld() {
+		final StendhalRPWorld world = SingletonRepository.getRPWorld();
+		final StendhalRPZone zone = createZone("index_world", 5, 1000, 2000, 64, 64);
+		world.addRPZone("index_region", zone);
+		final Entity entity = new Entity() {
+			// just to create an instance
+		};
+		assertSame(zone, world.getZoneAt(5, 1010, 2010, entity));
+		assertNull(world.getZoneAt(5, 1064, 2010, entity));
+
+		final Collection<StendhalRPZone> zones = world.getAllZonesFromRegion("index_region", true, true, null);
+		assertEquals(1, zones.size());
+		assertTrue(world.getAllZonesFromRegion("index_region", false, null, null).isEmpty());
+
+		world.removeZone(zone);
+		assertNull(world.getZoneAt(5, 1010, 2010, entity));
+	}
+}
@@ -0,0 +1,155 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.profiler.TurnProfiler;
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import marauroa.common.game.IRPZone;
+
+public class ZoneLogicExecutorTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+		TurnNotifier.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		TurnNotifier.get().clearForDebugging();
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Tests that operations are only deferred inside parallel zone logic.
+	 */
+	@Test
+	public void testDeferOutsideZoneLogic() {
+		assertFalse(ZoneLogicExecutor.defer(new Runnable() {
+			@Override
+			public void run() {
+				// not executed
+			}
+		}));
+		assertFalse(new ZoneLogicExecutor(1).isParallel());
+		assertTrue(new ZoneLogicExecutor(2).isParallel());
+	}
+
+	/**
+	 * Tests that TurnNotifier registrations of parallel zone logic are applied
+	 * in zone order.
+	 */
+	@Test
+	public void testParallelLogic() {
+		final List<String> notified = Collections.synchronizedList(new ArrayList<String>());
+		final List<IRPZone> zones = new ArrayList<IRPZone>();
+		for (int i = 0; i < 20; i++) {
+			zones.add(new RegisteringZone("zone" + i, notified));
+		}
+
+		new ZoneLogicExecutor(4).logic(zones, TurnProfiler.get());
+		for (final IRPZone zone : zones) {
+			assertTrue(((RegisteringZone) zone).executed);
+		}
+		assertTrue(notified.isEmpty());
+
+		final TurnNotifier notifier = TurnNotifier.get();
+		notifier.logic(notifier.getCurrentTurnForDebugging() + 1);
+		assertEquals(20, notified.size());
+		for (int i = 0; i < 20; i++) {
+			assertEquals("zone" + i, notified.get(i));
+		}
+	}
+
+	/**
+	 * Tests that parallel zone logic changes other zones only after all zones
+	 * are done, and its own zone immediately.
+	 */
+	@Test
+	public void testChangesOfOtherZones() {
+		final StendhalRPZone target = new StendhalRPZone("target", 10, 10);
+		final Entity added = new Entity() {
+			// just to create an instance
+		};
+		final Entity removed = new Entity() {
+			// just to create an instance
+		};
+		final Entity own = new Entity() {
+			// just to create an instance
+		};
+		target.add(removed);
+
+		final boolean[] seen = new boolean[3];
+		final StendhalRPZone source = new StendhalRPZone("source", 10, 10) {
+			@Override
+			public void logic() {
+				target.add(added);
+				target.remove(removed);
+				add(own);
+				seen[0] = added.getZone() == target;
+				seen[1] = removed.getZone() == target;
+				seen[2] = own.getZone() == this;
+			}
+		};
+		final List<IRPZone> zones = new ArrayList<IRPZone>();
+		zones.add(source);
+		zones.add(target);
+
+		new ZoneLogicExecutor(2).logic(zones, TurnProfiler.get());
+		assertFalse(seen[0]);
+		assertTrue(seen[1]);
+		assertTrue(seen[2]);
+		assertSame(target, added.getZone());
+		assertTrue(target.has(added.getID()));
+		assertFalse(target.has(removed.getID()));
+	}
+
+	/**
+	 * A zone that registers a TurnListener in its logic.
+	 */
+	private static class RegisteringZone extends StendhalRPZone {
+		private final List<String> notified;
+		private volatile boolean executed;
+
+		RegisteringZone(final String name, final List<String> notified) {
+			super(name, 10, 10);
+			this.notified = notified;
+		}
+
+		@Override
+		public void logic() {
+			executed = true;
+			TurnNotifier.get().notifyInTurns(0, new TurnListener() {
+				@Override
+				public void onTurnReached(final int currentTurn) {
+					notified.add(getName());
+				}
+			});
+		}
+	}
+}
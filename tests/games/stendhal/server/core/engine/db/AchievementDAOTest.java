@@ -0,0 +1,97 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.rp.achievement.Achievement;
+import games.stendhal.server.core.rp.achievement.Category;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.db.DatabaseFactory;
+
+/**
+ * Tests for the cache of reached achievements.
+ */
+public class AchievementDAOTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		new DatabaseFactory().initializeDatabase();
+		MockStendlRPWorld.get();
+	}
+
+	/**
+	 * Tests that the cached achievements are read again after an achievement was saved.
+	 */
+	@Test
+	public void testReachedAchievementInvalidatesCache() throws Exception {
+		final AchievementDAO dao = new AchievementDAO();
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			final int id = dao.insertAchievement(transaction, createAchievement());
+
+			assertEquals(Collections.emptySet(), dao.loadAllReachedAchievementsOfPlayer(transaction, "achievementcachetest"));
+			assertEquals(Collections.emptySet(), dao.loadAllReachedAchievementsOfPlayer(transaction, "achievementcachetest"));
+			assertEquals(1, dao.getCacheHits());
+			assertEquals(1, dao.getCacheMisses());
+
+			dao.saveReachedAchievement(transaction, id, "achievementcachetest", true, new Timestamp(System.currentTimeMillis()));
+			final Set<String> reached = dao.loadAllReachedAchievementsOfPlayer(transaction, "achievementcachetest");
+			assertEquals(Collections.singleton("test.cache"), reached);
+			assertEquals(1, dao.getCacheHits());
+			assertEquals(2, dao.getCacheMisses());
+
+			// the returned set is a copy
+			reached.clear();
+			assertEquals(Collections.singleton("test.cache"),
+					dao.loadAllReachedAchievementsOfPlayer(transaction, "achievementcachetest"));
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+
+	/**
+	 * Tests that an achievement of a rolled back transaction is not served from the cache.
+	 */
+	@Test
+	public void testRolledBackAchievementNotCached() throws Exception {
+		final AchievementDAO dao = new AchievementDAO();
+		DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			final int id = dao.insertAchievement(transaction, createAchievement());
+			assertEquals(Collections.emptySet(), dao.loadAllReachedAchievementsOfPlayer(transaction, "achievementcachetest"));
+			dao.saveReachedAchievement(transaction, id, "achievementcachetest", true, new Timestamp(System.currentTimeMillis()));
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+
+		transaction = TransactionPool.get().beginWork();
+		try {
+			assertEquals(Collections.emptySet(), dao.loadAllReachedAchievementsOfPlayer(transaction, "achievementcachetest"));
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+
+	private static Achievement createAchievement() {
+		return new Achievement("test.cache", "Cache Test", Category.EXPERIENCE, "test", 1, true, null);
+	}
+}
@@ -0,0 +1,68 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.ChatMessage;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.db.DAORegister;
+import marauroa.server.game.db.DatabaseFactory;
+
+/**
+ * Tests for the postman messages, which use prepared statements.
+ */
+public class PostmanDAOTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		new DatabaseFactory().initializeDatabase();
+		MockStendlRPWorld.get();
+	}
+
+	private static void storeAndDeliver(final PostmanDAO dao) throws Exception {
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			final long now = System.currentTimeMillis();
+			dao.storeMessage(transaction, "alice", "postmantest", "it's me", "P", new Timestamp(now - 1000));
+			dao.storeMessage(transaction, "bob", "postmantest", "hi", "P", new Timestamp(now));
+
+			final List<ChatMessage> messages = dao.getChatMessages(transaction, "postmantest");
+			assertEquals(2, messages.size());
+			assertEquals("it's me", messages.get(0).getMessage());
+
+			dao.markMessagesDelivered(transaction, "postmantest");
+			assertEquals(0, dao.getChatMessages(transaction, "postmantest").size());
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+
+	/**
+	 * Tests storing and delivering messages, in a second transaction after
+	 * the statements of the first one have been closed.
+	 */
+	@Test
+	public void testStoreAndDeliver() throws Exception {
+		final PostmanDAO dao = DAORegister.get().get(PostmanDAO.class);
+		storeAndDeliver(dao);
+		storeAndDeliver(dao);
+	}
+}
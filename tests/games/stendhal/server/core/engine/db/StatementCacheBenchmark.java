@@ -0,0 +1,131 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import marauroa.common.Log4J;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.db.DAORegister;
+import marauroa.server.game.db.DatabaseFactory;
+
+/**
+ * Compares the statements with substituted parameters, which the DAOs used
+ * before, with the prepared statements with bound parameters against the H2
+ * test database. The workload updates the online status and checks ignore
+ * lists. By default every call has its own transaction like in the game,
+ * so that nothing is gained from statements that live longer than a
+ * transaction. This is not run as part of the test suite. Start it with the
+ * test classpath:
+ * <pre>
+ * java games.stendhal.server.core.engine.db.StatementCacheBenchmark [calls] [calls per transaction]
+ * </pre>
+ */
+public class StatementCacheBenchmark {
+
+	private interface Workload {
+		void call(DBTransaction transaction, int i) throws SQLException;
+	}
+
+	private static void setOnlineStatusSubstituted(final DBTransaction transaction, final int i) throws SQLException {
+		final Map<String, Object> params = new HashMap<String, Object>();
+		params.put("onlinestate", "1");
+		params.put("name", "benchmark" + i);
+		transaction.execute("UPDATE character_stats SET online='[onlinestate]' WHERE name='[name]'", params);
+	}
+
+	private static void isIgnoredSubstituted(final DBTransaction transaction, final int i) throws SQLException {
+		final Map<String, Object> params = new HashMap<String, Object>();
+		params.put("charname", "benchmark" + i);
+		params.put("candidate", "benchmark");
+		transaction.querySingleCellInt("SELECT count(*) FROM buddy WHERE charname='[charname]'"
+				+ " AND buddy='[candidate]' AND relationtype='ignore'", params);
+	}
+
+	private static long run(final Workload workload, final int calls, final int callsPerTransaction) throws SQLException {
+		final long start = System.nanoTime();
+		DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			for (int i = 0; i < calls; i++) {
+				workload.call(transaction, i);
+				if ((i + 1) % callsPerTransaction == 0) {
+					TransactionPool.get().commit(transaction);
+					transaction = TransactionPool.get().beginWork();
+				}
+			}
+			TransactionPool.get().commit(transaction);
+		} catch (final SQLException e) {
+			TransactionPool.get().rollback(transaction);
+			throw e;
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static void report(final String name, final int calls, final long nanos) {
+		System.out.println(String.format("%-28s %8.1f ms %10.0f calls/s", name, nanos / 1e6,
+				calls / (nanos / 1e9)));
+	}
+
+	public static void main(final String[] args) throws Exception {
+		final int calls = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+		final int callsPerTransaction = (args.length > 1) ? Integer.parseInt(args[1]) : 1;
+		Log4J.init();
+		new DatabaseFactory().initializeDatabase();
+
+		final StendhalWebsiteDAO websiteDAO = DAORegister.get().get(StendhalWebsiteDAO.class);
+		final StendhalBuddyDAO buddyDAO = DAORegister.get().get(StendhalBuddyDAO.class);
+		final Workload[] substituted = {
+			new Workload() {
+				@Override
+				public void call(final DBTransaction transaction, final int i) throws SQLException {
+					setOnlineStatusSubstituted(transaction, i);
+				}
+			},
+			new Workload() {
+				@Override
+				public void call(final DBTransaction transaction, final int i) throws SQLException {
+					isIgnoredSubstituted(transaction, i);
+				}
+			}
+		};
+		final Workload[] prepared = {
+			new Workload() {
+				@Override
+				public void call(final DBTransaction transaction, final int i) throws SQLException {
+					websiteDAO.setOnlineStatus(transaction, "benchmark" + i, true);
+				}
+			},
+			new Workload() {
+				@Override
+				public void call(final DBTransaction transaction, final int i) throws SQLException {
+					buddyDAO.isIgnored(transaction, "benchmark" + i, "benchmark");
+				}
+			}
+		};
+		final String[] names = { "setOnlineStatus", "isIgnored" };
+
+		// warm up
+		for (int w = 0; w < names.length; w++) {
+			run(substituted[w], calls / 10, callsPerTransaction);
+			run(prepared[w], calls / 10, callsPerTransaction);
+		}
+
+		System.out.println(calls + " calls, " + callsPerTransaction + " calls per transaction");
+		for (int w = 0; w < names.length; w++) {
+			report(names[w] + " substituted", calls, run(substituted[w], calls, callsPerTransaction));
+			report(names[w] + " prepared", calls, run(prepared[w], calls, callsPerTransaction));
+		}
+	}
+}
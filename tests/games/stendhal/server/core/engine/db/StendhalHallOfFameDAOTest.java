@@ -0,0 +1,112 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.maps.MockStendlRPWorld;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.db.DatabaseFactory;
+
+/**
+ * Tests for the cache of the hall of fame.
+ */
+public class StendhalHallOfFameDAOTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		new DatabaseFactory().initializeDatabase();
+		MockStendlRPWorld.get();
+	}
+
+	/**
+	 * Tests that cached points are dropped when points are written.
+	 */
+	@Test
+	public void testPointsInvalidatedOnWrite() throws Exception {
+		final StendhalHallOfFameDAO dao = new StendhalHallOfFameDAO();
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			assertEquals(0, dao.getHallOfFamePoints(transaction, "famecachetest", "~"));
+			assertEquals(0, dao.getHallOfFamePoints(transaction, "famecachetest", "~"));
+			assertEquals(1, dao.getCacheHits());
+			assertEquals(1, dao.getCacheMisses());
+
+			dao.setHallOfFamePoints(transaction, "famecachetest", "~", 42);
+			assertEquals(42, dao.getHallOfFamePoints(transaction, "famecachetest", "~"));
+			assertEquals(1, dao.getCacheHits());
+			assertEquals(2, dao.getCacheMisses());
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+
+	/**
+	 * Tests that points of a rolled back transaction are not served from the cache.
+	 */
+	@Test
+	public void testRolledBackPointsNotCached() throws Exception {
+		final StendhalHallOfFameDAO dao = new StendhalHallOfFameDAO();
+		DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			assertEquals(0, dao.getHallOfFamePoints(transaction, "famecachetest", "~"));
+			dao.setHallOfFamePoints(transaction, "famecachetest", "~", 42);
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+
+		transaction = TransactionPool.get().beginWork();
+		try {
+			assertEquals(0, dao.getHallOfFamePoints(transaction, "famecachetest", "~"));
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+
+	/**
+	 * Tests that a ranking is cached until points of its fame type are written.
+	 */
+	@Test
+	public void testRankingInvalidatedOnWrite() throws Exception {
+		final StendhalHallOfFameDAO dao = new StendhalHallOfFameDAO();
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			dao.setHallOfFamePoints(transaction, "famecachetest1", "^", 10);
+			dao.setHallOfFamePoints(transaction, "famecachetest2", "^", 20);
+			assertEquals(Arrays.asList("famecachetest2", "famecachetest1"),
+					dao.getCharactersByFametype(transaction, "^", 10, false));
+			assertEquals(Arrays.asList("famecachetest2", "famecachetest1"),
+					dao.getCharactersByFametype(transaction, "^", 10, false));
+			assertEquals(1, dao.getCacheHits());
+			assertEquals(1, dao.getCacheMisses());
+
+			// points of an other fame type keep the ranking
+			dao.setHallOfFamePoints(transaction, "famecachetest1", "~", 30);
+			dao.getCharactersByFametype(transaction, "^", 10, false);
+			assertEquals(2, dao.getCacheHits());
+
+			dao.setHallOfFamePoints(transaction, "famecachetest1", "^", 30);
+			assertEquals(Arrays.asList("famecachetest1", "famecachetest2"),
+					dao.getCharactersByFametype(transaction, "^", 10, false));
+			assertEquals(2, dao.getCacheHits());
+			assertEquals(2, dao.getCacheMisses());
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+}
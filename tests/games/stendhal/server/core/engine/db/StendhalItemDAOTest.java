@@ -0,0 +1,169 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.dbcommand.AbstractLogItemEventCommand;
+import games.stendhal.server.core.engine.dbcommand.LogItemEventBatchCommand;
+import games.stendhal.server.core.engine.dbcommand.LogSimpleItemEventCommand;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import marauroa.common.game.RPObject;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.db.DAORegister;
+import marauroa.server.game.db.DatabaseFactory;
+
+/**
+ * Tests for writing the item log in batches.
+ */
+public class StendhalItemDAOTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		new DatabaseFactory().initializeDatabase();
+		MockStendlRPWorld.get();
+	}
+
+	private static RPObject createItem(final String name) {
+		final RPObject item = new RPObject();
+		item.put("name", name);
+		item.put("quantity", 1);
+		return item;
+	}
+
+	/**
+	 * Tests that new items get consecutive logids and that the log entries
+	 * are written in the order they were added.
+	 */
+	@Test
+	public void testBatchedItemLog() throws Exception {
+		final StendhalItemDAO dao = DAORegister.get().get(StendhalItemDAO.class);
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			final Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+			final ItemLogBatch batch = new ItemLogBatch(transaction);
+			final RPObject first = createItem("dagger");
+			final RPObject second = createItem("club");
+
+			dao.itemLogAssignIDIfNotPresent(batch, first, timestamp);
+			dao.itemLogAssignIDIfNotPresent(batch, second, timestamp);
+			final int firstId = batch.getItemId(first);
+			final int secondId = batch.getItemId(second);
+			assertEquals(firstId + 1, secondId);
+			// the logids are put on the items once the rows are written
+			assertFalse(first.has(StendhalItemDAO.ATTR_ITEM_LOGID));
+
+			// an item with a logid keeps it
+			dao.itemLogAssignIDIfNotPresent(batch, first, timestamp);
+			assertEquals(firstId, batch.getItemId(first));
+
+			dao.itemLogWriteEntry(batch, timestamp, second, null, "destroy", "club", "1", "test", null);
+			dao.itemLogWriteEntry(batch, timestamp, first, null, "destroy", "dagger", "1", "test", null);
+			assertEquals(6, batch.size());
+			batch.flush();
+			assertEquals(0, batch.size());
+			assertEquals(firstId, first.getInt(StendhalItemDAO.ATTR_ITEM_LOGID));
+			assertEquals(secondId, second.getInt(StendhalItemDAO.ATTR_ITEM_LOGID));
+
+			ResultSet resultSet = transaction.query("SELECT name FROM item WHERE id=" + secondId, null);
+			assertTrue(resultSet.next());
+			assertEquals("club", resultSet.getString(1));
+
+			final List<String> entries = new ArrayList<String>();
+			resultSet = transaction.query("SELECT itemid, event, param1, param4 FROM itemlog WHERE itemid IN ("
+					+ firstId + ", " + secondId + ") ORDER BY id", null);
+			while (resultSet.next()) {
+				entries.add(resultSet.getInt(1) + " " + resultSet.getString(2) + " "
+						+ resultSet.getString(3) + " '" + resultSet.getString(4) + "'");
+			}
+			assertEquals(4, entries.size());
+			assertEquals(firstId + " register dagger 'null'", entries.get(0));
+			assertEquals(secondId + " register club 'null'", entries.get(1));
+			assertEquals(secondId + " destroy club ''", entries.get(2));
+			assertEquals(firstId + " destroy dagger ''", entries.get(3));
+			assertFalse(resultSet.next());
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+
+	private static AbstractLogItemEventCommand createEvent(final RPObject item, final Timestamp timestamp) {
+		final AbstractLogItemEventCommand command = new LogSimpleItemEventCommand(item, null, "create",
+				item.get("name"), "1", "test", null);
+		command.setEnqueueTime(timestamp);
+		return command;
+	}
+
+	/**
+	 * Tests that an event failing in the middle of a batch is skipped
+	 * without losing the other events, and that its item gets no logid.
+	 */
+	@Test
+	public void testFailingEventInBatch() throws Exception {
+		final StendhalItemDAO dao = DAORegister.get().get(StendhalItemDAO.class);
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			final Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+			final RPObject first = createItem("dagger");
+			final RPObject failing = createItem("club");
+			final RPObject last = createItem("axe");
+
+			final AbstractLogItemEventCommand failingEvent = new AbstractLogItemEventCommand() {
+				@Override
+				protected void log(final ItemLogBatch batch) throws SQLException {
+					dao.itemLogAssignIDIfNotPresent(batch, failing, timestamp);
+					throw new NumberFormatException("bad quantity");
+				}
+			};
+			failingEvent.setEnqueueTime(timestamp);
+
+			new LogItemEventBatchCommand(Arrays.asList(createEvent(first, timestamp), failingEvent,
+					createEvent(last, timestamp))).execute(transaction);
+
+			assertFalse(failing.has(StendhalItemDAO.ATTR_ITEM_LOGID));
+			final int firstId = first.getInt(StendhalItemDAO.ATTR_ITEM_LOGID);
+			final int lastId = last.getInt(StendhalItemDAO.ATTR_ITEM_LOGID);
+
+			final List<String> names = new ArrayList<String>();
+			ResultSet resultSet = transaction.query("SELECT name FROM item WHERE id >= " + firstId
+					+ " AND id <= " + lastId + " ORDER BY id", null);
+			while (resultSet.next()) {
+				names.add(resultSet.getString(1));
+			}
+			assertEquals(Arrays.asList("dagger", "axe"), names);
+
+			final List<String> entries = new ArrayList<String>();
+			resultSet = transaction.query("SELECT itemid, event FROM itemlog WHERE itemid >= " + firstId
+					+ " AND itemid <= " + lastId + " ORDER BY id", null);
+			while (resultSet.next()) {
+				entries.add(resultSet.getInt(1) + " " + resultSet.getString(2));
+			}
+			assertEquals(Arrays.asList(firstId + " register", firstId + " create",
+					lastId + " register", lastId + " create"), entries);
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.maps.MockStendlRPWorld;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.db.DAORegister;
+import marauroa.server.game.db.DatabaseFactory;
+
+/**
+ * Tests for writing counted kills to the kill log.
+ */
+public class StendhalKillLogDAOTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		new DatabaseFactory().initializeDatabase();
+		MockStendlRPWorld.get();
+	}
+
+	/**
+	 * Tests that counted kills are added to existing rows.
+	 */
+	@Test
+	public void testLogKills() throws Exception {
+		final StendhalKillLogDAO dao = DAORegister.get().get(StendhalKillLogDAO.class);
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			final KillLogEntry rat = new KillLogEntry("rat", "C", "killlogtest", "P", "2026-01-02");
+			final KillLogEntry deer = new KillLogEntry("deer", "C", "killlogtest", "P", "2026-01-02");
+			final Map<KillLogEntry, Integer> kills = new HashMap<KillLogEntry, Integer>();
+			kills.put(rat, Integer.valueOf(3));
+			dao.logKills(transaction, kills);
+
+			kills.put(rat, Integer.valueOf(2));
+			kills.put(deer, Integer.valueOf(1));
+			dao.logKills(transaction, kills);
+
+			final ResultSet resultSet = transaction.query("SELECT killed, cnt FROM kills"
+					+ " WHERE killer='killlogtest' ORDER BY killed", null);
+			assertTrue(resultSet.next());
+			assertEquals("deer", resultSet.getString(1));
+			assertEquals(1, resultSet.getInt(2));
+			assertTrue(resultSet.next());
+			assertEquals("rat", resultSet.getString(1));
+			assertEquals(5, resultSet.getInt(2));
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+}
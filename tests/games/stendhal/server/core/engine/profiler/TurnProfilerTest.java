@@ -0,0 +1,97 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.profiler;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import games.stendhal.server.core.events.TurnListener;
+
+public class TurnProfilerTest {
+
+	@After
+	public void tearDown() {
+		TurnProfiler.get().setEnabled(false);
+		TurnProfiler.get().reset();
+	}
+
+	/**
+	 * Tests for the histogram.
+	 */
+	@Test
+	public void testHistogram() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getMeanNanos());
+		for (int i = 0; i < 99; i++) {
+			histogram.record(10000);
+		}
+		histogram.record(5000000);
+		assertEquals(100, histogram.getCount());
+		assertEquals(5000000, histogram.getMaxNanos());
+		assertEquals(99 * 10000 + 5000000, histogram.getTotalNanos());
+		assertEquals(16, histogram.getPercentileMicros(50));
+		assertEquals(16, histogram.getPercentileMicros(99));
+		assertEquals(8192, histogram.getPercentileMicros(100));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMaxNanos());
+	}
+
+	/**
+	 * Tests that nothing is recorded while the profiler is disabled.
+	 */
+	@Test
+	public void testDisabled() {
+		final TurnProfiler profiler = TurnProfiler.get();
+		profiler.beginTurn(1);
+		assertEquals(0, profiler.start());
+		profiler.endPhase(TurnPhase.PLAYER_LOGIC, 0);
+		profiler.endTurn();
+		assertThat(profiler.getReport(), containsString("Recorded turns: 0,"));
+	}
+
+	/**
+	 * Tests recording of phases and listeners.
+	 */
+	@Test
+	public void testRecording() {
+		final TurnProfiler profiler = TurnProfiler.get();
+		profiler.setEnabled(true);
+		final TurnListener listener = new TurnListener() {
+			@Override
+			public void onTurnReached(final int currentTurn) {
+				// do nothing
+			}
+		};
+
+		for (int turn = 1; turn <= TurnProfiler.HISTORY_SIZE + 10; turn++) {
+			profiler.beginTurn(turn);
+			long start = profiler.start();
+			assertTrue(start != 0);
+			start = profiler.endPhase(TurnPhase.PLAYER_LOGIC, start);
+			profiler.endListener(listener, start);
+			profiler.endPhase(TurnPhase.TURN_NOTIFIER, start);
+			profiler.endTurn();
+		}
+
+		assertThat(profiler.getReport(), containsString("Recorded turns: " + (TurnProfiler.HISTORY_SIZE + 10) + ","));
+		assertThat(profiler.getReport(), containsString("player_logic: count=" + (TurnProfiler.HISTORY_SIZE + 10)));
+		assertThat(profiler.getListenerReport(5), containsString(listener.getClass().getName() + ": count="));
+		assertThat(profiler.getOverBudgetReport(5), containsString("(0 since last reset)"));
+	}
+}
@@ -0,0 +1,200 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TurnNotifierTest {
+
+	private TurnNotifier notifier;
+	private int turn;
+
+	@Before
+	public void setUp() {
+		notifier = TurnNotifier.get();
+		notifier.clearForDebugging();
+		turn = notifier.getCurrentTurnForDebugging();
+	}
+
+	@After
+	public void tearDown() {
+		notifier.clearForDebugging();
+	}
+
+	/**
+	 * Advances the notifier turn by turn.
+	 *
+	 * @param turns number of turns
+	 */
+	private void run(final int turns) {
+		for (int i = 0; i < turns; i++) {
+			turn++;
+			notifier.logic(turn);
+		}
+	}
+
+	/**
+	 * Tests that listeners are notified exactly at their turn, including
+	 * turns that are in a later block of the wheel.
+	 */
+	@Test
+	public void testNotifyAtTurn() {
+		final int[] delays = { 1, 2, 255, 256, 257, 1000, 65535, 65536, 70000 };
+		final List<RecordingListener> listeners = new ArrayList<RecordingListener>();
+		for (final int delay : delays) {
+			final RecordingListener listener = new RecordingListener();
+			notifier.notifyAtTurn(turn + delay, listener);
+			listeners.add(listener);
+		}
+
+		final int start = turn;
+		run(70001);
+		for (int i = 0; i < delays.length; i++) {
+			assertEquals(1, listeners.get(i).turns.size());
+			assertEquals(Integer.valueOf(start + delays[i]), listeners.get(i).turns.get(0));
+		}
+		assertTrue(notifier.getEventListForDebugging().isEmpty());
+	}
+
+	/**
+	 * Tests for notifyInTurns.
+	 */
+	@Test
+	public void testNotifyInTurns() {
+		final RecordingListener listener = new RecordingListener();
+		notifier.notifyInTurns(0, listener);
+		run(1);
+		assertEquals(1, listener.turns.size());
+		assertEquals(Integer.valueOf(turn), listener.turns.get(0));
+	}
+
+	/**
+	 * Tests that registrations for the current turn are rejected.
+	 */
+	@Test
+	public void testNotifyInPast() {
+		final RecordingListener listener = new RecordingListener();
+		notifier.notifyAtTurn(turn, listener);
+		assertEquals(-1, notifier.getRemainingTurns(listener));
+		run(2);
+		assertTrue(listener.turns.isEmpty());
+	}
+
+	/**
+	 * Tests that a listener registered twice for the same turn is notified once.
+	 */
+	@Test
+	public void testDuplicate() {
+		final RecordingListener listener = new RecordingListener();
+		notifier.notifyAtTurn(turn + 3, listener);
+		notifier.notifyAtTurn(turn + 3, listener);
+		run(5);
+		assertEquals(1, listener.turns.size());
+	}
+
+	/**
+	 * Tests for dontNotify.
+	 */
+	@Test
+	public void testDontNotify() {
+		final RecordingListener listener = new RecordingListener();
+		final RecordingListener other = new RecordingListener();
+		notifier.notifyAtTurn(turn + 10, listener);
+		notifier.notifyAtTurn(turn + 500, listener);
+		notifier.notifyAtTurn(turn + 10, other);
+		notifier.dontNotify(listener);
+		assertEquals(-1, notifier.getRemainingTurns(listener));
+		run(600);
+		assertTrue(listener.turns.isEmpty());
+		assertEquals(1, other.turns.size());
+	}
+
+	/**
+	 * Tests for getRemainingTurns.
+	 */
+	@Test
+	public void testGetRemainingTurns() {
+		final RecordingListener listener = new RecordingListener();
+		notifier.notifyAtTurn(turn + 300, listener);
+		notifier.notifyAtTurn(turn + 20, listener);
+		assertEquals(20, notifier.getRemainingTurns(listener));
+		run(5);
+		assertEquals(15, notifier.getRemainingTurns(listener));
+		run(15);
+		assertEquals(280, notifier.getRemainingTurns(listener));
+		run(280);
+		assertEquals(-1, notifier.getRemainingTurns(listener));
+		assertEquals(2, listener.turns.size());
+	}
+
+	/**
+	 * Tests that a listener can register itself again when it is notified.
+	 */
+	@Test
+	public void testReregisterOnTurnReached() {
+		final RecordingListener listener = new RecordingListener() {
+			@Override
+			public void onTurnReached(final int currentTurn) {
+				super.onTurnReached(currentTurn);
+				if (turns.size() < 3) {
+					notifier.notifyInTurns(299, this);
+				}
+			}
+		};
+		final int start = turn;
+		notifier.notifyInTurns(299, listener);
+		run(1000);
+		assertEquals(3, listener.turns.size());
+		assertEquals(Integer.valueOf(start + 900), listener.turns.get(2));
+	}
+
+	/**
+	 * Tests that logic() may skip turns or go back in time.
+	 */
+	@Test
+	public void testTurnsOutOfSequence() {
+		final RecordingListener listener = new RecordingListener();
+		final RecordingListener skipped = new RecordingListener();
+		final int start = turn;
+		notifier.notifyAtTurn(start + 1000, listener);
+		notifier.notifyAtTurn(start + 2, skipped);
+
+		notifier.logic(start + 1000);
+		assertEquals(1, listener.turns.size());
+		assertTrue(skipped.turns.isEmpty());
+		assertEquals(-998, notifier.getRemainingTurns(skipped));
+
+		notifier.logic(start + 2);
+		assertEquals(1, skipped.turns.size());
+		turn = start + 2;
+	}
+
+	/**
+	 * Records the turns at which it was notified.
+	 */
+	private static class RecordingListener implements TurnListener {
+		protected final List<Integer> turns = new ArrayList<Integer>();
+
+		@Override
+		public void onTurnReached(final int currentTurn) {
+			turns.add(Integer.valueOf(currentTurn));
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.pathfinder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.maps.MockStendlRPWorld;
+
+/**
+ * Tests for the time sliced path searches.
+ */
+public class PathRequestServiceTest {
+	private StendhalRPZone zone;
+	private Entity entity;
+
+	/** result of the last search, or <code>null</code> */
+	private List<Node> result;
+
+	private final PathListener listener = new PathListener() {
+		@Override
+		public void onPathFound(final List<Node> path) {
+			result = path;
+		}
+	};
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	@Before
+	public void setUp() {
+		zone = new StendhalRPZone("path_request_test", 60, 60);
+		// a wall with a gap at the bottom
+		for (int y = 0; y < 55; y++) {
+			zone.collisionMap.setCollide(30, y);
+		}
+		entity = new Entity() {
+			// just to create an instance
+		};
+		entity.setPosition(5, 5);
+		zone.add(entity);
+		result = null;
+		PathRequestService.get().resetStatistics();
+	}
+
+	@After
+	public void tearDown() {
+		final PathRequestService service = PathRequestService.get();
+		service.configure(0, PathRequestService.DEFAULT_SEARCH_LIMIT);
+		// drop anything left over
+		service.logic();
+	}
+
+	private PathRequest request() {
+		return PathRequestService.get().searchPath(entity, zone, 5, 5,
+				new Rectangle(50, 5, 1, 1), 200, true, listener);
+	}
+
+	/**
+	 * Tests that the listener is notified at once without a budget.
+	 */
+	@Test
+	public void testSynchronous() {
+		PathRequestService.get().configure(0, PathRequestService.DEFAULT_SEARCH_LIMIT);
+		final PathRequest request = request();
+		assertNotNull(result);
+		assertFalse(result.isEmpty());
+		assertTrue(request.isFinished());
+		assertEquals(0, PathRequestService.get().getQueueDepth());
+	}
+
+	/**
+	 * Tests that a search is spread over several turns, and gives the same
+	 * path as a direct search.
+	 */
+	@Test
+	public void testTimeSliced() {
+		final List<Node> expected = Path.searchPath(entity, zone, 5, 5,
+				new Rectangle(50, 5, 1, 1), 200, true);
+
+		final PathRequestService service = PathRequestService.get();
+		service.configure(20, PathRequestService.DEFAULT_SEARCH_LIMIT);
+		final PathRequest request = request();
+		assertNull(result);
+		assertEquals(1, service.getQueueDepth());
+
+		int turns = 0;
+		while (!request.isFinished()) {
+			service.logic();
+			turns++;
+			assertTrue("search does not terminate", turns < 10000);
+		}
+		assertTrue(turns > 1);
+		assertTrue(service.getExhaustedTurns() > 0);
+		assertEquals(0, service.getQueueDepth());
+		assertEquals(expected, result);
+		assertTrue(service.getExpandedNodes() <= 20L * turns);
+	}
+
+	/**
+	 * Tests that searches exceeding the search limit are aborted with an
+	 * empty path.
+	 */
+	@Test
+	public void testSearchLimit() {
+		final PathRequestService service = PathRequestService.get();
+		service.configure(20, 50);
+		final PathRequest request = request();
+		for (int i = 0; i < 10; i++) {
+			service.logic();
+		}
+		assertTrue(request.isFinished());
+		assertNotNull(result);
+		assertTrue(result.isEmpty());
+		assertEquals(1, service.getAborted());
+	}
+
+	/**
+	 * Tests that cancelled requests and requests of entities that left the
+	 * zone do not notify the listener.
+	 */
+	@Test
+	public void testCancel() {
+		final PathRequestService service = PathRequestService.get();
+		service.configure(20, PathRequestService.DEFAULT_SEARCH_LIMIT);
+		request().cancel();
+		request();
+		zone.remove(entity);
+		service.logic();
+		assertNull(result);
+		assertEquals(0, service.getQueueDepth());
+		assertEquals(2, service.getCancelled());
+	}
+}
@@ -0,0 +1,203 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.pathfinder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.maps.MockStendlRPWorld;
+
+/**
+ * Compares the array based search with the TreeNode search.
+ */
+public class PathfinderTest {
+	private static final int WIDTH = 40;
+	private static final int HEIGHT = 30;
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Creates a zone with random collision tiles and resistant entities.
+	 *
+	 * @param random random number generator
+	 * @return zone
+	 */
+	private StendhalRPZone createZone(final Random random) {
+		final StendhalRPZone zone = new StendhalRPZone("pathfinder_test", WIDTH, HEIGHT);
+		for (int i = 0; i < WIDTH * HEIGHT / 4; i++) {
+			zone.collisionMap.setCollide(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+		}
+		for (int i = 0; i < 40; i++) {
+			final Entity obstacle = new Entity() {
+				// just to create an instance
+			};
+			obstacle.setPosition(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+			obstacle.setResistance(20 + random.nextInt(81));
+			zone.add(obstacle);
+		}
+		return zone;
+	}
+
+	/**
+	 * Tests that both searches find the same paths for entities.
+	 */
+	@Test
+	public void testEntityPathfinder() {
+		final Random random = new Random(1);
+		int found = 0;
+		for (int round = 0; round < 5; round++) {
+			final StendhalRPZone zone = createZone(random);
+			final Entity entity = new Entity() {
+				// just to create an instance
+			};
+			zone.add(entity);
+			for (int i = 0; i < 60; i++) {
+				final int x = random.nextInt(WIDTH);
+				final int y = random.nextInt(HEIGHT);
+				final Rectangle destination = new Rectangle(random.nextInt(WIDTH), random.nextInt(HEIGHT), 1 + random.nextInt(2), 1 + random.nextInt(2));
+				final double maxDist = random.nextInt(60);
+
+				final Pathfinder tree = new EntityPathfinder(entity, zone, x, y, destination, maxDist, true);
+				final Pathfinder arrays = new EntityPathfinder(entity, zone, x, y, destination, maxDist, true);
+				final Object[] expected = tree.getPath(false).toArray();
+				assertArrayEquals(expected, arrays.getPath(true).toArray());
+				assertEquals(tree.getStatus(), arrays.getStatus());
+				if (expected.length > 0) {
+					found++;
+				}
+			}
+		}
+		assertTrue(found > 0);
+	}
+
+	/**
+	 * Tests that both searches find the same paths on the collision map.
+	 */
+	@Test
+	public void testSimplePathfinder() {
+		final Random random = new Random(2);
+		final StendhalRPZone zone = createZone(random);
+		for (int i = 0; i < 200; i++) {
+			final int x = random.nextInt(WIDTH);
+			final int y = random.nextInt(HEIGHT);
+			final Rectangle destination = new Rectangle(random.nextInt(WIDTH), random.nextInt(HEIGHT), 1, 1);
+
+			final Pathfinder tree = new SimplePathfinder(zone, x, y, destination, 80);
+			final Pathfinder arrays = new SimplePathfinder(zone, x, y, destination, 80);
+			assertArrayEquals(tree.getPath(false).toArray(), arrays.getPath(true).toArray());
+			assertEquals(tree.getStatus(), arrays.getStatus());
+		}
+	}
+
+	/**
+	 * Tests that the entity resistance follows entities that move, without
+	 * creating a new path finder state for the zone.
+	 */
+	@Test
+	public void testEntityResistanceFollowsEntities() {
+		// a corridor of 10x1 tiles
+		final StendhalRPZone zone = new StendhalRPZone("pathfinder_corridor", 10, 3);
+		for (int x = 0; x < 10; x++) {
+			zone.collisionMap.setCollide(x, 0);
+			zone.collisionMap.setCollide(x, 2);
+		}
+		final Entity entity = new Entity() {
+			// just to create an instance
+		};
+		entity.setPosition(0, 1);
+		zone.add(entity);
+		final Entity blocker = new Entity() {
+			// just to create an instance
+		};
+		blocker.setPosition(5, 1);
+		zone.add(blocker);
+
+		final Rectangle destination = new Rectangle(9, 1, 1, 1);
+		assertTrue(Path.searchPath(entity, zone, 0, 1, destination, 20, true).isEmpty());
+
+		blocker.setResistance(50);
+		assertEquals(10, Path.searchPath(entity, zone, 0, 1, destination, 20, true).size());
+
+		blocker.setResistance(100);
+		zone.remove(blocker);
+		assertEquals(10, Path.searchPath(entity, zone, 0, 1, destination, 20, true).size());
+
+		zone.add(blocker);
+		blocker.setPosition(9, 1);
+		assertTrue(Path.searchPath(entity, zone, 0, 1, destination, 20, true).isEmpty());
+		blocker.setPosition(8, 1);
+		assertTrue(Path.searchPath(entity, zone, 0, 1, destination, 20, true).isEmpty());
+		blocker.setPosition(1, 0);
+		assertEquals(10, Path.searchPath(entity, zone, 0, 1, destination, 20, true).size());
+	}
+
+	/**
+	 * Tests that a search looks up the entities on each tile only once.
+	 */
+	@Test
+	public void testEntityResistanceLookedUpOncePerTile() {
+		final Set<Point> tiles = new HashSet<Point>();
+		final int[] lookups = new int[1];
+		final StendhalRPZone zone = new StendhalRPZone("pathfinder_lookups", WIDTH, HEIGHT) {
+			@Override
+			public synchronized Entity findEntity(final double x, final double y, final double width,
+					final double height, final Predicate<? super Entity> filter) {
+				lookups[0]++;
+				tiles.add(new Point((int) x, (int) y));
+				return super.findEntity(x, y, width, height, filter);
+			}
+		};
+		final Entity obstacle = new Entity() {
+			// just to create an instance
+		};
+		obstacle.setPosition(10, 10);
+		obstacle.setResistance(50);
+		zone.add(obstacle);
+		final Entity entity = new Entity() {
+			// just to create an instance
+		};
+		zone.add(entity);
+
+		for (final boolean useArrays : new boolean[] { false, true }) {
+			tiles.clear();
+			lookups[0] = 0;
+			final Pathfinder pathfinder = new EntityPathfinder(entity, zone, 2, 2,
+					new Rectangle(30, 20, 1, 1), 80, true);
+			assertFalse(pathfinder.getPath(useArrays).isEmpty());
+			assertTrue(lookups[0] > 0);
+			assertEquals(tiles.size(), lookups[0]);
+		}
+	}
+}
@@ -0,0 +1,222 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.rp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.lib.ZeroArgFunction;
+
+import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.core.scripting.lua.LuaQuestHelper;
+import games.stendhal.server.core.scripting.lua.LuaQuestHelper.LuaQuest;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import games.stendhal.server.maps.magic.house1.AdventureIslandRemover;
+import games.stendhal.server.maps.quests.AbstractQuest;
+import games.stendhal.server.maps.quests.AdventureIsland;
+import marauroa.server.game.db.DatabaseFactory;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for the quest lookups and quest overviews of StendhalQuestSystem.
+ */
+public class StendhalQuestSystemTest {
+
+	private static class TestQuest extends AbstractQuest {
+		private final String name;
+
+		TestQuest(final String name, final String title) {
+			this.name = name;
+			fillQuestInfo(title, "description of " + name, true);
+		}
+
+		@Override
+		public String getSlotName() {
+			return name.toLowerCase();
+		}
+
+		@Override
+		public void addToWorld() {
+			// nothing to add
+		}
+
+		@Override
+		public boolean removeFromWorld() {
+			return true;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public List<String> getHistory(final Player player) {
+			return Collections.emptyList();
+		}
+	}
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		new DatabaseFactory().initializeDatabase();
+		MockStendlRPWorld.get();
+	}
+
+	/**
+	 * Tests that the lookups follow loading and unloading of quests.
+	 */
+	@Test
+	public void testLookups() {
+		final StendhalQuestSystem system = StendhalQuestSystem.get();
+		final TestQuest quest = new TestQuest("IndexTestQuest", "Index Test Quest");
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		assertNull(system.getQuest("IndexTestQuest"));
+		assertFalse(system.isLoadedSlot("indextestquest"));
+
+		system.loadQuest(quest);
+		assertSame(quest, system.getQuest("IndexTestQuest"));
+		assertSame(quest, system.getQuestFromSlot("indextestquest"));
+		assertTrue(system.isLoadedSlot("indextestquest"));
+		assertEquals("description of IndexTestQuest", system.getQuestDescription(player, "Index Test Quest"));
+		assertEquals("", system.getQuestDescription(player, "IndexTestQuest"));
+
+		assertTrue(system.unloadQuest("IndexTestQuest"));
+		assertNull(system.getQuest("IndexTestQuest"));
+		assertNull(system.getQuestFromSlot("indextestquest"));
+		assertFalse(system.isLoadedSlot("indextestquest"));
+		assertEquals("", system.getQuestDescription(player, "Index Test Quest"));
+	}
+
+	/**
+	 * Tests that the open and completed quests follow the quest states.
+	 */
+	@Test
+	public void testStatusView() {
+		final StendhalQuestSystem system = StendhalQuestSystem.get();
+		final TestQuest first = new TestQuest("ViewTestQuestOne", "View Test One");
+		final TestQuest second = new TestQuest("ViewTestQuestTwo", "View Test Two");
+		system.loadQuest(first);
+		system.loadQuest(second);
+		try {
+			final Player player = PlayerTestHelper.createPlayer("bob");
+			assertFalse(system.getOpenQuests(player).contains("View Test One"));
+
+			player.setQuest("viewtestquestone", "start");
+			assertTrue(system.getOpenQuests(player).contains("View Test One"));
+			assertFalse(system.getCompletedQuests(player).contains("View Test One"));
+
+			player.setQuest("viewtestquestone", "done");
+			player.setQuest("viewtestquesttwo", "start");
+			assertTrue(system.getCompletedQuests(player).contains("View Test One"));
+			assertTrue(system.getOpenQuests(player).contains("View Test Two"));
+			assertFalse(system.getOpenQuests(player).contains("View Test One"));
+
+			player.removeQuest("viewtestquesttwo");
+			assertFalse(system.getOpenQuests(player).contains("View Test Two"));
+
+			// newly loaded quests are seen without a quest state change
+			final TestQuest third = new TestQuest("ViewTestQuestThree", "View Test Three");
+			player.setQuest("viewtestquestthree", "done");
+			assertFalse(system.getCompletedQuests(player).contains("View Test Three"));
+			system.loadQuest(third);
+			assertTrue(system.getCompletedQuests(player).containsAll(
+					Arrays.asList("View Test One", "View Test Three")));
+			system.unloadQuest(third);
+			assertFalse(system.getCompletedQuests(player).contains("View Test Three"));
+		} finally {
+			system.unloadQuest(first);
+			system.unloadQuest(second);
+		}
+	}
+
+	/**
+	 * Tests that a quest, whose state depends on a zone, is listed as
+	 * completed once the zone is removed without a quest state change.
+	 */
+	@Test
+	public void testStatusViewWithRemovedIsland() {
+		final StendhalQuestSystem system = StendhalQuestSystem.get();
+		final AdventureIsland quest = new AdventureIsland();
+		system.loadQuest(quest);
+		try {
+			final Player player = PlayerTestHelper.createPlayer("islandtester");
+			player.setQuest("adventure_island", "0");
+			final StendhalRPZone island = new StendhalRPZone("islandtester_adventure_island");
+			SingletonRepository.getRPWorld().addRPZone(island);
+
+			assertTrue(system.getOpenQuests(player).contains("Adventure Island"));
+			assertFalse(system.getCompletedQuests(player).contains("Adventure Island"));
+			assertTrue(system.listQuests(player).contains("#'Open Quests': AdventureIsland\r\n"));
+
+			new AdventureIslandRemover(island).onTurnReached(0);
+			assertFalse(system.getOpenQuests(player).contains("Adventure Island"));
+			assertTrue(system.getCompletedQuests(player).contains("Adventure Island"));
+			assertTrue(system.getCompletedQuests(player, true).contains("Adventure Island"));
+			assertTrue(system.listQuests(player).endsWith("#'Completed Quests': AdventureIsland"));
+		} finally {
+			system.unloadQuest(quest.getName());
+		}
+	}
+
+	/**
+	 * Tests that a Lua quest with a check function is not taken from the cached view.
+	 */
+	@Test
+	public void testStatusViewWithLuaCheck() {
+		final StendhalQuestSystem system = StendhalQuestSystem.get();
+		final LuaQuest quest = LuaQuestHelper.get().create("lua_check_test", "Lua Check Test");
+		assertTrue(quest.dependsOnQuestSlotsOnly());
+
+		final boolean[] done = new boolean[1];
+		quest.setCompletedCheckFunction(new ZeroArgFunction() {
+			@Override
+			public LuaValue call() {
+				return LuaValue.valueOf(done[0]);
+			}
+		});
+		assertFalse(quest.dependsOnQuestSlotsOnly());
+		quest.setRemoveFunction(new ZeroArgFunction() {
+			@Override
+			public LuaValue call() {
+				return LuaValue.TRUE;
+			}
+		});
+
+		system.loadQuest(quest);
+		try {
+			final Player player = PlayerTestHelper.createPlayer("luachecktester");
+			player.setQuest("lua_check_test", "start");
+
+			assertTrue(system.getOpenQuests(player).contains("Lua Check Test"));
+			assertFalse(system.getCompletedQuests(player).contains("Lua Check Test"));
+
+			// the quest slot does not change
+			done[0] = true;
+			assertFalse(system.getOpenQuests(player).contains("Lua Check Test"));
+			assertTrue(system.getCompletedQuests(player).contains("Lua Check Test"));
+		} finally {
+			system.unloadQuest(quest.getName());
+		}
+	}
+}
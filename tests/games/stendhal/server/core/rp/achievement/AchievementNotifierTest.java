@@ -0,0 +1,120 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.rp.achievement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.core.rp.achievement.factory.AdosItemQuestAchievementsFactory;
+import games.stendhal.server.core.rp.achievement.factory.FightingAchievementFactory;
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.player.Player;
+import utilities.AchievementTestHelper;
+
+/**
+ * Tests that the triggers reporting changed facts check the achievements
+ * depending on them.
+ */
+public class AchievementNotifierTest extends AchievementTestHelper {
+
+	private Player player;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		AchievementTestHelper.setUpBeforeClass();
+		SingletonRepository.getEntityManager().populateCreatureList();
+	}
+
+	@Before
+	public void setUpPlayer() {
+		player = createPlayer("player");
+		init(player);
+	}
+
+	/**
+	 * Tests that kills are checked only by the achievements about the killed
+	 * creature.
+	 */
+	@Test
+	public void testKillFacts() {
+		player.setSoloKillCount("rat", 15);
+		an.onKill(player, "deer", false);
+		assertFalse(achievementReached(player, FightingAchievementFactory.ID_RATS));
+
+		an.onKill(player, "rat", false);
+		assertTrue(achievementReached(player, FightingAchievementFactory.ID_RATS));
+	}
+
+	/**
+	 * Tests that achievements about kinds of creatures are checked on first
+	 * kills.
+	 */
+	@Test
+	public void testFirstKill() {
+		String rare = null;
+		for (final Creature creature : SingletonRepository.getEntityManager().getCreatures()) {
+			if (creature.isRare()) {
+				rare = creature.getName();
+				break;
+			}
+		}
+		assertNotNull(rare);
+
+		player.setSharedKillCount(rare, 1);
+		an.onKill(player, rare, false);
+		assertFalse(achievementReached(player, FightingAchievementFactory.ID_POACHER));
+
+		an.onKill(player, rare, true);
+		assertTrue(achievementReached(player, FightingAchievementFactory.ID_POACHER));
+	}
+
+	/**
+	 * Tests that quest changes are checked only by the achievements about the
+	 * changed quest.
+	 */
+	@Test
+	public void testQuestFacts() {
+		player.setKeyedSlot("!quests", "daily_item", "done;0;10");
+		an.onFinishQuest(player, "daily");
+		assertFalse(achievementReached(player, AdosItemQuestAchievementsFactory.ID_SUPPORTER));
+
+		an.onFinishQuest(player, "daily_item");
+		assertTrue(achievementReached(player, AdosItemQuestAchievementsFactory.ID_SUPPORTER));
+	}
+
+	/**
+	 * Tests counting the kinds of killed creatures.
+	 */
+	@Test
+	public void testKillKinds() {
+		assertEquals(0, player.getSoloKillKinds());
+		assertEquals(0, player.getSharedKillKinds());
+
+		player.setSoloKill("rat");
+		player.setSoloKill("rat");
+		player.setSharedKill("rat");
+		assertEquals(1, player.getSoloKillKinds());
+		assertEquals(1, player.getSharedKillKinds());
+
+		player.setSoloKill("deer");
+		player.setSoloKillCount("boar", 3);
+		assertEquals(3, player.getSoloKillKinds());
+		assertEquals(1, player.getSharedKillKinds());
+	}
+}
@@ -21,6 +21,7 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -38,6 +39,7 @@ import games.stendhal.server.entity.item.CaptureTheFlagFlag;
 import games.stendhal.server.entity.item.Container;
 import games.stendhal.server.entity.item.Corpse;
 import games.stendhal.server.entity.item.Item;
+import games.stendhal.server.entity.item.StackableItem;
 import games.stendhal.server.entity.player.Player;
 import games.stendhal.server.entity.slot.PlayerSlot;
 import games.stendhal.server.events.AttackEvent;
@@ -205,6 +207,56 @@ public class RPEntityTest {
 		assertEquals(1, entity.getNumberOfEquipped("carrot"));
 	}
 
+	/**
+	 * Tests that the item counts follow changes of the slots, of nested
+	 * containers and of the item quantities.
+	 */
+	@Test
+	public void testItemIndexFollowsChanges() {
+		final RPEntity entity = new MockRPEntity();
+		entity.addSlot(new PlayerSlot("bag"));
+		entity.addSlot(new PlayerSlot("bank"));
+		assertFalse(entity.isEquipped("money"));
+		assertNull(entity.getFirstEquipped("money"));
+
+		final Item first = ItemTestHelper.createItem("money", 5);
+		entity.equip("bag", first);
+		final Item container = new Container("testbag", "container", "testbag", Collections.emptyMap());
+		entity.equip("bag", container);
+		final Item nested = ItemTestHelper.createItem("money", 10);
+		container.getSlot("content").add(nested);
+		assertEquals(15, entity.getNumberOfEquipped("Money"));
+		assertTrue(entity.isEquipped("money", 15));
+		assertFalse(entity.isEquipped("money", 16));
+		assertTrue(entity.getFirstEquipped("money") == first);
+		assertEquals(Arrays.asList(first, nested), entity.getAllEquipped("money"));
+
+		// quantity and name changes of nested items
+		((StackableItem) nested).setQuantity(20);
+		assertEquals(25, entity.getNumberOfEquipped("money"));
+		nested.put("name", "gold bar");
+		assertEquals(5, entity.getNumberOfEquipped("money"));
+		assertEquals(20, entity.getNumberOfEquipped("gold bar"));
+		container.getSlot("content").remove(nested.getID());
+		assertEquals(0, entity.getNumberOfEquipped("gold bar"));
+
+		// the bank is not carried, but counts for the total
+		entity.getSlot("bank").add(ItemTestHelper.createItem("money", 100));
+		assertEquals(5, entity.getNumberOfEquipped("money"));
+		assertEquals(105, entity.getTotalNumberOf("money"));
+		entity.getSlot("bag").remove(first.getID());
+		assertEquals(0, entity.getNumberOfEquipped("money"));
+		assertEquals(100, entity.getTotalNumberOf("money"));
+
+		// plain slots do not report changes
+		entity.addSlot(new RPSlot("pouch"));
+		final Item carrot = ItemTestHelper.createItem("carrot");
+		entity.getSlot("pouch").add(carrot);
+		assertEquals(1, entity.getNumberOfEquipped("carrot"));
+		entity.getSlot("pouch").remove(carrot.getID());
+		assertEquals(0, entity.getNumberOfEquipped("carrot"));
+	}
+
 	/**
 	 * Tests for getItemAtkforsimpleweapon.
 	 */
@@ -626,4 +678,54 @@ public class RPEntityTest {
 		}
 		assertThat(entity.getDef(), is(100));
 	}
+
+	/**
+	 * Tests that the cached item stats always match freshly calculated values.
+	 */
+	@Test
+	public void testCachedItemStatsMatchCalculated() {
+		final RPEntity entity = new MockRPEntity();
+		entity.addSlot(new PlayerSlot("lhand"));
+		entity.addSlot(new PlayerSlot("rhand"));
+		entity.addSlot(new PlayerSlot("armor"));
+		assertItemStatsMatch(entity);
+
+		final Item sword = SingletonRepository.getEntityManager().getItem("l hand sword");
+		entity.getSlot("lhand").add(sword);
+		assertItemStatsMatch(entity);
+		final Item armor = SingletonRepository.getEntityManager().getItem("barbarian armor");
+		entity.getSlot("armor").add(armor);
+		assertItemStatsMatch(entity);
+
+		// attribute changes of an equipped item
+		final float def = entity.getItemDef();
+		armor.put("def", armor.getDefense() + 10);
+		assertItemStatsMatch(entity);
+		assertThat(entity.getItemDef(), greaterThan(def));
+		sword.put("atk", sword.getAttack() + 5);
+		assertItemStatsMatch(entity);
+
+		// level changes affect items with a min_level
+		entity.setLevel(1);
+		assertItemStatsMatch(entity);
+		entity.setLevel(100);
+		assertItemStatsMatch(entity);
+
+		entity.getSlot("armor").remove(armor.getID());
+		assertItemStatsMatch(entity);
+		entity.getSlot("lhand").clear();
+		assertItemStatsMatch(entity);
+		assertThat(entity.getItemAtk(), is(0f));
+
+		// plain slots can not report changes, so nothing gets cached
+		entity.addSlot(new RPSlot("legs"));
+		entity.getSlot("legs").add(SingletonRepository.getEntityManager().getItem("leather legs"));
+		assertItemStatsMatch(entity);
+	}
+
+	private static void assertItemStatsMatch(final RPEntity entity) {
+		assertThat(entity.getItemAtk(), is(entity.calculateItemAtk()));
+		assertThat(entity.getItemRatk(), is(entity.calculateItemRatk()));
+		assertThat(entity.getItemDef(), is(entity.calculateItemDef()));
+	}
 }
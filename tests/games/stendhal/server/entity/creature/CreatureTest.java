@@ -28,6 +28,7 @@ import org.junit.Test;
 import games.stendhal.server.core.engine.StendhalRPZone;
 import games.stendhal.server.entity.RPEntity;
 import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendhalRPRuleProcessor;
 import games.stendhal.server.maps.MockStendlRPWorld;
 import utilities.PlayerTestHelper;
 import utilities.RPClass.CreatureTestHelper;
@@ -37,6 +38,7 @@ public class CreatureTest {
 	@BeforeClass
 	public static void setUpBeforeClass() throws Exception {
 		MockStendlRPWorld.get();
+		MockStendhalRPRuleProcessor.get();
 		CreatureTestHelper.generateRPClasses();
 	}
 
@@ -67,6 +69,44 @@ public class CreatureTest {
 	}
 
 
+	/**
+	 * Tests that getNearestEnemy skips unreachable players in the zone.
+	 */
+	@Test
+	public void testGetNearestEnemyReachable() {
+		final StendhalRPZone zone = new StendhalRPZone("test", 40, 40);
+		final Creature creature = new Creature() {
+			@Override
+			public List<RPEntity> getEnemyList() {
+				return getZone().getPlayerAndFriends();
+			}
+		};
+		creature.setPosition(10, 10);
+		zone.add(creature);
+
+		// walled in
+		final Player near = PlayerTestHelper.createPlayer("near");
+		near.setPosition(14, 10);
+		for (int x = 13; x <= 15; x++) {
+			for (int y = 9; y <= 11; y++) {
+				if ((x != 14) || (y != 10)) {
+					zone.collisionMap.setCollide(x, y);
+				}
+			}
+		}
+		zone.add(near);
+		final Player far = PlayerTestHelper.createPlayer("far");
+		far.setPosition(10, 17);
+		zone.add(far);
+
+		assertSame(far, creature.getNearestEnemy(10));
+		// the failed search is remembered
+		assertSame(far, creature.getNearestEnemy(10));
+		assertNull(creature.getNearestEnemy(5));
+		assertTrue(creature.isEnemyNear(5));
+		assertFalse(creature.isEnemyNear(4));
+	}
+
 	private static List<RPEntity> enemies  = new LinkedList<RPEntity>();
 	private static class MockCreature extends Creature {
 
@@ -29,6 +29,7 @@ import java.lang.reflect.Constructor;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Random;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -279,6 +280,70 @@ public class ItemTest {
 		assertEquals(2, mo.getDefense());
 	}
 
+	/**
+	 * Tests that the parsed stats follow changes of the attributes.
+	 */
+	@Test
+	public void testParsedStatsFollowAttributes() {
+		final Item mo = new Item("name1", "class", "subclass",
+				new HashMap<String, String>());
+		mo.put("atk", 4);
+		mo.put("ratk", 5);
+		mo.put("rate", 3);
+		assertEquals(4, mo.getAttack());
+		assertEquals(5, mo.getRangedAttack());
+		assertEquals(3, mo.getAttackRate());
+
+		// worn out items do not give any bonus
+		mo.put("deterioration", 101);
+		assertEquals(101, mo.getDeterioration());
+		assertEquals(0, mo.getAttack());
+		assertEquals(0, mo.getRangedAttack());
+		mo.repair();
+		assertEquals(0, mo.getDeterioration());
+		assertEquals(4, mo.getAttack());
+
+		mo.remove("ratk");
+		mo.remove("rate");
+		assertEquals(0, mo.getRangedAttack());
+		assertEquals(Item.getDefaultAttackRate(), mo.getAttackRate());
+
+		final RPObject stored = new RPObject();
+		stored.put("atk", 7);
+		stored.put("def", 8);
+		mo.fill(stored);
+		assertEquals(7, mo.getAttack());
+		assertEquals(8, mo.getDefense());
+	}
+
+	/**
+	 * Tests that the parsed stats match the attribute values after random
+	 * changes of the attributes.
+	 */
+	@Test
+	public void testParsedStatsMatchAttributesAfterChanges() {
+		final String[] stats = { "atk", "def", "ratk", "rate", "deterioration" };
+		final Random random = new Random(42);
+		final Item mo = new Item("name1", "class", "subclass",
+				new HashMap<String, String>());
+		for (int i = 0; i < 1000; i++) {
+			final String stat = stats[random.nextInt(stats.length)];
+			if (random.nextInt(4) == 0) {
+				mo.remove(stat);
+			} else {
+				mo.put(stat, random.nextInt(110));
+			}
+
+			final int deterioration = mo.has("deterioration") ? mo.getInt("deterioration") : 0;
+			final boolean worn = deterioration > 100;
+			assertEquals(deterioration, mo.getDeterioration());
+			assertEquals((mo.has("atk") && !worn) ? mo.getInt("atk") : 0, mo.getAttack());
+			assertEquals((mo.has("def") && !worn) ? mo.getInt("def") : 0, mo.getDefense());
+			assertEquals((mo.has("ratk") && !worn) ? mo.getInt("ratk") : 0, mo.getRangedAttack());
+			assertEquals(mo.has("rate") ? mo.getInt("rate") : Item.getDefaultAttackRate(), mo.getAttackRate());
+		}
+	}
+
 	/**
 	 * Tests for isPersistent.
 	 */
@@ -16,6 +16,7 @@ import static games.stendhal.server.entity.npc.ConversationStates.ATTENDING;
 import static games.stendhal.server.entity.npc.ConversationStates.IDLE;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static utilities.SpeakerNPCTestHelper.getReply;
@@ -23,6 +24,8 @@ import static utilities.SpeakerNPCTestHelper.getReply;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import games.stendhal.common.parser.Expression;
+import games.stendhal.common.parser.JokerExprMatcher;
 import games.stendhal.common.parser.Sentence;
 import games.stendhal.server.entity.Entity;
 import games.stendhal.server.entity.npc.ChatAction;
@@ -209,4 +212,36 @@ public class EngineTest {
 		assertEquals(reply, getReply(bob));
 	}
 
+	/**
+	 * Tests that transitions are found by their state and trigger, by joker
+	 * matchers and by jumps from any state.
+	 */
+	@Test
+	public void testLookupTransitions() {
+		final SpeakerNPC bob = new SpeakerNPC("bob");
+		final Engine en = new Engine(bob);
+		en.add(IDLE, "hi", null, false, ATTENDING, "hello", null);
+		en.add(ATTENDING, "job", null, false, ConversationStates.QUESTION_1, "no job", null);
+		en.addMatching(ConversationStates.QUESTION_1, Expression.JOKER, new JokerExprMatcher(), null,
+				false, ATTENDING, "whatever", null);
+		en.add(ConversationStates.ANY, "bye", null, false, IDLE, "bye", null, "bye");
+		assertThat(en.getTransitions(ATTENDING).size(), is(1));
+
+		final Player pete = PlayerTestHelper.createPlayer("player");
+		assertFalse(en.step(pete, "job"));
+		assertTrue(en.step(pete, "hi"));
+		assertEquals(ATTENDING, en.getCurrentState());
+		assertTrue(en.step(pete, "jobs"));
+		assertEquals("no job", getReply(bob));
+		assertTrue(en.step(pete, "something else"));
+		assertEquals("whatever", getReply(bob));
+		assertTrue(en.step(pete, "bye"));
+		assertEquals(IDLE, en.getCurrentState());
+
+		assertTrue(en.remove("bye"));
+		en.setCurrentState(ATTENDING);
+		assertFalse(en.step(pete, "bye"));
+		assertEquals(ATTENDING, en.getCurrentState());
+	}
+
 }
@@ -363,6 +363,37 @@ public class PlayerTest {
 
 	}
 
+	/**
+	 * Tests for the parsed parts of quest states.
+	 */
+	@Test
+	public void testQuestSubStates() {
+		Player player = PlayerTestHelper.createPlayer("questTestPlayer");
+		player.setQuest("testquest", "carrot=5;apple;3;x");
+		assertThat(player.getRequiredItemName("testquest", 0), equalTo("carrot"));
+		assertThat(player.getRequiredItemQuantity("testquest", 0), is(5));
+		assertThat(player.getRequiredItemName("testquest", 1), equalTo("apple"));
+		assertThat(player.getRequiredItemQuantity("testquest", 1), is(1));
+		assertThat(player.getNumberOfRepetitions("testquest", 2), is(3));
+		assertThat(player.getNumberOfRepetitions("testquest", 3), is(0));
+		assertThat(player.getNumberOfRepetitions("testquest", 4), is(0));
+		assertThat(player.getRequiredItemName("testquest", 4), equalTo(""));
+
+		player.setQuest("testquest", 2, "4");
+		assertThat(player.getNumberOfRepetitions("testquest", 2), is(4));
+		player.setQuest("testquest", 0, "carrot=7");
+		assertThat(player.getRequiredItemQuantity("testquest", 0), is(7));
+
+		// changes that do not go through setQuest
+		player.setKeyedSlot("!quests", "testquest", "pear=2;done");
+		assertThat(player.getQuest("testquest", 1), equalTo("done"));
+		assertThat(player.getRequiredItemName("testquest", 0), equalTo("pear"));
+		assertThat(player.getRequiredItemQuantity("testquest", 0), is(2));
+
+		player.removeQuest("testquest");
+		assertThat(player.getQuest("testquest", 0), nullValue());
+	}
+
 	/**
 	 * Test that the damage done by a player is of right type.
 	 */